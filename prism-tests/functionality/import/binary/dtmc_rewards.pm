@@ -0,0 +1,27 @@
+// DTMC with state rewards and labels,
+// for testing export/import of models in binary format (-exportmodel/-importmodel .bin)
+// (dtmc_rewards.bin was generated with: -exportmodel dtmc_rewards.bin -ex)
+
+dtmc
+
+module M
+
+	s : [0..3] init 0;
+
+	[] s=0 -> 0.7:(s'=0) + 0.1:(s'=1) + 0.2:(s'=2);
+	[] s=2 -> 0.9:(s'=0) + 0.1:(s'=3);
+	[] s=1|s=3 -> true;
+
+endmodule
+
+label "goal" = s=1;
+label "fail" = s=3;
+
+rewards "steps"
+	s=0|s=2 : 1;
+endrewards
+
+rewards "time"
+	s=0 : 2;
+	s=2 : 3;
+endrewards
@@ -0,0 +1,18 @@
+// Small DTMC whose probabilities are not exactly representable as floats,
+// for testing matrix compression (-matrixcompression)
+
+dtmc
+
+module M
+
+	s : [0..3] init 0;
+
+	[] s=0 -> 0.7:(s'=0) + 0.1:(s'=1) + 0.2:(s'=2);
+	[] s=2 -> 0.9:(s'=0) + 0.1:(s'=3);
+	[] s=1|s=3 -> true;
+
+endmodule
+
+rewards "steps"
+	s=0|s=2 : 1;
+endrewards
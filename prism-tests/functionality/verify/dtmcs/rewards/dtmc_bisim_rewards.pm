@@ -0,0 +1,20 @@
+// Bisimulation minimisation must preserve rewards:
+// states 1 and 2 are bisimilar w.r.t. labels/transitions,
+// but only 1 has a reward
+
+dtmc
+
+module m
+	s : [0..3] init 0;
+
+	[] s=0 -> 0.5:(s'=1) + 0.5:(s'=2);
+	[] s=1 -> (s'=3);
+	[] s=2 -> (s'=3);
+	[] s=3 -> true;
+endmodule
+
+label "done" = s=3;
+
+rewards
+	s=1 : 10;
+endrewards
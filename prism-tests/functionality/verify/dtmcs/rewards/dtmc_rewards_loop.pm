@@ -0,0 +1,23 @@
+// DTMC with (slowly converging) loops and state rewards,
+// e.g. for testing (interval/optimistic) iteration for expected rewards
+
+dtmc
+
+module M
+
+s:[0..3];
+
+[] s=0 -> 0.9:(s'=0) + 0.05:(s'=1) + 0.05:(s'=2);
+[] s=1 -> 0.5:(s'=0) + 0.5:(s'=3);
+[] s=2 -> 0.8:(s'=2) + 0.2:(s'=3);
+[] s=3 -> 1:(s'=3);
+
+endmodule
+
+rewards "steps"
+s<3 : 1;
+endrewards
+
+rewards "r"
+s=1 : 6;
+endrewards
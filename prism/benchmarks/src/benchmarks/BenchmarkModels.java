@@ -0,0 +1,177 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package benchmarks;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import explicit.ConstructModel;
+import explicit.DTMC;
+import explicit.DTMCSparse;
+import explicit.MDP;
+import explicit.MDPSparse;
+import explicit.Model;
+import parser.ast.ModulesFile;
+import prism.Prism;
+import prism.PrismDevNullLog;
+import prism.PrismException;
+import prism.UndefinedConstants;
+import simulator.ModulesFileModelGenerator;
+
+/**
+ * Helper methods for the benchmarks: building explicit-state models from the PRISM examples.
+ * <br>
+ * Models are specified as a path relative to the examples directory, optionally followed by
+ * a colon and values for undefined constants (in the same format as the -const switch),
+ * e.g. {@code mdps/consensus/coin4.nm:K=2}.
+ * The examples directory is taken from the system property {@code prism.examples}
+ * (default: {@code ../prism-examples}, i.e. relative to the {@code prism} directory).
+ */
+public class BenchmarkModels
+{
+	/** Some DTMCs of increasing size */
+	public static final String DTMC_1 = "simple/dice/dice.pm";
+	public static final String DTMC_2 = "dtmcs/leader_sync/leader4_4.pm";
+	public static final String DTMC_3 = "dtmcs/leader_sync/leader5_6.pm";
+	public static final String DTMC_4 = "dtmcs/leader_sync/leader6_6.pm";
+
+	/** Some MDPs of increasing size */
+	public static final String MDP_1 = "simple/dice/two_dice.nm";
+	public static final String MDP_2 = "mdps/consensus/coin4.nm:K=2";
+	public static final String MDP_3 = "mdps/leader_async/leader6.nm";
+	public static final String MDP_4 = "mdps/consensus/coin6.nm:K=2";
+
+	/**
+	 * Get the directory containing the PRISM examples.
+	 */
+	public static File getExamplesDir()
+	{
+		return new File(System.getProperty("prism.examples", "../prism-examples"));
+	}
+
+	/**
+	 * Create a PRISM instance for use in benchmarks (with all log output discarded),
+	 * set up to use the explicit engine. Note that this still needs PRISM's native libraries
+	 * to be on the library path (see the "benchmarks-run" target of the Makefile).
+	 */
+	public static Prism createPrism() throws PrismException
+	{
+		Prism prism = new Prism(new PrismDevNullLog());
+		prism.setEngine(Prism.EXPLICIT);
+		return prism;
+	}
+
+	/**
+	 * Parse a model, given as "path[:constants]" (see class description),
+	 * and define any undefined constants.
+	 */
+	public static ModulesFile parseModel(Prism prism, String spec) throws PrismException
+	{
+		int i = spec.indexOf(':');
+		String path = i == -1 ? spec : spec.substring(0, i);
+		String consts = i == -1 ? null : spec.substring(i + 1);
+		ModulesFile modulesFile;
+		try {
+			modulesFile = prism.parseModelFile(new File(getExamplesDir(), path));
+		} catch (FileNotFoundException e) {
+			throw new PrismException("File \"" + e.getMessage() + "\" not found (set -Dprism.examples to the PRISM examples directory)");
+		}
+		UndefinedConstants undefinedConstants = new UndefinedConstants(modulesFile, null);
+		undefinedConstants.defineUsingConstSwitch(consts);
+		modulesFile.setUndefinedConstants(undefinedConstants.getMFConstantValues());
+		return modulesFile;
+	}
+
+	/**
+	 * Create a model generator for a model, given as "path[:constants]" (see class description).
+	 */
+	public static ModulesFileModelGenerator createModelGenerator(Prism prism, String spec) throws PrismException
+	{
+		return new ModulesFileModelGenerator(parseModel(prism, spec), prism);
+	}
+
+	/**
+	 * Build an explicit-state model, given as "path[:constants]" (see class description).
+	 * DTMCs and MDPs are converted to their sparse (non-mutable) representation.
+	 */
+	public static Model buildModel(Prism prism, String spec) throws PrismException
+	{
+		Model model = new ConstructModel(prism).constructModel(createModelGenerator(prism, spec));
+		switch (model.getModelType()) {
+		case DTMC:
+			return model instanceof DTMCSparse ? model : new DTMCSparse((DTMC) model);
+		case MDP:
+			return model instanceof MDPSparse ? model : new MDPSparse((MDP) model);
+		default:
+			return model;
+		}
+	}
+
+	/**
+	 * Get the names of the propositions to be preserved for a model: "init" and any attached labels.
+	 */
+	public static List<String> getPropNames(Model model)
+	{
+		List<String> propNames = new ArrayList<>();
+		propNames.add("init");
+		propNames.addAll(model.getLabels());
+		return propNames;
+	}
+
+	/**
+	 * Get the satisfying sets of states for the propositions returned by {@link #getPropNames(Model)}.
+	 */
+	public static List<BitSet> getPropBSs(Model model)
+	{
+		List<BitSet> propBSs = new ArrayList<>();
+		BitSet init = new BitSet();
+		for (int s : model.getInitialStates()) {
+			init.set(s);
+		}
+		propBSs.add(init);
+		for (String label : model.getLabels()) {
+			propBSs.add(model.getLabelStates(label));
+		}
+		return propBSs;
+	}
+
+	/**
+	 * Create a vector of values in [0,1] to use as the input to matrix-vector multiplications.
+	 * The values are deterministic, so that runs are comparable.
+	 */
+	public static double[] createVector(int n)
+	{
+		double[] vect = new double[n];
+		for (int i = 0; i < n; i++) {
+			vect[i] = ((i * 2654435761L) & 0xffff) / 65535.0;
+		}
+		return vect;
+	}
+}
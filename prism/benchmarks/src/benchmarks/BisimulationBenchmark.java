@@ -0,0 +1,91 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package benchmarks;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import explicit.Bisimulation;
+import explicit.Model;
+import prism.Prism;
+import prism.PrismSettings;
+
+/**
+ * Benchmark for bisimulation minimisation ({@link Bisimulation#minimise}) of DTMCs and MDPs,
+ * preserving the initial states and all labels of the model,
+ * using one or more threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BisimulationBenchmark
+{
+	@Param({ BenchmarkModels.DTMC_1, BenchmarkModels.DTMC_2, BenchmarkModels.DTMC_3, BenchmarkModels.DTMC_4, BenchmarkModels.MDP_1, BenchmarkModels.MDP_2, BenchmarkModels.MDP_3 })
+	public String model;
+
+	@Param({ "1", "4" })
+	public int threads;
+
+	private Bisimulation bisim;
+	private Model built;
+	private List<String> propNames;
+	private List<BitSet> propBSs;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception
+	{
+		Prism prism = BenchmarkModels.createPrism();
+		prism.getSettings().set(PrismSettings.PRISM_NUM_THREADS, threads);
+		built = BenchmarkModels.buildModel(prism, model);
+		propNames = BenchmarkModels.getPropNames(built);
+		propBSs = BenchmarkModels.getPropBSs(built);
+		bisim = new Bisimulation(prism);
+	}
+
+	@Benchmark
+	public Model minimise() throws Exception
+	{
+		return bisim.minimise(built, propNames, propBSs);
+	}
+}
@@ -0,0 +1,98 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import explicit.CompressedSparseMatrix;
+import explicit.DTMC;
+import explicit.DTMCSparseCompressed;
+import prism.Prism;
+
+/**
+ * Benchmark for a single iteration of matrix-vector multiplication for DTMCs
+ * (calling {@link DTMC#mvMultSingle} for every state), as used in value iteration.
+ * The transition matrix is stored either as a {@link explicit.DTMCSparse}
+ * or in compressed form ({@link DTMCSparseCompressed}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DTMCSparseBenchmark
+{
+	@Param({ BenchmarkModels.DTMC_1, BenchmarkModels.DTMC_2, BenchmarkModels.DTMC_3, BenchmarkModels.DTMC_4 })
+	public String model;
+
+	@Param({ "none", "dictionary", "float" })
+	public String compression;
+
+	private DTMC dtmc;
+	private double[] vect;
+	private double[] result;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception
+	{
+		Prism prism = BenchmarkModels.createPrism();
+		dtmc = (DTMC) BenchmarkModels.buildModel(prism, model);
+		switch (compression) {
+		case "dictionary":
+			dtmc = new DTMCSparseCompressed(dtmc, CompressedSparseMatrix.Encoding.DICTIONARY);
+			break;
+		case "float":
+			dtmc = new DTMCSparseCompressed(dtmc, CompressedSparseMatrix.Encoding.FLOAT);
+			break;
+		}
+		vect = BenchmarkModels.createVector(dtmc.getNumStates());
+		result = new double[dtmc.getNumStates()];
+	}
+
+	@Benchmark
+	public double[] mvMultSingle()
+	{
+		for (int s = 0, n = dtmc.getNumStates(); s < n; s++) {
+			result[s] = dtmc.mvMultSingle(s, vect);
+		}
+		return result;
+	}
+}
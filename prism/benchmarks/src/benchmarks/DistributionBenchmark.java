@@ -0,0 +1,161 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import explicit.Distribution;
+
+/**
+ * Benchmark for building and iterating over many small distributions, as done during
+ * explicit model construction and numerical computation, comparing {@link Distribution}
+ * (sorted primitive arrays) with a {@code HashMap<Integer, Double>}, as it used to be stored.
+ * The allocation rate reported by the GC profiler ({@code gc.alloc.rate.norm}, bytes per operation)
+ * gives the memory cost of building the distributions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistributionBenchmark
+{
+	/** Number of distributions */
+	private static final int NUM_DISTRS = 10000;
+	/** Number of successor states (size of the vector multiplied with) */
+	private static final int NUM_STATES = 100000;
+
+	@Param({ "2", "8", "32" })
+	public int support;
+
+	private int[][] succs;
+	private double[] vect;
+	private Distribution[] distrs;
+	private Map<Integer, Double>[] maps;
+
+	@SuppressWarnings("unchecked")
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		// Random (sorted) successors for each distribution
+		Random random = new Random(42);
+		succs = new int[NUM_DISTRS][];
+		for (int i = 0; i < NUM_DISTRS; i++) {
+			succs[i] = random.ints(0, NUM_STATES).distinct().limit(support).sorted().toArray();
+		}
+		vect = new double[NUM_STATES];
+		for (int s = 0; s < NUM_STATES; s++) {
+			vect[s] = random.nextDouble();
+		}
+		distrs = buildDistributions();
+		maps = buildMaps();
+	}
+
+	@Benchmark
+	public Distribution[] buildDistributions()
+	{
+		Distribution[] result = new Distribution[NUM_DISTRS];
+		double prob = 1.0 / support;
+		for (int i = 0; i < NUM_DISTRS; i++) {
+			Distribution distr = new Distribution();
+			for (int j : succs[i]) {
+				distr.add(j, prob);
+			}
+			result[i] = distr;
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Benchmark
+	public Map<Integer, Double>[] buildMaps()
+	{
+		Map<Integer, Double>[] result = new Map[NUM_DISTRS];
+		double prob = 1.0 / support;
+		for (int i = 0; i < NUM_DISTRS; i++) {
+			Map<Integer, Double> map = new HashMap<>();
+			for (int j : succs[i]) {
+				// (as for the former Distribution.add)
+				Double d = map.get(j);
+				map.put(j, d == null ? prob : d + prob);
+			}
+			result[i] = map;
+		}
+		return result;
+	}
+
+	@Benchmark
+	public double sumOverDistributions()
+	{
+		double sum = 0.0;
+		for (Distribution distr : distrs) {
+			sum += distr.sumOver((j, prob) -> prob * vect[j]);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double iterateDistributions()
+	{
+		double sum = 0.0;
+		for (Distribution distr : distrs) {
+			for (Map.Entry<Integer, Double> e : distr) {
+				sum += e.getValue() * vect[e.getKey()];
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double iterateMaps()
+	{
+		double sum = 0.0;
+		for (Map<Integer, Double> map : maps) {
+			for (Map.Entry<Integer, Double> e : map.entrySet()) {
+				sum += e.getValue() * vect[e.getKey()];
+			}
+		}
+		return sum;
+	}
+}
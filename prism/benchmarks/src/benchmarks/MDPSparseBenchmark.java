@@ -0,0 +1,99 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import explicit.CompressedSparseMatrix;
+import explicit.MDP;
+import explicit.MDPSparseCompressed;
+import prism.Prism;
+
+/**
+ * Benchmark for a single iteration of matrix-vector multiplication with min/max for MDPs
+ * ({@link MDP#mvMultMinMax}), as used in value iteration.
+ * The transition matrix is stored either as an {@link explicit.MDPSparse}
+ * or in compressed form ({@link MDPSparseCompressed}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MDPSparseBenchmark
+{
+	@Param({ BenchmarkModels.MDP_1, BenchmarkModels.MDP_2, BenchmarkModels.MDP_3, BenchmarkModels.MDP_4 })
+	public String model;
+
+	@Param({ "none", "dictionary", "float" })
+	public String compression;
+
+	@Param({ "true", "false" })
+	public boolean min;
+
+	private MDP mdp;
+	private double[] vect;
+	private double[] result;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception
+	{
+		Prism prism = BenchmarkModels.createPrism();
+		mdp = (MDP) BenchmarkModels.buildModel(prism, model);
+		switch (compression) {
+		case "dictionary":
+			mdp = new MDPSparseCompressed(mdp, CompressedSparseMatrix.Encoding.DICTIONARY);
+			break;
+		case "float":
+			mdp = new MDPSparseCompressed(mdp, CompressedSparseMatrix.Encoding.FLOAT);
+			break;
+		}
+		vect = BenchmarkModels.createVector(mdp.getNumStates());
+		result = new double[mdp.getNumStates()];
+	}
+
+	@Benchmark
+	public double[] mvMultMinMax()
+	{
+		mdp.mvMultMinMax(vect, min, result, null, false, null);
+		return result;
+	}
+}
@@ -0,0 +1,105 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import explicit.Model;
+import explicit.SCCComputer;
+import explicit.SCCConsumer;
+import prism.Prism;
+
+/**
+ * Benchmark for SCC computation using Tarjan's algorithm, implemented either iteratively
+ * ({@link explicit.SCCComputerTarjanIterative}) or recursively ({@link explicit.SCCComputerTarjan}),
+ * reporting all SCCs (including trivial ones) to a consumer that just counts them.
+ * Run with a large thread stack size (e.g. -Xss64m) to avoid stack overflows for the recursive version.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SCCBenchmark
+{
+	@Param({ BenchmarkModels.DTMC_2, BenchmarkModels.DTMC_3, BenchmarkModels.DTMC_4, BenchmarkModels.MDP_2, BenchmarkModels.MDP_3, BenchmarkModels.MDP_4 })
+	public String model;
+
+	@Param({ "TARJAN", "TARJAN_RECURSIVE" })
+	public SCCComputer.SCCMethod method;
+
+	private Prism prism;
+	private Model built;
+	private int numSCCs;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception
+	{
+		prism = BenchmarkModels.createPrism();
+		built = BenchmarkModels.buildModel(prism, model);
+	}
+
+	@Benchmark
+	public int tarjan() throws Exception
+	{
+		numSCCs = 0;
+		SCCConsumer consumer = new SCCConsumer()
+		{
+			@Override
+			public void notifyStartSCC()
+			{
+				numSCCs++;
+			}
+
+			@Override
+			public void notifyStateInSCC(int stateIndex)
+			{
+			}
+
+			@Override
+			public void notifyEndSCC()
+			{
+			}
+		};
+		SCCComputer.createSCCComputer(prism, method, built, consumer).computeSCCs(false);
+		return numSCCs;
+	}
+}
@@ -99,6 +99,8 @@ const int EXPORT_ADV_MDP = 3;
 
 const int REACH_BFS = 1;
 const int REACH_FRONTIER = 2;
+const int REACH_CHAINING = 3;
+const int REACH_SATURATION = 4;
 
 //------------------------------------------------------------------------------
 
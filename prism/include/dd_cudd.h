@@ -41,5 +41,11 @@ void DD_ReportExternalRefCounts(DdManager *ddman);
 void DD_GetExternalRefCounts(DdManager *ddman, std::map<DdNode*,int>& external_refs);
 bool DD_GetErrorFlag(DdManager *ddman);
 void DD_SetErrorFlag();
+bool DD_MakeVarGroup(DdManager *ddman, int low, int size, bool fixed);
+void DD_FreeVarGroups(DdManager *ddman);
+bool DD_ReorderSift(DdManager *ddman, bool converge);
+int DD_GetVarLevel(DdManager *ddman, int i);
+bool DD_RestoreIndexOrder(DdManager *ddman);
+long DD_GetNumLiveNodes(DdManager *ddman);
 
 //------------------------------------------------------------------------------
@@ -31,6 +31,14 @@ JNIEXPORT jlong JNICALL Java_dv_DoubleVector_DV_1CreateZeroVector
 JNIEXPORT jlong JNICALL Java_dv_DoubleVector_DV_1ConvertMTBDD
   (JNIEnv *, jobject, jlong, jlong, jint, jlong);
 
+/*
+ * Class:     dv_DoubleVector
+ * Method:    DV_GetBuffer
+ * Signature: (JI)Ljava/nio/ByteBuffer;
+ */
+JNIEXPORT jobject JNICALL Java_dv_DoubleVector_DV_1GetBuffer
+  (JNIEnv *, jobject, jlong, jint);
+
 /*
  * Class:     dv_DoubleVector
  * Method:    DV_GetElement
@@ -23,6 +23,14 @@ JNIEXPORT jlong JNICALL Java_dv_IntegerVector_IV_1CreateZeroVector
 JNIEXPORT jlong JNICALL Java_dv_IntegerVector_IV_1ConvertMTBDD
   (JNIEnv *, jobject, jlong, jlong, jint, jlong);
 
+/*
+ * Class:     dv_IntegerVector
+ * Method:    IV_GetBuffer
+ * Signature: (JI)Ljava/nio/ByteBuffer;
+ */
+JNIEXPORT jobject JNICALL Java_dv_IntegerVector_IV_1GetBuffer
+  (JNIEnv *, jobject, jlong, jint);
+
 /*
  * Class:     dv_IntegerVector
  * Method:    IV_GetElement
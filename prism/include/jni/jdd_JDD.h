@@ -143,6 +143,54 @@ JNIEXPORT void JNICALL Java_jdd_JDD_DD_1Deref
 JNIEXPORT void JNICALL Java_jdd_JDD_DD_1PrintCacheInfo
   (JNIEnv *, jclass);
 
+/*
+ * Class:     jdd_JDD
+ * Method:    DD_MakeVarGroup
+ * Signature: (IIZ)Z
+ */
+JNIEXPORT jboolean JNICALL Java_jdd_JDD_DD_1MakeVarGroup
+  (JNIEnv *, jclass, jint, jint, jboolean);
+
+/*
+ * Class:     jdd_JDD
+ * Method:    DD_FreeVarGroups
+ * Signature: ()V
+ */
+JNIEXPORT void JNICALL Java_jdd_JDD_DD_1FreeVarGroups
+  (JNIEnv *, jclass);
+
+/*
+ * Class:     jdd_JDD
+ * Method:    DD_ReorderSift
+ * Signature: (Z)Z
+ */
+JNIEXPORT jboolean JNICALL Java_jdd_JDD_DD_1ReorderSift
+  (JNIEnv *, jclass, jboolean);
+
+/*
+ * Class:     jdd_JDD
+ * Method:    DD_GetVarLevel
+ * Signature: (I)I
+ */
+JNIEXPORT jint JNICALL Java_jdd_JDD_DD_1GetVarLevel
+  (JNIEnv *, jclass, jint);
+
+/*
+ * Class:     jdd_JDD
+ * Method:    DD_RestoreIndexOrder
+ * Signature: ()Z
+ */
+JNIEXPORT jboolean JNICALL Java_jdd_JDD_DD_1RestoreIndexOrder
+  (JNIEnv *, jclass);
+
+/*
+ * Class:     jdd_JDD
+ * Method:    DD_GetNumLiveNodes
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL Java_jdd_JDD_DD_1GetNumLiveNodes
+  (JNIEnv *, jclass);
+
 /*
  * Class:     jdd_JDD
  * Method:    DD_GetErrorFlag
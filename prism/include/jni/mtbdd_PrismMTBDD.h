@@ -63,6 +63,14 @@ JNIEXPORT jstring JNICALL Java_mtbdd_PrismMTBDD_PM_1GetErrorMessage
 JNIEXPORT jlong JNICALL Java_mtbdd_PrismMTBDD_PM_1Reachability
   (JNIEnv *, jclass, jlong, jlong, jint, jlong, jint, jlong);
 
+/*
+ * Class:     mtbdd_PrismMTBDD
+ * Method:    PM_ReachabilityPartitioned
+ * Signature: ([JJIJIJ)J
+ */
+JNIEXPORT jlong JNICALL Java_mtbdd_PrismMTBDD_PM_1ReachabilityPartitioned
+  (JNIEnv *, jclass, jlongArray, jlong, jint, jlong, jint, jlong);
+
 /*
  * Class:     mtbdd_PrismMTBDD
  * Method:    PM_Prob1
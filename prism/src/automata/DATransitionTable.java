@@ -0,0 +1,155 @@
+//==============================================================================
+//	
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+package automata;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import acceptance.AcceptanceOmega;
+import prism.PrismNotSupportedException;
+
+/**
+ * Compiled transition table for a deterministic automaton with BitSet edge labels,
+ * for fast lookup of successors, e.g. during product construction.
+ * <br>
+ * Edge labels (valuations of the automaton's APs) are encoded as integers,
+ * with bit k set iff AP k of the automaton's AP list is true (see {@link #getCode(BitSet)}).
+ * If the table for all states and valuations is small enough, it is stored densely,
+ * indexed by state and valuation code. Otherwise, the valuation codes of the edges
+ * from each state are stored in sorted order and looked up by binary search.
+ */
+public class DATransitionTable
+{
+	/**
+	 * Maximum number of APs supported (valuations are encoded as longs).
+	 * Since edge labels of a (complete) DA are single valuations, i.e., each state
+	 * has 2^numAPs edges, automata with more APs than this cannot be built anyway.
+	 */
+	public static final int MAX_NUM_APS = 63;
+	/** Maximum number of entries (states x valuations) for a dense table */
+	public static final long MAX_DENSE_ENTRIES = 1L << 24;
+
+	/** Number of states of the automaton */
+	private int size;
+	/** Number of APs of the automaton */
+	private int numAPs;
+	/** Dense table: successor of state q for valuation code c is dense[(q << numAPs) | c] (or -1) */
+	private int[] dense;
+	/** Sparse table: sorted valuation codes for the edges of each state */
+	private long[][] sparseCodes;
+	/** Sparse table: successors for the edges of each state (ordered as for sparseCodes) */
+	private int[][] sparseDests;
+
+	/**
+	 * Compile the transition table for a deterministic automaton.
+	 */
+	public DATransitionTable(DA<BitSet, ? extends AcceptanceOmega> da) throws PrismNotSupportedException
+	{
+		size = da.size();
+		numAPs = da.getAPList().size();
+		if (numAPs > MAX_NUM_APS) {
+			throw new PrismNotSupportedException("Too many atomic propositions (" + numAPs + ") in deterministic automaton");
+		}
+		// (check numAPs first, since shifting by 63 or more would overflow)
+		if (numAPs < 31 && ((long) size << numAPs) <= MAX_DENSE_ENTRIES) {
+			dense = new int[(int) ((long) size << numAPs)];
+			Arrays.fill(dense, -1);
+			for (int q = 0; q < size; q++) {
+				for (int j = 0, n = da.getNumEdges(q); j < n; j++) {
+					dense[(q << numAPs) | (int) getCode(da.getEdgeLabel(q, j))] = da.getEdgeDest(q, j);
+				}
+			}
+		} else {
+			sparseCodes = new long[size][];
+			sparseDests = new int[size][];
+			for (int q = 0; q < size; q++) {
+				int n = da.getNumEdges(q);
+				long[] codes = new long[n];
+				for (int j = 0; j < n; j++) {
+					codes[j] = getCode(da.getEdgeLabel(q, j));
+				}
+				// Sort codes, then store the successor of each edge at the position of its code
+				// (codes are distinct, since the automaton is deterministic)
+				long[] sorted = codes.clone();
+				Arrays.sort(sorted);
+				sparseCodes[q] = sorted;
+				sparseDests[q] = new int[n];
+				for (int j = 0; j < n; j++) {
+					sparseDests[q][Arrays.binarySearch(sorted, codes[j])] = da.getEdgeDest(q, j);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the integer encoding of a valuation of the APs, given as a BitSet
+	 * (bit k is set iff AP k is true). Only the first {@link #MAX_NUM_APS} bits are used.
+	 */
+	public static long getCode(BitSet valuation)
+	{
+		long[] words = valuation.toLongArray();
+		return words.length == 0 ? 0 : words[0] & Long.MAX_VALUE;
+	}
+
+	/**
+	 * Get the number of states of the automaton.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Get the number of APs of the automaton.
+	 */
+	public int getNumAPs()
+	{
+		return numAPs;
+	}
+
+	/**
+	 * Returns true if the table is stored densely.
+	 */
+	public boolean isDense()
+	{
+		return dense != null;
+	}
+
+	/**
+	 * Get the destination of the edge from state {@code q} whose label
+	 * has integer encoding {@code code} (see {@link #getCode(BitSet)}).
+	 * Returns -1 if no such edge is found.
+	 */
+	public int getEdgeDest(int q, long code)
+	{
+		if (dense != null) {
+			return dense[(q << numAPs) | (int) code];
+		}
+		int j = Arrays.binarySearch(sparseCodes[q], code);
+		return j < 0 ? -1 : sparseDests[q][j];
+	}
+}
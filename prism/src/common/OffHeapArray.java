@@ -0,0 +1,245 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Arrays of primitive values stored outside the Java heap and indexed by {@code long},
+ * so that they are not limited to 2^31-1 elements and do not count towards the heap size.
+ * <br><br>
+ * Storage is split into chunks of {@link #CHUNK_SIZE} elements, each of which is a buffer
+ * that is either allocated directly (see {@link ByteBuffer#allocateDirect}; note that
+ * the total is then limited by the JVM option {@code -XX:MaxDirectMemorySize})
+ * or is a read-only memory-mapped region of a file (see {@link FileChannel#map}).
+ */
+public abstract class OffHeapArray
+{
+	/** Log (base 2) of the number of elements per chunk */
+	public static final int CHUNK_SHIFT = 27;
+	/** Number of elements per chunk */
+	public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	/** Mask to get the index within a chunk */
+	protected static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/** Number of elements */
+	protected final long length;
+
+	protected OffHeapArray(long length)
+	{
+		if (length < 0) {
+			throw new IllegalArgumentException("Negative array length " + length);
+		}
+		this.length = length;
+	}
+
+	/**
+	 * Get the number of elements in this array.
+	 */
+	public long length()
+	{
+		return length;
+	}
+
+	/**
+	 * Get the number of chunks needed for an array of the given length.
+	 */
+	protected static int numChunks(long length)
+	{
+		return (int) ((length + CHUNK_MASK) >>> CHUNK_SHIFT);
+	}
+
+	/**
+	 * Get the number of elements in chunk {@code c} of an array of the given length.
+	 */
+	protected static int chunkLength(long length, int c)
+	{
+		return (int) Math.min(CHUNK_SIZE, length - ((long) c << CHUNK_SHIFT));
+	}
+
+	/**
+	 * Allocate (zero-initialised) direct buffers for an array of the given length,
+	 * using the native byte order.
+	 */
+	protected static ByteBuffer[] allocateChunks(long length, int bytesPerElement)
+	{
+		ByteBuffer chunks[] = new ByteBuffer[numChunks(length)];
+		for (int c = 0; c < chunks.length; c++) {
+			chunks[c] = ByteBuffer.allocateDirect(chunkLength(length, c) * bytesPerElement).order(ByteOrder.nativeOrder());
+		}
+		return chunks;
+	}
+
+	/**
+	 * Map (read-only) the region of a file starting at {@code position}
+	 * and containing an array of the given length, stored with the given byte order.
+	 */
+	protected static ByteBuffer[] mapChunks(FileChannel channel, long position, long length, int bytesPerElement, ByteOrder order) throws IOException
+	{
+		ByteBuffer chunks[] = new ByteBuffer[numChunks(length)];
+		for (int c = 0; c < chunks.length; c++) {
+			long start = position + ((long) c << CHUNK_SHIFT) * bytesPerElement;
+			chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, start, (long) chunkLength(length, c) * bytesPerElement).order(order);
+		}
+		return chunks;
+	}
+
+	/**
+	 * Off-heap array of {@code int}s.
+	 */
+	public static final class OfInt extends OffHeapArray
+	{
+		private final IntBuffer chunks[];
+
+		private OfInt(long length, ByteBuffer bytes[])
+		{
+			super(length);
+			chunks = new IntBuffer[bytes.length];
+			for (int c = 0; c < bytes.length; c++) {
+				chunks[c] = bytes[c].asIntBuffer();
+			}
+		}
+
+		/**
+		 * Allocate a new array of the given length (initially all zero).
+		 */
+		public static OfInt allocate(long length)
+		{
+			return new OfInt(length, allocateChunks(length, Integer.BYTES));
+		}
+
+		/**
+		 * Map (read-only) an array of the given length stored in a file, starting at {@code position}.
+		 */
+		public static OfInt map(FileChannel channel, long position, long length, ByteOrder order) throws IOException
+		{
+			return new OfInt(length, mapChunks(channel, position, length, Integer.BYTES, order));
+		}
+
+		public int get(long i)
+		{
+			return chunks[(int) (i >>> CHUNK_SHIFT)].get((int) (i & CHUNK_MASK));
+		}
+
+		public void set(long i, int value)
+		{
+			chunks[(int) (i >>> CHUNK_SHIFT)].put((int) (i & CHUNK_MASK), value);
+		}
+	}
+
+	/**
+	 * Off-heap array of {@code long}s.
+	 */
+	public static final class OfLong extends OffHeapArray
+	{
+		private final LongBuffer chunks[];
+
+		private OfLong(long length, ByteBuffer bytes[])
+		{
+			super(length);
+			chunks = new LongBuffer[bytes.length];
+			for (int c = 0; c < bytes.length; c++) {
+				chunks[c] = bytes[c].asLongBuffer();
+			}
+		}
+
+		/**
+		 * Allocate a new array of the given length (initially all zero).
+		 */
+		public static OfLong allocate(long length)
+		{
+			return new OfLong(length, allocateChunks(length, Long.BYTES));
+		}
+
+		/**
+		 * Map (read-only) an array of the given length stored in a file, starting at {@code position}.
+		 */
+		public static OfLong map(FileChannel channel, long position, long length, ByteOrder order) throws IOException
+		{
+			return new OfLong(length, mapChunks(channel, position, length, Long.BYTES, order));
+		}
+
+		public long get(long i)
+		{
+			return chunks[(int) (i >>> CHUNK_SHIFT)].get((int) (i & CHUNK_MASK));
+		}
+
+		public void set(long i, long value)
+		{
+			chunks[(int) (i >>> CHUNK_SHIFT)].put((int) (i & CHUNK_MASK), value);
+		}
+	}
+
+	/**
+	 * Off-heap array of {@code double}s.
+	 */
+	public static final class OfDouble extends OffHeapArray
+	{
+		private final DoubleBuffer chunks[];
+
+		private OfDouble(long length, ByteBuffer bytes[])
+		{
+			super(length);
+			chunks = new DoubleBuffer[bytes.length];
+			for (int c = 0; c < bytes.length; c++) {
+				chunks[c] = bytes[c].asDoubleBuffer();
+			}
+		}
+
+		/**
+		 * Allocate a new array of the given length (initially all zero).
+		 */
+		public static OfDouble allocate(long length)
+		{
+			return new OfDouble(length, allocateChunks(length, Double.BYTES));
+		}
+
+		/**
+		 * Map (read-only) an array of the given length stored in a file, starting at {@code position}.
+		 */
+		public static OfDouble map(FileChannel channel, long position, long length, ByteOrder order) throws IOException
+		{
+			return new OfDouble(length, mapChunks(channel, position, length, Double.BYTES, order));
+		}
+
+		public double get(long i)
+		{
+			return chunks[(int) (i >>> CHUNK_SHIFT)].get((int) (i & CHUNK_MASK));
+		}
+
+		public void set(long i, double value)
+		{
+			chunks[(int) (i >>> CHUNK_SHIFT)].put((int) (i & CHUNK_MASK), value);
+		}
+	}
+}
@@ -437,4 +437,82 @@ void DD_SetErrorFlag()
 
 //-----------------------------------------------------------------------------------
 
+// Variable reordering
+// (note: the DD code in PRISM assumes that the order of the DD variables
+// coincides with the order of their indices, so after any reordering,
+// the original order should be restored with DD_RestoreIndexOrder
+// before DDs are used further)
+
+// Create a group of DD variables (indices low, ..., low+size-1) which are
+// kept adjacent during reordering. If fixed is true, the order of the variables
+// within the group is also kept (otherwise, it may change too).
+// Returns false (and sets the error flag) if this fails.
+bool DD_MakeVarGroup(DdManager *ddman, int low, int size, bool fixed)
+{
+	if (Cudd_MakeTreeNode(ddman, low, size, fixed ? MTR_FIXED : MTR_DEFAULT) == NULL) {
+		DD_SetErrorFlag();
+		return false;
+	}
+	return true;
+}
+
+//-----------------------------------------------------------------------------------
+
+// Remove all groups of DD variables created with DD_MakeVarGroup
+void DD_FreeVarGroups(DdManager *ddman)
+{
+	Cudd_FreeTree(ddman);
+}
+
+//-----------------------------------------------------------------------------------
+
+// Reorder the DD variables using sifting (repeated until no further
+// improvement if converge is true), respecting any groups of variables.
+// Returns false (and sets the error flag) if this fails.
+bool DD_ReorderSift(DdManager *ddman, bool converge)
+{
+	if (Cudd_ReduceHeap(ddman, converge ? CUDD_REORDER_SIFT_CONVERGE : CUDD_REORDER_SIFT, 0) != 1) {
+		DD_SetErrorFlag();
+		return false;
+	}
+	return true;
+}
+
+//-----------------------------------------------------------------------------------
 
+// Get the current level (position in the order) of the DD variable with index i
+int DD_GetVarLevel(DdManager *ddman, int i)
+{
+	return Cudd_ReadPerm(ddman, i);
+}
+
+//-----------------------------------------------------------------------------------
+
+// Restore the original order of the DD variables, i.e. ordered by their indices.
+// Returns false (and sets the error flag) if this fails.
+bool DD_RestoreIndexOrder(DdManager *ddman)
+{
+	int i, n, res;
+	int *perm;
+	
+	n = Cudd_ReadSize(ddman);
+	perm = new int[n];
+	for (i = 0; i < n; i++) perm[i] = i;
+	res = Cudd_ShuffleHeap(ddman, perm);
+	delete[] perm;
+	if (res != 1) {
+		DD_SetErrorFlag();
+		return false;
+	}
+	return true;
+}
+
+//-----------------------------------------------------------------------------------
+
+// Get the number of live (referenced) nodes in the DD manager
+long DD_GetNumLiveNodes(DdManager *ddman)
+{
+	return Cudd_ReadNodeCount(ddman);
+}
+
+//-----------------------------------------------------------------------------------
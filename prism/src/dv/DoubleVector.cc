@@ -101,6 +101,21 @@ jlong __jlongpointer odd
 
 //------------------------------------------------------------------------------
 
+JNIEXPORT jobject JNICALL Java_dv_DoubleVector_DV_1GetBuffer
+(
+JNIEnv *env,
+jobject obj,
+jlong __jlongpointer v,
+jint n
+)
+{
+	// direct buffer on the vector memory itself (no copying);
+	// null if direct buffer access is not supported by the JVM
+	return env->NewDirectByteBuffer(jlong_to_double(v), (jlong)n * sizeof(double));
+}
+
+//------------------------------------------------------------------------------
+
 JNIEXPORT jdouble JNICALL Java_dv_DoubleVector_DV_1GetElement
 (
 JNIEnv *env,
@@ -26,6 +26,10 @@
 
 package dv;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
 import parser.ast.RelOp;
 import prism.*;
 import jdd.*;
@@ -77,6 +81,10 @@ public class DoubleVector
 	 * Size of vector
 	 */
 	private int n;
+	/**
+	 * View of the vector contents as a direct buffer (created on demand, see {@link #getBuffer()})
+	 */
+	private DoubleBuffer buffer = null;
 	
 	// Constructors
 	
@@ -135,12 +143,34 @@ public class DoubleVector
 		return n;
 	}
 
+	/**
+	 * Get a view of the native vector as a (direct) buffer, i.e., without copying,
+	 * allowing its elements to be read and written from Java without a JNI call for each.
+	 * Elements should be accessed using absolute indices (e.g. {@code get(i)}/{@code put(i, d)}).
+	 * The buffer must not be used once the vector has been cleared.
+	 * Returns null if the vector is too large to be viewed as a single buffer
+	 * (more than {@code Integer.MAX_VALUE} bytes).
+	 */
+	public DoubleBuffer getBuffer()
+	{
+		if (buffer == null && v != 0 && n > 0 && n <= Integer.MAX_VALUE / Double.BYTES) {
+			ByteBuffer bytes = DV_GetBuffer(v, n);
+			if (bytes != null) {
+				buffer = bytes.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+			}
+		}
+		return buffer;
+	}
+
+	private native ByteBuffer DV_GetBuffer(long v, int n);
+
 	/**
 	 * Get element {@code i} of the vector.
 	 */
 	public double getElement(int i)
 	{
-		return DV_GetElement(v, n, i);
+		DoubleBuffer b = getBuffer();
+		return b != null ? b.get(i) : DV_GetElement(v, n, i);
 	}
 
 	private native double DV_GetElement(long v, int n, int i);
@@ -152,7 +182,11 @@ public class DoubleVector
 	 */
 	public void setElement(int i, double d)
 	{
-		DV_SetElement(v, n, i, d);
+		DoubleBuffer b = getBuffer();
+		if (b != null)
+			b.put(i, d);
+		else
+			DV_SetElement(v, n, i, d);
 	}
 
 	private native void DV_SetElement(long v, int n, int i, double d);
@@ -234,6 +268,8 @@ public class DoubleVector
 	public void clear() 
 	{
 		DV_Clear(v);
+		v = 0;
+		buffer = null;
 	}
 
 	// get number of non zeros
@@ -416,7 +452,7 @@ public class DoubleVector
 		double d;
 		
 		for (i = 0; i < n; i++) {
-			d = DV_GetElement(v, n, i);
+			d = getElement(i);
 			log.print(d + " ");
 		}
 		log.println();
@@ -82,6 +82,21 @@ jlong __jlongpointer odd
 
 //------------------------------------------------------------------------------
 
+JNIEXPORT jobject JNICALL Java_dv_IntegerVector_IV_1GetBuffer
+(
+JNIEnv *env,
+jobject obj,
+jlong __jlongpointer v,
+jint n
+)
+{
+	// direct buffer on the vector memory itself (no copying);
+	// null if direct buffer access is not supported by the JVM
+	return env->NewDirectByteBuffer(jlong_to_ptr(v), (jlong)n * sizeof(int));
+}
+
+//------------------------------------------------------------------------------
+
 JNIEXPORT jint JNICALL Java_dv_IntegerVector_IV_1GetElement
 (
 JNIEnv *env,
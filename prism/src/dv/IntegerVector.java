@@ -26,6 +26,10 @@
 
 package dv;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
 import prism.*;
 import jdd.*;
 import odd.*;
@@ -62,6 +66,10 @@ public class IntegerVector
 	 * Size of vector
 	 */
 	private int n;
+	/**
+	 * View of the vector contents as a direct buffer (created on demand, see {@link #getBuffer()})
+	 */
+	private IntBuffer buffer = null;
 	
 	// Constructors
 	
@@ -120,12 +128,34 @@ public class IntegerVector
 		return n;
 	}
 
+	/**
+	 * Get a view of the native vector as a (direct) buffer, i.e., without copying,
+	 * allowing its elements to be read and written from Java without a JNI call for each.
+	 * Elements should be accessed using absolute indices (e.g. {@code get(i)}/{@code put(i, j)}).
+	 * The buffer must not be used once the vector has been cleared.
+	 * Returns null if the vector is too large to be viewed as a single buffer
+	 * (more than {@code Integer.MAX_VALUE} bytes).
+	 */
+	public IntBuffer getBuffer()
+	{
+		if (buffer == null && v != 0 && n > 0 && n <= Integer.MAX_VALUE / Integer.BYTES) {
+			ByteBuffer bytes = IV_GetBuffer(v, n);
+			if (bytes != null) {
+				buffer = bytes.order(ByteOrder.nativeOrder()).asIntBuffer();
+			}
+		}
+		return buffer;
+	}
+
+	private native ByteBuffer IV_GetBuffer(long v, int n);
+
 	/**
 	 * Get element {@code i} of the vector.
 	 */
 	public int getElement(int i)
 	{
-		return IV_GetElement(v, n, i);
+		IntBuffer b = getBuffer();
+		return b != null ? b.get(i) : IV_GetElement(v, n, i);
 	}
 
 	private native int IV_GetElement(long v, int n, int i);
@@ -137,7 +167,11 @@ public class IntegerVector
 	 */
 	public void setElement(int i, int j)
 	{
-		IV_SetElement(v, n, i, j);
+		IntBuffer b = getBuffer();
+		if (b != null)
+			b.put(i, j);
+		else
+			IV_SetElement(v, n, i, j);
 	}
 
 	private native void IV_SetElement(long v, int n, int i, int j);
@@ -158,6 +192,8 @@ public class IntegerVector
 	public void clear() 
 	{
 		IV_Clear(v);
+		v = 0;
+		buffer = null;
 	}
 
 	private native void IV_Clear(long v);
@@ -170,7 +206,7 @@ public class IntegerVector
 		int i, j;
 		
 		for (i = 0; i < n; i++) {
-			j = IV_GetElement(v, n, i);
+			j = getElement(i);
 			log.print(j + " ");
 		}
 		log.println();
@@ -0,0 +1,950 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+
+import common.OffHeapArray;
+import explicit.rewards.ConstructRewards;
+import explicit.rewards.MCRewards;
+import explicit.rewards.MDPRewards;
+import explicit.rewards.Rewards;
+import parser.State;
+import parser.VarList;
+import parser.ast.Declaration;
+import parser.ast.DeclarationBool;
+import parser.ast.DeclarationInt;
+import parser.ast.Expression;
+import parser.type.TypeBool;
+import parser.type.TypeInt;
+import prism.ModelInfo;
+import prism.ModelType;
+import prism.PrismException;
+import prism.PrismNotSupportedException;
+import prism.RewardGenerator;
+
+/**
+ * Binary file format for explicit-state DTMCs and MDPs, storing the sparse matrix (CSR) arrays
+ * of the transition function, as used by {@link DTMCSparse} and {@link MDPSparse},
+ * together with initial states, deadlocks, labels, action labels, state valuations and reward structures.
+ * <br><br>
+ * Files are written once, after model construction, and can then be loaded
+ * much more quickly than the text-based formats (.tra/.sta/.lab), since no parsing is needed:
+ * the file is read through large memory-mapped windows (see {@link FileChannel#map}),
+ * with bulk copies of the arrays from the mapped buffers.
+ * <br><br>
+ * Layout (all values little-endian; arrays of 8-byte values are 8-byte aligned):
+ * <ul>
+ * <li> header: magic string "PRISMBIN", format version (int), model type (int: 0=DTMC, 1=MDP),
+ *      number of states (int), number of choices (int, equal to number of states for a DTMC),
+ *      number of transitions (long), position of the reward structures in the file (long)
+ * <li> MDP: start of choices for each state (int[numStates+1]),
+ *      then start of transitions for each choice (long[numChoices+1]);
+ *      DTMC: start of transitions for each state (long[numStates+1])
+ * <li> transition targets (int[numTransitions]), then probabilities (double[numTransitions])
+ * <li> MDP only: action labels (count of distinct actions + names, then, if non-zero,
+ *      int[numChoices] of indices, -1 for none)
+ * <li> initial states and deadlock states (count + int[])
+ * <li> labels (count, then for each: name, number of words + long[] of the BitSet)
+ * <li> variables (count, then for each: name, type (int: 0=int, 1=bool), low, high),
+ *      then state valuations (int[numStates*numVars]), if present
+ * <li> reward structures (count, then for each: name, flags (int: 1=state rewards, 2=transition rewards),
+ *      then double[numStates] of state rewards and, for an MDP, double[numChoices] of transition rewards,
+ *      if present)
+ * </ul>
+ * Strings are stored as a length (int) followed by UTF-8 bytes, padded to a multiple of 4 bytes.
+ * Transition rewards are stored per choice so, as for the reward structures of PRISM models,
+ * they can be looked up by state and action (see {@link #loadRewards(File, Model)}).
+ * Transition rewards for DTMCs are not supported (as for the explicit engine in general).
+ * <br><br>
+ * Models can also be loaded "off-heap" (see {@link #load(File, boolean)}), in which case
+ * the arrays of the transition function are mapped from the file directly, without copying,
+ * into a {@link DTMCSparseOffHeap} or {@link MDPSparseOffHeap}. This is done automatically
+ * for models with more than 2^31-1 transitions.
+ */
+public class BinaryModelFile
+{
+	/** Magic string at the start of each file */
+	private static final byte[] MAGIC = "PRISMBIN".getBytes(StandardCharsets.US_ASCII);
+	/** Format version */
+	private static final int VERSION = 2;
+	/** Codes for model types */
+	private static final int TYPE_DTMC = 0;
+	private static final int TYPE_MDP = 1;
+	/** Codes for variable types */
+	private static final int VAR_INT = 0;
+	private static final int VAR_BOOL = 1;
+	/** Size of the buffer used for writing */
+	private static final int WRITE_BUFFER_SIZE = 1 << 20;
+	/** Maximum size of a single region (window) mapped when reading */
+	private static final int MAX_MAP_SIZE = 1 << 30;
+	/** Position of the reward structures offset in the header */
+	private static final long REWARDS_OFFSET_POS = 32;
+	/** Flags for reward structures */
+	private static final int REW_STATE = 1;
+	private static final int REW_TRANS = 2;
+
+	// Export
+
+	/**
+	 * Export a DTMC or MDP to a file in binary format, without rewards.
+	 * CTMCs and other model types are not supported.
+	 */
+	public static void export(Model model, File file) throws PrismException
+	{
+		export(model, null, null, file);
+	}
+
+	/**
+	 * Export a DTMC or MDP to a file in binary format,
+	 * including the reward structures of {@code rewardGen} (if non-null).
+	 * If {@code modelInfo} is non-null, it is used for the order of labels and,
+	 * if the model does not store them, the variables of the state valuations.
+	 * CTMCs and other model types are not supported.
+	 */
+	public static void export(Model model, ModelInfo modelInfo, RewardGenerator rewardGen, File file) throws PrismException
+	{
+		if (model.getModelType() != ModelType.DTMC && model.getModelType() != ModelType.MDP) {
+			throw new PrismNotSupportedException("Binary export is not supported for " + model.getModelType() + "s");
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+				Writer out = new Writer(channel)) {
+			if (model.getModelType() == ModelType.DTMC) {
+				writeDTMC((DTMC) model, out);
+			} else {
+				writeMDP((MDP) model, out);
+			}
+			writeStateInfo(model, modelInfo, out);
+			out.align(8);
+			out.putLongAt(REWARDS_OFFSET_POS, out.getPosition());
+			writeRewards(model, rewardGen, out);
+		} catch (IOException e) {
+			throw new PrismException("File I/O error writing to \"" + file + "\": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Write the header and transition function of a DTMC.
+	 */
+	private static void writeDTMC(DTMC dtmc, Writer out) throws IOException
+	{
+		int numStates = dtmc.getNumStates();
+		long numTransitions = 0;
+		for (int s = 0; s < numStates; s++) {
+			numTransitions += dtmc.getNumTransitions(s);
+		}
+		writeHeader(out, TYPE_DTMC, numStates, numStates, numTransitions);
+		// Row starts
+		long count = 0;
+		for (int s = 0; s < numStates; s++) {
+			out.putLong(count);
+			count += dtmc.getNumTransitions(s);
+		}
+		out.putLong(count);
+		// Columns, then probabilities
+		for (int s = 0; s < numStates; s++) {
+			for (Iterator<Entry<Integer, Double>> it = dtmc.getTransitionsIterator(s); it.hasNext();) {
+				out.putInt(it.next().getKey());
+			}
+		}
+		out.align(8);
+		for (int s = 0; s < numStates; s++) {
+			for (Iterator<Entry<Integer, Double>> it = dtmc.getTransitionsIterator(s); it.hasNext();) {
+				out.putDouble(it.next().getValue());
+			}
+		}
+	}
+
+	/**
+	 * Write the header, transition function and action labels of an MDP.
+	 */
+	private static void writeMDP(MDP mdp, Writer out) throws IOException
+	{
+		int numStates = mdp.getNumStates();
+		int numChoices = mdp.getNumChoices();
+		long numTransitions = 0;
+		for (int s = 0; s < numStates; s++) {
+			for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+				numTransitions += mdp.getNumTransitions(s, i);
+			}
+		}
+		writeHeader(out, TYPE_MDP, numStates, numChoices, numTransitions);
+		// Row starts
+		int countChoices = 0;
+		for (int s = 0; s < numStates; s++) {
+			out.putInt(countChoices);
+			countChoices += mdp.getNumChoices(s);
+		}
+		out.putInt(countChoices);
+		out.align(8);
+		// Choice starts
+		long count = 0;
+		for (int s = 0; s < numStates; s++) {
+			for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+				out.putLong(count);
+				count += mdp.getNumTransitions(s, i);
+			}
+		}
+		out.putLong(count);
+		// Columns, then probabilities
+		for (int s = 0; s < numStates; s++) {
+			for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+				for (Iterator<Entry<Integer, Double>> it = mdp.getTransitionsIterator(s, i); it.hasNext();) {
+					out.putInt(it.next().getKey());
+				}
+			}
+		}
+		out.align(8);
+		for (int s = 0; s < numStates; s++) {
+			for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+				for (Iterator<Entry<Integer, Double>> it = mdp.getTransitionsIterator(s, i); it.hasNext();) {
+					out.putDouble(it.next().getValue());
+				}
+			}
+		}
+		// Action labels
+		List<Object> actions = new ArrayList<Object>();
+		Map<Object, Integer> actionIndices = new HashMap<Object, Integer>();
+		int choiceActions[] = new int[numChoices];
+		int k = 0;
+		for (int s = 0; s < numStates; s++) {
+			for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+				Object action = mdp.getAction(s, i);
+				if (action == null) {
+					choiceActions[k++] = -1;
+				} else {
+					Integer index = actionIndices.get(action);
+					if (index == null) {
+						index = actions.size();
+						actions.add(action);
+						actionIndices.put(action, index);
+					}
+					choiceActions[k++] = index;
+				}
+			}
+		}
+		out.putInt(actions.size());
+		for (Object action : actions) {
+			out.putString(action.toString());
+		}
+		if (!actions.isEmpty()) {
+			for (int a : choiceActions) {
+				out.putInt(a);
+			}
+		}
+	}
+
+	private static void writeHeader(Writer out, int type, int numStates, int numChoices, long numTransitions) throws IOException
+	{
+		for (byte b : MAGIC) {
+			out.putByte(b);
+		}
+		out.putInt(VERSION);
+		out.putInt(type);
+		out.putInt(numStates);
+		out.putInt(numChoices);
+		out.putLong(numTransitions);
+		// (position of reward structures, filled in later)
+		out.putLong(0);
+	}
+
+	/**
+	 * Write initial states, deadlocks, labels and state valuations.
+	 */
+	private static void writeStateInfo(Model model, ModelInfo modelInfo, Writer out) throws PrismException, IOException
+	{
+		int numStates = model.getNumStates();
+		// Initial states, deadlocks
+		writeStates(out, model.getInitialStates());
+		writeStates(out, model.getDeadlockStates());
+		// Labels
+		// (in the order of the model info, if present, then any others)
+		Set<String> labels = new LinkedHashSet<String>();
+		if (modelInfo != null) {
+			for (String label : modelInfo.getLabelNames()) {
+				if (model.hasLabel(label)) {
+					labels.add(label);
+				}
+			}
+		}
+		labels.addAll(model.getLabels());
+		out.putInt(labels.size());
+		for (String label : labels) {
+			out.putString(label);
+			long words[] = model.getLabelStates(label).toLongArray();
+			out.putInt(words.length);
+			out.align(8);
+			for (long word : words) {
+				out.putLong(word);
+			}
+		}
+		// Variables and state valuations (only if all variables are ints/Booleans)
+		VarList varList = model.getVarList();
+		if (varList == null && modelInfo != null) {
+			varList = modelInfo.createVarList();
+		}
+		List<State> statesList = model.getStatesList();
+		boolean storeStates = varList != null && statesList != null && statesList.size() == numStates;
+		if (storeStates) {
+			for (int v = 0; v < varList.getNumVars(); v++) {
+				if (!(varList.getType(v) instanceof TypeInt || varList.getType(v) instanceof TypeBool)) {
+					storeStates = false;
+				}
+			}
+		}
+		if (!storeStates) {
+			out.putInt(0);
+			return;
+		}
+		int numVars = varList.getNumVars();
+		out.putInt(numVars);
+		for (int v = 0; v < numVars; v++) {
+			out.putString(varList.getName(v));
+			out.putInt(varList.getType(v) instanceof TypeBool ? VAR_BOOL : VAR_INT);
+			out.putInt(varList.getLow(v));
+			out.putInt(varList.getHigh(v));
+		}
+		for (State state : statesList) {
+			for (int v = 0; v < numVars; v++) {
+				Object value = state.varValues[v];
+				out.putInt(value instanceof Boolean ? (((Boolean) value) ? 1 : 0) : ((Integer) value));
+			}
+		}
+	}
+
+	/**
+	 * Write the reward structures of a reward generator (if non-null) for a model.
+	 */
+	private static void writeRewards(Model model, RewardGenerator rewardGen, Writer out) throws PrismException, IOException
+	{
+		int numRewardStructs = rewardGen == null ? 0 : rewardGen.getNumRewardStructs();
+		out.putInt(numRewardStructs);
+		if (numRewardStructs == 0) {
+			return;
+		}
+		int numStates = model.getNumStates();
+		boolean isMDP = model.getModelType() == ModelType.MDP;
+		ConstructRewards constructRewards = new ConstructRewards(null);
+		constructRewards.allowNegativeRewards();
+		for (int r = 0; r < numRewardStructs; r++) {
+			Rewards rewards = constructRewards.buildRewardStructure(model, rewardGen, r);
+			boolean hasStateRewards = rewardGen.rewardStructHasStateRewards(r);
+			boolean hasTransRewards = isMDP && rewardGen.rewardStructHasTransitionRewards(r);
+			out.putString(rewardGen.getRewardStructName(r));
+			out.putInt((hasStateRewards ? REW_STATE : 0) | (hasTransRewards ? REW_TRANS : 0));
+			out.align(8);
+			if (hasStateRewards) {
+				for (int s = 0; s < numStates; s++) {
+					out.putDouble(isMDP ? ((MDPRewards) rewards).getStateReward(s) : ((MCRewards) rewards).getStateReward(s));
+				}
+			}
+			if (hasTransRewards) {
+				MDP mdp = (MDP) model;
+				for (int s = 0; s < numStates; s++) {
+					for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+						out.putDouble(((MDPRewards) rewards).getTransitionReward(s, i));
+					}
+				}
+			}
+		}
+	}
+
+	private static void writeStates(Writer out, Iterable<Integer> states) throws IOException
+	{
+		List<Integer> list = new ArrayList<Integer>();
+		for (int s : states) {
+			list.add(s);
+		}
+		out.putInt(list.size());
+		for (int s : list) {
+			out.putInt(s);
+		}
+	}
+
+	// Import
+
+	/**
+	 * Load a model from a file in binary format (see {@link #export(Model, File)}).
+	 * The result is a {@link DTMCSparse} or {@link MDPSparse}, or, if the model
+	 * has too many transitions for these, a {@link DTMCSparseOffHeap} or {@link MDPSparseOffHeap}.
+	 */
+	public static ModelExplicit load(File file) throws PrismException
+	{
+		return load(file, false);
+	}
+
+	/**
+	 * Load a model from a file in binary format (see {@link #export(Model, File)}).
+	 * If {@code offHeap} is true, or if the model has more than 2^31-1 transitions,
+	 * the transition function is mapped from the file rather than copied onto the heap
+	 * and the result is a {@link DTMCSparseOffHeap} or {@link MDPSparseOffHeap};
+	 * otherwise it is a {@link DTMCSparse} or {@link MDPSparse}.
+	 * @param file The file to load from
+	 * @param offHeap Whether to always store the transition function off-heap
+	 */
+	public static ModelExplicit load(File file, boolean offHeap) throws PrismException
+	{
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			Reader in = new Reader(channel);
+			// Header
+			readHeader(in, file);
+			int type = in.getInt();
+			int numStates = in.getInt();
+			int numChoices = in.getInt();
+			long numTransitions = in.getLong();
+			in.getLong();
+			offHeap |= numTransitions > Integer.MAX_VALUE;
+			// Transition function
+			ModelExplicit model;
+			if (type == TYPE_DTMC && offHeap) {
+				OffHeapArray.OfLong rows = in.mapLongs(numStates + 1L);
+				OffHeapArray.OfInt cols = in.mapInts(numTransitions);
+				in.align(8);
+				OffHeapArray.OfDouble probs = in.mapDoubles(numTransitions);
+				model = new DTMCSparseOffHeap(numStates, rows, cols, probs);
+			} else if (type == TYPE_DTMC) {
+				int rows[] = in.getLongsAsInts(numStates + 1);
+				int cols[] = in.getInts((int) numTransitions);
+				in.align(8);
+				double probs[] = in.getDoubles((int) numTransitions);
+				model = new DTMCSparse(numStates, rows, cols, probs);
+			} else if (type == TYPE_MDP && offHeap) {
+				int rowStarts[] = in.getInts(numStates + 1);
+				in.align(8);
+				OffHeapArray.OfLong choiceStarts = in.mapLongs(numChoices + 1L);
+				OffHeapArray.OfInt cols = in.mapInts(numTransitions);
+				in.align(8);
+				OffHeapArray.OfDouble nonZeros = in.mapDoubles(numTransitions);
+				Object actions[] = readActions(in, numChoices);
+				model = new MDPSparseOffHeap(numStates, rowStarts, choiceStarts, cols, nonZeros, actions);
+			} else if (type == TYPE_MDP) {
+				int rowStarts[] = in.getInts(numStates + 1);
+				in.align(8);
+				int choiceStarts[] = in.getLongsAsInts(numChoices + 1);
+				int cols[] = in.getInts((int) numTransitions);
+				in.align(8);
+				double nonZeros[] = in.getDoubles((int) numTransitions);
+				Object actions[] = readActions(in, numChoices);
+				model = new MDPSparse(numStates, rowStarts, choiceStarts, cols, nonZeros, actions);
+			} else {
+				throw new PrismException("Unknown model type in PRISM binary model file \"" + file + "\"");
+			}
+			// Initial states, deadlocks
+			for (int s : in.getInts(in.getInt())) {
+				model.addInitialState(s);
+			}
+			for (int s : in.getInts(in.getInt())) {
+				model.addDeadlockState(s);
+			}
+			// Labels (keeping the order in the file)
+			model.labels = new LinkedHashMap<String, BitSet>();
+			int numLabels = in.getInt();
+			for (int l = 0; l < numLabels; l++) {
+				String label = in.getString();
+				int numWords = in.getInt();
+				in.align(8);
+				model.addLabel(label, BitSet.valueOf(in.getLongs(numWords)));
+			}
+			// Variables and state valuations
+			int numVars = in.getInt();
+			if (numVars > 0) {
+				VarList varList = new VarList();
+				boolean isBool[] = new boolean[numVars];
+				for (int v = 0; v < numVars; v++) {
+					String name = in.getString();
+					isBool[v] = in.getInt() == VAR_BOOL;
+					int low = in.getInt();
+					int high = in.getInt();
+					Declaration decl;
+					if (isBool[v]) {
+						decl = new Declaration(name, new DeclarationBool());
+						decl.setStart(Expression.False());
+					} else {
+						decl = new Declaration(name, new DeclarationInt(Expression.Int(low), Expression.Int(high)));
+						decl.setStart(Expression.Int(low));
+					}
+					varList.addVar(decl, -1, null);
+				}
+				model.setVarList(varList);
+				List<State> statesList = new ArrayList<State>(numStates);
+				for (int s = 0; s < numStates; s++) {
+					State state = new State(numVars);
+					for (int v = 0; v < numVars; v++) {
+						int value = in.getInt();
+						state.setValue(v, isBool[v] ? (Object) (value != 0) : (Object) value);
+					}
+					statesList.add(state);
+				}
+				model.setStatesList(statesList);
+			}
+			return model;
+		} catch (IOException e) {
+			throw new PrismException("File I/O error reading from \"" + file + "\": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Load the reward structures from a file in binary format (see {@link #export(Model, RewardGenerator, File)}),
+	 * for a model previously loaded from the same file with {@link #load(File, boolean)}.
+	 * The rewards are returned as a {@link RewardGenerator}, supporting lookup by state index.
+	 * @param file The file to load from
+	 * @param model The model loaded from the file
+	 */
+	public static RewardGenerator loadRewards(File file, Model model) throws PrismException
+	{
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			Reader in = new Reader(channel);
+			readHeader(in, file);
+			in.getInt();
+			int numStates = in.getInt();
+			int numChoices = in.getInt();
+			in.getLong();
+			long rewardsOffset = in.getLong();
+			if (numStates != model.getNumStates()) {
+				throw new PrismException("Model does not match PRISM binary model file \"" + file + "\"");
+			}
+			in.seek(rewardsOffset);
+			int numRewardStructs = in.getInt();
+			StoredRewards rewards = new StoredRewards(model, numRewardStructs);
+			for (int r = 0; r < numRewardStructs; r++) {
+				rewards.names.add(in.getString());
+				int flags = in.getInt();
+				in.align(8);
+				if ((flags & REW_STATE) != 0) {
+					rewards.stateRewards[r] = in.getDoubles(numStates);
+				}
+				if ((flags & REW_TRANS) != 0) {
+					rewards.transRewards[r] = in.getDoubles(numChoices);
+				}
+			}
+			return rewards;
+		} catch (IOException e) {
+			throw new PrismException("File I/O error reading from \"" + file + "\": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Read and check the magic string and format version at the start of a file.
+	 */
+	private static void readHeader(Reader in, File file) throws PrismException, IOException
+	{
+		byte magic[] = new byte[MAGIC.length];
+		in.getBytes(magic);
+		if (!Arrays.equals(magic, MAGIC)) {
+			throw new PrismException("\"" + file + "\" is not a PRISM binary model file");
+		}
+		int version = in.getInt();
+		if (version != VERSION) {
+			throw new PrismException("Unsupported version " + version + " of PRISM binary model file \"" + file + "\"");
+		}
+	}
+
+	/**
+	 * Read the action labels of an MDP, returning an array of size {@code numChoices},
+	 * or null if there are none.
+	 */
+	private static Object[] readActions(Reader in, int numChoices) throws IOException
+	{
+		int numActions = in.getInt();
+		if (numActions == 0) {
+			return null;
+		}
+		Object actionNames[] = new Object[numActions];
+		for (int a = 0; a < numActions; a++) {
+			actionNames[a] = in.getString();
+		}
+		int choiceActions[] = in.getInts(numChoices);
+		Object actions[] = new Object[numChoices];
+		for (int i = 0; i < numChoices; i++) {
+			actions[i] = choiceActions[i] == -1 ? null : actionNames[choiceActions[i]];
+		}
+		return actions;
+	}
+
+	/**
+	 * Reward structures loaded from a binary file: state rewards, indexed by state,
+	 * and (for MDPs) transition rewards, indexed by choice, looked up by state and action.
+	 */
+	private static class StoredRewards implements RewardGenerator
+	{
+		private final Model model;
+		private final List<String> names;
+		private final double stateRewards[][];
+		private final double transRewards[][];
+		// Index of the first choice of each state (MDPs only; computed when first needed)
+		private int choiceStarts[];
+
+		public StoredRewards(Model model, int numRewardStructs)
+		{
+			this.model = model;
+			names = new ArrayList<String>(numRewardStructs);
+			stateRewards = new double[numRewardStructs][];
+			transRewards = new double[numRewardStructs][];
+		}
+
+		@Override
+		public List<String> getRewardStructNames()
+		{
+			return names;
+		}
+
+		@Override
+		public boolean rewardStructHasStateRewards(int r)
+		{
+			return stateRewards[r] != null;
+		}
+
+		@Override
+		public boolean rewardStructHasTransitionRewards(int r)
+		{
+			return transRewards[r] != null;
+		}
+
+		@Override
+		public boolean isRewardLookupSupported(RewardLookup lookup)
+		{
+			return lookup == RewardLookup.BY_STATE_INDEX;
+		}
+
+		@Override
+		public double getStateReward(int r, int s)
+		{
+			return stateRewards[r] == null ? 0.0 : stateRewards[r][s];
+		}
+
+		@Override
+		public double getStateActionReward(int r, int s, Object action)
+		{
+			if (transRewards[r] == null) {
+				return 0.0;
+			}
+			MDP mdp = (MDP) model;
+			if (choiceStarts == null) {
+				int numStates = mdp.getNumStates();
+				choiceStarts = new int[numStates];
+				for (int t = 0, count = 0; t < numStates; t++) {
+					choiceStarts[t] = count;
+					count += mdp.getNumChoices(t);
+				}
+			}
+			// Rewards were constructed per action, so the first matching choice suffices
+			for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+				if (Objects.equals(mdp.getAction(s, i), action)) {
+					return transRewards[r][choiceStarts[s] + i];
+				}
+			}
+			return 0.0;
+		}
+	}
+
+	// Helper classes for reading/writing
+
+	/**
+	 * Buffered, sequential writing of little-endian values to a FileChannel.
+	 */
+	private static class Writer implements AutoCloseable
+	{
+		private final FileChannel channel;
+		private final ByteBuffer buf;
+		private long pos = 0;
+
+		public Writer(FileChannel channel)
+		{
+			this.channel = channel;
+			buf = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		private void ensure(int n) throws IOException
+		{
+			if (buf.remaining() < n) {
+				flush();
+			}
+		}
+
+		public void putByte(byte b) throws IOException
+		{
+			ensure(1);
+			buf.put(b);
+			pos++;
+		}
+
+		public void putInt(int i) throws IOException
+		{
+			ensure(4);
+			buf.putInt(i);
+			pos += 4;
+		}
+
+		public void putLong(long l) throws IOException
+		{
+			ensure(8);
+			buf.putLong(l);
+			pos += 8;
+		}
+
+		public void putDouble(double d) throws IOException
+		{
+			ensure(8);
+			buf.putDouble(d);
+			pos += 8;
+		}
+
+		public void putString(String s) throws IOException
+		{
+			byte bytes[] = s.getBytes(StandardCharsets.UTF_8);
+			putInt(bytes.length);
+			for (byte b : bytes) {
+				putByte(b);
+			}
+			align(4);
+		}
+
+		/** Pad with zeros to a multiple of {@code n} bytes */
+		public void align(int n) throws IOException
+		{
+			while (pos % n != 0) {
+				putByte((byte) 0);
+			}
+		}
+
+		/** Get the current position in the file */
+		public long getPosition()
+		{
+			return pos;
+		}
+
+		/** Overwrite a long at an earlier position {@code position} in the file */
+		public void putLongAt(long position, long l) throws IOException
+		{
+			flush();
+			ByteBuffer b = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+			b.putLong(l).flip();
+			while (b.hasRemaining()) {
+				channel.write(b, position + b.position());
+			}
+		}
+
+		public void flush() throws IOException
+		{
+			buf.flip();
+			while (buf.hasRemaining()) {
+				channel.write(buf);
+			}
+			buf.clear();
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			flush();
+		}
+	}
+
+	/**
+	 * Sequential reading of little-endian values from a FileChannel, using memory-mapping.
+	 * The file is mapped in windows of up to {@code MAX_MAP_SIZE} bytes,
+	 * which are only replaced when a read goes beyond the end of the current one.
+	 */
+	private static class Reader
+	{
+		private final FileChannel channel;
+		private final long size;
+		private long pos = 0;
+		// Currently mapped window of the file, and its start position
+		private ByteBuffer window = null;
+		private long windowStart = 0;
+
+		public Reader(FileChannel channel) throws IOException
+		{
+			this.channel = channel;
+			size = channel.size();
+		}
+
+		/**
+		 * Get a buffer containing the next {@code n} bytes (at most {@code MAX_MAP_SIZE}) of the file,
+		 * positioned at the first of them, mapping a new window if needed, and move past them.
+		 */
+		private ByteBuffer next(int n) throws IOException
+		{
+			checkAvailable(n);
+			if (window == null || pos < windowStart || pos + n > windowStart + window.capacity()) {
+				long length = Math.min(MAX_MAP_SIZE, size - pos);
+				window = channel.map(FileChannel.MapMode.READ_ONLY, pos, length).order(ByteOrder.LITTLE_ENDIAN);
+				windowStart = pos;
+			}
+			window.position((int) (pos - windowStart));
+			pos += n;
+			return window;
+		}
+
+		private void checkAvailable(long n) throws IOException
+		{
+			if (pos + n > size) {
+				throw new IOException("unexpected end of file");
+			}
+		}
+
+		/** Move to position {@code position} in the file */
+		public void seek(long position) throws IOException
+		{
+			if (position < 0 || position > size) {
+				throw new IOException("invalid file position");
+			}
+			pos = position;
+		}
+
+		public int getInt() throws IOException
+		{
+			return next(4).getInt();
+		}
+
+		public long getLong() throws IOException
+		{
+			return next(8).getLong();
+		}
+
+		public void getBytes(byte bytes[]) throws IOException
+		{
+			if (bytes.length > 0) {
+				next(bytes.length).get(bytes);
+			}
+		}
+
+		public String getString() throws IOException
+		{
+			byte bytes[] = new byte[getInt()];
+			getBytes(bytes);
+			align(4);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		/** Skip to a multiple of {@code n} bytes */
+		public void align(int n)
+		{
+			pos = (pos + n - 1) / n * n;
+		}
+
+		public int[] getInts(int n) throws IOException
+		{
+			int arr[] = new int[n];
+			for (int done = 0; done < n;) {
+				int k = Math.min(n - done, MAX_MAP_SIZE / 4);
+				next(4 * k).asIntBuffer().get(arr, done, k);
+				done += k;
+			}
+			return arr;
+		}
+
+		public long[] getLongs(int n) throws IOException
+		{
+			long arr[] = new long[n];
+			for (int done = 0; done < n;) {
+				int k = Math.min(n - done, MAX_MAP_SIZE / 8);
+				next(8 * k).asLongBuffer().get(arr, done, k);
+				done += k;
+			}
+			return arr;
+		}
+
+		public double[] getDoubles(int n) throws IOException
+		{
+			double arr[] = new double[n];
+			for (int done = 0; done < n;) {
+				int k = Math.min(n - done, MAX_MAP_SIZE / 8);
+				next(8 * k).asDoubleBuffer().get(arr, done, k);
+				done += k;
+			}
+			return arr;
+		}
+
+		/** Map (without copying) the next {@code n} ints of the file and move past them */
+		public OffHeapArray.OfInt mapInts(long n) throws IOException
+		{
+			checkAvailable(4 * n);
+			OffHeapArray.OfInt arr = OffHeapArray.OfInt.map(channel, pos, n, ByteOrder.LITTLE_ENDIAN);
+			pos += 4 * n;
+			return arr;
+		}
+
+		/** Map (without copying) the next {@code n} longs of the file and move past them */
+		public OffHeapArray.OfLong mapLongs(long n) throws IOException
+		{
+			checkAvailable(8 * n);
+			OffHeapArray.OfLong arr = OffHeapArray.OfLong.map(channel, pos, n, ByteOrder.LITTLE_ENDIAN);
+			pos += 8 * n;
+			return arr;
+		}
+
+		/** Map (without copying) the next {@code n} doubles of the file and move past them */
+		public OffHeapArray.OfDouble mapDoubles(long n) throws IOException
+		{
+			checkAvailable(8 * n);
+			OffHeapArray.OfDouble arr = OffHeapArray.OfDouble.map(channel, pos, n, ByteOrder.LITTLE_ENDIAN);
+			pos += 8 * n;
+			return arr;
+		}
+
+		/** Read an array of longs, each of which must fit into an int */
+		public int[] getLongsAsInts(int n) throws IOException
+		{
+			int arr[] = new int[n];
+			for (int done = 0; done < n;) {
+				int k = Math.min(n - done, MAX_MAP_SIZE / 8);
+				LongBuffer longs = next(8 * k).asLongBuffer();
+				for (int i = 0; i < k; i++) {
+					long l = longs.get(i);
+					if (l > Integer.MAX_VALUE) {
+						throw new IOException("index too large");
+					}
+					arr[done + i] = (int) l;
+				}
+				done += k;
+			}
+			return arr;
+		}
+	}
+}
@@ -27,8 +27,10 @@
 package explicit;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -36,17 +38,57 @@ import parser.State;
 import prism.PrismComponent;
 import prism.PrismException;
 import prism.PrismNotSupportedException;
+import explicit.rewards.MCRewards;
+import explicit.rewards.MDPRewards;
+import explicit.rewards.Rewards;
 
 /**
  * Class to perform bisimulation minimisation for explicit-state models.
+ * <br>
+ * Computes the coarsest (strong probabilistic) bisimulation by signature-based partition refinement:
+ * the signature of a state is its distribution (for MDPs: the set of its action-labelled distributions)
+ * lifted to the current partition, and blocks are split according to signatures.
+ * Reward structures can also be preserved: the initial partition then also respects state rewards,
+ * and (for MDPs) the transition reward of each choice is part of its signature.
+ * Blocks to be (re)examined are kept in a queue: initially all blocks,
+ * and after a block is split, only the blocks of predecessors of its states,
+ * since the signatures of other states cannot have changed.
+ * For large blocks, signatures are computed in parallel (if multiple threads are enabled).
+ * <br>
+ * Probabilities (and rates) in signatures are compared after rounding them to 40 bits of mantissa
+ * (of the 52 of a double), i.e., to a relative precision of about 1e-12, so that sums which differ
+ * only due to floating-point round-off are treated as equal. It is independent of the termination epsilon of numerical methods (-epsilon):
+ * states whose probabilities of moving to a block differ by a relative amount of less than about 1e-12
+ * may be merged, and (rarely) values either side of a rounding boundary are still distinguished.
  */
 public class Bisimulation extends PrismComponent
 {
+	/** Minimum size of a block for its signatures to be computed in parallel */
+	private static final int MIN_PARALLEL_BLOCK_SIZE = 10000;
+	/** Number of mantissa bits to which probabilities are rounded in signatures */
+	private static final int SIGNATURE_MANTISSA_BITS = 40;
+	/** Number of (low) mantissa bits of a double that are cleared by this rounding */
+	private static final int SIGNATURE_ROUNDING_BITS = 52 - SIGNATURE_MANTISSA_BITS;
+
 	// Local storage of partition info
 	protected int numStates;
 	protected int[] partition;
 	protected int numBlocks;
-	protected MDPSimple mdp;
+
+	// States in each block: the states of block b are
+	// blockStates[blockStarts[b]], ..., blockStates[blockStarts[b] + blockSizes[b] - 1]
+	private int[] blockStates;
+	private int[] blockStarts;
+	private int[] blockSizes;
+	// Representative (lowest-index) state of each block, once refinement is done
+	private int[] representatives;
+
+	// Indices for action labels (for nondeterministic models)
+	private Map<Object, Integer> actionIndices;
+	// Reward structures to be preserved
+	private List<Rewards> rewards = Collections.emptyList();
+	// Number of threads
+	private int numThreads = 1;
 
 	/**
 	 * Construct a new Bisimulation object.
@@ -54,6 +96,9 @@ public class Bisimulation extends PrismComponent
 	public Bisimulation(PrismComponent parent) throws PrismException
 	{
 		super(parent);
+		if (settings != null) {
+			numThreads = PredecessorRelation.getNumThreads(this);
+		}
 	}
 
 	/**
@@ -64,11 +109,28 @@ public class Bisimulation extends PrismComponent
 	 */
 	public Model minimise(Model model, List<String> propNames, List<BitSet> propBSs) throws PrismException
 	{
+		return minimise(model, propNames, propBSs, Collections.emptyList());
+	}
+
+	/**
+	 * Perform bisimulation minimisation on a model, also preserving some reward structures.
+	 * @param model The model
+	 * @param propNames Names of the propositions in {@code propBSs}
+	 * @param propBSs Propositions (satisfying sets of states) to be preserved by bisimulation.
+	 * @param rewards Reward structures (for {@code model}) to be preserved by bisimulation.
+	 */
+	public Model minimise(Model model, List<String> propNames, List<BitSet> propBSs, List<Rewards> rewards) throws PrismException
+	{
+		this.rewards = rewards;
 		switch (model.getModelType()) {
 		case DTMC:
 			return minimiseDTMC((DTMC) model, propNames, propBSs);
 		case CTMC:
 			return minimiseCTMC((CTMC) model, propNames, propBSs);
+		case MDP:
+			return minimiseMDP((MDP) model, propNames, propBSs);
+		case CTMDP:
+			return minimiseCTMDP((CTMDP) model, propNames, propBSs);
 		default:
 			throw new PrismNotSupportedException("Bisimulation minimisation not yet supported for " + model.getModelType() + "s");
 		}
@@ -82,24 +144,12 @@ public class Bisimulation extends PrismComponent
 	 */
 	private DTMC minimiseDTMC(DTMC dtmc, List<String> propNames, List<BitSet> propBSs)
 	{
-		// Create initial partition based on propositions
-		initialisePartitionInfo(dtmc, propBSs);
-		//printPartition(dtmc);
-
-		// Iterative splitting
-		boolean changed = true;
-		while (changed)
-			changed = splitDTMC(dtmc);
-		mainLog.println("Minimisation: " + numStates + " to " + numBlocks + " States");
-		//printPartition(dtmc);
+		// Compute bisimulation
+		computePartition(dtmc, propBSs);
 
 		// Build reduced model
 		DTMCSimple dtmcNew = new DTMCSimple(numBlocks);
-		for (int i = 0; i < numBlocks; i++) {
-			for (Map.Entry<Integer, Double> e : mdp.getChoice(i, 0)) {
-				dtmcNew.setProbability((Integer) mdp.getAction(i, 0), e.getKey(), e.getValue());
-			}
-		}
+		buildQuotient(dtmc, dtmcNew);
 		attachStatesAndLabels(dtmc, dtmcNew, propNames, propBSs);
 
 		return dtmcNew;
@@ -113,31 +163,88 @@ public class Bisimulation extends PrismComponent
 	 */
 	private CTMC minimiseCTMC(CTMC ctmc, List<String> propNames, List<BitSet> propBSs)
 	{
-		// Create initial partition based on propositions
-		initialisePartitionInfo(ctmc, propBSs);
-		//printPartition(ctmc);
-
-		// Iterative splitting
-		boolean changed = true;
-		while (changed)
-			changed = splitDTMC(ctmc);
-		mainLog.println("Minimisation: " + numStates + " to " + numBlocks + " States");
-		//printPartition(ctmc);
+		// Compute bisimulation (on rates, rather than probabilities)
+		computePartition(ctmc, propBSs);
 
 		// Build reduced model
 		CTMCSimple ctmcNew = new CTMCSimple(numBlocks);
-		for (int i = 0; i < numBlocks; i++) {
-			for (Map.Entry<Integer, Double> e : mdp.getChoice(i, 0)) {
-				ctmcNew.setProbability((Integer) mdp.getAction(i, 0), e.getKey(), e.getValue());
-			}
-		}
+		buildQuotient(ctmc, ctmcNew);
 		attachStatesAndLabels(ctmc, ctmcNew, propNames, propBSs);
 
 		return ctmcNew;
 	}
 
 	/**
-	 * Construct the initial partition based on a set of proposition bitsets.
+	 * Perform bisimulation minimisation on an MDP.
+	 * @param mdp The MDP
+	 * @param propNames Names of the propositions in {@code propBSs}
+	 * @param propBSs Propositions (satisfying sets of states) to be preserved by bisimulation.
+	 */
+	private MDP minimiseMDP(MDP mdp, List<String> propNames, List<BitSet> propBSs) throws PrismException
+	{
+		// Compute bisimulation
+		computePartition(mdp, propBSs);
+
+		// Build reduced model
+		MDPSimple mdpNew = new MDPSimple(numBlocks);
+		buildQuotient(mdp, mdpNew);
+		attachStatesAndLabels(mdp, mdpNew, propNames, propBSs);
+
+		return mdpNew;
+	}
+
+	/**
+	 * Perform bisimulation minimisation on a CTMDP.
+	 * @param ctmdp The CTMDP
+	 * @param propNames Names of the propositions in {@code propBSs}
+	 * @param propBSs Propositions (satisfying sets of states) to be preserved by bisimulation.
+	 */
+	private CTMDP minimiseCTMDP(CTMDP ctmdp, List<String> propNames, List<BitSet> propBSs) throws PrismException
+	{
+		// Compute bisimulation (on rates, rather than probabilities)
+		computePartition(ctmdp, propBSs);
+
+		// Build reduced model
+		CTMDPSimple ctmdpNew = new CTMDPSimple(numBlocks);
+		buildQuotient(ctmdp, ctmdpNew);
+		attachStatesAndLabels(ctmdp, ctmdpNew, propNames, propBSs);
+
+		return ctmdpNew;
+	}
+
+	/**
+	 * Compute the coarsest bisimulation of a model that respects the propositions {@code propBSs}.
+	 * Store info in {@code numStates}, {@code numBlocks}, {@code partition}
+	 * and {@code representatives}; blocks are numbered in order of their lowest-index state.
+	 */
+	private void computePartition(Model model, List<BitSet> propBSs)
+	{
+		// Create initial partition based on propositions
+		initialisePartitionInfo(model, propBSs);
+		//printPartition(model);
+
+		// Refine
+		if (model instanceof NondetModel) {
+			actionIndices = new HashMap<Object, Integer>();
+			NondetModel nondetModel = (NondetModel) model;
+			for (int s = 0; s < numStates; s++) {
+				for (int i = 0, numChoices = nondetModel.getNumChoices(s); i < numChoices; i++) {
+					Object action = nondetModel.getAction(s, i);
+					if (!actionIndices.containsKey(action)) {
+						actionIndices.put(action, actionIndices.size());
+					}
+				}
+			}
+		}
+		refine(model);
+		renumberBlocks();
+		mainLog.println("Minimisation: " + numStates + " to " + numBlocks + " States");
+		//printPartition(model);
+	}
+
+	/**
+	 * Construct the initial partition based on a set of proposition bitsets
+	 * (and the state rewards of the reward structures to be preserved).
 	 * Store info in {@code numStates}, {@code numBlocks} and {@code partition}.
 	 */
 	private void initialisePartitionInfo(Model model, List<BitSet> propBSs)
@@ -179,51 +286,432 @@ public class Bisimulation extends PrismComponent
 				partition[i] = j;
 			}
 		}
+
+		// Split further according to state rewards
+		if (!rewards.isEmpty()) {
+			Map<Signature, Integer> blocks = new HashMap<Signature, Integer>();
+			int numRewards = rewards.size();
+			for (int s = 0; s < numStates; s++) {
+				long[] data = new long[numRewards + 1];
+				data[0] = partition[s];
+				for (int r = 0; r < numRewards; r++) {
+					Rewards rew = rewards.get(r);
+					double d = (rew instanceof MDPRewards) ? ((MDPRewards) rew).getStateReward(s) : ((MCRewards) rew).getStateReward(s);
+					data[r + 1] = Double.doubleToLongBits(d + 0.0);
+				}
+				Integer b = blocks.putIfAbsent(new Signature(data), blocks.size());
+				partition[s] = b == null ? blocks.size() - 1 : b;
+			}
+			numBlocks = blocks.size();
+		}
+	}
+
+	/**
+	 * Refine the current partition until it is stable,
+	 * i.e. all states in each block have the same signature.
+	 */
+	private void refine(Model model)
+	{
+		// Set up storage for blocks, sorting states by block
+		blockStarts = new int[numStates];
+		blockSizes = new int[numStates];
+		for (int s = 0; s < numStates; s++) {
+			blockSizes[partition[s]]++;
+		}
+		for (int b = 1; b < numBlocks; b++) {
+			blockStarts[b] = blockStarts[b - 1] + blockSizes[b - 1];
+		}
+		blockStates = new int[numStates];
+		int[] next = Arrays.copyOf(blockStarts, numBlocks);
+		for (int s = 0; s < numStates; s++) {
+			blockStates[next[partition[s]]++] = s;
+		}
+
+		// Predecessors, to find blocks affected by a split
+		PredecessorRelation pre = model.hasStoredPredecessorRelation() ? model.getPredecessorRelation(this, false) : new PredecessorRelation(model, numThreads);
+
+		// Queue of blocks to be examined (initially all)
+		int[] queue = new int[Math.max(16, numBlocks)];
+		int queueSize = 0;
+		BitSet queued = new BitSet();
+		for (int b = numBlocks - 1; b >= 0; b--) {
+			queue[queueSize++] = b;
+			queued.set(b);
+		}
+		SignatureBuilder builder = new SignatureBuilder();
+		while (queueSize > 0) {
+			int b = queue[--queueSize];
+			queued.clear(b);
+			int start = blockStarts[b];
+			int size = blockSizes[b];
+			if (size > 1 && splitBlock(model, b, builder)) {
+				// The signatures of predecessors of (any part of) the block may have changed
+				for (int j = start, end = start + size; j < end; j++) {
+					for (int i = pre.preStarts[blockStates[j]], iEnd = pre.preStarts[blockStates[j] + 1]; i < iEnd; i++) {
+						int c = partition[pre.pre[i]];
+						if (blockSizes[c] > 1 && !queued.get(c)) {
+							if (queueSize == queue.length) {
+								queue = Arrays.copyOf(queue, 2 * queue.length);
+							}
+							queue[queueSize++] = c;
+							queued.set(c);
+						}
+					}
+				}
+			}
+		}
 	}
 
 	/**
-	 * Perform a split of the current partition, if possible, updating {@code numBlocks} and {@code partition}.
-	 * @return whether or not the partition was split 
+	 * Split block {@code b} according to the signatures of its states (w.r.t. the current partition).
+	 * The first sub-block (that of the first state of the block) keeps index {@code b},
+	 * the others get new indices.
+	 * @return whether or not the block was split
 	 */
-	private boolean splitDTMC(DTMC dtmc)
+	private boolean splitBlock(Model model, int b, SignatureBuilder builder)
 	{
-		int s, a, i, numBlocksNew, numChoicesOld;
-		Distribution distrNew;
-		int partitionNew[];
-
-		partitionNew = new int[numStates];
-		numBlocksNew = 0;
-		// Compute the signature for each state (i.e. the distribution for outgoing
-		// transitions, lifted to the current partition)
-		// For convenience, we just store them as an MDP, with action label equal to the index of the block
-		mdp = new MDPSimple(numBlocks);
-		for (s = 0; s < numStates; s++) {
-			// Build lifted distribution
-			Iterator<Map.Entry<Integer, Double>> iter = dtmc.getTransitionsIterator(s);
-			distrNew = new Distribution();
-			while (iter.hasNext()) {
-				Map.Entry<Integer, Double> e = iter.next();
-				distrNew.add(partition[e.getKey()], e.getValue());
+		final int start = blockStarts[b];
+		final int size = blockSizes[b];
+
+		// Compute signatures
+		final Signature[] sigs = new Signature[size];
+		if (numThreads > 1 && size >= MIN_PARALLEL_BLOCK_SIZE) {
+			PredecessorRelation.parallelFor(numThreads, size, (from, to) -> {
+				SignatureBuilder threadBuilder = new SignatureBuilder();
+				for (int j = from; j < to; j++) {
+					sigs[j] = computeSignature(model, blockStates[start + j], threadBuilder);
+				}
+			});
+		} else {
+			for (int j = 0; j < size; j++) {
+				sigs[j] = computeSignature(model, blockStates[start + j], builder);
+			}
+		}
+
+		// Group states by signature (numbering groups in order of occurrence)
+		Map<Signature, Integer> groups = new HashMap<Signature, Integer>();
+		int[] group = new int[size];
+		for (int j = 0; j < size; j++) {
+			Integer g = groups.putIfAbsent(sigs[j], groups.size());
+			group[j] = g == null ? groups.size() - 1 : g;
+		}
+		int numGroups = groups.size();
+		if (numGroups == 1) {
+			return false;
+		}
+
+		// Reorder the states of the block by group and create the new blocks
+		int[] groupStarts = new int[numGroups + 1];
+		for (int j = 0; j < size; j++) {
+			groupStarts[group[j] + 1]++;
+		}
+		for (int g = 0; g < numGroups; g++) {
+			groupStarts[g + 1] += groupStarts[g];
+		}
+		int[] sorted = new int[size];
+		int[] next = Arrays.copyOf(groupStarts, numGroups);
+		for (int j = 0; j < size; j++) {
+			sorted[next[group[j]]++] = blockStates[start + j];
+		}
+		System.arraycopy(sorted, 0, blockStates, start, size);
+		for (int g = 0; g < numGroups; g++) {
+			int id = g == 0 ? b : numBlocks++;
+			blockStarts[id] = start + groupStarts[g];
+			blockSizes[id] = groupStarts[g + 1] - groupStarts[g];
+			for (int j = groupStarts[g]; j < groupStarts[g + 1]; j++) {
+				partition[sorted[j]] = id;
 			}
-			// Store in MDP, update new partition
-			a = partition[s];
-			numChoicesOld = mdp.getNumChoices(a);
-			i = mdp.addChoice(a, distrNew);
-			if (i == numChoicesOld)
-				mdp.setAction(a, i, numBlocksNew++);
-			partitionNew[s] = (Integer) mdp.getAction(a, i);
-		}
-		// Debug info
-		//mainLog.println("New partition: " + java.util.Arrays.toString(partitionNew));
-		//mainLog.println("Signatures MDP: " + mdp.infoString());
-		//mainLog.println("Signatures MDP: " + mdp);
-		//try { mdp.exportToDotFile("mdp.dot"); } catch (PrismException e) {}
-		// Update info
-		boolean changed = numBlocks != numBlocksNew;
-		partition = partitionNew;
-		numBlocks = numBlocksNew;
-
-		return changed;
+		}
+		return true;
+	}
+
+	/**
+	 * Renumber blocks in order of their lowest-index state
+	 * (so that the result does not depend on the order of refinement),
+	 * and store a representative (this state) for each block.
+	 */
+	private void renumberBlocks()
+	{
+		int[] renumber = new int[numBlocks];
+		Arrays.fill(renumber, -1);
+		representatives = new int[numBlocks];
+		int count = 0;
+		for (int s = 0; s < numStates; s++) {
+			int b = partition[s];
+			if (renumber[b] == -1) {
+				representatives[count] = s;
+				renumber[b] = count++;
+			}
+			partition[s] = renumber[b];
+		}
+		blockStates = blockStarts = blockSizes = null;
+	}
+
+	/**
+	 * Compute the signature of state {@code s}, w.r.t. the current partition.
+	 */
+	private Signature computeSignature(Model model, int s, SignatureBuilder builder)
+	{
+		if (model instanceof NondetModel) {
+			MDP mdp = (MDP) model;
+			int numChoices = mdp.getNumChoices(s);
+			long[][] choiceSigs = new long[numChoices][];
+			int length = 0;
+			for (int i = 0; i < numChoices; i++) {
+				builder.clear();
+				mdp.forEachTransition(s, i, (s_, t, p) -> builder.add(partition[t], p));
+				choiceSigs[i] = addTransitionRewards(builder.toSignature(actionIndices.get(mdp.getAction(s, i))), s, i);
+			}
+			// Sort choices, removing duplicates, and concatenate
+			Arrays.sort(choiceSigs, Bisimulation::compareSignatures);
+			int numDistinct = 0;
+			for (int i = 0; i < numChoices; i++) {
+				if (numDistinct == 0 || compareSignatures(choiceSigs[numDistinct - 1], choiceSigs[i]) != 0) {
+					choiceSigs[numDistinct++] = choiceSigs[i];
+					length += choiceSigs[i].length + 1;
+				}
+			}
+			long[] data = new long[length];
+			int k = 0;
+			for (int i = 0; i < numDistinct; i++) {
+				data[k++] = choiceSigs[i].length;
+				System.arraycopy(choiceSigs[i], 0, data, k, choiceSigs[i].length);
+				k += choiceSigs[i].length;
+			}
+			return new Signature(data);
+		} else {
+			builder.clear();
+			((DTMC) model).forEachTransition(s, (s_, t, p) -> builder.add(partition[t], p));
+			return new Signature(builder.toSignature(0));
+		}
+	}
+
+	/**
+	 * Append the transition rewards (of the reward structures to be preserved)
+	 * for choice {@code i} of state {@code s} to its signature {@code sig}.
+	 */
+	private long[] addTransitionRewards(long[] sig, int s, int i)
+	{
+		if (rewards.isEmpty()) {
+			return sig;
+		}
+		int n = sig.length;
+		long[] data = Arrays.copyOf(sig, n + rewards.size());
+		for (Rewards rew : rewards) {
+			data[n++] = Double.doubleToLongBits(((MDPRewards) rew).getTransitionReward(s, i) + 0.0);
+		}
+		return data;
+	}
+
+	/**
+	 * Lexicographic comparison of (choice) signatures.
+	 */
+	private static int compareSignatures(long[] a, long[] b)
+	{
+		for (int i = 0, n = Math.min(a.length, b.length); i < n; i++) {
+			if (a[i] != b[i]) {
+				return a[i] < b[i] ? -1 : 1;
+			}
+		}
+		return Integer.compare(a.length, b.length);
+	}
+
+	/**
+	 * Build the quotient of a DTMC/CTMC w.r.t. the current partition,
+	 * using the distribution (lifted to the partition) of each block's representative.
+	 */
+	private void buildQuotient(DTMC dtmc, DTMCSimple dtmcNew)
+	{
+		SignatureBuilder builder = new SignatureBuilder();
+		for (int b = 0; b < numBlocks; b++) {
+			builder.clear();
+			dtmc.forEachTransition(representatives[b], (s, t, p) -> builder.add(partition[t], p));
+			int n = builder.lift();
+			for (int k = 0; k < n; k++) {
+				dtmcNew.setProbability(b, builder.blocks[k], builder.probs[k]);
+			}
+		}
+		addInitialStatesAndDeadlocks(dtmc, dtmcNew);
+	}
+
+	/**
+	 * Build the quotient of an MDP/CTMDP w.r.t. the current partition,
+	 * using the choices (lifted to the partition) of each block's representative.
+	 */
+	private void buildQuotient(MDP mdp, MDPSimple mdpNew) throws PrismException
+	{
+		SignatureBuilder builder = new SignatureBuilder();
+		for (int b = 0; b < numBlocks; b++) {
+			int s = representatives[b];
+			for (int i = 0, numChoices = mdp.getNumChoices(s); i < numChoices; i++) {
+				builder.clear();
+				mdp.forEachTransition(s, i, (s_, t, p) -> builder.add(partition[t], p));
+				int n = builder.lift();
+				Distribution distr = new Distribution();
+				for (int k = 0; k < n; k++) {
+					distr.add(builder.blocks[k], builder.probs[k]);
+				}
+				Object action = mdp.getAction(s, i);
+				if (action == null) {
+					mdpNew.addChoice(b, distr);
+				} else {
+					mdpNew.addActionLabelledChoice(b, distr, action);
+				}
+			}
+		}
+		addInitialStatesAndDeadlocks(mdp, mdpNew);
+	}
+
+	/**
+	 * Mark the blocks containing initial states of the original model as initial in the minimised model.
+	 * Also mark blocks whose representative is a (fixed) deadlock state as deadlocks,
+	 * since these get no transition rewards when rewards are constructed for the minimised model.
+	 */
+	private void addInitialStatesAndDeadlocks(Model model, ModelExplicit modelNew)
+	{
+		for (int s : model.getInitialStates()) {
+			if (!modelNew.isInitialState(partition[s])) {
+				modelNew.addInitialState(partition[s]);
+			}
+		}
+		for (int b = 0; b < numBlocks; b++) {
+			if (model.isDeadlockState(representatives[b])) {
+				modelNew.addDeadlockState(b);
+			}
+		}
+	}
+
+	/**
+	 * The signature of a state, stored as an array of longs
+	 * (see {@link SignatureBuilder#toSignature(int)} and {@link Bisimulation#computeSignature}).
+	 */
+	private static final class Signature
+	{
+		private final long[] data;
+		private final int hash;
+
+		private Signature(long[] data)
+		{
+			this.data = data;
+			this.hash = Arrays.hashCode(data);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			return o instanceof Signature && hash == ((Signature) o).hash && Arrays.equals(data, ((Signature) o).data);
+		}
+	}
+
+	/**
+	 * Helper class to lift a distribution to the current partition, i.e.,
+	 * to sum the probabilities (or rates) of the transitions going to each block.
+	 * Scratch storage is reused between calls (one instance per thread).
+	 */
+	private static final class SignatureBuilder
+	{
+		private int[] blocks = new int[16];
+		private double[] probs = new double[16];
+		private int size = 0;
+
+		private void clear()
+		{
+			size = 0;
+		}
+
+		private void add(int block, double prob)
+		{
+			if (size == blocks.length) {
+				blocks = Arrays.copyOf(blocks, 2 * size);
+				probs = Arrays.copyOf(probs, 2 * size);
+			}
+			blocks[size] = block;
+			probs[size] = prob;
+			size++;
+		}
+
+		/**
+		 * Sort the entries by block, summing the probabilities for each block (and dropping zeros).
+		 * Returns the number of resulting entries, stored in {@code blocks} and {@code probs}.
+		 */
+		private int lift()
+		{
+			// Sort by block (insertion sort, since distributions are usually small)
+			if (size > 32) {
+				long[] keys = new long[size];
+				for (int k = 0; k < size; k++) {
+					keys[k] = ((long) blocks[k] << 32) | k;
+				}
+				Arrays.sort(keys);
+				int[] blocksSorted = new int[size];
+				double[] probsSorted = new double[size];
+				for (int k = 0; k < size; k++) {
+					int index = (int) keys[k];
+					blocksSorted[k] = blocks[index];
+					probsSorted[k] = probs[index];
+				}
+				System.arraycopy(blocksSorted, 0, blocks, 0, size);
+				System.arraycopy(probsSorted, 0, probs, 0, size);
+			} else {
+				for (int k = 1; k < size; k++) {
+					int block = blocks[k];
+					double prob = probs[k];
+					int j = k - 1;
+					while (j >= 0 && blocks[j] > block) {
+						blocks[j + 1] = blocks[j];
+						probs[j + 1] = probs[j];
+						j--;
+					}
+					blocks[j + 1] = block;
+					probs[j + 1] = prob;
+				}
+			}
+			// Merge entries for the same block
+			int n = 0;
+			for (int k = 0; k < size; k++) {
+				if (n > 0 && blocks[n - 1] == blocks[k]) {
+					probs[n - 1] += probs[k];
+				} else {
+					blocks[n] = blocks[k];
+					probs[n] = probs[k];
+					n++;
+				}
+			}
+			// Remove zeros
+			int m = 0;
+			for (int k = 0; k < n; k++) {
+				if (probs[k] != 0) {
+					blocks[m] = blocks[k];
+					probs[m] = probs[k];
+					m++;
+				}
+			}
+			return m;
+		}
+
+		/**
+		 * Lift the distribution and encode it, with a preceding tag (e.g. an action index),
+		 * as an array of longs: tag, block_1, prob_1, block_2, prob_2, ...
+		 * Probabilities are rounded to SIGNATURE_MANTISSA_BITS bits of mantissa,
+		 * so that values that differ only due to round-off in the summation are treated as equal.
+		 */
+		private long[] toSignature(int tag)
+		{
+			int n = lift();
+			long[] data = new long[2 * n + 1];
+			data[0] = tag;
+			for (int k = 0; k < n; k++) {
+				data[2 * k + 1] = blocks[k];
+				data[2 * k + 2] = (Double.doubleToLongBits(probs[k]) + (1L << (SIGNATURE_ROUNDING_BITS - 1))) & ~((1L << SIGNATURE_ROUNDING_BITS) - 1);
+			}
+			return data;
+		}
 	}
 
 	/**
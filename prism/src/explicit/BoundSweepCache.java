@@ -0,0 +1,127 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <david.parker@comlab.ox.ac.uk> (University of Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * Stores the solution vector of the most recent (step/time-)bounded until computation,
+ * so that, during an experiment sweeping over increasing values of the bound,
+ * the computation for the next bound can continue from the previous one,
+ * rather than starting again from scratch.
+ * <br>
+ * A stored vector is only reused for the same model (object) and the same
+ * {@code remain}/{@code target} state sets, and only if its bound does not
+ * exceed the one requested; otherwise, the computation starts from scratch.
+ */
+public class BoundSweepCache
+{
+	// Key of the stored computation
+	private Model model = null;
+	private BitSet remain = null;
+	private BitSet target = null;
+	// Bound and solution vector for it
+	private double bound = 0;
+	private double soln[] = null;
+
+	// Statistics
+	private int numReused = 0;
+	private int numRestarted = 0;
+
+	/**
+	 * Get a copy of the stored solution vector, if it can be reused
+	 * for computing bounded until probabilities for the bound {@code bound},
+	 * i.e. if it is for the same model and state sets and for a bound no larger than this.
+	 * Returns null if there is no such vector. Use {@link #getBound()} to get its bound.
+	 * @param model The model
+	 * @param remain Remain in these states (optional: null means "all")
+	 * @param target Target states
+	 * @param bound Bound (number of steps or time) required
+	 */
+	public double[] lookup(Model model, BitSet remain, BitSet target, double bound)
+	{
+		if (soln == null || this.model != model || this.bound > bound || !Objects.equals(this.remain, remain) || !this.target.equals(target)) {
+			numRestarted++;
+			return null;
+		}
+		numReused++;
+		return soln.clone();
+	}
+
+	/**
+	 * Get the bound of the vector last returned by {@link #lookup}.
+	 */
+	public double getBound()
+	{
+		return bound;
+	}
+
+	/**
+	 * Store (a copy of) the solution vector of a bounded until computation,
+	 * replacing any previously stored vector.
+	 * @param model The model
+	 * @param remain Remain in these states (optional: null means "all")
+	 * @param target Target states
+	 * @param bound Bound (number of steps or time)
+	 * @param soln Solution vector
+	 */
+	public void store(Model model, BitSet remain, BitSet target, double bound, double soln[])
+	{
+		this.model = model;
+		this.remain = (remain == null) ? null : (BitSet) remain.clone();
+		this.target = (BitSet) target.clone();
+		this.bound = bound;
+		this.soln = soln.clone();
+	}
+
+	/**
+	 * Discard any stored vector (statistics are kept).
+	 */
+	public void clear()
+	{
+		model = null;
+		remain = target = null;
+		soln = null;
+	}
+
+	/**
+	 * Get the number of computations that continued from a stored vector.
+	 */
+	public int getNumReused()
+	{
+		return numReused;
+	}
+
+	/**
+	 * Get the number of computations that started from scratch.
+	 */
+	public int getNumRestarted()
+	{
+		return numRestarted;
+	}
+}
@@ -194,16 +194,8 @@ public class CTMCModelChecker extends ProbModelChecker
 			// <= uTime
 			else if (lTime == 0) {
 				// nb: uTime != 0 since would be caught above (trivial case)
-				b1.andNot(b2);
-				res = computeTransientBackwardsProbs((CTMC) model, b2, b1, uTime, null);
+				res = computeTimeBoundedUntilProbs((CTMC) model, b1, b2, uTime);
 				probs = StateValues.createFromDoubleArray(res.soln, model);
-				// set values to exactly 1 for target (b2) states
-				// (these are computed inexactly during uniformisation)
-				int n = model.getNumStates();
-				for (int i = 0; i < n; i++) {
-					if (b2.get(i))
-						probs.setDoubleValue(i, 1);
-				}
 			}
 			// [lTime,uTime] (including where lTime == uTime)
 			else {
@@ -377,6 +369,9 @@ public class CTMCModelChecker extends ProbModelChecker
 	 * Compute time-bounded until probabilities,
 	 * i.e. compute the probability of reaching a state in {@code target},
 	 * within time {@code t}, and while remaining in states in {@code remain}.
+	 * If a {@link BoundSweepCache} has been set, and it stores the solution for
+	 * the same states and a bound t' <= t, the computation only covers the remaining time t-t',
+	 * starting from the stored solution (so the uniformisation error accumulates over a sweep).
 	 * @param ctmc The CTMC
 	 * @param remain Remain in these states (optional: null means "all")
 	 * @param target Target states
@@ -384,12 +379,26 @@ public class CTMCModelChecker extends ProbModelChecker
 	 */
 	public ModelCheckerResult computeTimeBoundedUntilProbs(CTMC ctmc, BitSet remain, BitSet target, double t) throws PrismException
 	{
+		ModelCheckerResult res;
 		BitSet nonAbs = null;
 		if (remain != null) {
 			nonAbs = (BitSet) remain.clone();
 			nonAbs.andNot(target);
 		}
-		ModelCheckerResult res = computeTransientBackwardsProbs(ctmc, target, nonAbs, t, null);
+		double init[] = (boundSweepCache == null) ? null : boundSweepCache.lookup(ctmc, remain, target, t);
+		if (init == null) {
+			res = computeTransientBackwardsProbs(ctmc, target, nonAbs, t, null);
+		} else if (t == boundSweepCache.getBound()) {
+			res = new ModelCheckerResult();
+			res.soln = init;
+		} else {
+			double tPrev = boundSweepCache.getBound();
+			mainLog.println("\nContinuing backwards transient probability computation from previous time bound " + tPrev + "...");
+			// The probabilities for time t are those of the stored vector (for all states) after a further time t-t'
+			BitSet all = new BitSet();
+			all.set(0, ctmc.getNumStates());
+			res = computeTransientBackwardsProbs(ctmc, all, nonAbs, t - tPrev, init);
+		}
 		// Set values to exactly 1 for target states
 		// (these are computed inexactly during uniformisation)
 		int n = ctmc.getNumStates();
@@ -397,6 +406,9 @@ public class CTMCModelChecker extends ProbModelChecker
 			if (target.get(i))
 				res.soln[i] = 1.0;
 		}
+		if (boundSweepCache != null) {
+			boundSweepCache.store(ctmc, remain, target, t, res.soln);
+		}
 		return res;
 	}
 
@@ -26,7 +26,6 @@
 
 package explicit;
 
-import java.util.Map;
 import java.util.BitSet;
 
 import prism.ModelType;
@@ -176,9 +175,9 @@ public class CTMCSimple extends DTMCSimple implements CTMC
 			if (d == 0) {
 				dtmc.setProbability(i, i, 1.0);
 			} else {
-				for (Map.Entry<Integer, Double> e : distr) {
-					dtmc.setProbability(i, e.getKey(), e.getValue() / d);
-				}
+				final int src = i;
+				final double sum = d;
+				distr.forEach((j, rate) -> dtmc.setProbability(src, j, rate / sum));
 			}
 		}
 		return dtmc;
@@ -215,9 +214,8 @@ public class CTMCSimple extends DTMCSimple implements CTMC
 		for (i = 0; i < numStates; i++) {
 			// Add scaled off-diagonal entries
 			distr = trans.get(i);
-			for (Map.Entry<Integer, Double> e : distr) {
-				dtmc.setProbability(i, e.getKey(), e.getValue() / q);
-			}
+			final int src = i;
+			distr.forEach((j, rate) -> dtmc.setProbability(src, j, rate / q));
 			// Add diagonal, if needed
 			d = distr.sumAllBut(i);
 			if (d < q) {
@@ -0,0 +1,479 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import parser.State;
+import parser.VarList;
+import parser.ast.DeclarationBool;
+import parser.ast.DeclarationInt;
+import parser.ast.DeclarationType;
+
+/**
+ * Compact storage for an indexed set of states, typically used for storing
+ * the state space during reachability.
+ * <br>
+ * Each state is bit-packed into one or more {@code long}s, using the variable
+ * bounds from a {@link VarList}, and the mapping from states to indices is kept
+ * in an open-addressing hash table of {@code int}s. No {@link State} objects are
+ * retained: they are decoded on demand. This only works for models where all
+ * variables are bounded integers or Booleans (see {@link #isSupported(VarList)}).
+ * <br>
+ * Variables are packed from the most significant bit of the first word onwards,
+ * storing the offset from the lower bound, so that comparing the packed words
+ * (as unsigned values) gives the same ordering as {@link State#compareTo(State)}.
+ */
+public class CompactStateStorage implements StateStorage<State>
+{
+	/** Maximum load factor for the hash table */
+	private static final double MAX_LOAD = 0.75;
+
+	// Variable info
+	private VarList varList;
+	private int numVars;
+	/** Is the ith variable Boolean? */
+	private boolean isBool[];
+	/** Lower bound of the ith variable */
+	private int low[];
+	/** Range (number of values) of the ith variable */
+	private int range[];
+	/** Word containing the ith variable */
+	private int word[];
+	/** Bit shift of the ith variable within its word */
+	private int shift[];
+	/** Bit mask (after shifting) of the ith variable */
+	private long mask[];
+	/** Number of words (longs) per state */
+	private int numWords;
+	/** Number of bits per state actually used */
+	private int numBits;
+
+	// Storage
+	/** Packed states, numWords per state, ordered by index */
+	private long keys[];
+	/** Number of states stored */
+	private int size;
+	/** Hash table: stores (index + 1) of each state, 0 denotes an empty slot */
+	private int table[];
+	/** Index of last state added or looked up in {@link #add(State)} */
+	private int indexOfLastAdd;
+	/** Temporary storage for encoding */
+	private long scratch[];
+
+	/**
+	 * Check whether the variables in a {@link VarList} can be stored by this class,
+	 * i.e., whether they are all bounded integers or Booleans.
+	 */
+	public static boolean isSupported(VarList varList)
+	{
+		if (varList == null)
+			return false;
+		int n = varList.getNumVars();
+		for (int i = 0; i < n; i++) {
+			DeclarationType declType = varList.getDeclaration(i).getDeclType();
+			if (!(declType instanceof DeclarationInt || declType instanceof DeclarationBool)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Construct empty storage for states over the variables in {@code varList}.
+	 * It is assumed that {@link #isSupported(VarList)} is true for {@code varList}.
+	 */
+	public CompactStateStorage(VarList varList)
+	{
+		this.varList = varList;
+		numVars = varList.getNumVars();
+		isBool = new boolean[numVars];
+		low = new int[numVars];
+		range = new int[numVars];
+		word = new int[numVars];
+		shift = new int[numVars];
+		mask = new long[numVars];
+		// Lay out variables, none of which straddles a word boundary
+		int w = 0, used = 0;
+		numBits = 0;
+		for (int i = 0; i < numVars; i++) {
+			isBool[i] = varList.getDeclaration(i).getDeclType() instanceof DeclarationBool;
+			low[i] = varList.getLow(i);
+			range[i] = varList.getRange(i);
+			int bits = Math.max(1, varList.getRangeLogTwo(i));
+			if (used + bits > 64) {
+				w++;
+				used = 0;
+			}
+			word[i] = w;
+			shift[i] = 64 - used - bits;
+			mask[i] = (1L << bits) - 1;
+			used += bits;
+			numBits += bits;
+		}
+		numWords = w + 1;
+		scratch = new long[numWords];
+		clear();
+	}
+
+	/**
+	 * Get the number of {@code long}s used to store each state.
+	 */
+	public int getNumWords()
+	{
+		return numWords;
+	}
+
+	/**
+	 * Get the number of bits used to encode each state.
+	 */
+	public int getNumBits()
+	{
+		return numBits;
+	}
+
+	@Override
+	public void clear()
+	{
+		keys = new long[numWords * 16];
+		table = new int[32];
+		size = 0;
+		indexOfLastAdd = -1;
+	}
+
+	@Override
+	public boolean add(State state)
+	{
+		encode(state, scratch);
+		int tableMask = table.length - 1;
+		int pos = hash(scratch, 0) & tableMask;
+		while (true) {
+			int e = table[pos];
+			if (e == 0) {
+				break;
+			}
+			if (keyEquals(e - 1, scratch)) {
+				indexOfLastAdd = e - 1;
+				return false;
+			}
+			pos = (pos + 1) & tableMask;
+		}
+		// New state: store key and add to table
+		ensureKeyCapacity(size + 1);
+		System.arraycopy(scratch, 0, keys, size * numWords, numWords);
+		table[pos] = size + 1;
+		indexOfLastAdd = size;
+		size++;
+		if (size > table.length * MAX_LOAD) {
+			rehash(table.length * 2);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean contains(State state)
+	{
+		return get(state) != -1;
+	}
+
+	/**
+	 * Get the index of a state, or -1 if it is not stored.
+	 */
+	@Override
+	public int get(State state)
+	{
+		encode(state, scratch);
+		int tableMask = table.length - 1;
+		int pos = hash(scratch, 0) & tableMask;
+		while (true) {
+			int e = table[pos];
+			if (e == 0) {
+				return -1;
+			}
+			if (keyEquals(e - 1, scratch)) {
+				return e - 1;
+			}
+			pos = (pos + 1) & tableMask;
+		}
+	}
+
+	/**
+	 * Get (a newly created copy of) the state with index {@code i}.
+	 */
+	public State getState(int i)
+	{
+		State state = new State(numVars);
+		int base = i * numWords;
+		for (int j = 0; j < numVars; j++) {
+			int val = (int) ((keys[base + word[j]] >>> shift[j]) & mask[j]);
+			if (isBool[j]) {
+				state.varValues[j] = val != 0 ? Boolean.TRUE : Boolean.FALSE;
+			} else {
+				state.varValues[j] = Integer.valueOf(val + low[j]);
+			}
+		}
+		return state;
+	}
+
+	@Override
+	public int getIndexOfLastAdd()
+	{
+		return indexOfLastAdd;
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Get access to the underlying set of map entries.
+	 * Note that, since states are not stored explicitly, this is created
+	 * from scratch on each call, which is expensive for large state spaces.
+	 */
+	@Override
+	public Set<Map.Entry<State, Integer>> getEntrySet()
+	{
+		Map<State, Integer> map = new LinkedHashMap<State, Integer>(size);
+		for (int i = 0; i < size; i++) {
+			map.put(getState(i), i);
+		}
+		return map.entrySet();
+	}
+
+	@Override
+	public ArrayList<State> toArrayList()
+	{
+		ArrayList<State> list = new ArrayList<State>(size);
+		toArrayList(list);
+		return list;
+	}
+
+	@Override
+	public void toArrayList(ArrayList<State> list)
+	{
+		for (int i = 0; i < size; i++) {
+			list.add(getState(i));
+		}
+	}
+
+	@Override
+	public ArrayList<State> toPermutedArrayList(int permut[])
+	{
+		ArrayList<State> list = new ArrayList<State>(size);
+		toPermutedArrayList(permut, list);
+		return list;
+	}
+
+	@Override
+	public void toPermutedArrayList(int permut[], ArrayList<State> list)
+	{
+		for (int i = 0; i < size; i++) {
+			list.add(null);
+		}
+		for (int i = 0; i < size; i++) {
+			list.set(permut[i], getState(i));
+		}
+	}
+
+	/**
+	 * Build sort permutation, i.e., a permutation (integer array) mapping current indices
+	 * to new indices when states are sorted according to {@link State#compareTo(State)}.
+	 * Unlike {@link IndexedSet}, this storage does not need to be built as a sorted set.
+	 */
+	@Override
+	public int[] buildSortingPermutation()
+	{
+		// Bottom-up merge sort of indices, by packed key
+		int order[] = new int[size];
+		int tmp[] = new int[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		for (int width = 1; width < size; width *= 2) {
+			for (int lo = 0; lo < size; lo += 2 * width) {
+				int mid = Math.min(lo + width, size);
+				int hi = Math.min(lo + 2 * width, size);
+				int a = lo, b = mid, k = lo;
+				while (a < mid && b < hi) {
+					tmp[k++] = compareKeys(order[a], order[b]) <= 0 ? order[a++] : order[b++];
+				}
+				while (a < mid) {
+					tmp[k++] = order[a++];
+				}
+				while (b < hi) {
+					tmp[k++] = order[b++];
+				}
+			}
+			int swap[] = order;
+			order = tmp;
+			tmp = swap;
+		}
+		tmp = null;
+		// Invert to get permutation
+		int perm[] = new int[size];
+		for (int i = 0; i < size; i++) {
+			perm[order[i]] = i;
+		}
+		return perm;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder("{");
+		for (int i = 0; i < size; i++) {
+			if (i > 0)
+				sb.append(", ");
+			sb.append(getState(i)).append("=").append(i);
+		}
+		sb.append("}");
+		return sb.toString();
+	}
+
+	// Private methods
+
+	/**
+	 * Encode a state into {@code numWords} longs, stored in {@code dest}.
+	 * Throws an {@link EncodingException} if the state cannot be encoded,
+	 * e.g. because a variable value is out of range.
+	 */
+	private void encode(State state, long dest[])
+	{
+		Object vals[] = state.varValues;
+		if (vals.length != numVars) {
+			throw new EncodingException("State " + state + " has the wrong number of variables");
+		}
+		for (int w = 0; w < numWords; w++) {
+			dest[w] = 0;
+		}
+		for (int j = 0; j < numVars; j++) {
+			int val;
+			try {
+				val = isBool[j] ? (((Boolean) vals[j]) ? 1 : 0) : ((Integer) vals[j]) - low[j];
+			} catch (ClassCastException | NullPointerException e) {
+				throw new EncodingException("Value " + vals[j] + " is wrong type for variable " + varList.getName(j));
+			}
+			if (val < 0 || val >= range[j]) {
+				throw new EncodingException("Value " + vals[j] + " of variable " + varList.getName(j) + " is out of range");
+			}
+			dest[word[j]] |= ((long) val) << shift[j];
+		}
+	}
+
+	private int hash(long key[], int off)
+	{
+		long h = 0;
+		for (int w = 0; w < numWords; w++) {
+			h = h * 0x9E3779B97F4A7C15L + key[off + w];
+		}
+		// Final mixing (from MurmurHash3)
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+
+	private boolean keyEquals(int i, long key[])
+	{
+		int base = i * numWords;
+		for (int w = 0; w < numWords; w++) {
+			if (keys[base + w] != key[w])
+				return false;
+		}
+		return true;
+	}
+
+	private int compareKeys(int i, int j)
+	{
+		int baseI = i * numWords;
+		int baseJ = j * numWords;
+		for (int w = 0; w < numWords; w++) {
+			int c = Long.compareUnsigned(keys[baseI + w], keys[baseJ + w]);
+			if (c != 0)
+				return c;
+		}
+		return 0;
+	}
+
+	private void ensureKeyCapacity(int n)
+	{
+		if ((long) n * numWords <= keys.length)
+			return;
+		long newLength = Math.max((long) n * numWords, keys.length + (keys.length >> 1));
+		if (newLength > Integer.MAX_VALUE - 8) {
+			newLength = Integer.MAX_VALUE - 8;
+			if ((long) n * numWords > newLength)
+				throw new OutOfMemoryError("Too many states for compact state storage");
+		}
+		long newKeys[] = new long[(int) newLength];
+		System.arraycopy(keys, 0, newKeys, 0, size * numWords);
+		keys = newKeys;
+	}
+
+	private void rehash(int newCapacity)
+	{
+		int newTable[] = new int[newCapacity];
+		int tableMask = newCapacity - 1;
+		for (int i = 0; i < size; i++) {
+			int pos = hash(keys, i * numWords) & tableMask;
+			while (newTable[pos] != 0) {
+				pos = (pos + 1) & tableMask;
+			}
+			newTable[pos] = i + 1;
+		}
+		table = newTable;
+	}
+
+	/**
+	 * Exception thrown when a state cannot be encoded by a {@link CompactStateStorage}
+	 * (e.g. because a variable value does not fit into the bits reserved for it),
+	 * when adding it or looking it up. Unlike other storage, which can store any state,
+	 * this is specific to compact storage, so disabling it may avoid the problem.
+	 */
+	public static class EncodingException extends IllegalArgumentException
+	{
+		private static final long serialVersionUID = 1L;
+
+		public EncodingException(String message)
+		{
+			super(message);
+		}
+	}
+}
@@ -0,0 +1,529 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+import prism.PrismException;
+
+/**
+ * Compressed storage of the rows of a sparse matrix of probabilities,
+ * used by {@link DTMCSparseCompressed} and {@link MDPSparseCompressed}
+ * (rows are the states of a DTMC or the choices of an MDP).
+ * Value iteration is usually limited by memory bandwidth rather than computation,
+ * so reading fewer bytes per transition speeds it up, in exchange for some decoding.
+ * <br><br>
+ * Column (successor) indices are delta-encoded, using the difference to the previous column
+ * in the row (or, for the first one, to the state that the row belongs to):
+ * this is stored as a single signed byte if possible, otherwise as an escape byte followed by
+ * the 2-byte difference or, if that does not fit either, another escape byte followed by
+ * the 4-byte column index.
+ * Probabilities are stored either as indices into a dictionary of distinct values
+ * ({@link Encoding#DICTIONARY}, exact, up to 2^16 distinct values),
+ * or as single-precision floats ({@link Encoding#FLOAT}, lossy).
+ */
+public class CompressedSparseMatrix
+{
+	/** Encodings for probabilities */
+	public enum Encoding {
+		DICTIONARY, FLOAT
+	};
+
+	/** Byte marking a column index that is not delta-encoded */
+	private static final byte ESCAPE = Byte.MIN_VALUE;
+	/** Byte marking a column index that is delta-encoded with 2 bytes */
+	private static final byte ESCAPE_SHORT = Byte.MIN_VALUE + 1;
+	/** Maximum number of distinct values for dictionary encoding */
+	private static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+	/** Indices into the probability arrays giving the start of each row (size numRows+1) */
+	private int rowStarts[];
+	/** Indices into colBytes giving the start of each row (size numRows+1) */
+	private int colByteStarts[];
+	/** Delta-encoded column indices */
+	private byte colBytes[];
+	/** Probabilities, for encoding FLOAT (otherwise null) */
+	private float floatProbs[];
+	/** Indices into probValues, for encoding DICTIONARY (otherwise null) */
+	private char probIndices[];
+	/** Distinct probability values, for encoding DICTIONARY (otherwise null) */
+	private double probValues[];
+
+	/**
+	 * Builder for a CompressedSparseMatrix: rows are added in order,
+	 * one transition at a time, followed by a call to {@link #endRow()}.
+	 */
+	public static class Builder
+	{
+		private final Encoding encoding;
+		private final int rowStarts[];
+		private final int colByteStarts[];
+		private byte colBytes[];
+		private int numColBytes = 0;
+		private float floatProbs[];
+		private char probIndices[];
+		private final Map<Double, Integer> dictionary;
+		private int row = 0;
+		private int trans = 0;
+		private int prevCol;
+
+		/**
+		 * Create a builder for a matrix with the given number of rows
+		 * and (expected) number of transitions.
+		 */
+		public Builder(Encoding encoding, int numRows, int numTransitions)
+		{
+			this.encoding = encoding;
+			rowStarts = new int[numRows + 1];
+			colByteStarts = new int[numRows + 1];
+			colBytes = new byte[Math.max(16, numTransitions + numTransitions / 4)];
+			floatProbs = encoding == Encoding.FLOAT ? new float[numTransitions] : null;
+			probIndices = encoding == Encoding.DICTIONARY ? new char[numTransitions] : null;
+			dictionary = encoding == Encoding.DICTIONARY ? new HashMap<Double, Integer>() : null;
+		}
+
+		/**
+		 * Add a transition to the current row, which belongs to state {@code s}.
+		 */
+		public void addTransition(int s, int col, double prob) throws PrismException
+		{
+			if (trans == rowStarts[row]) {
+				prevCol = s;
+			}
+			ensureCapacity(5);
+			if (trans == Integer.MAX_VALUE - 8) {
+				throw new PrismException("Matrix too large for compressed storage");
+			}
+			int delta = col - prevCol;
+			if (delta > ESCAPE_SHORT && delta <= Byte.MAX_VALUE) {
+				colBytes[numColBytes++] = (byte) delta;
+			} else if (delta >= Short.MIN_VALUE && delta <= Short.MAX_VALUE) {
+				colBytes[numColBytes++] = ESCAPE_SHORT;
+				colBytes[numColBytes++] = (byte) (delta >>> 8);
+				colBytes[numColBytes++] = (byte) delta;
+			} else {
+				colBytes[numColBytes++] = ESCAPE;
+				colBytes[numColBytes++] = (byte) (col >>> 24);
+				colBytes[numColBytes++] = (byte) (col >>> 16);
+				colBytes[numColBytes++] = (byte) (col >>> 8);
+				colBytes[numColBytes++] = (byte) col;
+			}
+			prevCol = col;
+			if (encoding == Encoding.FLOAT) {
+				if (trans == floatProbs.length) {
+					floatProbs = Arrays.copyOf(floatProbs, newLength(floatProbs.length));
+				}
+				floatProbs[trans] = (float) prob;
+			} else {
+				Integer index = dictionary.get(prob);
+				if (index == null) {
+					if (dictionary.size() == MAX_DICTIONARY_SIZE) {
+						throw new PrismException("Too many distinct probabilities (more than " + MAX_DICTIONARY_SIZE + ") for dictionary encoding");
+					}
+					index = dictionary.size();
+					dictionary.put(prob, index);
+				}
+				if (trans == probIndices.length) {
+					probIndices = Arrays.copyOf(probIndices, newLength(probIndices.length));
+				}
+				probIndices[trans] = (char) index.intValue();
+			}
+			trans++;
+		}
+
+		/**
+		 * Finish the current row.
+		 */
+		public void endRow()
+		{
+			row++;
+			rowStarts[row] = trans;
+			colByteStarts[row] = numColBytes;
+		}
+
+		private int newLength(int length)
+		{
+			return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(16, length + (long) length / 2));
+		}
+
+		private void ensureCapacity(int n) throws PrismException
+		{
+			if (numColBytes + n > colBytes.length) {
+				long newLength = Math.min(Integer.MAX_VALUE - 8, colBytes.length + (long) colBytes.length / 2 + n);
+				if (numColBytes + n > newLength) {
+					throw new PrismException("Matrix too large for compressed storage");
+				}
+				colBytes = Arrays.copyOf(colBytes, (int) newLength);
+			}
+		}
+
+		/**
+		 * Build the matrix (once all rows have been added).
+		 */
+		public CompressedSparseMatrix build()
+		{
+			CompressedSparseMatrix matrix = new CompressedSparseMatrix();
+			matrix.rowStarts = rowStarts;
+			matrix.colByteStarts = colByteStarts;
+			matrix.colBytes = Arrays.copyOf(colBytes, numColBytes);
+			if (encoding == Encoding.FLOAT) {
+				matrix.floatProbs = Arrays.copyOf(floatProbs, trans);
+			} else {
+				matrix.probIndices = Arrays.copyOf(probIndices, trans);
+				matrix.probValues = new double[dictionary.size()];
+				for (Entry<Double, Integer> e : dictionary.entrySet()) {
+					matrix.probValues[e.getValue()] = e.getKey();
+				}
+			}
+			return matrix;
+		}
+	}
+
+	private CompressedSparseMatrix()
+	{
+	}
+
+	// Accessors
+
+	/**
+	 * Get the encoding used for probabilities.
+	 */
+	public Encoding getEncoding()
+	{
+		return floatProbs != null ? Encoding.FLOAT : Encoding.DICTIONARY;
+	}
+
+	/**
+	 * Get the number of distinct probability values, for dictionary encoding (otherwise -1).
+	 */
+	public int getDictionarySize()
+	{
+		return probValues == null ? -1 : probValues.length;
+	}
+
+	/**
+	 * Get the number of transitions.
+	 */
+	public int getNumTransitions()
+	{
+		return rowStarts[rowStarts.length - 1];
+	}
+
+	/**
+	 * Get the number of transitions in row {@code r}.
+	 */
+	public int getNumTransitions(int r)
+	{
+		return rowStarts[r + 1] - rowStarts[r];
+	}
+
+	/**
+	 * Get the (approximate) number of bytes used to store the transitions,
+	 * i.e., excluding the row indices.
+	 */
+	public long getNumBytes()
+	{
+		long bytes = colBytes.length;
+		if (floatProbs != null) {
+			bytes += 4L * floatProbs.length;
+		} else {
+			bytes += 2L * probIndices.length + 8L * probValues.length;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Get the probability of the {@code k}th transition (overall).
+	 */
+	private double prob(int k)
+	{
+		return floatProbs != null ? floatProbs[k] : probValues[probIndices[k]];
+	}
+
+	/**
+	 * Decode a 2-byte column index difference, stored at position {@code p} of colBytes.
+	 */
+	private int shortDelta(int p)
+	{
+		return (colBytes[p] << 8) | (colBytes[p + 1] & 0xff);
+	}
+
+	/**
+	 * Decode a column index that is not delta-encoded, stored at position {@code p} of colBytes.
+	 */
+	private int escapedCol(int p)
+	{
+		return (colBytes[p] << 24) | ((colBytes[p + 1] & 0xff) << 16) | ((colBytes[p + 2] & 0xff) << 8) | (colBytes[p + 3] & 0xff);
+	}
+
+	// Operations on rows; in each case, s is the state that row r belongs to
+
+	/**
+	 * Perform the action {@code c} for each transition of row {@code r}.
+	 */
+	public void forEachTransition(int r, int s, DTMC.TransitionConsumer c)
+	{
+		int p = colByteStarts[r];
+		int col = s;
+		for (int k = rowStarts[r], end = rowStarts[r + 1]; k < end; k++) {
+			byte b = colBytes[p++];
+			if (b > ESCAPE_SHORT) {
+				col += b;
+			} else if (b == ESCAPE_SHORT) {
+				col += shortDelta(p);
+				p += 2;
+			} else {
+				col = escapedCol(p);
+				p += 4;
+			}
+			c.accept(s, col, prob(k));
+		}
+	}
+
+	/**
+	 * Compute the sum over the transitions of row {@code r}
+	 * of probability times {@code vect} value of the successor.
+	 */
+	public double mvMultRow(int r, int s, double vect[])
+	{
+		// (separate loops for each encoding, to avoid checking it for every transition)
+		double d = 0.0;
+		int p = colByteStarts[r];
+		int col = s;
+		if (floatProbs != null) {
+			for (int k = rowStarts[r], end = rowStarts[r + 1]; k < end; k++) {
+				byte b = colBytes[p++];
+				if (b > ESCAPE_SHORT) {
+					col += b;
+				} else if (b == ESCAPE_SHORT) {
+					col += shortDelta(p);
+					p += 2;
+				} else {
+					col = escapedCol(p);
+					p += 4;
+				}
+				d += floatProbs[k] * vect[col];
+			}
+		} else {
+			for (int k = rowStarts[r], end = rowStarts[r + 1]; k < end; k++) {
+				byte b = colBytes[p++];
+				if (b > ESCAPE_SHORT) {
+					col += b;
+				} else if (b == ESCAPE_SHORT) {
+					col += shortDelta(p);
+					p += 2;
+				} else {
+					col = escapedCol(p);
+					p += 4;
+				}
+				d += probValues[probIndices[k]] * vect[col];
+			}
+		}
+		return d;
+	}
+
+	/**
+	 * Compute the Jacobi-style sum for row {@code r}, i.e., the sum over non-self-loop transitions
+	 * of probability times {@code vect} value of the successor, added to {@code d},
+	 * divided by one minus the self-loop probability (if positive).
+	 * If {@code rewards} is true, rows with only self-loops give 0 (if {@code d} is 0) or +/-infinity.
+	 */
+	public double mvMultJacRow(int r, int s, double d, double vect[], boolean rewards)
+	{
+		double diag = 1.0;
+		boolean onlySelfloops = true;
+		int p = colByteStarts[r];
+		int col = s;
+		for (int k = rowStarts[r], end = rowStarts[r + 1]; k < end; k++) {
+			byte b = colBytes[p++];
+			if (b > ESCAPE_SHORT) {
+				col += b;
+			} else if (b == ESCAPE_SHORT) {
+				col += shortDelta(p);
+				p += 2;
+			} else {
+				col = escapedCol(p);
+				p += 4;
+			}
+			if (col != s) {
+				onlySelfloops = false;
+				d += prob(k) * vect[col];
+			} else {
+				diag -= prob(k);
+			}
+		}
+		if (rewards && onlySelfloops) {
+			return d == 0 ? 0 : (d > 0 ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY);
+		}
+		if (diag > 0)
+			d /= diag;
+		return d;
+	}
+
+	/**
+	 * Add {@code factor} times probability to the {@code result} entry of the successor,
+	 * for each transition of row {@code r} (optionally ignoring self-loops).
+	 */
+	public void vmMultRow(int r, int s, double factor, double result[], boolean ignoreSelfloops)
+	{
+		int p = colByteStarts[r];
+		int col = s;
+		for (int k = rowStarts[r], end = rowStarts[r + 1]; k < end; k++) {
+			byte b = colBytes[p++];
+			if (b > ESCAPE_SHORT) {
+				col += b;
+			} else if (b == ESCAPE_SHORT) {
+				col += shortDelta(p);
+				p += 2;
+			} else {
+				col = escapedCol(p);
+				p += 4;
+			}
+			if (!ignoreSelfloops || col != s) {
+				result[col] += factor * prob(k);
+			}
+		}
+	}
+
+	/**
+	 * Does row {@code r} have a transition to {@code u}?
+	 */
+	public boolean someSuccessorsInSet(int r, int s, BitSet u)
+	{
+		for (SuccessorsIterator it = getSuccessors(r, s, true); it.hasNext();) {
+			if (u.get(it.nextInt())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Do all transitions of row {@code r} go to {@code u}?
+	 */
+	public boolean allSuccessorsInSet(int r, int s, BitSet u)
+	{
+		for (SuccessorsIterator it = getSuccessors(r, s, true); it.hasNext();) {
+			if (!u.get(it.nextInt())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Do all transitions of row {@code r} go to {@code u}, and at least one to {@code v}?
+	 */
+	public boolean successorsSafeAndCanReach(int r, int s, BitSet u, BitSet v)
+	{
+		boolean some = false;
+		for (SuccessorsIterator it = getSuccessors(r, s, true); it.hasNext();) {
+			int col = it.nextInt();
+			if (!u.get(col)) {
+				return false;
+			}
+			some = some || v.get(col);
+		}
+		return some;
+	}
+
+	/**
+	 * Get an iterator over the successors of row {@code r}.
+	 */
+	public SuccessorsIterator getSuccessors(int r, int s, boolean distinct)
+	{
+		return new SuccessorsIterator()
+		{
+			int p = colByteStarts[r];
+			final int end = colByteStarts[r + 1];
+			int col = s;
+
+			@Override
+			public boolean successorsAreDistinct()
+			{
+				return distinct;
+			}
+
+			@Override
+			public boolean hasNext()
+			{
+				return p < end;
+			}
+
+			@Override
+			public int nextInt()
+			{
+				if (p >= end) {
+					throw new NoSuchElementException();
+				}
+				byte b = colBytes[p++];
+				if (b > ESCAPE_SHORT) {
+					col += b;
+				} else if (b == ESCAPE_SHORT) {
+					col += shortDelta(p);
+					p += 2;
+				} else {
+					col = escapedCol(p);
+					p += 4;
+				}
+				return col;
+			}
+		};
+	}
+
+	/**
+	 * Get an iterator over the transitions (successor/probability pairs) of row {@code r}.
+	 */
+	public Iterator<Entry<Integer, Double>> getTransitionsIterator(int r, int s)
+	{
+		return new Iterator<Entry<Integer, Double>>()
+		{
+			final SuccessorsIterator succs = getSuccessors(r, s, true);
+			int k = rowStarts[r];
+
+			@Override
+			public boolean hasNext()
+			{
+				return succs.hasNext();
+			}
+
+			@Override
+			public Entry<Integer, Double> next()
+			{
+				int col = succs.nextInt();
+				return new AbstractMap.SimpleImmutableEntry<>(col, prob(k++));
+			}
+		};
+	}
+}
@@ -29,9 +29,14 @@ package explicit;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import parser.State;
 import parser.Values;
@@ -44,6 +49,7 @@ import prism.PrismException;
 import prism.PrismLog;
 import prism.PrismNotSupportedException;
 import prism.PrismPrintStreamLog;
+import prism.PrismSettings;
 import prism.ProgressDisplay;
 import prism.UndefinedConstants;
 
@@ -69,6 +75,13 @@ public class ConstructModel extends PrismComponent
 	protected boolean distinguishActions = true;
 	/** Should labels be processed and attached to the model? */
 	protected boolean attachLabels = true;
+	/** Store states in bit-packed form during reachability, if possible? */
+	protected boolean compactStates = true;
+	/** Number of threads to use for exploring states */
+	protected int numThreads = 1;
+
+	/** Number of states (per thread) explored in each parallel batch */
+	private static final int BATCH_SIZE_PER_THREAD = 1024;
 
 	// Details of built model:
 
@@ -78,6 +91,10 @@ public class ConstructModel extends PrismComponent
 	public ConstructModel(PrismComponent parent) throws PrismException
 	{
 		super(parent);
+		if (settings != null) {
+			setCompactStates(settings.getBoolean(PrismSettings.PRISM_COMPACT_STATES));
+			setNumThreads(settings.getInteger(PrismSettings.PRISM_NUM_THREADS));
+		}
 	}
 
 	/**
@@ -130,6 +147,26 @@ public class ConstructModel extends PrismComponent
 		this.attachLabels = attachLabels;
 	}
 
+	/**
+	 * Store states in bit-packed form during reachability, if possible?
+	 * (i.e. if all variables are bounded; see {@link CompactStateStorage})
+	 */
+	public void setCompactStates(boolean compactStates)
+	{
+		this.compactStates = compactStates;
+	}
+
+	/**
+	 * Set the number of threads to use for exploring states.
+	 * If more than 1, each thread uses its own copy of the model generator
+	 * (see {@link ModelGenerator#createCopy()}); the resulting model is identical
+	 * to the one built sequentially.
+	 */
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = numThreads;
+	}
+
 	/**
 	 * Build the set of reachable states for a model and return it.
 	 * @param modelGen The ModelGenerator interface providing the model 
@@ -162,7 +199,8 @@ public class ConstructModel extends PrismComponent
 		ModelType modelType;
 		// State storage
 		StateStorage<State> states;
-		LinkedList<State> explore;
+		CompactStateStorage statesCompact = null;
+		LinkedList<State> explore = null;
 		State state, stateNew;
 		// Explicit model storage
 		ModelSimple modelSimple = null;
@@ -184,8 +222,23 @@ public class ConstructModel extends PrismComponent
 		if (modelGen.containsUnboundedVariables())
 			mainLog.printWarning("Model contains one or more unbounded variables: model construction may not terminate");
 
+		// For parallel exploration, create a copy of the model generator for each thread
+		ModelGenerator workerGens[] = null;
+		ExecutorService executor = null;
+		if (numThreads > 1) {
+			workerGens = new ModelGenerator[numThreads];
+			for (int t = 0; t < numThreads; t++) {
+				workerGens[t] = modelGen.createCopy();
+				if (workerGens[t] == null) {
+					mainLog.printWarning("Model generator does not support parallel exploration; using a single thread");
+					workerGens = null;
+					break;
+				}
+			}
+		}
+
 		// Starting reachability...
-		mainLog.print("\nComputing reachable states...");
+		mainLog.print("\nComputing reachable states" + (workerGens == null ? "" : " (using " + numThreads + " threads)") + "...");
 		mainLog.flush();
 		ProgressDisplay progress = new ProgressDisplay(mainLog);
 		progress.start();
@@ -220,88 +273,130 @@ public class ConstructModel extends PrismComponent
 		}
 
 		// Initialise states storage
-		states = new IndexedSet<State>(true);
-		explore = new LinkedList<State>();
-		// Add initial state(s) to 'explore', 'states' and to the model
-		for (State initState : modelGen.getInitialStates()) {
-			explore.add(initState);
-			states.add(initState);
-			if (!justReach) {
-				modelSimple.addState();
-				modelSimple.addInitialState(modelSimple.getNumStates() - 1);
-			}
+		// (if stored compactly, states are explored in index order
+		// directly from the storage, so no separate list is needed)
+		if (compactStates && CompactStateStorage.isSupported(varList)) {
+			states = statesCompact = new CompactStateStorage(varList);
+		} else {
+			states = new IndexedSet<State>(true);
+			explore = new LinkedList<State>();
 		}
-		// Explore...
-		src = -1;
-		while (!explore.isEmpty()) {
-			// Pick next state to explore
-			// (they are stored in order found so know index is src+1)
-			state = explore.removeFirst();
-			src++;
-			// Explore all choices/transitions from this state
-			modelGen.exploreState(state);
-			// Look at each outgoing choice in turn
-			nc = modelGen.getNumChoices();
-			for (i = 0; i < nc; i++) {
-				// For nondet models, collect transitions in a Distribution
-				if (!justReach && modelType.nondeterministic()) {
-					distr = new Distribution();
+		try {
+			if (workerGens != null) {
+				executor = Executors.newFixedThreadPool(numThreads);
+			}
+			// Add initial state(s) to 'explore', 'states' and to the model
+			for (State initState : modelGen.getInitialStates()) {
+				if (explore != null) {
+					explore.add(initState);
 				}
-				// Look at each transition in the choice
-				nt = modelGen.getNumTransitions(i);
-				for (j = 0; j < nt; j++) {
-					stateNew = modelGen.computeTransitionTarget(i, j);
-					// Is this a new state?
-					if (states.add(stateNew)) {
-						// If so, add to the explore list
-						explore.add(stateNew);
-						// And to model
-						if (!justReach) {
-							modelSimple.addState();
-						}
-					}
-					// Get index of state in state set
-					dest = states.getIndexOfLastAdd();
-					// Add transitions to model
-					if (!justReach) {
-						switch (modelType) {
-						case DTMC:
-							dtmc.addToProbability(src, dest, modelGen.getTransitionProbability(i, j));
-							break;
-						case CTMC:
-							ctmc.addToProbability(src, dest, modelGen.getTransitionProbability(i, j));
-							break;
-						case MDP:
-						case CTMDP:
-							distr.add(dest, modelGen.getTransitionProbability(i, j));
-							break;
-						case STPG:
-						case SMG:
-						case PTA:
-						case LTS:
-							throw new PrismNotSupportedException("Model construction not supported for " + modelType + "s");
+				states.add(initState);
+				if (!justReach) {
+					modelSimple.addState();
+					modelSimple.addInitialState(modelSimple.getNumStates() - 1);
+				}
+			}
+			// Explore...
+			src = -1;
+			ExploredState batch[] = null;
+			ExploredState explored = null;
+			int batchPos = 0;
+			while ((batch != null && batchPos < batch.length) || (explore == null ? src + 1 < states.size() : !explore.isEmpty())) {
+				if (workerGens == null) {
+					// Pick next state to explore
+					// (they are stored in order found so know index is src+1)
+					state = explore == null ? statesCompact.getState(src + 1) : explore.removeFirst();
+					// Explore all choices/transitions from this state
+					modelGen.exploreState(state);
+				} else {
+					// In parallel mode, states are explored in batches (in separate threads)
+					// but the results are processed in order, as for sequential exploration
+					if (batch == null || batchPos == batch.length) {
+						List<State> batchStates = new ArrayList<State>();
+						int batchSize = numThreads * BATCH_SIZE_PER_THREAD;
+						while (batchStates.size() < batchSize && (explore == null ? src + 1 + batchStates.size() < states.size() : !explore.isEmpty())) {
+							batchStates.add(explore == null ? statesCompact.getState(src + 1 + batchStates.size()) : explore.removeFirst());
 						}
+						batch = exploreBatch(executor, workerGens, batchStates);
+						batchPos = 0;
 					}
+					explored = batch[batchPos++];
 				}
-				// For nondet models, add collated transition to model 
-				if (!justReach) {
-					if (modelType == ModelType.MDP) {
-						if (distinguishActions) {
-							mdp.addActionLabelledChoice(src, distr, modelGen.getChoiceAction(i));
-						} else {
-							mdp.addChoice(src, distr);
+				src++;
+				// Look at each outgoing choice in turn
+				nc = explored == null ? modelGen.getNumChoices() : explored.getNumChoices();
+				for (i = 0; i < nc; i++) {
+					// For nondet models, collect transitions in a Distribution
+					if (!justReach && modelType.nondeterministic()) {
+						distr = new Distribution();
+					}
+					// Look at each transition in the choice
+					nt = explored == null ? modelGen.getNumTransitions(i) : explored.getNumTransitions(i);
+					for (j = 0; j < nt; j++) {
+						stateNew = explored == null ? modelGen.computeTransitionTarget(i, j) : explored.getTransitionTarget(i, j);
+						// Is this a new state?
+						if (states.add(stateNew)) {
+							// If so, add to the explore list
+							if (explore != null) {
+								explore.add(stateNew);
+							}
+							// And to model
+							if (!justReach) {
+								modelSimple.addState();
+							}
+						}
+						// Get index of state in state set
+						dest = states.getIndexOfLastAdd();
+						// Add transitions to model
+						if (!justReach) {
+							double prob = explored == null ? modelGen.getTransitionProbability(i, j) : explored.getTransitionProbability(i, j);
+							switch (modelType) {
+							case DTMC:
+								dtmc.addToProbability(src, dest, prob);
+								break;
+							case CTMC:
+								ctmc.addToProbability(src, dest, prob);
+								break;
+							case MDP:
+							case CTMDP:
+								distr.add(dest, prob);
+								break;
+							case STPG:
+							case SMG:
+							case PTA:
+							case LTS:
+								throw new PrismNotSupportedException("Model construction not supported for " + modelType + "s");
+							}
 						}
-					} else if (modelType == ModelType.CTMDP) {
-						if (distinguishActions) {
-							ctmdp.addActionLabelledChoice(src, distr, modelGen.getChoiceAction(i));
-						} else {
-							ctmdp.addChoice(src, distr);
+					}
+					// For nondet models, add collated transition to model 
+					if (!justReach && modelType.nondeterministic()) {
+						Object action = distinguishActions ? (explored == null ? modelGen.getChoiceAction(i) : explored.getChoiceAction(i)) : null;
+						if (modelType == ModelType.MDP) {
+							if (distinguishActions) {
+								mdp.addActionLabelledChoice(src, distr, action);
+							} else {
+								mdp.addChoice(src, distr);
+							}
+						} else if (modelType == ModelType.CTMDP) {
+							if (distinguishActions) {
+								ctmdp.addActionLabelledChoice(src, distr, action);
+							} else {
+								ctmdp.addChoice(src, distr);
+							}
 						}
 					}
 				}
+				// Print some progress info occasionally
+				progress.updateIfReady(src + 1);
+			}
+		} catch (CompactStateStorage.EncodingException e) {
+			// Thrown by compact state storage if a state cannot be encoded
+			throw new PrismException(e.getMessage() + " (try disabling compact state storage with -nocompactstates)");
+		} finally {
+			if (executor != null) {
+				executor.shutdown();
 			}
-			// Print some progress info occasionally
-			progress.updateIfReady(src + 1);
 		}
 
 		// Finish progress display
@@ -376,6 +471,99 @@ public class ConstructModel extends PrismComponent
 		return model;
 	}
 
+	/**
+	 * Explore a list of states in parallel, using the thread pool {@code executor}
+	 * and one model generator per thread, and return the results (in the same order).
+	 */
+	private ExploredState[] exploreBatch(ExecutorService executor, ModelGenerator workerGens[], List<State> batchStates) throws PrismException
+	{
+		int n = batchStates.size();
+		int numWorkers = workerGens.length;
+		ExploredState results[] = new ExploredState[n];
+		List<Future<Void>> futures = new ArrayList<Future<Void>>(numWorkers);
+		// Split into contiguous chunks, one per thread
+		int chunk = (n + numWorkers - 1) / numWorkers;
+		for (int t = 0; t < numWorkers; t++) {
+			final ModelGenerator workerGen = workerGens[t];
+			final int lo = t * chunk;
+			final int hi = Math.min(n, lo + chunk);
+			futures.add(executor.submit(() -> {
+				for (int k = lo; k < hi; k++) {
+					results[k] = new ExploredState(workerGen, batchStates.get(k));
+				}
+				return null;
+			}));
+		}
+		try {
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			throw new PrismException("Parallel state exploration was interrupted");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof PrismException) {
+				throw (PrismException) e.getCause();
+			}
+			throw new PrismException("Error during parallel state exploration: " + e.getCause());
+		}
+		return results;
+	}
+
+	/**
+	 * The outgoing transitions of a single state, as generated by a ModelGenerator.
+	 * Used to pass the results of parallel exploration back to the main thread.
+	 */
+	private static class ExploredState
+	{
+		private Object actions[];
+		private State targets[][];
+		private double probs[][];
+
+		public ExploredState(ModelGenerator modelGen, State state) throws PrismException
+		{
+			modelGen.exploreState(state);
+			int nc = modelGen.getNumChoices();
+			actions = new Object[nc];
+			targets = new State[nc][];
+			probs = new double[nc][];
+			for (int i = 0; i < nc; i++) {
+				actions[i] = modelGen.getChoiceAction(i);
+				int nt = modelGen.getNumTransitions(i);
+				targets[i] = new State[nt];
+				probs[i] = new double[nt];
+				for (int j = 0; j < nt; j++) {
+					targets[i][j] = modelGen.computeTransitionTarget(i, j);
+					probs[i][j] = modelGen.getTransitionProbability(i, j);
+				}
+			}
+		}
+
+		public int getNumChoices()
+		{
+			return actions.length;
+		}
+
+		public int getNumTransitions(int i)
+		{
+			return targets[i].length;
+		}
+
+		public State getTransitionTarget(int i, int j)
+		{
+			return targets[i][j];
+		}
+
+		public double getTransitionProbability(int i, int j)
+		{
+			return probs[i][j];
+		}
+
+		public Object getChoiceAction(int i)
+		{
+			return actions[i];
+		}
+	}
+
 	private void attachLabels(ModelGenerator modelGen, ModelExplicit model) throws PrismException
 	{
 		// Get state info
@@ -622,6 +622,9 @@ public class DTMCModelChecker extends ProbModelChecker
 		if (doIntervalIteration && (!precomp || !prob0 || !prob1)) {
 			throw new PrismNotSupportedException("Interval iteration requires precomputations to be active");
 		}
+		if (doIntervalIteration && doOptimisticIteration) {
+			throw new PrismNotSupportedException("Interval iteration and optimistic value iteration cannot be used together");
+		}
 
 		// Start probabilistic reachability
 		timer = System.currentTimeMillis();
@@ -696,10 +699,16 @@ public class DTMCModelChecker extends ProbModelChecker
 
 		switch (linEqMethod) {
 		case POWER:
-			iterationMethod = new IterationMethodPower(termCritAbsolute, termCritParam);
+			if (numThreads > 1)
+				iterationMethod = new IterationMethodParallel(termCritAbsolute, termCritParam, false, numThreads);
+			else
+				iterationMethod = new IterationMethodPower(termCritAbsolute, termCritParam);
 			break;
 		case JACOBI:
-			iterationMethod = new IterationMethodJacobi(termCritAbsolute, termCritParam);
+			if (numThreads > 1)
+				iterationMethod = new IterationMethodParallel(termCritAbsolute, termCritParam, true, numThreads);
+			else
+				iterationMethod = new IterationMethodJacobi(termCritAbsolute, termCritParam);
 			break;
 		case GAUSS_SEIDEL:
 		case BACKWARDS_GAUSS_SEIDEL: {
@@ -711,7 +720,9 @@ public class DTMCModelChecker extends ProbModelChecker
 			throw new PrismException("Unknown linear equation solution method " + linEqMethod.fullName());
 		}
 
-		if (doIntervalIteration) {
+		if (doOptimisticIteration) {
+			res = doOptimisticIterationReachProbs(dtmc, no, yes, init, known, iterationMethod);
+		} else if (doIntervalIteration) {
 			res = doIntervalIterationReachProbs(dtmc, no, yes, init, known, iterationMethod, getDoTopologicalValueIteration());
 		} else {
 			res = doValueIterationReachProbs(dtmc, no, yes, init, known, iterationMethod, getDoTopologicalValueIteration());
@@ -1051,7 +1062,7 @@ public class DTMCModelChecker extends ProbModelChecker
 		if (known != null)
 			unknown.andNot(known);
 
-		IterationMethod.IterationValIter iterationReachProbs = iterationMethod.forMvMult(dtmc);
+		IterationMethod.IterationValIter iterationReachProbs = iterationMethod.forMvMult(compressForIteration(dtmc));
 		iterationReachProbs.init(init);
 
 		if (iterationsExport != null)
@@ -1224,6 +1235,72 @@ public class DTMCModelChecker extends ProbModelChecker
 
 	}
 
+	/**
+	 * Compute reachability probabilities using optimistic value iteration.
+	 * @param dtmc The DTMC
+	 * @param no Probability 0 states
+	 * @param yes Probability 1 states
+	 * @param init Optionally, an initial solution vector (will be overwritten), will be ignored if known == null
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 * Note: if 'known' is specified (i.e. is non-null, 'init' must also be given and is used for the exact values.
+	 */
+	protected ModelCheckerResult doOptimisticIterationReachProbs(DTMC dtmc, BitSet no, BitSet yes, double init[], BitSet known, IterationMethod iterationMethod) throws PrismException
+	{
+		BitSet unknown;
+		int i, n;
+		double initBelow[];
+		long timer;
+
+		// Start value iteration
+		timer = System.currentTimeMillis();
+		String description = "with " + iterationMethod.getDescriptionShort();
+		if (getDoTopologicalValueIteration()) {
+			mainLog.println("Note: Topological value iteration is not used for optimistic value iteration.");
+		}
+		mainLog.println("Starting optimistic value iteration (" + description + ")...");
+
+		ExportIterations iterationsExport = null;
+		if (settings.getBoolean(PrismSettings.PRISM_EXPORT_ITERATIONS)) {
+			iterationsExport = new ExportIterations("Explicit DTMC ReachProbs optimistic value iteration (" + description + ")");
+			mainLog.println("Exporting iterations to " + iterationsExport.getFileName());
+		}
+
+		// Store num states
+		n = dtmc.getNumStates();
+
+		// Initialise solution vector from below. Use (where available) the following in order of preference:
+		// (1) exact answer, if already known; (2) 1.0/0.0 if in yes/no; (3) 0.0
+		initBelow = (init == null) ? new double[n] : init;
+		if (known != null && init != null) {
+			for (i = 0; i < n; i++)
+				initBelow[i] = known.get(i) ? init[i] : yes.get(i) ? 1.0 : 0.0;
+		} else {
+			for (i = 0; i < n; i++)
+				initBelow[i] = yes.get(i) ? 1.0 : 0.0;
+		}
+
+		// Determine set of states actually need to compute values for
+		unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(yes);
+		unknown.andNot(no);
+		if (known != null)
+			unknown.andNot(known);
+
+		if (iterationsExport != null)
+			iterationsExport.exportVector(initBelow, 0);
+
+		// The upper bound is only verified, so monotonicity is not enforced there.
+		// Only exact matrix compression is used, since the computed bounds must hold for the actual model
+		DTMC dtmcIter = compressForIteration(dtmc, true);
+		IterationMethod.IterationIntervalIter below = iterationMethod.forMvMultInterval(dtmcIter, true, true, false);
+		IterationMethod.IterationIntervalIter above = iterationMethod.forMvMultInterval(dtmcIter, false, false, false);
+		below.init(initBelow);
+
+		// run the actual value iteration
+		return iterationMethod.doOptimisticValueIteration(this, description, below, above, IntSet.asIntSet(unknown), timer, iterationsExport);
+	}
+
 
 
 	/**
@@ -1242,6 +1319,8 @@ public class DTMCModelChecker extends ProbModelChecker
 	 * Compute bounded until probabilities.
 	 * i.e. compute the probability of reaching a state in {@code target},
 	 * within k steps, and while remaining in states in {@code remain}.
+	 * If a {@link BoundSweepCache} has been set, and it stores the solution for
+	 * the same states and a bound k' <= k, only the remaining k-k' steps are performed.
 	 * @param dtmc The DTMC
 	 * @param remain Remain in these states (optional: null means "all")
 	 * @param target Target states
@@ -1249,7 +1328,20 @@ public class DTMCModelChecker extends ProbModelChecker
 	 */
 	public ModelCheckerResult computeBoundedUntilProbs(DTMC dtmc, BitSet remain, BitSet target, int k) throws PrismException
 	{
-		return computeBoundedReachProbs(dtmc, remain, target, k, null, null);
+		if (boundSweepCache == null) {
+			return computeBoundedReachProbs(dtmc, remain, target, k, null, null);
+		}
+		ModelCheckerResult res;
+		double init[] = boundSweepCache.lookup(dtmc, remain, target, k);
+		if (init != null) {
+			int kPrev = (int) boundSweepCache.getBound();
+			mainLog.println("\nContinuing bounded probabilistic reachability from previous bound " + kPrev + "...");
+			res = computeBoundedReachProbs(dtmc, remain, target, k - kPrev, init, null);
+		} else {
+			res = computeBoundedReachProbs(dtmc, remain, target, k, null, null);
+		}
+		boundSweepCache.store(dtmc, remain, target, k, res.soln);
+		return res;
 	}
 
 	/**
@@ -1760,6 +1852,10 @@ public class DTMCModelChecker extends ProbModelChecker
 			mainLog.printWarning("Switching to linear equation solution method \"" + linEqMethod.fullName() + "\"");
 		}
 
+		if (doIntervalIteration && doOptimisticIteration) {
+			throw new PrismNotSupportedException("Interval iteration and optimistic value iteration cannot be used together");
+		}
+
 		// Start expected reachability
 		timer = System.currentTimeMillis();
 		mainLog.println("\nStarting expected reachability...");
@@ -1806,10 +1902,16 @@ public class DTMCModelChecker extends ProbModelChecker
 		// Compute rewards
 		switch (linEqMethod) {
 		case POWER:
-			iterationMethod = new IterationMethodPower(termCritAbsolute, termCritParam);
+			if (numThreads > 1)
+				iterationMethod = new IterationMethodParallel(termCritAbsolute, termCritParam, false, numThreads);
+			else
+				iterationMethod = new IterationMethodPower(termCritAbsolute, termCritParam);
 			break;
 		case JACOBI:
-			iterationMethod = new IterationMethodJacobi(termCritAbsolute, termCritParam);
+			if (numThreads > 1)
+				iterationMethod = new IterationMethodParallel(termCritAbsolute, termCritParam, true, numThreads);
+			else
+				iterationMethod = new IterationMethodJacobi(termCritAbsolute, termCritParam);
 			break;
 		case GAUSS_SEIDEL:
 		case BACKWARDS_GAUSS_SEIDEL: {
@@ -1821,7 +1923,9 @@ public class DTMCModelChecker extends ProbModelChecker
 			throw new PrismException("Unknown linear equation solution method " + linEqMethod.fullName());
 		}
 
-		if (doIntervalIteration) {
+		if (doOptimisticIteration) {
+			res = doOptimisticIterationReachRewards(dtmc, mcRewards, target, inf, init, known, iterationMethod);
+		} else if (doIntervalIteration) {
 			res = doIntervalIterationReachRewards(dtmc, mcRewards, target, inf, init, known, iterationMethod, getDoTopologicalValueIteration());
 		} else {
 			res = doValueIterationReachRewards(dtmc, mcRewards, target, inf, init, known, iterationMethod, getDoTopologicalValueIteration());
@@ -2003,7 +2107,7 @@ public class DTMCModelChecker extends ProbModelChecker
 			iterationsExport.exportVector(init, 0);
 
 		IntSet unknownStates = IntSet.asIntSet(unknown);
-		IterationMethod.IterationValIter forMvMultRew = iterationMethod.forMvMultRew(dtmc, mcRewards);
+		IterationMethod.IterationValIter forMvMultRew = iterationMethod.forMvMultRew(compressForIteration(dtmc), mcRewards);
 		forMvMultRew.init(init);
 
 		if (topological) {
@@ -2156,6 +2260,74 @@ public class DTMCModelChecker extends ProbModelChecker
 		return rv;
 	}
 
+	/**
+	 * Compute expected reachability rewards using optimistic value iteration.
+	 * @param dtmc The DTMC
+	 * @param mcRewards The rewards
+	 * @param target Target states
+	 * @param inf States for which reward is infinite
+	 * @param init Optionally, an initial solution vector (will be overwritten), will be ignored if known == null
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 * Note: if 'known' is specified (i.e. is non-null, 'init' must also be given and is used for the exact values.
+	 */
+	protected ModelCheckerResult doOptimisticIterationReachRewards(DTMC dtmc, MCRewards mcRewards, BitSet target, BitSet inf, double init[], BitSet known, IterationMethod iterationMethod)
+			throws PrismException
+	{
+		BitSet unknown;
+		int i, n;
+		double initBelow[];
+		long timer;
+
+		// Start value iteration
+		timer = System.currentTimeMillis();
+		String description = "with " + iterationMethod.getDescriptionShort();
+		if (getDoTopologicalValueIteration()) {
+			mainLog.println("Note: Topological value iteration is not used for optimistic value iteration.");
+		}
+		mainLog.println("Starting optimistic value iteration (" + description + ") ...");
+
+		ExportIterations iterationsExport = null;
+		if (settings.getBoolean(PrismSettings.PRISM_EXPORT_ITERATIONS)) {
+			iterationsExport = new ExportIterations("Explicit DTMC ReachRewards optimistic value iteration (" + description + ")");
+			mainLog.println("Exporting iterations to " + iterationsExport.getFileName());
+		}
+
+		// Store num states
+		n = dtmc.getNumStates();
+
+		// Initialise solution vector from below. Use (where available) the following in order of preference:
+		// (1) exact answer, if already known; (2) 0.0/infinity if in target/inf; (3) 0.0
+		initBelow = (init == null) ? new double[n] : init;
+		if (init != null && known != null) {
+			for (i = 0; i < n; i++)
+				initBelow[i] = known.get(i) ? init[i] : target.get(i) ? 0.0 : inf.get(i) ? Double.POSITIVE_INFINITY : 0.0;
+		} else {
+			for (i = 0; i < n; i++)
+				initBelow[i] = target.get(i) ? 0.0 : inf.get(i) ? Double.POSITIVE_INFINITY : 0.0;
+		}
+
+		// Determine set of states actually need to compute values for
+		unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(target);
+		unknown.andNot(inf);
+		if (known != null)
+			unknown.andNot(known);
+
+		if (iterationsExport != null)
+			iterationsExport.exportVector(initBelow, 0);
+
+		// The upper bound is only verified, so monotonicity is not enforced there.
+		// Only exact matrix compression is used, since the computed bounds must hold for the actual model
+		DTMC dtmcIter = compressForIteration(dtmc, true);
+		IterationMethod.IterationIntervalIter below = iterationMethod.forMvMultRewInterval(dtmcIter, mcRewards, true, true, false);
+		IterationMethod.IterationIntervalIter above = iterationMethod.forMvMultRewInterval(dtmcIter, mcRewards, false, false, false);
+		below.init(initBelow);
+
+		// run the actual value iteration
+		return iterationMethod.doOptimisticValueIteration(this, description, below, above, IntSet.asIntSet(unknown), timer, iterationsExport);
+	}
+
 	/**
 	 * Compute steady-state probabilities for an S operator, i.e., S=?[ b ].
 	 * @param dtmc the DTMC
@@ -215,7 +215,7 @@ public class DTMCSimple extends DTMCExplicit implements ModelSimple
 	@Override
 	public SuccessorsIterator getSuccessors(int s)
 	{
-		return SuccessorsIterator.from(getSuccessorsIterator(s), true);
+		return SuccessorsIterator.from(trans.get(s).getSupportIterator(), true);
 	}
 
 	@Override
@@ -271,6 +271,18 @@ public class DTMCSimple extends DTMCExplicit implements ModelSimple
 		return trans.get(s).iterator();
 	}
 
+	@Override
+	public void forEachTransition(int s, TransitionConsumer c)
+	{
+		trans.get(s).forEach((t, prob) -> c.accept(s, t, prob));
+	}
+
+	@Override
+	public double sumOverTransitions(int s, TransitionToDoubleFunction f)
+	{
+		return trans.get(s).sumOver((t, prob) -> f.apply(s, t, prob));
+	}
+
 	// Accessors (other)
 
 	/**
@@ -61,19 +61,7 @@ public class DTMCSparse extends DTMCExplicit
 	private double probabilities[];
 
 	public DTMCSparse(final DTMC dtmc) {
-		initialise(dtmc.getNumStates());
-		for (Integer state : dtmc.getDeadlockStates()) {
-			deadlocks.add(state);
-		}
-		for (Integer state : dtmc.getInitialStates()) {
-			initialStates.add(state);
-		}
-		constantValues = dtmc.getConstantValues();
-		varList = dtmc.getVarList();
-		statesList = dtmc.getStatesList();
-		for (String label : dtmc.getLabels()) {
-			labels.put(label, dtmc.getLabelStates(label));
-		}
+		copyModelInfo(dtmc);
 
 		// Copy transition function
 		final int numTransitions = dtmc.getNumTransitions();
@@ -135,7 +123,50 @@ public class DTMCSparse extends DTMCExplicit
 		}
 	}
 
+	/**
+	 * Constructor: Build new DTMCSparse directly from its sparse matrix arrays
+	 * (e.g. as loaded by {@link BinaryModelFile}); the arrays are stored, not copied.
+	 * Initial states, labels, etc. need to be added separately.
+	 * @param numStates Number of states
+	 * @param rows Start of the transitions for each state (size numStates+1)
+	 * @param columns Column (destination) indices for each transition
+	 * @param probabilities Probabilities for each transition
+	 */
+	public DTMCSparse(int numStates, int rows[], int columns[], double probabilities[])
+	{
+		initialise(numStates);
+		this.rows = rows;
+		this.columns = columns;
+		this.probabilities = probabilities;
+	}
 
+	/**
+	 * Constructor (for subclasses): empty DTMC, to be set up by the subclass.
+	 */
+	protected DTMCSparse()
+	{
+	}
+
+	/**
+	 * Helper for copy constructors: initialise and copy everything from a DTMC
+	 * apart from its transitions, i.e. initial states, deadlocks, labels, etc.
+	 */
+	protected void copyModelInfo(final DTMC dtmc)
+	{
+		initialise(dtmc.getNumStates());
+		for (Integer state : dtmc.getDeadlockStates()) {
+			deadlocks.add(state);
+		}
+		for (Integer state : dtmc.getInitialStates()) {
+			initialStates.add(state);
+		}
+		constantValues = dtmc.getConstantValues();
+		varList = dtmc.getVarList();
+		statesList = dtmc.getStatesList();
+		for (String label : dtmc.getLabels()) {
+			labels.put(label, dtmc.getLabelStates(label));
+		}
+	}
 
 	//--- Model ---
 
@@ -148,7 +179,23 @@ public class DTMCSparse extends DTMCExplicit
 	@Override
 	public OfInt getSuccessorsIterator(final int state)
 	{
-		return Arrays.stream(columns, rows[state], rows[state+1]).iterator();
+		return new OfInt()
+		{
+			long i = getRowStart(state);
+			final long stop = getRowStart(state + 1);
+
+			@Override
+			public boolean hasNext()
+			{
+				return i < stop;
+			}
+
+			@Override
+			public int nextInt()
+			{
+				return getColumn(i++);
+			}
+		};
 	}
 
 	@Override
@@ -161,8 +208,8 @@ public class DTMCSparse extends DTMCExplicit
 	@Override
 	public boolean isSuccessor(final int s1, final int s2)
 	{
-		for (int i=rows[s1], stop=rows[s1+1]; i < stop; i++) {
-			if (columns[i] == s2) {
+		for (long i = getRowStart(s1), stop = getRowStart(s1 + 1); i < stop; i++) {
+			if (getColumn(i) == s2) {
 				return true;
 			}
 		}
@@ -172,8 +219,8 @@ public class DTMCSparse extends DTMCExplicit
 	@Override
 	public boolean allSuccessorsInSet(final int state, final BitSet set)
 	{
-		for (int i=rows[state], stop=rows[state+1]; i < stop; i++) {
-			if (!set.get(columns[i])) {
+		for (long i = getRowStart(state), stop = getRowStart(state + 1); i < stop; i++) {
+			if (!set.get(getColumn(i))) {
 				return false;
 			}
 		}
@@ -183,8 +230,8 @@ public class DTMCSparse extends DTMCExplicit
 	@Override
 	public boolean someSuccessorsInSet(final int state, final BitSet set)
 	{
-		for (int i=rows[state], stop=rows[state+1]; i < stop; i++) {
-			if (set.get(columns[i])) {
+		for (long i = getRowStart(state), stop = getRowStart(state + 1); i < stop; i++) {
+			if (set.get(getColumn(i))) {
 				return true;
 			}
 		}
@@ -195,9 +242,9 @@ public class DTMCSparse extends DTMCExplicit
 	public void findDeadlocks(boolean fix) throws PrismException
 	{
 		for (int state=0; state<numStates; state++) {
-			if (rows[state] == rows[state+1]) {
+			if (getRowStart(state) == getRowStart(state + 1)) {
 				if (fix) {
-					throw new PrismException("Can't fix deadlocks in an DTMCSparse since it cannot be modified after construction");
+					throw new PrismException("Can't fix deadlocks in an " + getClass().getSimpleName() + " since it cannot be modified after construction");
 				}
 				deadlocks.add(state);
 			}
@@ -208,7 +255,7 @@ public class DTMCSparse extends DTMCExplicit
 	public void checkForDeadlocks(BitSet except) throws PrismException
 	{
 		for (int state=0; state < numStates; state++) {
-			if (rows[state] == rows[state+1] && (except == null || !except.get(state)))
+			if (getRowStart(state) == getRowStart(state + 1) && (except == null || !except.get(state)))
 				throw new PrismException("DTMC has a deadlock in state " + state);
 		}
 	}
@@ -230,15 +277,15 @@ public class DTMCSparse extends DTMCExplicit
 	@Override
 	public void forEachTransition(int state, TransitionConsumer consumer)
 	{
-		for (int col = rows[state], stop = rows[state+1]; col < stop; col++) {
-			consumer.accept(state, columns[col], probabilities[col]);
+		for (long i = getRowStart(state), stop = getRowStart(state + 1); i < stop; i++) {
+			consumer.accept(state, getColumn(i), getProbability(i));
 		}
 	}
 
 	@Override
 	public int getNumTransitions(int state)
 	{
-		return rows[state + 1] - rows[state];
+		return (int) (getRowStart(state + 1) - getRowStart(state));
 	}
 
 	@Override
@@ -246,9 +293,8 @@ public class DTMCSparse extends DTMCExplicit
 	{
 		return new Iterator<Entry<Integer, Double>>()
 		{
-			final int start = rows[state];
-			int col = start;
-			final int end = rows[state + 1];
+			long col = getRowStart(state);
+			final long end = getRowStart(state + 1);
 
 			@Override
 			public boolean hasNext()
@@ -260,9 +306,9 @@ public class DTMCSparse extends DTMCExplicit
 			public Entry<Integer, Double> next()
 			{
 				assert (col < end);
-				final int index = col;
+				final long index = col;
 				col++;
-				return new AbstractMap.SimpleImmutableEntry<>(columns[index], probabilities[index]);
+				return new AbstractMap.SimpleImmutableEntry<>(getColumn(index), getProbability(index));
 			}
 		};
 	}
@@ -270,44 +316,28 @@ public class DTMCSparse extends DTMCExplicit
 	@Override
 	public boolean prob0step(final int s, final BitSet u)
 	{
-		boolean hasTransitionToU = false;
-		for (int i=rows[s], stop=rows[s+1]; i < stop; i++) {
-			final int successor = columns[i];
-			if (u.get(successor)) {
-				hasTransitionToU = true;
-				break;
-			}
-		}
-		return hasTransitionToU;
+		return someSuccessorsInSet(s, u);
 	}
 
 	@Override
 	public boolean prob1step(final int s, final BitSet u, final BitSet v)
 	{
-		boolean allTransitionsToU = true;
 		boolean hasTransitionToV = false;
-		for (int i=rows[s], stop=rows[s+1]; i < stop; i++) {
-			final int successor = columns[i];
+		for (long i = getRowStart(s), stop = getRowStart(s + 1); i < stop; i++) {
+			final int successor = getColumn(i);
 			if (!u.get(successor)) {
 				// early abort, as overall result is false
-				allTransitionsToU = false;
-				break;
+				return false;
 			}
 			hasTransitionToV = hasTransitionToV || v.get(successor);
 		}
-		return (allTransitionsToU && hasTransitionToV);
+		return hasTransitionToV;
 	}
 
 	@Override
 	public double mvMultSingle(final int state, final double[] vect)
 	{
-		double d = 0.0;
-		for (int i=rows[state], stop=rows[state+1]; i < stop; i++) {
-			final int target = columns[i];
-			final double probability = probabilities[i];
-			d += probability * vect[target];
-		}
-		return d;
+		return mvMultRow(state, 0.0, vect);
 	}
 
 	@Override
@@ -333,13 +363,7 @@ public class DTMCSparse extends DTMCExplicit
 	@Override
 	public double mvMultRewSingle(final int state, final double[] vect, final MCRewards mcRewards)
 	{
-		double d = mcRewards.getStateReward(state);
-		for (int i=rows[state], stop=rows[state+1]; i < stop; i++) {
-			final int target = columns[i];
-			final double probability = probabilities[i];
-			d += probability * vect[target];
-		}
-		return d;
+		return mvMultRow(state, mcRewards.getStateReward(state), vect);
 	}
 
 	@Override
@@ -349,11 +373,7 @@ public class DTMCSparse extends DTMCExplicit
 		Arrays.fill(result, 0);
 		// Go through matrix elements (by row)
 		for (int state = 0; state < numStates; state++) {
-			for (int i=rows[state], stop=rows[state+1]; i < stop; i++) {
-				int target = columns[i];
-				double probability = probabilities[i];
-				result[target] += probability * vect[state];
-			}
+			vmMultRow(state, vect[state], result);
 		}
 	}
 
@@ -392,6 +412,64 @@ public class DTMCSparse extends DTMCExplicit
 
 
 
+	//--- Access to the transition function storage ---
+	// (subclasses storing it differently, e.g. DTMCSparseOffHeap, override these methods,
+	// as well as the numerical kernels mvMultJacSingle and vmMultPowerSteadyState)
+
+	/**
+	 * Get the index of the first transition of state {@code state}.
+	 * For {@code state = numStates}, this is the number of transitions.
+	 */
+	protected long getRowStart(int state)
+	{
+		return rows[state];
+	}
+
+	/**
+	 * Get the column (destination) index of transition {@code i}.
+	 */
+	protected int getColumn(long i)
+	{
+		return columns[(int) i];
+	}
+
+	/**
+	 * Get the probability of transition {@code i}.
+	 */
+	protected double getProbability(long i)
+	{
+		return probabilities[(int) i];
+	}
+
+	/**
+	 * Add to {@code d} the sum, over transitions of state {@code state},
+	 * of probability times the value in {@code vect} of the destination, and return it.
+	 */
+	protected double mvMultRow(final int state, double d, final double[] vect)
+	{
+		for (int i=rows[state], stop=rows[state+1]; i < stop; i++) {
+			final int target = columns[i];
+			final double probability = probabilities[i];
+			d += probability * vect[target];
+		}
+		return d;
+	}
+
+	/**
+	 * For each transition of state {@code state}, add probability times {@code x}
+	 * to the entry in {@code result} of its destination.
+	 */
+	protected void vmMultRow(final int state, final double x, final double[] result)
+	{
+		for (int i=rows[state], stop=rows[state+1]; i < stop; i++) {
+			int target = columns[i];
+			double probability = probabilities[i];
+			result[target] += probability * x;
+		}
+	}
+
+
+
 	//--- Object ---
 
 	@Override
@@ -429,13 +507,15 @@ public class DTMCSparse extends DTMCExplicit
 			return false;
 		if (!initialStates.equals(dtmc.initialStates))
 			return false;
-		if (!Utils.doubleArraysAreEqual(probabilities, dtmc.probabilities))
-			return false;
-		if (!Utils.intArraysAreEqual(columns, dtmc.columns))
-			return false;
-		if (!Utils.intArraysAreEqual(rows, dtmc.rows))
-			return false;
-		// TODO: compare actions (complicated: null = null,null,null,...)
+		// Compare transitions (via getRowStart etc., since either may be stored differently)
+		for (int state = 0; state <= numStates; state++) {
+			if (getRowStart(state) != dtmc.getRowStart(state))
+				return false;
+		}
+		for (long i = 0, n = getRowStart(numStates); i < n; i++) {
+			if (getColumn(i) != dtmc.getColumn(i) || getProbability(i) != dtmc.getProbability(i))
+				return false;
+		}
 		return true;
 	}
 }
@@ -0,0 +1,252 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.PrimitiveIterator.OfInt;
+
+import common.iterable.IterableInt;
+import explicit.rewards.MCRewards;
+import prism.PrismException;
+import prism.PrismNotSupportedException;
+
+/**
+ * Sparse matrix (non-mutable) explicit-state representation of a DTMC,
+ * like {@link DTMCSparse}, but with the transition function stored in compressed form
+ * (see {@link CompressedSparseMatrix}), to reduce memory traffic during value iteration.
+ * With {@link CompressedSparseMatrix.Encoding#FLOAT}, probabilities are only stored
+ * in single precision, so results are approximate.
+ */
+public class DTMCSparseCompressed extends DTMCExplicit
+{
+	/** Transition function (one row per state) */
+	private CompressedSparseMatrix matrix;
+
+	/**
+	 * Constructor: copy an arbitrary DTMC, compressing the transition function
+	 * with the given encoding for probabilities.
+	 * Throws an exception if the DTMC cannot be stored with this encoding.
+	 */
+	public DTMCSparseCompressed(final DTMC dtmc, CompressedSparseMatrix.Encoding encoding) throws PrismException
+	{
+		initialise(dtmc.getNumStates());
+		// (DTMCs that are views of other models may not store all of this information)
+		if (dtmc.getDeadlockStates() != null) {
+			for (Integer state : dtmc.getDeadlockStates()) {
+				deadlocks.add(state);
+			}
+		}
+		if (dtmc.getInitialStates() != null) {
+			for (Integer state : dtmc.getInitialStates()) {
+				initialStates.add(state);
+			}
+		}
+		constantValues = dtmc.getConstantValues();
+		varList = dtmc.getVarList();
+		statesList = dtmc.getStatesList();
+		if (dtmc.getLabels() != null) {
+			for (String label : dtmc.getLabels()) {
+				labels.put(label, dtmc.getLabelStates(label));
+			}
+		}
+
+		// Copy transition function
+		CompressedSparseMatrix.Builder builder = new CompressedSparseMatrix.Builder(encoding, numStates, dtmc.getNumTransitions());
+		for (int state = 0; state < numStates; state++) {
+			for (Iterator<Entry<Integer, Double>> transitions = dtmc.getTransitionsIterator(state); transitions.hasNext();) {
+				final Entry<Integer, Double> transition = transitions.next();
+				final double probability = transition.getValue();
+				if (probability > 0) {
+					builder.addTransition(state, transition.getKey(), probability);
+				}
+			}
+			builder.endRow();
+		}
+		matrix = builder.build();
+		predecessorRelation = dtmc.hasStoredPredecessorRelation() ? dtmc.getPredecessorRelation(null, false) : null;
+	}
+
+	/**
+	 * Get the compressed transition matrix.
+	 */
+	public CompressedSparseMatrix getMatrix()
+	{
+		return matrix;
+	}
+
+	//--- Model ---
+
+	@Override
+	public int getNumTransitions()
+	{
+		return matrix.getNumTransitions();
+	}
+
+	@Override
+	public SuccessorsIterator getSuccessors(int state)
+	{
+		// We assume here that all the successor states for a given state are distinct
+		return matrix.getSuccessors(state, state, true);
+	}
+
+	@Override
+	public boolean allSuccessorsInSet(final int state, final BitSet set)
+	{
+		return matrix.allSuccessorsInSet(state, state, set);
+	}
+
+	@Override
+	public boolean someSuccessorsInSet(final int state, final BitSet set)
+	{
+		return matrix.someSuccessorsInSet(state, state, set);
+	}
+
+	@Override
+	public void findDeadlocks(boolean fix) throws PrismException
+	{
+		for (int state = 0; state < numStates; state++) {
+			if (matrix.getNumTransitions(state) == 0) {
+				if (fix) {
+					throw new PrismException("Can't fix deadlocks in an DTMCSparseCompressed since it cannot be modified after construction");
+				}
+				deadlocks.add(state);
+			}
+		}
+	}
+
+	@Override
+	public void checkForDeadlocks(BitSet except) throws PrismException
+	{
+		for (int state = 0; state < numStates; state++) {
+			if (matrix.getNumTransitions(state) == 0 && (except == null || !except.get(state)))
+				throw new PrismException("DTMC has a deadlock in state " + state);
+		}
+	}
+
+	//--- ModelExplicit ---
+
+	@Override
+	public void buildFromPrismExplicit(String filename) throws PrismException
+	{
+		throw new PrismNotSupportedException("Building compressed sparse DTMC currently not supported from PrismExplicit");
+	}
+
+	//--- DTMC ---
+
+	@Override
+	public void forEachTransition(int state, TransitionConsumer consumer)
+	{
+		matrix.forEachTransition(state, state, consumer);
+	}
+
+	@Override
+	public int getNumTransitions(int state)
+	{
+		return matrix.getNumTransitions(state);
+	}
+
+	@Override
+	public Iterator<Entry<Integer, Double>> getTransitionsIterator(final int state)
+	{
+		return matrix.getTransitionsIterator(state, state);
+	}
+
+	@Override
+	public boolean prob0step(final int s, final BitSet u)
+	{
+		return matrix.someSuccessorsInSet(s, s, u);
+	}
+
+	@Override
+	public boolean prob1step(final int s, final BitSet u, final BitSet v)
+	{
+		return matrix.successorsSafeAndCanReach(s, s, u, v);
+	}
+
+	@Override
+	public double mvMultSingle(final int state, final double[] vect)
+	{
+		return matrix.mvMultRow(state, state, vect);
+	}
+
+	@Override
+	public double mvMultJacSingle(final int state, final double[] vect)
+	{
+		return matrix.mvMultJacRow(state, state, 0.0, vect, false);
+	}
+
+	@Override
+	public double mvMultRewSingle(final int state, final double[] vect, final MCRewards mcRewards)
+	{
+		return mcRewards.getStateReward(state) + matrix.mvMultRow(state, state, vect);
+	}
+
+	@Override
+	public void vmMult(final double[] vect, final double[] result)
+	{
+		// Initialise result to 0
+		Arrays.fill(result, 0);
+		// Go through matrix elements (by row)
+		for (int state = 0; state < numStates; state++) {
+			matrix.vmMultRow(state, state, vect[state], result, false);
+		}
+	}
+
+	@Override
+	public void vmMultPowerSteadyState(double vect[], double result[], double[] diagsQ, double deltaT, IterableInt states)
+	{
+		// See DTMCSparse for an explanation;
+		// first handle the product with the diagonal entries of (deltaT * Q) + I
+		for (OfInt it = states.iterator(); it.hasNext();) {
+			int state = it.nextInt();
+			result[state] = vect[state] * ((deltaT * diagsQ[state]) + 1.0);
+		}
+		// Then, for each relevant state, handle all Q(state,t) entries (ignoring self-loops)
+		for (OfInt it = states.iterator(); it.hasNext();) {
+			int state = it.nextInt();
+			matrix.vmMultRow(state, state, deltaT * vect[state], result, true);
+		}
+	}
+
+	//--- Object ---
+
+	@Override
+	public String toString()
+	{
+		StringBuilder s = new StringBuilder("trans: [ ");
+		for (int state = 0; state < numStates; state++) {
+			if (state > 0) {
+				s.append(", ");
+			}
+			s.append(state + ": " + new Distribution(getTransitionsIterator(state)));
+		}
+		return s.append(" ]").toString();
+	}
+}
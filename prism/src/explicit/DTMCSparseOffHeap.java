@@ -0,0 +1,321 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+
+package explicit;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.PrimitiveIterator.OfInt;
+
+import common.OffHeapArray;
+import common.iterable.IterableInt;
+import prism.PrismException;
+
+/**
+ * Sparse matrix (non-mutable) explicit-state representation of a DTMC,
+ * like {@link DTMCSparse}, but with the matrix stored outside the Java heap
+ * (see {@link OffHeapArray}) and indexed by {@code long}, so that the number
+ * of transitions is not limited to 2^31-1 and does not count towards the heap size.
+ * Only the access to the storage and the numerical kernels are overridden;
+ * everything else is inherited from {@link DTMCSparse}.
+ * <br><br>
+ * Models can be built without any on-heap copy of the transitions, either by mapping
+ * a binary model file (see {@link BinaryModelFile}) or by reading a .tra file
+ * (see {@link #buildFromPrismExplicit(String)}).
+ * Since {@link #getNumTransitions()} returns an {@code int}, it is capped at
+ * {@code Integer.MAX_VALUE}; the exact count is available from {@link #getNumTransitionsLong()}.
+ */
+public class DTMCSparseOffHeap extends DTMCSparse
+{
+	// Sparse matrix storing transition function (Steps)
+	/** Indices into probabilities/columns giving the start of the transitions for each state (distribution);
+	 * array is of size numStates+1 and last entry is always equal to the number of transitions */
+	private OffHeapArray.OfLong rows;
+	/** Column (destination) indices for each transition (array of size numTransitions) */
+	private OffHeapArray.OfInt columns;
+	/** Probabilities for each transition (array of size numTransitions) */
+	private OffHeapArray.OfDouble probabilities;
+
+	/**
+	 * Constructor: empty DTMC (e.g. to be built with {@link #buildFromPrismExplicit(String)}).
+	 */
+	public DTMCSparseOffHeap()
+	{
+		initialise(0);
+		rows = OffHeapArray.OfLong.allocate(1);
+	}
+
+	/**
+	 * Constructor: copy an arbitrary DTMC into off-heap storage.
+	 */
+	public DTMCSparseOffHeap(final DTMC dtmc)
+	{
+		copyModelInfo(dtmc);
+
+		// Copy transition function
+		long numTransitions = 0;
+		for (int state = 0; state < numStates; state++) {
+			numTransitions += dtmc.getNumTransitions(state);
+		}
+		rows = OffHeapArray.OfLong.allocate(numStates + 1);
+		columns = OffHeapArray.OfInt.allocate(numTransitions);
+		probabilities = OffHeapArray.OfDouble.allocate(numTransitions);
+		long column = 0;
+		for (int state = 0; state < numStates; state++) {
+			rows.set(state, column);
+			for (Iterator<Entry<Integer, Double>> transitions = dtmc.getTransitionsIterator(state); transitions.hasNext();) {
+				final Entry<Integer, Double> transition = transitions.next();
+				final double probability = transition.getValue();
+				if (probability > 0) {
+					columns.set(column, transition.getKey());
+					probabilities.set(column, probability);
+					column++;
+				}
+			}
+		}
+		rows.set(numStates, column);
+	}
+
+	/**
+	 * Constructor: Build new DTMCSparseOffHeap directly from its sparse matrix arrays
+	 * (e.g. as mapped by {@link BinaryModelFile}); the arrays are stored, not copied.
+	 * Initial states, labels, etc. need to be added separately.
+	 * @param numStates Number of states
+	 * @param rows Start of the transitions for each state (size numStates+1)
+	 * @param columns Column (destination) indices for each transition
+	 * @param probabilities Probabilities for each transition
+	 */
+	public DTMCSparseOffHeap(int numStates, OffHeapArray.OfLong rows, OffHeapArray.OfInt columns, OffHeapArray.OfDouble probabilities)
+	{
+		initialise(numStates);
+		this.rows = rows;
+		this.columns = columns;
+		this.probabilities = probabilities;
+	}
+
+	/**
+	 * Get the exact number of transitions.
+	 */
+	public long getNumTransitionsLong()
+	{
+		return rows.get(numStates);
+	}
+
+	//--- Model ---
+
+	@Override
+	public int getNumTransitions()
+	{
+		return (int) Math.min(getNumTransitionsLong(), Integer.MAX_VALUE);
+	}
+
+	@Override
+	public String infoString()
+	{
+		String s = "";
+		s += numStates + " states (" + getNumInitialStates() + " initial)";
+		s += ", " + getNumTransitionsLong() + " transitions";
+		return s;
+	}
+
+	@Override
+	public String infoStringTable()
+	{
+		String s = "";
+		s += "States:      " + numStates + " (" + getNumInitialStates() + " initial)\n";
+		s += "Transitions: " + getNumTransitionsLong() + "\n";
+		return s;
+	}
+
+	//--- ModelExplicit ---
+
+	/**
+	 * Build (off-heap) from a .tra file, reading the transitions straight into off-heap storage.
+	 * Since the storage is allocated up front, based on the counts in the first line of the file,
+	 * the transitions must be listed in order of source state, then destination,
+	 * as in files exported by PRISM; if not, the model should be imported on-heap instead.
+	 * As for other models built from a .tra file, initial states are not set.
+	 */
+	@Override
+	public void buildFromPrismExplicit(String filename) throws PrismException
+	{
+		int lineNum = 0;
+		// Open file for reading, automatic close
+		try (BufferedReader in = new BufferedReader(new FileReader(new File(filename)))) {
+			// Parse first line to get num states/transitions
+			String s = in.readLine();
+			lineNum = 1;
+			if (s == null) {
+				throw new PrismException("Missing first line of .tra file");
+			}
+			String ss[] = s.split(" ");
+			if (ss.length < 2) {
+				throw new PrismException("First line of .tra file must read #states, #transitions");
+			}
+			// Initialise
+			initialise(Integer.parseInt(ss[0]));
+			long numTransitions = Long.parseLong(ss[1]);
+			rows = OffHeapArray.OfLong.allocate(numStates + 1L);
+			columns = OffHeapArray.OfInt.allocate(numTransitions);
+			probabilities = OffHeapArray.OfDouble.allocate(numTransitions);
+			// Go though list of transitions in file
+			int iLast = -1, jLast = -1;
+			long numLines = 0, count = 0;
+			s = in.readLine();
+			lineNum++;
+			while (s != null) {
+				s = s.trim();
+				if (s.length() > 0) {
+					ss = s.split(" ");
+					int i = Integer.parseInt(ss[0]);
+					int j = Integer.parseInt(ss[1]);
+					double prob = Double.parseDouble(ss[2]);
+					if (i < 0 || i >= numStates) {
+						throw new PrismException("Problem in .tra file (line " + lineNum + "): illegal source state index " + i);
+					}
+					if (j < 0 || j >= numStates) {
+						throw new PrismException("Problem in .tra file (line " + lineNum + "): illegal target state index " + j);
+					}
+					if (i < iLast || (i == iLast && j <= jLast)) {
+						throw new PrismException("Problem in .tra file (line " + lineNum + "): transitions must be ordered by source and target state for off-heap import");
+					}
+					if (numLines++ == numTransitions) {
+						throw new PrismException("Problem in .tra file (line " + lineNum + "): more transitions than the " + numTransitions + " declared");
+					}
+					// Fill in row starts for this state (and any preceding ones with no transitions)
+					while (iLast < i) {
+						rows.set(++iLast, count);
+					}
+					// Store transition (ignoring zero probabilities, as for on-heap import)
+					if (prob != 0.0) {
+						columns.set(count, j);
+						probabilities.set(count, prob);
+						count++;
+					}
+					jLast = j;
+				}
+				s = in.readLine();
+				lineNum++;
+			}
+			while (iLast < numStates) {
+				rows.set(++iLast, count);
+			}
+			// Check integrity
+			if (numLines != numTransitions) {
+				throw new PrismException("Problem in .tra file: unexpected number of transitions: " + numLines);
+			}
+		} catch (IOException e) {
+			throw new PrismException("File I/O error reading from \"" + filename + "\": " + e.getMessage());
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			throw new PrismException("Problem in .tra file (line " + lineNum + ") for " + getModelType());
+		}
+	}
+
+	//--- DTMC ---
+
+	@Override
+	public double mvMultJacSingle(final int state, final double[] vect)
+	{
+		double diag = 1.0;
+		double d = 0.0;
+		for (long i = rows.get(state), stop = rows.get(state + 1); i < stop; i++) {
+			final int target = columns.get(i);
+			final double probability = probabilities.get(i);
+			if (target != state) {
+				d += probability * vect[target];
+			} else {
+				diag -= probability;
+			}
+		}
+		if (diag > 0) {
+			d /= diag;
+		}
+		return d;
+	}
+
+	@Override
+	public void vmMultPowerSteadyState(double vect[], double result[], double[] diagsQ, double deltaT, IterableInt states)
+	{
+		// See DTMCSparse for an explanation;
+		// first handle the product with the diagonal entries of (deltaT * Q) + I
+		for (OfInt it = states.iterator(); it.hasNext();) {
+			int state = it.nextInt();
+			result[state] = vect[state] * ((deltaT * diagsQ[state]) + 1.0);
+		}
+		// Then, for each relevant state, handle all Q(state,t) entries (ignoring self-loops)
+		for (OfInt it = states.iterator(); it.hasNext();) {
+			int state = it.nextInt();
+			for (long i = rows.get(state), stop = rows.get(state + 1); i < stop; i++) {
+				int target = columns.get(i);
+				if (state != target) {
+					result[target] += deltaT * probabilities.get(i) * vect[state];
+				}
+			}
+		}
+	}
+
+	//--- Access to the transition function storage ---
+
+	@Override
+	protected long getRowStart(int state)
+	{
+		return rows.get(state);
+	}
+
+	@Override
+	protected int getColumn(long i)
+	{
+		return columns.get(i);
+	}
+
+	@Override
+	protected double getProbability(long i)
+	{
+		return probabilities.get(i);
+	}
+
+	@Override
+	protected double mvMultRow(final int state, double d, final double[] vect)
+	{
+		for (long i = rows.get(state), stop = rows.get(state + 1); i < stop; i++) {
+			d += probabilities.get(i) * vect[columns.get(i)];
+		}
+		return d;
+	}
+
+	@Override
+	protected void vmMultRow(final int state, final double x, final double[] result)
+	{
+		for (long i = rows.get(state), stop = rows.get(state + 1); i < stop; i++) {
+			result[columns.get(i)] += probabilities.get(i) * x;
+		}
+	}
+}
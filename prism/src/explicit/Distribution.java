@@ -26,12 +26,14 @@
 
 package explicit;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
 import java.util.Set;
 
 import prism.PrismUtils;
@@ -39,10 +41,41 @@ import prism.PrismUtils;
 /**
  * Explicit representation of a probability distribution.
  * Basically, a mapping from (integer-valued) indices to (non-zero, double-valued) probabilities. 
+ * <br>
+ * This is stored as a pair of (parallel) arrays of indices and probabilities, sorted by index.
+ * Adding entries in increasing order of index (the usual case) is done in constant time;
+ * other lookups/insertions use binary search. For allocation-free iteration, use {@link #forEach}.
  */
 public class Distribution implements Iterable<Entry<Integer, Double>>
 {
-	private HashMap<Integer, Double> map;
+	/**
+	 * Functional interface for a consumer of the entries (index j, probability prob) of a distribution.
+	 */
+	@FunctionalInterface
+	public interface EntryConsumer
+	{
+		public void accept(int j, double prob);
+	}
+
+	/**
+	 * Functional interface for a function mapping the entries (index j, probability prob)
+	 * of a distribution to a double value.
+	 */
+	@FunctionalInterface
+	public interface EntryToDoubleFunction
+	{
+		public double apply(int j, double prob);
+	}
+
+	// Shared (empty) arrays for empty distributions
+	private static final int[] EMPTY_INDICES = new int[0];
+	private static final double[] EMPTY_PROBS = new double[0];
+
+	// Indices (sorted, distinct) and corresponding probabilities;
+	// only the first 'size' elements of each are used
+	private int[] indices;
+	private double[] probs;
+	private int size;
 
 	/**
 	 * Create an empty distribution.
@@ -57,7 +90,9 @@ public class Distribution implements Iterable<Entry<Integer, Double>>
 	 */
 	public Distribution(Distribution distr)
 	{
-		this(distr.iterator());
+		size = distr.size;
+		indices = Arrays.copyOf(distr.indices, size);
+		probs = Arrays.copyOf(distr.probs, size);
 	}
 
 	/**
@@ -81,10 +116,8 @@ public class Distribution implements Iterable<Entry<Integer, Double>>
 	public Distribution(Distribution distr, int permut[])
 	{
 		this();
-		Iterator<Entry<Integer, Double>> i = distr.iterator();
-		while (i.hasNext()) {
-			Map.Entry<Integer, Double> e = i.next();
-			add(permut[e.getKey()], e.getValue());
+		for (int k = 0; k < distr.size; k++) {
+			add(permut[distr.indices[k]], distr.probs[k]);
 		}
 	}
 
@@ -93,7 +126,9 @@ public class Distribution implements Iterable<Entry<Integer, Double>>
 	 */
 	public void clear()
 	{
-		map = new HashMap<Integer, Double>();
+		indices = EMPTY_INDICES;
+		probs = EMPTY_PROBS;
+		size = 0;
 	}
 
 	/**
@@ -103,12 +138,12 @@ public class Distribution implements Iterable<Entry<Integer, Double>>
 	 */
 	public boolean add(int j, double prob)
 	{
-		Double d = (Double) map.get(j);
-		if (d == null) {
-			map.put(j, prob);
+		int k = find(j);
+		if (k < 0) {
+			insertAt(-(k + 1), j, prob);
 			return false;
 		} else {
-			set(j, d + prob);
+			setAt(k, probs[k] + prob);
 			return true;
 		}
 	}
@@ -118,10 +153,13 @@ public class Distribution implements Iterable<Entry<Integer, Double>>
 	 */
 	public void set(int j, double prob)
 	{
-		if (prob == 0.0)
-			map.remove(j);
-		else
-			map.put(j, prob);
+		int k = find(j);
+		if (k < 0) {
+			if (prob != 0.0)
+				insertAt(-(k + 1), j, prob);
+		} else {
+			setAt(k, prob);
+		}
 	}
 
 	/**
@@ -129,9 +167,8 @@ public class Distribution implements Iterable<Entry<Integer, Double>>
 	 */
 	public double get(int j)
 	{
-		Double d;
-		d = (Double) map.get(j);
-		return d == null ? 0.0 : d.doubleValue();
+		int k = find(j);
+		return k < 0 ? 0.0 : probs[k];
 	}
 
 	/**
@@ -139,7 +176,7 @@ public class Distribution implements Iterable<Entry<Integer, Double>>
 	 */
 	public boolean contains(int j)
 	{
-		return map.get(j) != null;
+		return find(j) >= 0;
 	}
 
 	/**
@@ -147,10 +184,8 @@ public class Distribution implements Iterable<Entry<Integer, Double>>
 	 */
 	public boolean isSubsetOf(BitSet set)
 	{
-		Iterator<Entry<Integer, Double>> i = iterator();
-		while (i.hasNext()) {
-			Map.Entry<Integer, Double> e = i.next();
-			if (!set.get((Integer) e.getKey()))
+		for (int k = 0; k < size; k++) {
+			if (!set.get(indices[k]))
 				return false;
 		}
 		return true;
@@ -161,29 +196,138 @@ public class Distribution implements Iterable<Entry<Integer, Double>>
 	 */
 	public boolean containsOneOf(BitSet set)
 	{
-		Iterator<Entry<Integer, Double>> i = iterator();
-		while (i.hasNext()) {
-			Map.Entry<Integer, Double> e = i.next();
-			if (set.get((Integer) e.getKey()))
+		for (int k = 0; k < size; k++) {
+			if (set.get(indices[k]))
 				return true;
 		}
 		return false;
 	}
 
 	/**
-	 * Get the support of the distribution.
+	 * Get the support of the distribution (as a read-only view).
 	 */
 	public Set<Integer> getSupport()
 	{
-		return map.keySet();
+		return new AbstractSet<Integer>()
+		{
+			@Override
+			public Iterator<Integer> iterator()
+			{
+				return getSupportIterator();
+			}
+
+			@Override
+			public boolean contains(Object o)
+			{
+				return (o instanceof Integer) && Distribution.this.contains((Integer) o);
+			}
+
+			@Override
+			public int size()
+			{
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * Get an iterator over the support of the distribution (in increasing order).
+	 */
+	public PrimitiveIterator.OfInt getSupportIterator()
+	{
+		return new PrimitiveIterator.OfInt()
+		{
+			int k = 0;
+
+			@Override
+			public boolean hasNext()
+			{
+				return k < size;
+			}
+
+			@Override
+			public int nextInt()
+			{
+				if (k >= size)
+					throw new NoSuchElementException();
+				return indices[k++];
+			}
+		};
 	}
 
 	/**
-	 * Get an iterator over the entries of the map defining the distribution.
+	 * Get an iterator over the entries of the map defining the distribution
+	 * (in increasing order of index).
+	 * As for a map, {@code setValue} on an entry updates the probability in the distribution
+	 * (setting it to 0 does not remove the entry; use the iterator's {@code remove} for that).
+	 * Each entry is a new object: use {@link #forEach} to avoid allocation.
 	 */
 	public Iterator<Entry<Integer, Double>> iterator()
 	{
-		return map.entrySet().iterator();
+		return new Iterator<Entry<Integer, Double>>()
+		{
+			int k = 0;
+			boolean canRemove = false;
+
+			@Override
+			public boolean hasNext()
+			{
+				return k < size;
+			}
+
+			@Override
+			public Entry<Integer, Double> next()
+			{
+				if (k >= size)
+					throw new NoSuchElementException();
+				final int pos = k++;
+				canRemove = true;
+				return new AbstractMap.SimpleEntry<Integer, Double>(indices[pos], probs[pos])
+				{
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					public Double setValue(Double prob)
+					{
+						probs[pos] = prob;
+						return super.setValue(prob);
+					}
+				};
+			}
+
+			@Override
+			public void remove()
+			{
+				if (!canRemove)
+					throw new IllegalStateException();
+				setAt(--k, 0.0);
+				canRemove = false;
+			}
+		};
+	}
+
+	/**
+	 * Call {@code c.accept(j, prob)} for each entry (j, prob) of the distribution
+	 * (in increasing order of index), without any allocation/boxing.
+	 */
+	public void forEach(EntryConsumer c)
+	{
+		for (int k = 0; k < size; k++) {
+			c.accept(indices[k], probs[k]);
+		}
+	}
+
+	/**
+	 * Return the sum of {@code f.apply(j, prob)} over all entries (j, prob) of the distribution,
+	 * e.g. {@code sumOver((j, prob) -> prob * vect[j])}, without any allocation/boxing.
+	 */
+	public double sumOver(EntryToDoubleFunction f)
+	{
+		double sum = 0.0;
+		for (int k = 0; k < size; k++) {
+			sum += f.apply(indices[k], probs[k]);
+		}
+		return sum;
 	}
 
 	/**
@@ -191,7 +335,7 @@ public class Distribution implements Iterable<Entry<Integer, Double>>
 	 */
 	public boolean isEmpty()
 	{
-		return map.isEmpty();
+		return size == 0;
 	}
 
 	/**
@@ -199,7 +343,7 @@ public class Distribution implements Iterable<Entry<Integer, Double>>
 	 */
 	public int size()
 	{
-		return map.size();
+		return size;
 	}
 
 	/**
@@ -208,10 +352,8 @@ public class Distribution implements Iterable<Entry<Integer, Double>>
 	public double mean()
 	{
 		double d = 0.0;
-		Iterator<Entry<Integer, Double>> i = iterator();
-		while (i.hasNext()) {
-			Map.Entry<Integer, Double> e = i.next();
-			d += e.getValue() * e.getKey();
+		for (int k = 0; k < size; k++) {
+			d += probs[k] * indices[k];
 		}
 		return d;
 	}
@@ -223,10 +365,8 @@ public class Distribution implements Iterable<Entry<Integer, Double>>
 	{
 		double mean = mean();
 		double meanSq = 0.0;
-		Iterator<Entry<Integer, Double>> i = iterator();
-		while (i.hasNext()) {
-			Map.Entry<Integer, Double> e = i.next();
-			meanSq += e.getValue() * e.getKey() * e.getKey();
+		for (int k = 0; k < size; k++) {
+			meanSq += probs[k] * indices[k] * indices[k];
 		}
 		return Math.abs(meanSq - mean * mean);
 	}
@@ -253,13 +393,11 @@ public class Distribution implements Iterable<Entry<Integer, Double>>
 	 */
 	public double sum()
 	{
-		double mean = 0.0;
-		Iterator<Entry<Integer, Double>> i = iterator();
-		while (i.hasNext()) {
-			Map.Entry<Integer, Double> e = i.next();
-			mean += e.getValue();
+		double sum = 0.0;
+		for (int k = 0; k < size; k++) {
+			sum += probs[k];
 		}
-		return mean;
+		return sum;
 	}
 
 	/**
@@ -268,11 +406,9 @@ public class Distribution implements Iterable<Entry<Integer, Double>>
 	public double sumAllBut(int j)
 	{
 		double d = 0.0;
-		Iterator<Entry<Integer, Double>> i = iterator();
-		while (i.hasNext()) {
-			Map.Entry<Integer, Double> e = i.next();
-			if (e.getKey() != j)
-				d += e.getValue();
+		for (int k = 0; k < size; k++) {
+			if (indices[k] != j)
+				d += probs[k];
 		}
 		return d;
 	}
@@ -283,28 +419,73 @@ public class Distribution implements Iterable<Entry<Integer, Double>>
 	 */
 	public Distribution map(int map[])
 	{
-		Distribution distrNew = new Distribution();
-		Iterator<Entry<Integer, Double>> i = iterator();
-		while (i.hasNext()) {
-			Map.Entry<Integer, Double> e = i.next();
-			distrNew.add(map[e.getKey()], e.getValue());
+		return new Distribution(this, map);
+	}
+
+	// Private helpers
+
+	/**
+	 * Find the position k of index j in the (sorted) indices array,
+	 * or return -(insertion point)-1 if not present (cf. Arrays.binarySearch).
+	 */
+	private int find(int j)
+	{
+		// Fast paths: empty distribution or index beyond the last one
+		if (size == 0 || j > indices[size - 1])
+			return -(size + 1);
+		if (j == indices[size - 1])
+			return size - 1;
+		// Small distributions: linear search
+		if (size <= 8) {
+			int k = 0;
+			while (indices[k] < j)
+				k++;
+			return indices[k] == j ? k : -(k + 1);
+		}
+		return Arrays.binarySearch(indices, 0, size, j);
+	}
+
+	/**
+	 * Insert entry (j, prob) at position k.
+	 */
+	private void insertAt(int k, int j, double prob)
+	{
+		if (size == indices.length) {
+			int capacity = size < 2 ? size + 1 : size + (size >> 1);
+			indices = Arrays.copyOf(indices, capacity);
+			probs = Arrays.copyOf(probs, capacity);
+		}
+		if (k < size) {
+			System.arraycopy(indices, k, indices, k + 1, size - k);
+			System.arraycopy(probs, k, probs, k + 1, size - k);
+		}
+		indices[k] = j;
+		probs[k] = prob;
+		size++;
+	}
+
+	/**
+	 * Set the probability at position k, removing the entry if it is zero.
+	 */
+	private void setAt(int k, double prob)
+	{
+		if (prob == 0.0) {
+			System.arraycopy(indices, k + 1, indices, k, size - k - 1);
+			System.arraycopy(probs, k + 1, probs, k, size - k - 1);
+			size--;
+		} else {
+			probs[k] = prob;
 		}
-		return distrNew;
 	}
 
 	@Override
 	public boolean equals(Object o)
 	{
-		Double d1, d2;
 		Distribution d = (Distribution) o;
-		if (d.size() != size())
+		if (d.size != size)
 			return false;
-		Iterator<Entry<Integer, Double>> i = iterator();
-		while (i.hasNext()) {
-			Map.Entry<Integer, Double> e = i.next();
-			d1 = e.getValue();
-			d2 = d.map.get(e.getKey());
-			if (d2 == null || !PrismUtils.doublesAreClose(d1, d2, 1e-12, false))
+		for (int k = 0; k < size; k++) {
+			if (indices[k] != d.indices[k] || !PrismUtils.doublesAreClose(probs[k], d.probs[k], 1e-12, false))
 				return false;
 		}
 		return true;
@@ -314,28 +495,30 @@ public class Distribution implements Iterable<Entry<Integer, Double>>
 	public int hashCode()
 	{
 		// Simple hash code
-		return map.size();
+		return size;
 	}
 
 	@Override
 	public String toString()
 	{
-		return map.toString();
+		StringBuilder sb = new StringBuilder("{");
+		for (int k = 0; k < size; k++) {
+			if (k > 0)
+				sb.append(", ");
+			sb.append(indices[k]).append("=").append(probs[k]);
+		}
+		return sb.append("}").toString();
 	}
 	
 	public String toStringCSV()
 	{
 		String s = "Value";
-		Iterator<Entry<Integer, Double>> i = iterator();
-		while (i.hasNext()) {
-			Map.Entry<Integer, Double> e = i.next();
-			s += ", " + e.getKey();
+		for (int k = 0; k < size; k++) {
+			s += ", " + indices[k];
 		}
 		s += "\nProbability";
-		i = iterator();
-		while (i.hasNext()) {
-			Map.Entry<Integer, Double> e = i.next();
-			s += ", " + e.getValue();
+		for (int k = 0; k < size; k++) {
+			s += ", " + probs[k];
 		}
 		s += "\n";
 		return s;
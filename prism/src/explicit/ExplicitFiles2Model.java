@@ -52,6 +52,8 @@ public class ExplicitFiles2Model extends PrismComponent
 {
 	// Should deadlocks be fixed (by adding a self-loop) when detected?
 	private boolean fixdl;
+	// Should the transition function be stored off-heap?
+	private boolean offHeap = false;
 	
 	/** Constructor */
 	public ExplicitFiles2Model(PrismComponent parent)
@@ -78,6 +80,25 @@ public class ExplicitFiles2Model extends PrismComponent
 		this.fixdl = fixdl;
 	}
 	
+	/**
+	 * Is the transition function stored off-heap (see {@link DTMCSparseOffHeap}, {@link MDPSparseOffHeap})?
+	 */
+	public boolean getOffHeap()
+	{
+		return offHeap;
+	}
+
+	/**
+	 * Should the transition function be stored off-heap (see {@link DTMCSparseOffHeap}, {@link MDPSparseOffHeap})?
+	 * This is read straight from the .tra file into off-heap storage, so transitions must be
+	 * ordered by state (and choice) and destination, as in files exported by PRISM.
+	 * Only supported for DTMCs and MDPs.
+	 */
+	public void setOffHeap(boolean offHeap)
+	{
+		this.offHeap = offHeap;
+	}
+
 	/**
 	 * Build a Model corresponding to the passed in states/transitions/labels files.
 	 * Variable info and model type is taken from a {@code ModelInfo} object.
@@ -95,17 +116,20 @@ public class ExplicitFiles2Model extends PrismComponent
 		ModelExplicit model = null;
 		switch (modelInfo.getModelType()) {
 		case DTMC:
-			DTMCSimple dtmc = new DTMCSimple();
+			DTMCExplicit dtmc = offHeap ? new DTMCSparseOffHeap() : new DTMCSimple();
 			dtmc.buildFromPrismExplicit(transFile.getAbsolutePath());
 			model = dtmc;
 			break;
 		case CTMC:
+			if (offHeap) {
+				throw new PrismNotSupportedException("Off-heap import is not supported for CTMCs");
+			}
 			CTMCSimple ctmc = new CTMCSimple();
 			ctmc.buildFromPrismExplicit(transFile.getAbsolutePath());
 			model = ctmc;
 			break;
 		case MDP:
-			MDPSimple mdp = new MDPSimple();
+			MDPExplicit mdp = offHeap ? new MDPSparseOffHeap() : new MDPSimple();
 			mdp.buildFromPrismExplicit(transFile.getAbsolutePath());
 			model = mdp;
 			break;
@@ -26,9 +26,11 @@
 
 package explicit;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
 import prism.PrismComponent;
 
 /**
@@ -38,6 +40,8 @@ import prism.PrismComponent;
  * <p>
  * As NondetModel only provide easy access to successors of states,
  * the predecessor relation is computed and stored for subsequent efficient access.
+ * As for PredecessorRelation, it is stored in compressed (CSR) form and can be computed in parallel;
+ * incoming choices can be accessed either as {@link Choice} objects or as primitive values.
  * <p>
  * Note: Naturally, if the NondetModel changes, the predecessor relation
  * has to be recomputed to remain accurate.
@@ -107,9 +111,27 @@ public class IncomingChoiceRelation
 	};
 
 	/**
-	 * pre[i] provides the list of incoming choices of the state with index i.
+	 * Callback for iterating over incoming choices.
+	 */
+	@FunctionalInterface
+	public interface IncomingChoiceConsumer
+	{
+		/** Called for an incoming choice, i.e., choice {@code choice} of state {@code state}. */
+		void accept(int state, int choice);
+	}
+
+	/**
+	 * The incoming choices of the state with index i are
+	 * {@code pre[preStarts[i]]}, ..., {@code pre[preStarts[i+1]-1]}.
 	 */
-	List<ArrayList<Choice>> pre;
+	int[] preStarts;
+
+	/**
+	 * Incoming choices of all states, each stored as a long with
+	 * the source state in the upper and the choice index in the lower 32 bits
+	 * (so that the natural ordering is by state, then choice).
+	 */
+	long[] pre;
 
 	/**
 	 * Constructor. Computes the predecessor relation for the given model
@@ -119,32 +141,145 @@ public class IncomingChoiceRelation
 	 */
 	public IncomingChoiceRelation(NondetModel model)
 	{
-		pre = new ArrayList<ArrayList<Choice>>(model.getNumStates());
-		// construct the (empty) array list for all states
-		for (int s = 0; s < model.getNumStates(); s++) {
-			pre.add(s, new ArrayList<Choice>());
-		}
+		this(model, 1);
+	}
 
-		compute(model);
+	/**
+	 * Constructor. Computes the predecessor relation for the given model
+	 * by considering the successors of each state, using (up to) {@code numThreads} threads.
+	 * The result does not depend on the number of threads.
+	 *
+	 * @param model the Model
+	 * @param numThreads the number of threads
+	 */
+	public IncomingChoiceRelation(NondetModel model, int numThreads)
+	{
+		if (numThreads > 1 && model.getNumStates() >= PredecessorRelation.MIN_PARALLEL_STATES) {
+			computeParallel(model, numThreads);
+		} else {
+			compute(model);
+		}
 	}
 
-	/** Compute the predecessor relation using getSuccessorsIterator. */
+	/** Compute the relation using getSuccessors (two passes: count, then store), as for PredecessorRelation. */
 	private void compute(NondetModel model)
 	{
 		int n = model.getNumStates();
 
+		// Count the incoming choices of each state
+		preStarts = new int[n + 1];
+		for (int s = 0; s < n; s++) {
+			for (int c = 0, m = model.getNumChoices(s); c < m; c++) {
+				for (SuccessorsIterator it = model.getSuccessors(s, c).distinct(); it.hasNext();) {
+					preStarts[it.nextInt() + 1]++;
+				}
+			}
+		}
+		allocate(n);
+
+		// Store the incoming choices (ordered by state, then choice)
+		int[] next = Arrays.copyOf(preStarts, n);
 		for (int s = 0; s < n; s++) {
 			for (int c = 0, m = model.getNumChoices(s); c < m; c++) {
-				Choice choice = new Choice(s, c);
+				for (SuccessorsIterator it = model.getSuccessors(s, c).distinct(); it.hasNext();) {
+					pre[next[it.nextInt()]++] = encode(s, c);
+				}
+			}
+		}
+	}
 
-				Iterator<Integer> it = model.getSuccessorsIterator(s, c);
-				while (it.hasNext()) {
-					int successor = it.next();
+	/** Compute the relation using getSuccessors, in parallel, as for PredecessorRelation. */
+	private void computeParallel(NondetModel model, int numThreads)
+	{
+		int n = model.getNumStates();
 
-					// Add the current choice s to pre[successor].
-					pre.get(successor).add(choice);
+		// Count the incoming choices of each state
+		AtomicIntegerArray counts = new AtomicIntegerArray(n);
+		PredecessorRelation.parallelFor(numThreads, n, (from, to) -> {
+			for (int s = from; s < to; s++) {
+				for (int c = 0, m = model.getNumChoices(s); c < m; c++) {
+					for (SuccessorsIterator it = model.getSuccessors(s, c).distinct(); it.hasNext();) {
+						counts.incrementAndGet(it.nextInt());
+					}
 				}
 			}
+		});
+		preStarts = new int[n + 1];
+		for (int s = 0; s < n; s++) {
+			preStarts[s + 1] = counts.get(s);
+		}
+		allocate(n);
+
+		// Store the incoming choices (reusing the counts as the next free position for each state)
+		for (int s = 0; s < n; s++) {
+			counts.set(s, preStarts[s]);
+		}
+		PredecessorRelation.parallelFor(numThreads, n, (from, to) -> {
+			for (int s = from; s < to; s++) {
+				for (int c = 0, m = model.getNumChoices(s); c < m; c++) {
+					for (SuccessorsIterator it = model.getSuccessors(s, c).distinct(); it.hasNext();) {
+						pre[counts.getAndIncrement(it.nextInt())] = encode(s, c);
+					}
+				}
+			}
+		});
+
+		// Sort the incoming choices of each state, so that the result is as for the sequential version
+		PredecessorRelation.parallelFor(numThreads, n, (from, to) -> {
+			for (int s = from; s < to; s++) {
+				Arrays.sort(pre, preStarts[s], preStarts[s + 1]);
+			}
+		});
+	}
+
+	/**
+	 * Convert the counts stored in {@code preStarts[1..n]} to start indices and allocate {@code pre}.
+	 */
+	private void allocate(int n)
+	{
+		for (int s = 0; s < n; s++) {
+			preStarts[s + 1] += preStarts[s];
+		}
+		pre = new long[preStarts[n]];
+	}
+
+	private static long encode(int state, int choice)
+	{
+		return ((long) state << 32) | choice;
+	}
+
+	/**
+	 * Get the number of incoming choices of state {@code s}.
+	 */
+	public int getNumIncomingChoices(int s)
+	{
+		return preStarts[s + 1] - preStarts[s];
+	}
+
+	/**
+	 * Get the source state of the {@code i}th incoming choice of state {@code s}.
+	 */
+	public int getIncomingChoiceState(int s, int i)
+	{
+		return (int) (pre[preStarts[s] + i] >>> 32);
+	}
+
+	/**
+	 * Get the choice index of the {@code i}th incoming choice of state {@code s}.
+	 */
+	public int getIncomingChoiceIndex(int s, int i)
+	{
+		return (int) pre[preStarts[s] + i];
+	}
+
+	/**
+	 * Perform an action for each incoming choice of state {@code s}
+	 * (without creating {@link Choice} objects).
+	 */
+	public void forEachIncomingChoice(int s, IncomingChoiceConsumer action)
+	{
+		for (int i = preStarts[s], end = preStarts[s + 1]; i < end; i++) {
+			action.accept((int) (pre[i] >>> 32), (int) pre[i]);
 		}
 	}
 
@@ -153,7 +288,7 @@ public class IncomingChoiceRelation
 	 */
 	public Iterable<Choice> getIncomingChoices(int s)
 	{
-		return pre.get(s);
+		return () -> getIncomingChoicesIterator(s);
 	}
 
 	/**
@@ -161,7 +296,28 @@ public class IncomingChoiceRelation
 	 */
 	public Iterator<Choice> getIncomingChoicesIterator(int s)
 	{
-		return getIncomingChoices(s).iterator();
+		final int start = preStarts[s];
+		final int end = preStarts[s + 1];
+		return new Iterator<Choice>()
+		{
+			int i = start;
+
+			@Override
+			public boolean hasNext()
+			{
+				return i < end;
+			}
+
+			@Override
+			public Choice next()
+			{
+				if (i < end) {
+					long c = pre[i++];
+					return new Choice((int) (c >>> 32), (int) c);
+				}
+				throw new NoSuchElementException();
+			}
+		};
 	}
 
 	/**
@@ -179,7 +335,7 @@ public class IncomingChoiceRelation
 		parent.getLog().print("Calculating incoming choices relation for "+model.getModelType().fullName()+"...  ");
 		parent.getLog().flush();
 
-		IncomingChoiceRelation pre = new IncomingChoiceRelation(model);
+		IncomingChoiceRelation pre = new IncomingChoiceRelation(model, PredecessorRelation.getNumThreads(parent));
 
 		timer = System.currentTimeMillis() - timer;
 		parent.getLog().println("done (" + timer / 1000.0 + " seconds)");
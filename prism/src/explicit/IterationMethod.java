@@ -576,6 +576,8 @@ public abstract class IterationMethod {
 			final int maxIters = mc.maxIters;
 			boolean done = false;
 
+			double accuracy = Double.NaN;
+
 			PeriodicTimer updatesTimer = new PeriodicTimer(ProbModelChecker.UPDATE_DELAY);
 			updatesTimer.start();
 
@@ -599,6 +601,7 @@ public abstract class IterationMethod {
 					double diff = PrismUtils.measureSupNormInterval(below.getSolnVector(), above.getSolnVector(), absolute);
 					mc.getLog().println("Max " + (!absolute ? "relative ": "") +
 							"diff between upper and lower bound on convergence: " + PrismUtils.formatDouble(diff));
+					accuracy = diff;
 					done = true;
 				}
 
@@ -620,6 +623,7 @@ public abstract class IterationMethod {
 
 			if (done && OptionsIntervalIteration.from(mc.getSettings()).isSelectMidpointForResult()) {
 				PrismUtils.selectMidpoint(below.getSolnVector(), above.getSolnVector());
+				accuracy /= 2.0;
 
 				if (iterationsExport != null) {
 					// export midpoint
@@ -640,6 +644,8 @@ public abstract class IterationMethod {
 			res.soln = below.getSolnVector();
 			res.numIters = iters;
 			res.timeTaken = timer / 1000.0;
+			res.accuracy = accuracy;
+			res.accuracyRelative = !absolute;
 			return res;
 		} finally {
 			if (iterationsExport != null)
@@ -676,6 +682,7 @@ public abstract class IterationMethod {
 			int finishedNonSingletonSCCs = 0;
 
 			boolean done = true;
+			double accuracy = Double.NaN;
 			for (int scc = 0; scc < numSCCs; scc++) {
 				boolean doneSCC;
 
@@ -763,6 +770,7 @@ public abstract class IterationMethod {
 				double diff = PrismUtils.measureSupNormInterval(below.getSolnVector(), above.getSolnVector(), absolute);
 				mc.getLog().println("Max " + (absolute ? "" : "relative ") +
 						"diff between upper and lower bound on convergence: " + PrismUtils.formatDouble(diff));
+				accuracy = diff;
 				done = true;
 			}
 
@@ -775,6 +783,7 @@ public abstract class IterationMethod {
 
 			if (done && OptionsIntervalIteration.from(mc.getSettings()).isSelectMidpointForResult()) {
 				PrismUtils.selectMidpoint(below.getSolnVector(), above.getSolnVector());
+				accuracy /= 2.0;
 
 				if (iterationsExport != null) {
 					// export midpoint
@@ -798,6 +807,170 @@ public abstract class IterationMethod {
 			res.soln = below.getSolnVector();
 			res.numIters = iters;
 			res.timeTaken = timer / 1000.0;
+			res.accuracy = accuracy;
+			res.accuracyRelative = !absolute;
+			return res;
+		} finally {
+			if (iterationsExport != null)
+				iterationsExport.close();
+		}
+	}
+
+	/**
+	 * Perform the actual work of an optimistic value iteration (Hartmanns/Kaminski, CAV'20),
+	 * i.e., iterate from below until convergence, then guess an upper bound close to the
+	 * values from below and try to verify it by iterating from it: if it decreases everywhere,
+	 * it is a sound upper bound; if not (within as many iterations as were done from below),
+	 * continue iterating from below with a smaller convergence threshold and try again.
+	 * <br>
+	 * The result is the midpoint of the lower and (verified) upper bound, whose accuracy
+	 * (half the maximum difference between the bounds) is stored in the result.
+	 * Unlike interval iteration, no a priori upper bound (or quotienting) is needed,
+	 * since verification shows that the guess is above the least fixed point.
+	 *
+	 * @param mc ProbModelChecker (for log and settings)
+	 * @param description Description (for logging)
+	 * @param below The iteration object for the iteration from below (already initialised)
+	 * @param above The iteration object for the iteration from above, without monotonicity enforcement (initialised here for each guess)
+	 * @param unknownStates The set of unknown states, i.e., whose value should be determined
+	 * @param timer The start time (for logging purposes, obtained from a call to System.currentTimeMillis())
+	 * @param iterationsExport an ExportIterations object (optional, ignored if null)
+	 * @return a ModelChecker result with the solution vector and statistics
+	 * @throws PrismException on non-convergence (if mc.errorOnNonConverge is set)
+	 */
+	public ModelCheckerResult doOptimisticValueIteration(ProbModelChecker mc, String description, IterationIntervalIter below, IterationIntervalIter above, IntSet unknownStates, long timer, ExportIterations iterationsExport) throws PrismException
+	{
+		try {
+			// Start iterations
+			int iters = 0, itersBelow = 0, numVerifications = 0;
+			long mvCount = 0;
+			final int maxIters = mc.maxIters;
+			final long numTransitions = countTransitions(below.getModel(), unknownStates);
+			boolean done = false;
+			// Convergence threshold for the iteration from below (halved after each failed verification)
+			double epsBelow = termCritParam;
+			double accuracy = Double.NaN;
+			double[] prev = new double[below.getSolnVector().length];
+
+			PeriodicTimer updatesTimer = new PeriodicTimer(ProbModelChecker.UPDATE_DELAY);
+			updatesTimer.start();
+
+			while (!done && iters < maxIters) {
+				// Iterate from below until convergence (w.r.t. the current threshold)
+				boolean converged = false;
+				while (!converged && iters < maxIters) {
+					iters++;
+					itersBelow++;
+					mvCount += numTransitions;
+					copyValues(below.getSolnVector(), prev, unknownStates);
+					below.iterate(unknownStates);
+
+					if (iterationsExport != null)
+						iterationsExport.exportVector(below.getSolnVector(), 0);
+
+					converged = PrismUtils.doublesAreClose(prev, below.getSolnVector(), unknownStates.iterator(), epsBelow, absolute);
+
+					if (!converged && updatesTimer.triggered()) {
+						mc.getLog().print("Iteration " + iters + ": ");
+						mc.getLog().println(PrismUtils.formatDouble2dp(updatesTimer.elapsedMillisTotal() / 1000.0) + " sec so far");
+					}
+				}
+				if (!converged) {
+					break;
+				}
+
+				// Guess an upper bound, at distance termCritParam (absolute/relative) from the lower one
+				double[] lower = below.getSolnVector();
+				double[] upper = lower.clone();
+				PrimitiveIterator.OfInt it = unknownStates.iterator();
+				while (it.hasNext()) {
+					int s = it.nextInt();
+					upper[s] = absolute ? lower[s] + termCritParam : lower[s] * (1.0 + termCritParam);
+				}
+				above.init(upper);
+				numVerifications++;
+
+				// Verification phase: iterate from both bounds; the guess is verified
+				// if the upper bound does not increase anywhere in one step.
+				// Otherwise, keep the minimum of the old and new upper values and
+				// give up if nothing decreases, if it crosses the lower bound,
+				// or if this takes longer than the iteration from below so far.
+				for (int k = 0; k < itersBelow && iters < maxIters; k++) {
+					iters++;
+					mvCount += 2 * numTransitions;
+					copyValues(above.getSolnVector(), prev, unknownStates);
+					below.iterate(unknownStates);
+					above.iterate(unknownStates);
+
+					if (iterationsExport != null) {
+						iterationsExport.exportVector(below.getSolnVector(), 0);
+						iterationsExport.exportVector(above.getSolnVector(), 1);
+					}
+
+					lower = below.getSolnVector();
+					upper = above.getSolnVector();
+					boolean allDown = true, allUp = true, crossed = false;
+					it = unknownStates.iterator();
+					while (it.hasNext()) {
+						int s = it.nextInt();
+						if (upper[s] > prev[s]) {
+							allDown = false;
+							upper[s] = prev[s];
+						} else if (upper[s] < prev[s]) {
+							allUp = false;
+						}
+						if (lower[s] > upper[s])
+							crossed = true;
+					}
+					if (allDown) {
+						done = true;
+						break;
+					}
+					if (allUp || crossed) {
+						break;
+					}
+				}
+
+				if (!done) {
+					epsBelow /= 2.0;
+				}
+			}
+
+			if (done) {
+				double diff = PrismUtils.measureSupNormInterval(below.getSolnVector(), above.getSolnVector(), absolute, unknownStates.iterator());
+				mc.getLog().println("Max " + (absolute ? "" : "relative ") +
+						"diff between upper and lower bound on convergence: " + PrismUtils.formatDouble(diff));
+				PrismUtils.selectMidpoint(below.getSolnVector(), above.getSolnVector());
+				accuracy = diff / 2.0;
+
+				if (iterationsExport != null) {
+					// export midpoint
+					iterationsExport.exportVector(below.getSolnVector(), 0);
+					iterationsExport.exportVector(below.getSolnVector(), 1);
+				}
+			}
+
+			// Finished optimistic value iteration
+			timer = System.currentTimeMillis() - timer;
+			mc.getLog().print("Optimistic value iteration (" + description + ")");
+			mc.getLog().print(" took " + iters + " iterations (" + numVerifications + " verification phases), ");
+			mc.getLog().print(mvCount + " multiplications");
+			mc.getLog().println(" and " + timer / 1000.0 + " seconds.");
+
+			// Non-convergence is an error (usually)
+			if (!done && mc.errorOnNonConverge) {
+				String msg = "Iterative method (optimistic value iteration) did not converge within " + iters + " iterations.";
+				msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+				throw new PrismException(msg);
+			}
+
+			// Return results
+			ModelCheckerResult res = new ModelCheckerResult();
+			res.soln = below.getSolnVector();
+			res.numIters = iters;
+			res.timeTaken = timer / 1000.0;
+			res.accuracy = accuracy;
+			res.accuracyRelative = !absolute;
 			return res;
 		} finally {
 			if (iterationsExport != null)
@@ -805,6 +978,18 @@ public abstract class IterationMethod {
 		}
 	}
 
+	/**
+	 * Copy the values of the given states from one solution vector to another.
+	 */
+	private static void copyValues(double[] from, double[] to, IntSet states)
+	{
+		PrimitiveIterator.OfInt it = states.iterator();
+		while (it.hasNext()) {
+			int s = it.nextInt();
+			to[s] = from[s];
+		}
+	}
+
 	/**
 	 * Compares the current lower and upper solution vectors in an interval iteration
 	 * and throws an exception if lower bound values are larger than upper bound values,
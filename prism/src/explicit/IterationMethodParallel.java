@@ -0,0 +1,293 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import common.IntSet;
+import explicit.rewards.MCRewards;
+import explicit.rewards.MDPRewards;
+import prism.PrismException;
+import prism.PrismNotSupportedException;
+import prism.PrismUtils;
+
+/**
+ * IterationMethod that encapsulates the functionality of the Power or Jacobi method,
+ * where each iteration is parallelised over the set of states being iterated over.
+ * <br>
+ * The states are split into chunks which are processed by a ForkJoinPool,
+ * with the convergence check being done for each chunk as it is computed.
+ * Since both methods compute a new solution vector from the old one,
+ * the results are identical to those of {@link IterationMethodPower} and {@link IterationMethodJacobi}.
+ */
+public class IterationMethodParallel extends IterationMethod {
+
+	/** Minimum number of states for an iteration to be parallelised */
+	public static final int MIN_PARALLEL_STATES = 1024;
+
+	/** Number of chunks per thread (more than one, to balance load) */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	/** Shared pool of worker threads */
+	private static ForkJoinPool pool = null;
+
+	/**
+	 * Functional interface for the computation of the new value of a single state (row).
+	 */
+	@FunctionalInterface
+	interface RowOperator {
+		double apply(int s, double[] soln);
+	}
+
+	/** Do Jacobi (rather than Power)? */
+	private final boolean jacobi;
+	/** Number of threads */
+	private final int numThreads;
+
+	/**
+	 * Constructor.
+	 * @param absolute For convergence check, perform absolute comparison?
+	 * @param termCritParam For convergence check, the epsilon value to use
+	 * @param jacobi Use the Jacobi method (rather than the Power method)?
+	 * @param numThreads Number of threads to use
+	 */
+	public IterationMethodParallel(boolean absolute, double epsilon, boolean jacobi, int numThreads)
+	{
+		super(absolute, epsilon);
+		this.jacobi = jacobi;
+		this.numThreads = numThreads;
+	}
+
+	/**
+	 * Get the shared ForkJoinPool, (re)creating it if needed to get the required parallelism.
+	 * (also used for other parallel computations of the explicit engine, e.g. in {@link PredecessorRelation})
+	 */
+	static synchronized ForkJoinPool getPool(int numThreads)
+	{
+		if (pool == null || pool.getParallelism() != numThreads) {
+			if (pool != null)
+				pool.shutdown();
+			pool = new ForkJoinPool(numThreads);
+		}
+		return pool;
+	}
+
+	/**
+	 * A two-vector iteration, performing the computation for each state
+	 * using a {@link RowOperator}, in parallel.
+	 */
+	protected class ParallelTwoVectorIteration extends TwoVectorIteration {
+		/** Computation for a single state */
+		private final RowOperator op;
+		/** The last set of states iterated over, and the same set as an array (cached) */
+		private IntSet lastStates = null;
+		private int[] lastStatesArray = null;
+
+		public ParallelTwoVectorIteration(Model model, IterationPostProcessor postProcessor, RowOperator op)
+		{
+			super(model, postProcessor);
+			this.op = op;
+		}
+
+		@Override
+		public void doIterate(IntSet states) throws PrismException
+		{
+			doIterate(states, false);
+		}
+
+		@Override
+		public boolean iterateAndCheckConvergence(IntSet states) throws PrismException
+		{
+			// With post processing, convergence can only be checked afterwards
+			if (postProcessor != null) {
+				return super.iterateAndCheckConvergence(states);
+			}
+			// Otherwise, do the iteration and check convergence together
+			boolean done = doIterate(states, true);
+
+			// switch vectors
+			double[] tmp = soln;
+			soln = soln2;
+			soln2 = tmp;
+
+			return done;
+		}
+
+		/**
+		 * Perform one iteration (from soln to soln2) over the given states
+		 * and, optionally, check convergence (returns true if converged).
+		 */
+		private boolean doIterate(IntSet states, boolean checkConvergence) throws PrismException
+		{
+			int[] array = getStatesArray(states);
+			int n = array.length;
+			if (numThreads == 1 || n < MIN_PARALLEL_STATES) {
+				return iterateChunk(array, 0, n, checkConvergence);
+			}
+			// Split into chunks and process in parallel
+			int numChunks = numThreads * CHUNKS_PER_THREAD;
+			int chunkSize = (n + numChunks - 1) / numChunks;
+			List<Callable<Boolean>> tasks = new ArrayList<>(numChunks);
+			for (int lo = 0; lo < n; lo += chunkSize) {
+				final int from = lo;
+				final int to = Math.min(lo + chunkSize, n);
+				tasks.add(() -> iterateChunk(array, from, to, checkConvergence));
+			}
+			boolean done = true;
+			try {
+				for (Future<Boolean> future : getPool(numThreads).invokeAll(tasks)) {
+					done &= future.get();
+				}
+			} catch (InterruptedException e) {
+				throw new PrismException("Parallel iteration was interrupted");
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException)
+					throw (RuntimeException) cause;
+				throw new PrismException("Error during parallel iteration: " + cause);
+			}
+			return done;
+		}
+
+		/**
+		 * Perform the iteration for the states array[from], ..., array[to-1]
+		 * and, optionally, check convergence for them (returns true if converged).
+		 */
+		private boolean iterateChunk(int[] array, int from, int to, boolean checkConvergence)
+		{
+			final double[] solnOld = soln;
+			final double[] solnNew = soln2;
+			boolean done = true;
+			for (int i = from; i < to; i++) {
+				int s = array[i];
+				solnNew[s] = op.apply(s, solnOld);
+				if (checkConvergence && done) {
+					done = PrismUtils.doublesAreClose(solnOld[s], solnNew[s], termCritParam, absolute);
+				}
+			}
+			return done;
+		}
+
+		/**
+		 * Get the states as an array, reusing the previous one if the set is unchanged
+		 * (this is the case for all but topological value iteration).
+		 */
+		private int[] getStatesArray(IntSet states)
+		{
+			if (states != lastStates) {
+				lastStatesArray = states.stream().toArray();
+				lastStates = states;
+			}
+			return lastStatesArray;
+		}
+	}
+
+	/**
+	 * Create the post processor for interval iteration.
+	 */
+	private IterationPostProcessor intervalPostProcessor(boolean fromBelow, boolean enforceMonotonicity, boolean checkMonotonicity)
+	{
+		return (soln, soln2, states) -> {
+			twoVectorPostProcessing(soln, soln2, states, fromBelow, enforceMonotonicity, checkMonotonicity);
+		};
+	}
+
+	@Override
+	public IterationValIter forMvMult(DTMC dtmc)
+	{
+		RowOperator op = jacobi ? (s, soln) -> dtmc.mvMultJacSingle(s, soln) : (s, soln) -> dtmc.mvMultSingle(s, soln);
+		return new ParallelTwoVectorIteration(dtmc, null, op);
+	}
+
+	@Override
+	public IterationIntervalIter forMvMultInterval(DTMC dtmc, boolean fromBelow, boolean enforceMonotonicity, boolean checkMonotonicity)
+	{
+		RowOperator op = jacobi ? (s, soln) -> dtmc.mvMultJacSingle(s, soln) : (s, soln) -> dtmc.mvMultSingle(s, soln);
+		return new ParallelTwoVectorIteration(dtmc, intervalPostProcessor(fromBelow, enforceMonotonicity, checkMonotonicity), op);
+	}
+
+	@Override
+	public IterationValIter forMvMultRew(DTMC dtmc, MCRewards rew)
+	{
+		RowOperator op = jacobi ? (s, soln) -> dtmc.mvMultRewJacSingle(s, soln, rew) : (s, soln) -> dtmc.mvMultRewSingle(s, soln, rew);
+		return new ParallelTwoVectorIteration(dtmc, null, op);
+	}
+
+	@Override
+	public IterationIntervalIter forMvMultRewInterval(DTMC dtmc, MCRewards rew, boolean fromBelow, boolean enforceMonotonicity, boolean checkMonotonicity)
+	{
+		RowOperator op = jacobi ? (s, soln) -> dtmc.mvMultRewJacSingle(s, soln, rew) : (s, soln) -> dtmc.mvMultRewSingle(s, soln, rew);
+		return new ParallelTwoVectorIteration(dtmc, intervalPostProcessor(fromBelow, enforceMonotonicity, checkMonotonicity), op);
+	}
+
+	@Override
+	public IterationValIter forMvMultMinMax(MDP mdp, boolean min, int[] strat) throws PrismException
+	{
+		if (jacobi)
+			throw new PrismNotSupportedException("Jacobi not supported for MDPs");
+		return new ParallelTwoVectorIteration(mdp, null, (s, soln) -> mdp.mvMultMinMaxSingle(s, soln, min, strat));
+	}
+
+	@Override
+	public IterationIntervalIter forMvMultMinMaxInterval(MDP mdp, boolean min, int[] strat, boolean fromBelow, boolean enforceMonotonicity,
+			boolean checkMonotonicity) throws PrismException
+	{
+		if (jacobi)
+			throw new PrismNotSupportedException("Jacobi not supported for MDPs");
+		IterationPostProcessor post = intervalPostProcessor(fromBelow, enforceMonotonicity, checkMonotonicity);
+		return new ParallelTwoVectorIteration(mdp, post, (s, soln) -> mdp.mvMultMinMaxSingle(s, soln, min, strat));
+	}
+
+	@Override
+	public IterationValIter forMvMultRewMinMax(MDP mdp, MDPRewards rewards, boolean min, int[] strat) throws PrismException
+	{
+		if (jacobi)
+			throw new PrismNotSupportedException("Jacobi not supported for MDPs");
+		return new ParallelTwoVectorIteration(mdp, null, (s, soln) -> mdp.mvMultRewMinMaxSingle(s, soln, rewards, min, strat));
+	}
+
+	@Override
+	public IterationIntervalIter forMvMultRewMinMaxInterval(MDP mdp, MDPRewards rewards, boolean min, int[] strat, boolean fromBelow,
+			boolean enforceMonotonicity, boolean checkMonotonicity) throws PrismException
+	{
+		if (jacobi)
+			throw new PrismNotSupportedException("Jacobi not supported for MDPs");
+		IterationPostProcessor post = intervalPostProcessor(fromBelow, enforceMonotonicity, checkMonotonicity);
+		return new ParallelTwoVectorIteration(mdp, post, (s, soln) -> mdp.mvMultRewMinMaxSingle(s, soln, rewards, min, strat));
+	}
+
+	@Override
+	public String getDescriptionShort()
+	{
+		return (jacobi ? "Jacobi" : "Power method") + " (" + numThreads + " threads)";
+	}
+}
@@ -27,13 +27,11 @@
 
 package explicit;
 
-import java.awt.Point;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
@@ -55,6 +53,7 @@ import prism.PrismComponent;
 import prism.PrismException;
 import prism.PrismLangException;
 import prism.PrismNotSupportedException;
+import prism.PrismSettings;
 import prism.PrismUtils;
 import acceptance.AcceptanceBuchi;
 import acceptance.AcceptanceGenRabin;
@@ -64,8 +63,13 @@ import acceptance.AcceptanceReach;
 import acceptance.AcceptanceStreett;
 import acceptance.AcceptanceType;
 import automata.DA;
+import automata.DATransitionTable;
 import automata.LTL2DA;
 import automata.LTL2WDBA;
+import explicit.modelviews.DAProductStates;
+import explicit.modelviews.DTMCDAProduct;
+import explicit.modelviews.MDPDAProduct;
+import explicit.modelviews.ModelView;
 import jltl2ba.SimpleLTL;
 
 import common.IterableStateSet;
@@ -431,11 +435,9 @@ public class LTLModelChecker extends PrismComponent
 	{
 		ModelType modelType = model.getModelType();
 		int daSize = da.size();
-		int numAPs = da.getAPList().size();
 		int modelNumStates = model.getNumStates();
 		int prodNumStates;
 		int s_1, s_2, q_1, q_2;
-		BitSet s_labels = new BitSet(numAPs);
 		List<State> prodStatesList = null, daStatesList = null;
 
 		try {
@@ -460,6 +462,18 @@ public class LTLModelChecker extends PrismComponent
 			newVarList.addVar(0, decl, 1, model.getConstantValues());
 		}
 
+		// Compile DA transition table and get APs (labels) satisfied by each model state
+		DATransitionTable daTable = new DATransitionTable(da);
+		long[] apCodes = computeAPCodes(da, labelBS, modelNumStates);
+
+		// If requested, just explore the product state space (DTMCs/MDPs only)
+		// and compute product transitions on-the-fly, rather than storing them
+		if (settings != null && settings.getBoolean(PrismSettings.PRISM_LTL_PRODUCT_ON_THE_FLY)) {
+			if (modelType == ModelType.DTMC || modelType == ModelType.MDP) {
+				return constructProductModelOnTheFly(da, model, daTable, apCodes, newVarList, statesOfInterest);
+			}
+		}
+
 		// Create a (simple, mutable) model of the appropriate type
 		ModelSimple prodModel = null;
 		switch (modelType) {
@@ -490,9 +504,13 @@ public class LTLModelChecker extends PrismComponent
 		// s(s') = s' / daSize
 		// q(s') = s' % daSize
 
-		LinkedList<Point> queue = new LinkedList<Point>();
+		// Map from (encoded) product states to indices in the product model
 		int map[] = new int[prodNumStates];
 		Arrays.fill(map, -1);
+		// Inverse map: (encoded) product state for each index of the product model.
+		// Since states are added to the product model in the order in which they are found,
+		// this also serves as the (FIFO) queue of states to be explored.
+		int invMap[] = new int[Math.max(16, Math.min(prodNumStates, 1024))];
 
 		if (model.getStatesList() != null) {
 			prodStatesList = new ArrayList<State>();
@@ -509,17 +527,12 @@ public class LTLModelChecker extends PrismComponent
 		// (b) to later identify the corresponding product state for the original states
 		//     of interest
 		for (int s_0 : new IterableStateSet(statesOfInterest, model.getNumStates())) {
-			// Get BitSet representing APs (labels) satisfied by state s_0
-			for (int k = 0; k < numAPs; k++) {
-				s_labels.set(k, labelBS.get(Integer.parseInt(da.getAPList().get(k).substring(1))).get(s_0));
-			}
 			// Find corresponding initial state in DA
-			int q_0 = da.getEdgeDestByLabel(da.getStartState(), s_labels);
+			int q_0 = daTable.getEdgeDest(da.getStartState(), apCodes[s_0]);
 			if (q_0 < 0) {
 				throw new PrismException("The deterministic automaton is not complete (state " + da.getStartState() + ")");
 			}
 			// Add (initial) state to product
-			queue.add(new Point(s_0, q_0));
 			switch (modelType) {
 			case STPG:
 				((STPGExplicit) prodModel).addState(((STPG) model).getPlayer(s_0));
@@ -530,6 +543,7 @@ public class LTLModelChecker extends PrismComponent
 			}
 			prodModel.addInitialState(prodModel.getNumStates() - 1);
 			map[s_0 * daSize + q_0] = prodModel.getNumStates() - 1;
+			invMap = addToQueue(invMap, prodModel.getNumStates() - 1, s_0 * daSize + q_0);
 			if (prodStatesList != null) {
 				// Store state information for the product
 				prodStatesList.add(new State(daStatesList.get(q_0), model.getStatesList().get(s_0)));
@@ -537,12 +551,9 @@ public class LTLModelChecker extends PrismComponent
 		}
 
 		// Product states
-		BitSet visited = new BitSet(prodNumStates);
-		while (!queue.isEmpty()) {
-			Point p = queue.pop();
-			s_1 = p.x;
-			q_1 = p.y;
-			visited.set(s_1 * daSize + q_1);
+		for (int i = 0; i < prodModel.getNumStates(); i++) {
+			s_1 = invMap[i] / daSize;
+			q_1 = invMap[i] % daSize;
 
 			// Go through transitions from state s_1 in original model
 			int numChoices = (model instanceof NondetModel) ? ((NondetModel) model).getNumChoices(s_1) : 1;
@@ -569,18 +580,13 @@ public class LTLModelChecker extends PrismComponent
 					Map.Entry<Integer, Double> e = iter.next();
 					s_2 = e.getKey();
 					double prob = e.getValue();
-					// Get BitSet representing APs (labels) satisfied by successor state s_2
-					for (int k = 0; k < numAPs; k++) {
-						s_labels.set(k, labelBS.get(Integer.parseInt(da.getAPList().get(k).substring(1))).get(s_2));
-					}
 					// Find corresponding successor in DA
-					q_2 = da.getEdgeDestByLabel(q_1, s_labels);
+					q_2 = daTable.getEdgeDest(q_1, apCodes[s_2]);
 					if (q_2 < 0) {
 						throw new PrismException("The deterministic automaton is not complete (state " + q_1 + ")");
 					}
 					// Add state/transition to model
-					if (!visited.get(s_2 * daSize + q_2) && map[s_2 * daSize + q_2] == -1) {
-						queue.add(new Point(s_2, q_2));
+					if (map[s_2 * daSize + q_2] == -1) {
 						switch (modelType) {
 						case STPG:
 							((STPGExplicit) prodModel).addState(((STPG) model).getPlayer(s_2));
@@ -590,6 +596,7 @@ public class LTLModelChecker extends PrismComponent
 							break;
 						}
 						map[s_2 * daSize + q_2] = prodModel.getNumStates() - 1;
+						invMap = addToQueue(invMap, prodModel.getNumStates() - 1, s_2 * daSize + q_2);
 						if (prodStatesList != null) {
 							// Store state information for the product
 							prodStatesList.add(new State(daStatesList.get(q_2), model.getStatesList().get(s_2)));
@@ -620,13 +627,8 @@ public class LTLModelChecker extends PrismComponent
 			}
 		}
 
-		// Build a mapping from state indices to states (s,q), encoded as (s * daSize + q) 
-		int invMap[] = new int[prodModel.getNumStates()];
-		for (int i = 0; i < map.length; i++) {
-			if (map[i] != -1) {
-				invMap[map[i]] = i;
-			}
-		}
+		// Trim the mapping from state indices to states (s,q), encoded as (s * daSize + q) 
+		invMap = Arrays.copyOf(invMap, prodModel.getNumStates());
 
 		prodModel.findDeadlocks(false);
 
@@ -649,6 +651,108 @@ public class LTLModelChecker extends PrismComponent
 		return product;
 	}
 
+	/**
+	 * Construct the product of a DA and a DTMC/MDP, as a view that computes
+	 * the transitions of the product on-the-fly; only the reachable product states are stored.
+	 * Exploration stops at product states whose DA state is a sink (from which acceptance is
+	 * already decided), which are made absorbing (see {@link DAProductStates}).
+	 * @param da The DA
+	 * @param model The model
+	 * @param daTable Compiled transition table of the DA
+	 * @param apCodes Encoding of the DA's APs satisfied by each model state (see {@link #computeAPCodes})
+	 * @param newVarList Variable list for the product (or null)
+	 * @param statesOfInterest the set of states for which values should be calculated (null = all states)
+	 * @return The product model
+	 */
+	private <M extends Model> LTLProduct<M> constructProductModelOnTheFly(DA<BitSet,? extends AcceptanceOmega> da, M model, DATransitionTable daTable, long[] apCodes, VarList newVarList, BitSet statesOfInterest) throws PrismException
+	{
+		DAProductStates productStates = new DAProductStates(model, daTable, da.getStartState(), apCodes, findDASinkStates(da), statesOfInterest);
+		ModelView prodModel;
+		switch (model.getModelType()) {
+		case DTMC:
+			prodModel = new DTMCDAProduct((DTMC) model, productStates, newVarList);
+			break;
+		case MDP:
+			prodModel = new MDPDAProduct((MDP) model, productStates, newVarList);
+			break;
+		default:
+			throw new PrismNotSupportedException("On-the-fly product construction not supported for " + model.getModelType() + "s");
+		}
+		prodModel.findDeadlocks(false);
+
+		@SuppressWarnings("unchecked")
+		LTLProduct<M> product = new LTLProduct<M>((M) prodModel, model, null, productStates.getDASize(), productStates.getInvMap());
+
+		// generate acceptance for the product model by lifting
+		product.setAcceptance(liftAcceptance(product, da.getAcceptance()));
+
+		// lift the labels
+		for (String label : model.getLabels()) {
+			BitSet liftedLabel = product.liftFromModel(model.getLabelStates(label));
+			if (prodModel instanceof DTMCDAProduct) {
+				((DTMCDAProduct) prodModel).addLabel(label, liftedLabel);
+			} else {
+				((MDPDAProduct) prodModel).addLabel(label, liftedLabel);
+			}
+		}
+
+		return product;
+	}
+
+	/**
+	 * Find the sink states of a (complete) DA, i.e., those all of whose edges are self-loops.
+	 */
+	private BitSet findDASinkStates(DA<BitSet,? extends AcceptanceOmega> da)
+	{
+		BitSet sinks = new BitSet();
+		// (a complete DA has an edge for each valuation of its APs)
+		long numValuations = 1L << da.getAPList().size();
+		for (int q = 0; q < da.size(); q++) {
+			int numEdges = da.getNumEdges(q);
+			boolean sink = numEdges == numValuations;
+			for (int j = 0; j < numEdges && sink; j++) {
+				sink = da.getEdgeDest(q, j) == q;
+			}
+			if (sink) {
+				sinks.set(q);
+			}
+		}
+		return sinks;
+	}
+
+	/**
+	 * Compute, for each state of a model, the integer encoding (see {@link DATransitionTable#getCode(BitSet)})
+	 * of the set of the DA's APs that it satisfies.
+	 * @param da The DA (with APs L0, L1, ...)
+	 * @param labelBS BitSets giving the set of states for each AP in the DA
+	 * @param numStates The number of states of the model
+	 */
+	private long[] computeAPCodes(DA<BitSet,? extends AcceptanceOmega> da, Vector<BitSet> labelBS, int numStates)
+	{
+		long[] apCodes = new long[numStates];
+		List<String> apList = da.getAPList();
+		for (int k = 0; k < apList.size(); k++) {
+			BitSet bs = labelBS.get(Integer.parseInt(apList.get(k).substring(1)));
+			for (int s = bs.nextSetBit(0); s >= 0 && s < numStates; s = bs.nextSetBit(s + 1)) {
+				apCodes[s] |= 1L << k;
+			}
+		}
+		return apCodes;
+	}
+
+	/**
+	 * Store the (encoded) product state for index {@code i} of the product model
+	 * in the array {@code invMap}, growing it if needed. Returns the (possibly new) array.
+	 */
+	private static int[] addToQueue(int[] invMap, int i, int prodState)
+	{
+		if (i == invMap.length) {
+			invMap = Arrays.copyOf(invMap, 2 * invMap.length);
+		}
+		invMap[i] = prodState;
+		return invMap;
+	}
+
 	/**
 	 * Find the set of states that belong to accepting BSCCs in a model wrt an acceptance condition.
 	 * @param model The model
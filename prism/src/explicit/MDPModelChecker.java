@@ -64,6 +64,8 @@ import explicit.rewards.MCRewards;
 import explicit.rewards.MCRewardsFromMDPRewards;
 import explicit.rewards.MDPRewards;
 import explicit.rewards.Rewards;
+import lpsolve.LpSolve;
+import lpsolve.LpSolveException;
 
 /**
  * Explicit-state model checker for Markov decision processes (MDPs).
@@ -347,12 +349,6 @@ public class MDPModelChecker extends ProbModelChecker
 
 		boolean doPmaxQuotient = this.doPmaxQuotient;
 
-		// Switch to a supported method, if necessary
-		if (mdpSolnMethod == MDPSolnMethod.LINEAR_PROGRAMMING) {
-			mdpSolnMethod = MDPSolnMethod.GAUSS_SEIDEL;
-			mainLog.printWarning("Switching to MDP solution method \"" + mdpSolnMethod.fullName() + "\"");
-		}
-
 		// Check for some unsupported combinations
 		if (mdpSolnMethod == MDPSolnMethod.VALUE_ITERATION && valIterDir == ValIterDir.ABOVE) {
 			if (!(precomp && prob0))
@@ -377,6 +373,14 @@ public class MDPModelChecker extends ProbModelChecker
 				doPmaxQuotient = true;
 			}
 		}
+		if (doOptimisticIteration) {
+			if (doIntervalIteration) {
+				throw new PrismNotSupportedException("Interval iteration and optimistic value iteration cannot be used together");
+			}
+			if (mdpSolnMethod != MDPSolnMethod.VALUE_ITERATION && mdpSolnMethod != MDPSolnMethod.GAUSS_SEIDEL) {
+				throw new PrismNotSupportedException("Currently, explicit engine only supports optimistic value iteration with value iteration or Gauss-Seidel for MDPs");
+			}
+		}
 		if (mdpSolnMethod == MDPSolnMethod.POLICY_ITERATION || mdpSolnMethod == MDPSolnMethod.MODIFIED_POLICY_ITERATION) {
 			if (known != null) {
 				throw new PrismException("Policy iteration methods cannot be passed 'known' values for some states");
@@ -551,7 +555,10 @@ public class MDPModelChecker extends ProbModelChecker
 		IterationMethod iterationMethod = null;
 		switch (method) {
 		case VALUE_ITERATION:
-			iterationMethod = new IterationMethodPower(termCrit == TermCrit.ABSOLUTE, termCritParam);
+			if (numThreads > 1)
+				iterationMethod = new IterationMethodParallel(termCrit == TermCrit.ABSOLUTE, termCritParam, false, numThreads);
+			else
+				iterationMethod = new IterationMethodPower(termCrit == TermCrit.ABSOLUTE, termCritParam);
 			break;
 		case GAUSS_SEIDEL:
 			iterationMethod = new IterationMethodGS(termCrit == TermCrit.ABSOLUTE, termCritParam, false);
@@ -568,12 +575,17 @@ public class MDPModelChecker extends ProbModelChecker
 			}
 			res = computeReachProbsModPolIter(mdp, no, yes, min, strat);
 			break;
+		case LINEAR_PROGRAMMING:
+			res = computeReachProbsLinProg(mdp, no, yes, min, init, known, strat);
+			break;
 		default:
 			throw new PrismException("Unknown MDP solution method " + mdpSolnMethod.fullName());
 		}
 
 		if (res == null) { // not yet computed, use iterationMethod
-			if (!doIntervalIteration) {
+			if (doOptimisticIteration) {
+				res = doOptimisticIterationReachProbs(mdp, no, yes, min, init, known, iterationMethod, strat);
+			} else if (!doIntervalIteration) {
 				res = doValueIterationReachProbs(mdp, no, yes, min, init, known, iterationMethod, getDoTopologicalValueIteration(), strat);
 			} else {
 				res = doIntervalIterationReachProbs(mdp, no, yes, min, init, known, iterationMethod, getDoTopologicalValueIteration(), strat);
@@ -872,7 +884,7 @@ public class MDPModelChecker extends ProbModelChecker
 		if (iterationsExport != null)
 			iterationsExport.exportVector(init, 0);
 
-		IterationMethod.IterationValIter iteration = iterationMethod.forMvMultMinMax(mdp, min, strat);
+		IterationMethod.IterationValIter iteration = iterationMethod.forMvMultMinMax(compressForIteration(mdp), min, strat);
 		iteration.init(init);
 
 		IntSet unknownStates = IntSet.asIntSet(unknown);
@@ -1002,6 +1014,77 @@ public class MDPModelChecker extends ProbModelChecker
 		}
 	}
 
+	/**
+	 * Compute reachability probabilities using optimistic value iteration.
+	 * Optionally, store optimal (memoryless) strategy info.
+	 * @param mdp The MDP
+	 * @param no Probability 0 states
+	 * @param yes Probability 1 states
+	 * @param min Min or max probabilities (true=min, false=max)
+	 * @param init Optionally, an initial solution vector (will be overwritten), will be ignored if known == null
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 * @param iterationMethod The iteration method
+	 * @param strat Storage for (memoryless) strategy choice indices (ignored if null)
+	 * Note: if 'known' is specified (i.e. is non-null, 'init' must also be given and is used for the exact values.
+	 */
+	protected ModelCheckerResult doOptimisticIterationReachProbs(MDP mdp, BitSet no, BitSet yes, boolean min, double init[], BitSet known, IterationMethod iterationMethod, int strat[])
+			throws PrismException
+	{
+		BitSet unknown;
+		int i, n;
+		double initBelow[];
+		long timer;
+
+		// Start value iteration
+		timer = System.currentTimeMillis();
+		String description = (min ? "min" : "max") + ", with " + iterationMethod.getDescriptionShort();
+		if (getDoTopologicalValueIteration()) {
+			mainLog.println("Note: Topological value iteration is not used for optimistic value iteration.");
+		}
+		mainLog.println("Starting optimistic value iteration (" + description + ")...");
+
+		ExportIterations iterationsExport = null;
+		if (settings.getBoolean(PrismSettings.PRISM_EXPORT_ITERATIONS)) {
+			iterationsExport = new ExportIterations("Explicit MDP ReachProbs optimistic value iteration (" + description + ")");
+			mainLog.println("Exporting iterations to " + iterationsExport.getFileName());
+		}
+
+		// Store num states
+		n = mdp.getNumStates();
+
+		// Initialise solution vector from below. Use (where available) the following in order of preference:
+		// (1) exact answer, if already known; (2) 1.0/0.0 if in yes/no; (3) 0.0
+		initBelow = (init == null) ? new double[n] : init;
+		if (known != null && init != null) {
+			for (i = 0; i < n; i++)
+				initBelow[i] = known.get(i) ? init[i] : yes.get(i) ? 1.0 : 0.0;
+		} else {
+			for (i = 0; i < n; i++)
+				initBelow[i] = yes.get(i) ? 1.0 : 0.0;
+		}
+
+		// Determine set of states actually need to compute values for
+		unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(yes);
+		unknown.andNot(no);
+		if (known != null)
+			unknown.andNot(known);
+
+		if (iterationsExport != null)
+			iterationsExport.exportVector(initBelow, 0);
+
+		// The upper bound is only verified, so monotonicity is not enforced there.
+		// Only exact matrix compression is used, since the computed bounds must hold for the actual model
+		MDP mdpIter = compressForIteration(mdp, true);
+		IterationMethod.IterationIntervalIter below = iterationMethod.forMvMultMinMaxInterval(mdpIter, min, strat, true, true, false);
+		IterationMethod.IterationIntervalIter above = iterationMethod.forMvMultMinMaxInterval(mdpIter, min, null, false, false, false);
+		below.init(initBelow);
+
+		// run the actual value iteration
+		return iterationMethod.doOptimisticValueIteration(this, description, below, above, IntSet.asIntSet(unknown), timer, iterationsExport);
+	}
+
 	/**
 	 * Compute reachability probabilities using Gauss-Seidel (including Jacobi-style updates).
 	 * @param mdp The MDP
@@ -1222,6 +1305,77 @@ public class MDPModelChecker extends ProbModelChecker
 		return res;
 	}
 
+	/**
+	 * Compute reachability probabilities using linear programming.
+	 * Optionally, store optimal (memoryless) strategy info.
+	 * @param mdp The MDP
+	 * @param no Probability 0 states
+	 * @param yes Probability 1 states
+	 * @param min Min or max probabilities (true=min, false=max)
+	 * @param init Optionally, an initial solution vector (only used for the exact values of 'known' states)
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 * @param strat Storage for (memoryless) strategy choice indices (ignored if null)
+	 * Note: if 'known' is specified (i.e. is non-null, 'init' must also be given and is used for the exact values.
+	 */
+	protected ModelCheckerResult computeReachProbsLinProg(MDP mdp, BitSet no, BitSet yes, boolean min, double init[], BitSet known, int strat[])
+			throws PrismException
+	{
+		ModelCheckerResult res;
+		BitSet unknown;
+		int i, n;
+		double soln[];
+		long timer;
+
+		// For min, the LP only has a unique solution if there are no end components
+		// in the states to be solved, which is ensured by Prob0 (min)
+		if (min && !(precomp && prob0)) {
+			throw new PrismNotSupportedException("Precomputation (Prob0) must be enabled for linear programming (min)");
+		}
+
+		// Start linear programming
+		timer = System.currentTimeMillis();
+		mainLog.println("Starting linear programming (" + (min ? "min" : "max") + ")...");
+
+		// Store num states
+		n = mdp.getNumStates();
+
+		// Initialise solution vector. Use (where available) the following in order of preference:
+		// (1) exact answer, if already known; (2) 1.0/0.0 if in yes/no; (3) 0.0, to be computed
+		soln = new double[n];
+		for (i = 0; i < n; i++)
+			soln[i] = (known != null && known.get(i)) ? init[i] : yes.get(i) ? 1.0 : 0.0;
+
+		// Determine set of states actually need to compute values for
+		unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(yes);
+		unknown.andNot(no);
+		if (known != null)
+			unknown.andNot(known);
+
+		// Solve LP and, if required, extract strategy
+		if (!unknown.isEmpty()) {
+			solveReachLinProg(mdp, null, unknown, null, min, soln);
+			if (strat != null) {
+				BitSet goal = new BitSet();
+				goal.set(0, n);
+				goal.andNot(unknown);
+				goal.andNot(no);
+				computeStrategyLinProg(mdp, null, unknown, min ? null : goal, min, soln, strat);
+			}
+		}
+
+		// Finished linear programming
+		timer = System.currentTimeMillis() - timer;
+		mainLog.println("Linear programming took " + timer / 1000.0 + " seconds.");
+
+		// Return results
+		res = new ModelCheckerResult();
+		res.soln = soln;
+		res.timeTaken = timer / 1000.0;
+		return res;
+	}
+
 	/**
 	 * Construct strategy information for min/max reachability probabilities.
 	 * (More precisely, list of indices of choices resulting in min/max.)
@@ -2073,7 +2227,8 @@ public class MDPModelChecker extends ProbModelChecker
 		MDPSolnMethod mdpSolnMethod = this.mdpSolnMethod;
 
 		// Switch to a supported method, if necessary
-		if (!(mdpSolnMethod == MDPSolnMethod.VALUE_ITERATION || mdpSolnMethod == MDPSolnMethod.GAUSS_SEIDEL || mdpSolnMethod == MDPSolnMethod.POLICY_ITERATION)) {
+		if (!(mdpSolnMethod == MDPSolnMethod.VALUE_ITERATION || mdpSolnMethod == MDPSolnMethod.GAUSS_SEIDEL || mdpSolnMethod == MDPSolnMethod.POLICY_ITERATION
+				|| mdpSolnMethod == MDPSolnMethod.LINEAR_PROGRAMMING)) {
 			mdpSolnMethod = MDPSolnMethod.GAUSS_SEIDEL;
 			mainLog.printWarning("Switching to MDP solution method \"" + mdpSolnMethod.fullName() + "\"");
 		}
@@ -2089,6 +2244,14 @@ public class MDPModelChecker extends ProbModelChecker
 				throw new PrismNotSupportedException("Currently, explicit engine only supports interval iteration with value iteration or Gauss-Seidel for MDPs");
 			}
 		}
+		if (doOptimisticIteration) {
+			if (doIntervalIteration) {
+				throw new PrismNotSupportedException("Interval iteration and optimistic value iteration cannot be used together");
+			}
+			if (mdpSolnMethod != MDPSolnMethod.VALUE_ITERATION && mdpSolnMethod != MDPSolnMethod.GAUSS_SEIDEL) {
+				throw new PrismNotSupportedException("Currently, explicit engine only supports optimistic value iteration with value iteration or Gauss-Seidel for MDPs");
+			}
+		}
 
 		// Start expected reachability
 		timer = System.currentTimeMillis();
@@ -2167,7 +2330,9 @@ public class MDPModelChecker extends ProbModelChecker
 		}
 
 		ZeroRewardECQuotient quotient = null;
-		boolean doZeroMECCheckForMin = true;
+		// (not needed for linear programming, which handles zero-reward ECs directly,
+		// including strategy extraction: see computeStrategyLinProg)
+		boolean doZeroMECCheckForMin = mdpSolnMethod != MDPSolnMethod.LINEAR_PROGRAMMING;
 		if (min & doZeroMECCheckForMin) {
 			StopWatch zeroMECTimer = new StopWatch(mainLog);
 			zeroMECTimer.start("checking for zero-reward ECs");
@@ -2232,7 +2397,10 @@ public class MDPModelChecker extends ProbModelChecker
 		IterationMethod iterationMethod = null;
 		switch (method) {
 		case VALUE_ITERATION:
-			iterationMethod = new IterationMethodPower(termCrit == TermCrit.ABSOLUTE, termCritParam);
+			if (numThreads > 1)
+				iterationMethod = new IterationMethodParallel(termCrit == TermCrit.ABSOLUTE, termCritParam, false, numThreads);
+			else
+				iterationMethod = new IterationMethodPower(termCrit == TermCrit.ABSOLUTE, termCritParam);
 			break;
 		case GAUSS_SEIDEL:
 			iterationMethod = new IterationMethodGS(termCrit == TermCrit.ABSOLUTE, termCritParam, false);
@@ -2243,12 +2411,17 @@ public class MDPModelChecker extends ProbModelChecker
 			}
 			res = computeReachRewardsPolIter(mdp, mdpRewards, target, inf, min, strat);
 			break;
+		case LINEAR_PROGRAMMING:
+			res = computeReachRewardsLinProg(mdp, mdpRewards, target, inf, min, init, known, strat);
+			break;
 		default:
 			throw new PrismException("Unknown MDP solution method " + method.fullName());
 		}
 
 		if (res == null) { // not yet computed, use iterationMethod
-			if (!doIntervalIteration) {
+			if (doOptimisticIteration) {
+				res = doOptimisticIterationReachRewards(mdp, mdpRewards, iterationMethod, target, inf, min, init, known, strat);
+			} else if (!doIntervalIteration) {
 				res = doValueIterationReachRewards(mdp, mdpRewards, iterationMethod, target, inf, min, init, known, getDoTopologicalValueIteration(), strat);
 			} else {
 				res = doIntervalIterationReachRewards(mdp, mdpRewards, iterationMethod, target, inf, min, init, known, getDoTopologicalValueIteration(), strat);
@@ -2340,7 +2513,7 @@ public class MDPModelChecker extends ProbModelChecker
 		if (iterationsExport != null)
 			iterationsExport.exportVector(init, 0);
 
-		IterationMethod.IterationValIter forMvMultRewMinMax = iterationMethod.forMvMultRewMinMax(mdp, mdpRewards, min, strat);
+		IterationMethod.IterationValIter forMvMultRewMinMax = iterationMethod.forMvMultRewMinMax(compressForIteration(mdp), mdpRewards, min, strat);
 		forMvMultRewMinMax.init(init);
 
 		IntSet unknownStates = IntSet.asIntSet(unknown);
@@ -2528,6 +2701,77 @@ public class MDPModelChecker extends ProbModelChecker
 		return rv;
 	}
 
+	/**
+	 * Compute expected reachability rewards using optimistic value iteration.
+	 * Optionally, store optimal (memoryless) strategy info.
+	 * @param mdp The MDP
+	 * @param mdpRewards The rewards
+	 * @param target Target states
+	 * @param inf States for which reward is infinite
+	 * @param min Min or max rewards (true=min, false=max)
+	 * @param init Optionally, an initial solution vector (will be overwritten), will be ignored if known == null
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 * @param strat Storage for (memoryless) strategy choice indices (ignored if null)
+	 * Note: if 'known' is specified (i.e. is non-null, 'init' must also be given and is used for the exact values.
+	 */
+	protected ModelCheckerResult doOptimisticIterationReachRewards(MDP mdp, MDPRewards mdpRewards, IterationMethod iterationMethod, BitSet target, BitSet inf, boolean min, double init[], BitSet known, int strat[])
+			throws PrismException
+	{
+		BitSet unknown;
+		int i, n;
+		double initBelow[];
+		long timer;
+
+		// Start value iteration
+		timer = System.currentTimeMillis();
+		String description = (min ? "min" : "max") + ", with " + iterationMethod.getDescriptionShort();
+		if (getDoTopologicalValueIteration()) {
+			mainLog.println("Note: Topological value iteration is not used for optimistic value iteration.");
+		}
+		mainLog.println("Starting optimistic value iteration (" + description + ")...");
+
+		ExportIterations iterationsExport = null;
+		if (settings.getBoolean(PrismSettings.PRISM_EXPORT_ITERATIONS)) {
+			iterationsExport = new ExportIterations("Explicit MDP ReachRewards optimistic value iteration (" + description + ")");
+			mainLog.println("Exporting iterations to " + iterationsExport.getFileName());
+		}
+
+		// Store num states
+		n = mdp.getNumStates();
+
+		// Initialise solution vector from below. Use (where available) the following in order of preference:
+		// (1) exact answer, if already known; (2) 0.0/infinity if in target/inf; (3) 0.0
+		initBelow = (init == null) ? new double[n] : init;
+		if (known != null && init != null) {
+			for (i = 0; i < n; i++)
+				initBelow[i] = known.get(i) ? init[i] : target.get(i) ? 0.0 : inf.get(i) ? Double.POSITIVE_INFINITY : 0.0;
+		} else {
+			for (i = 0; i < n; i++)
+				initBelow[i] = target.get(i) ? 0.0 : inf.get(i) ? Double.POSITIVE_INFINITY : 0.0;
+		}
+
+		// Determine set of states actually need to compute values for
+		unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(target);
+		unknown.andNot(inf);
+		if (known != null)
+			unknown.andNot(known);
+
+		if (iterationsExport != null)
+			iterationsExport.exportVector(initBelow, 0);
+
+		// The upper bound is only verified, so monotonicity is not enforced there.
+		// Only exact matrix compression is used, since the computed bounds must hold for the actual model
+		MDP mdpIter = compressForIteration(mdp, true);
+		IterationMethod.IterationIntervalIter below = iterationMethod.forMvMultRewMinMaxInterval(mdpIter, mdpRewards, min, strat, true, true, false);
+		IterationMethod.IterationIntervalIter above = iterationMethod.forMvMultRewMinMaxInterval(mdpIter, mdpRewards, min, null, false, false, false);
+		below.init(initBelow);
+
+		// run the actual value iteration
+		return iterationMethod.doOptimisticValueIteration(this, description, below, above, IntSet.asIntSet(unknown), timer, iterationsExport);
+	}
+
 	/**
 	 * Compute expected reachability rewards using policy iteration.
 	 * The array {@code strat} is used both to pass in the initial strategy for policy iteration,
@@ -2626,6 +2870,270 @@ public class MDPModelChecker extends ProbModelChecker
 		return res;
 	}
 
+	/**
+	 * Compute expected reachability rewards using linear programming.
+	 * Optionally, store optimal (memoryless) strategy info.
+	 * @param mdp The MDP
+	 * @param mdpRewards The rewards
+	 * @param target Target states
+	 * @param inf States for which reward is infinite
+	 * @param min Min or max rewards (true=min, false=max)
+	 * @param init Optionally, an initial solution vector (only used for the exact values of 'known' states)
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 * @param strat Storage for (memoryless) strategy choice indices (ignored if null)
+	 * Note: if 'known' is specified (i.e. is non-null, 'init' must also be given and is used for the exact values.
+	 */
+	protected ModelCheckerResult computeReachRewardsLinProg(MDP mdp, MDPRewards mdpRewards, BitSet target, BitSet inf, boolean min, double init[], BitSet known, int strat[])
+			throws PrismException
+	{
+		ModelCheckerResult res;
+		BitSet unknown;
+		int i, n;
+		double soln[];
+		long timer;
+
+		// Start linear programming
+		timer = System.currentTimeMillis();
+		mainLog.println("Starting linear programming (" + (min ? "min" : "max") + ")...");
+
+		// Store num states
+		n = mdp.getNumStates();
+
+		// Initialise solution vector. Use (where available) the following in order of preference:
+		// (1) exact answer, if already known; (2) 0.0/infinity if in target/inf; (3) 0.0, to be computed
+		soln = new double[n];
+		for (i = 0; i < n; i++)
+			soln[i] = (known != null && known.get(i)) ? init[i] : inf.get(i) ? Double.POSITIVE_INFINITY : 0.0;
+
+		// Determine set of states actually need to compute values for
+		unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(target);
+		unknown.andNot(inf);
+		if (known != null)
+			unknown.andNot(known);
+
+		// Solve LP and, if required, extract strategy
+		if (!unknown.isEmpty()) {
+			solveReachLinProg(mdp, mdpRewards, unknown, inf, min, soln);
+			if (strat != null) {
+				BitSet goal = new BitSet();
+				goal.set(0, n);
+				goal.andNot(unknown);
+				goal.andNot(inf);
+				computeStrategyLinProg(mdp, mdpRewards, unknown, min ? goal : null, min, soln, strat);
+			}
+		}
+
+		// Finished linear programming
+		timer = System.currentTimeMillis() - timer;
+		mainLog.println("Linear programming took " + timer / 1000.0 + " seconds.");
+
+		// Return results
+		res = new ModelCheckerResult();
+		res.soln = soln;
+		res.timeTaken = timer / 1000.0;
+		return res;
+	}
+
+	/**
+	 * Solve the linear program for min/max reachability probabilities or expected rewards
+	 * over the states in {@code unknown}: for max, minimise the sum of the values subject to
+	 * x_s &gt;= rew(s,k) + sum_t P(s,k,t) x_t for each choice k of s; for min, maximise subject to &lt;=.
+	 * Constraints are only generated for the states in {@code unknown}, and the values
+	 * of all other states are taken from {@code soln}, into which the result is also stored.
+	 * Choices with a successor in {@code inf} (if non-null) are ignored.
+	 * @param mdp The MDP
+	 * @param mdpRewards The rewards (null for probabilities)
+	 * @param unknown States to compute values for
+	 * @param inf States for which reward is infinite (optional)
+	 * @param min Min or max (true=min, false=max)
+	 * @param soln Solution vector (values for states not in {@code unknown} must be present)
+	 */
+	protected void solveReachLinProg(MDP mdp, MDPRewards mdpRewards, BitSet unknown, BitSet inf, boolean min, double soln[]) throws PrismException
+	{
+		int n = mdp.getNumStates();
+		int numVars = unknown.cardinality();
+		int numCons = 0;
+
+		// Variable (column) indices for the unknown states, starting at 1
+		int col[] = new int[n];
+		int numCols = 0;
+		for (int s = unknown.nextSetBit(0); s >= 0; s = unknown.nextSetBit(s + 1)) {
+			col[s] = ++numCols;
+		}
+
+		LpSolve solver = null;
+		try {
+			solver = LpSolve.makeLp(0, numVars);
+			solver.setVerbose(LpSolve.CRITICAL);
+
+			// Objective: sum of values of all unknown states (maximised for min, minimised for max)
+			double row[] = new double[numVars];
+			int colno[] = new int[numVars];
+			for (int j = 0; j < numVars; j++) {
+				row[j] = 1.0;
+				colno[j] = j + 1;
+			}
+			solver.setObjFnex(numVars, row, colno);
+			if (min) {
+				solver.setMaxim();
+			} else {
+				solver.setMinim();
+			}
+			if (mdpRewards == null) {
+				for (int j = 1; j <= numVars; j++) {
+					solver.setUpbo(j, 1.0);
+				}
+			}
+
+			// One (sparse) constraint per choice of each unknown state
+			solver.setAddRowmode(true);
+			for (int s = unknown.nextSetBit(0); s >= 0; s = unknown.nextSetBit(s + 1)) {
+				int numChoices = mdp.getNumChoices(s);
+				for (int k = 0; k < numChoices; k++) {
+					if (inf != null && mdp.someSuccessorsInSet(s, k, inf)) {
+						continue;
+					}
+					int numTransitions = mdp.getNumTransitions(s, k);
+					if (row.length < numTransitions + 1) {
+						row = new double[numTransitions + 1];
+						colno = new int[numTransitions + 1];
+					}
+					int count = 0;
+					double diag = 1.0;
+					double rhs = (mdpRewards == null) ? 0.0 : mdpRewards.getStateReward(s) + mdpRewards.getTransitionReward(s, k);
+					for (Iterator<Entry<Integer, Double>> it = mdp.getTransitionsIterator(s, k); it.hasNext();) {
+						Entry<Integer, Double> e = it.next();
+						int t = e.getKey();
+						double prob = e.getValue();
+						if (t == s) {
+							diag -= prob;
+						} else if (unknown.get(t)) {
+							row[count] = -prob;
+							colno[count] = col[t];
+							count++;
+						} else {
+							rhs += prob * soln[t];
+						}
+					}
+					if (diag != 0.0) {
+						row[count] = diag;
+						colno[count] = col[s];
+						count++;
+					}
+					solver.addConstraintex(count, row, colno, min ? LpSolve.LE : LpSolve.GE, rhs);
+					numCons++;
+				}
+			}
+			solver.setAddRowmode(false);
+			mainLog.println("LP problem: " + numVars + " variables, " + numCons + " constraints");
+
+			// Solve
+			int r = solver.solve();
+			if (r == LpSolve.INFEASIBLE) {
+				throw new PrismException("Linear program is infeasible");
+			} else if (r == LpSolve.UNBOUNDED) {
+				throw new PrismException("Linear program is unbounded");
+			} else if (r != LpSolve.OPTIMAL) {
+				throw new PrismException("LpSolve returns an unexpected value: " + r);
+			}
+
+			// Store solution
+			double vars[] = new double[numVars];
+			solver.getVariables(vars);
+			for (int s = unknown.nextSetBit(0); s >= 0; s = unknown.nextSetBit(s + 1)) {
+				soln[s] = vars[col[s] - 1];
+			}
+		} catch (LpSolveException e) {
+			throw new PrismException("lp_solve threw an exception: " + e.getMessage());
+		} finally {
+			if (solver != null) {
+				solver.deleteLp();
+			}
+		}
+	}
+
+	/**
+	 * Extract an optimal (memoryless) strategy for the states in {@code unknown}
+	 * from the solution of {@link #solveReachLinProg}, picking a choice that attains the min/max.
+	 * If {@code goal} is non-null, optimal choices are further restricted to those that make progress
+	 * towards {@code goal}, to avoid picking a choice that stays in an end component forever.
+	 * This is needed for max probabilities and for min rewards (end components with zero reward),
+	 * since staying in an end component also attains the optimal value of the LP solution there.
+	 * @param mdp The MDP
+	 * @param mdpRewards The rewards (null for probabilities)
+	 * @param unknown States to compute strategy info for
+	 * @param goal States with known values that are the goal (yes/target/known states), or null
+	 * @param min Min or max (true=min, false=max)
+	 * @param soln Solution vector
+	 * @param strat Storage for (memoryless) strategy choice indices
+	 */
+	protected void computeStrategyLinProg(MDP mdp, MDPRewards mdpRewards, BitSet unknown, BitSet goal, boolean min, double soln[], int strat[])
+	{
+		// Find the optimal value for each state, from one step of value iteration
+		int n = mdp.getNumStates();
+		double opt[] = new double[n];
+		for (int s = unknown.nextSetBit(0); s >= 0; s = unknown.nextSetBit(s + 1)) {
+			opt[s] = (mdpRewards == null) ? mdp.mvMultMinMaxSingle(s, soln, min, null) : mdp.mvMultRewMinMaxSingle(s, soln, mdpRewards, min, null);
+		}
+
+		// If required, do a backwards search from the goal states,
+		// only following optimal choices
+		// (each state is queued at most once, so an array of size n suffices for the queue)
+		if (goal != null) {
+			PredecessorRelation pre = mdp.getPredecessorRelation(this, true);
+			BitSet done = (BitSet) goal.clone();
+			int queue[] = new int[n];
+			int head = 0, tail = 0;
+			for (int t = goal.nextSetBit(0); t >= 0; t = goal.nextSetBit(t + 1)) {
+				queue[tail++] = t;
+			}
+			while (head < tail) {
+				int t = queue[head++];
+				for (PrimitiveIterator.OfInt it = pre.getPredecessorsIterator(t); it.hasNext();) {
+					int s = it.nextInt();
+					if (!unknown.get(s) || done.get(s)) {
+						continue;
+					}
+					int numChoices = mdp.getNumChoices(s);
+					for (int k = 0; k < numChoices; k++) {
+						if (mdp.someSuccessorsInSet(s, k, done) && isOptimalChoiceLinProg(mdp, mdpRewards, s, k, soln, opt[s])) {
+							strat[s] = k;
+							done.set(s);
+							queue[tail++] = s;
+							break;
+						}
+					}
+				}
+			}
+		}
+
+		// Otherwise (or for any remaining states), just pick the first optimal choice
+		for (int s = unknown.nextSetBit(0); s >= 0; s = unknown.nextSetBit(s + 1)) {
+			if (goal != null && strat[s] >= 0) {
+				continue;
+			}
+			int numChoices = mdp.getNumChoices(s);
+			for (int k = 0; k < numChoices; k++) {
+				if (isOptimalChoiceLinProg(mdp, mdpRewards, s, k, soln, opt[s])) {
+					strat[s] = k;
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Check whether choice {@code k} of state {@code s} attains the optimal value {@code opt},
+	 * up to the precision of the LP solution (i.e., the termination criterion parameter).
+	 */
+	private boolean isOptimalChoiceLinProg(MDP mdp, MDPRewards mdpRewards, int s, int k, double soln[], double opt)
+	{
+		double d = (mdpRewards == null) ? mdp.mvMultSingle(s, k, soln) : mdp.mvMultRewSingle(s, k, soln, mdpRewards);
+		return PrismUtils.doublesAreClose(d, opt, termCritParam, termCrit == TermCrit.ABSOLUTE);
+	}
+
 	/**
 	 * Construct strategy information for min/max expected reachability.
 	 * (More precisely, list of indices of choices resulting in min/max.)
@@ -551,7 +551,7 @@ public class MDPSimple extends MDPExplicit implements NondetModelSimple
 	@Override
 	public SuccessorsIterator getSuccessors(final int s, final int i)
 	{
-		return SuccessorsIterator.from(getSuccessorsIterator(s, i), true);
+		return SuccessorsIterator.from(trans.get(s).get(i).getSupportIterator(), true);
 	}
 
 	// Accessors (for MDP)
@@ -568,6 +568,18 @@ public class MDPSimple extends MDPExplicit implements NondetModelSimple
 		return trans.get(s).get(i).iterator();
 	}
 
+	@Override
+	public void forEachTransition(int s, int i, TransitionConsumer c)
+	{
+		trans.get(s).get(i).forEach((t, prob) -> c.accept(s, t, prob));
+	}
+
+	@Override
+	public double sumOverTransitions(int s, int i, TransitionToDoubleFunction f)
+	{
+		return trans.get(s).get(i).sumOver((t, prob) -> f.apply(s, t, prob));
+	}
+
 	
 
 	// Accessors (other)
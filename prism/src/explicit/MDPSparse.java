@@ -96,42 +96,17 @@ public class MDPSparse extends MDPExplicit
 	 */
 	public MDPSparse(final MDP mdp, boolean sort)
 	{
-		initialise(mdp.getNumStates());
-
-		setStatesList(mdp.getStatesList());
-		setConstantValues(mdp.getConstantValues());
-		for (String label : mdp.getLabels()) {
-			addLabel(label, mdp.getLabelStates(label));
-		}
-
-		// Copy stats
-		numDistrs = mdp.getNumChoices();
+		copyChoiceStructure(mdp);
 		numTransitions = mdp.getNumTransitions();
-		maxNumDistrs = mdp.getMaxNumChoices();
 		// Initialise transition function
 		nonZeros = new double[numTransitions];
 		cols = new int[numTransitions];
 		choiceStarts = new int[numDistrs + 1];
-		rowStarts = new int[numStates + 1];
-		actions = hasActionLabels(mdp) ? new Object[numDistrs] : null;
 
 		// Copy transition function
 		final TreeMap<Integer, Double> sorted = sort ? new TreeMap<Integer, Double>() : null;
 		int rowIndex = 0, choiceIndex = 0;
 		for (int state = 0; state < numStates; state++) {
-			if (mdp.isInitialState(state)) {
-				addInitialState(state);
-			}
-			if (mdp.isDeadlockState(state)) {
-				deadlocks.add(state);
-			}
-
-			rowStarts[state] = rowIndex;
-			if (actions != null) {
-				for (int choice = 0, numChoices = mdp.getNumChoices(state); choice < numChoices; choice++) {
-					actions[rowIndex + choice] = mdp.getAction(state, choice);
-				}
-			}
 			for (int choice = 0, numChoices = mdp.getNumChoices(state); choice < numChoices; choice++) {
 				choiceStarts[rowIndex] = choiceIndex;
 				for (Iterator<Entry<Integer, Double>> transitions = mdp.getTransitionsIterator(state, choice); transitions.hasNext();) {
@@ -156,7 +131,60 @@ public class MDPSparse extends MDPExplicit
 			}
 		}
 		choiceStarts[numDistrs] = numTransitions;
+	}
+
+	/**
+	 * Constructor (for subclasses): empty MDP, to be set up by the subclass.
+	 */
+	protected MDPSparse()
+	{
+	}
+
+	/**
+	 * Helper for copy constructors: initialise and copy everything from an MDP
+	 * apart from the transitions of each choice, i.e. initial states, deadlocks,
+	 * labels, etc., the start of the choices for each state ({@code rowStarts})
+	 * and action labels. Returns the number of transitions.
+	 */
+	protected long copyChoiceStructure(final MDP mdp)
+	{
+		initialise(mdp.getNumStates());
+
+		setStatesList(mdp.getStatesList());
+		setConstantValues(mdp.getConstantValues());
+		setVarList(mdp.getVarList());
+		for (String label : mdp.getLabels()) {
+			addLabel(label, mdp.getLabelStates(label));
+		}
+
+		// Copy stats
+		numDistrs = mdp.getNumChoices();
+		maxNumDistrs = mdp.getMaxNumChoices();
+		rowStarts = new int[numStates + 1];
+		actions = hasActionLabels(mdp) ? new Object[numDistrs] : null;
+
+		// Copy choices
+		long numTrans = 0;
+		int rowIndex = 0;
+		for (int state = 0; state < numStates; state++) {
+			if (mdp.isInitialState(state)) {
+				addInitialState(state);
+			}
+			if (mdp.isDeadlockState(state)) {
+				deadlocks.add(state);
+			}
+
+			rowStarts[state] = rowIndex;
+			for (int choice = 0, numChoices = mdp.getNumChoices(state); choice < numChoices; choice++) {
+				if (actions != null) {
+					actions[rowIndex] = mdp.getAction(state, choice);
+				}
+				numTrans += mdp.getNumTransitions(state, choice);
+				rowIndex++;
+			}
+		}
 		rowStarts[numStates] = numDistrs;
+		return numTrans;
 	}
 
 	/** Helper: Does the given MDP have action labels on any of the choices? */
@@ -376,6 +404,41 @@ public class MDPSparse extends MDPExplicit
 		rowStarts[numStates] = numDistrs;
 	}
 
+	/**
+	 * Constructor: Build new MDPSparse directly from its sparse matrix arrays
+	 * (e.g. as loaded by {@link BinaryModelFile}); the arrays are stored, not copied.
+	 * Initial states, labels, etc. need to be added separately.
+	 * @param numStates Number of states
+	 * @param rowStarts Start of the choices for each state (size numStates+1)
+	 * @param choiceStarts Start of the transitions for each choice (size numDistrs+1)
+	 * @param cols Column (destination) indices for each transition
+	 * @param nonZeros Probabilities for each transition
+	 * @param actions Action labels for each choice (null if there are none)
+	 */
+	public MDPSparse(int numStates, int rowStarts[], int choiceStarts[], int cols[], double nonZeros[], Object actions[])
+	{
+		initialise(numStates);
+		this.rowStarts = rowStarts;
+		this.choiceStarts = choiceStarts;
+		this.cols = cols;
+		this.nonZeros = nonZeros;
+		this.actions = actions;
+		numDistrs = rowStarts[numStates];
+		numTransitions = choiceStarts[numDistrs];
+		computeMaxNumDistrs();
+	}
+
+	/**
+	 * Helper for constructors: compute {@code maxNumDistrs} from {@code rowStarts}.
+	 */
+	protected void computeMaxNumDistrs()
+	{
+		maxNumDistrs = 0;
+		for (int s = 0; s < numStates; s++) {
+			maxNumDistrs = Math.max(maxNumDistrs, rowStarts[s + 1] - rowStarts[s]);
+		}
+	}
+
 	// Mutators (other)
 
 	@Override
@@ -478,10 +541,10 @@ public class MDPSparse extends MDPExplicit
 		return numTransitions;
 	}
 
-	private SuccessorsIterator colsIterator(int start, int end, boolean distinct)
+	private SuccessorsIterator colsIterator(long start, long end, boolean distinct)
 	{
 		return new SuccessorsIterator() {
-			int cur = start;
+			long cur = start;
 
 			@Override
 			public boolean successorsAreDistinct()
@@ -498,7 +561,7 @@ public class MDPSparse extends MDPExplicit
 			@Override
 			public int nextInt()
 			{
-				return cols[cur++];
+				return getCol(cur++);
 			}
 		};
 	}
@@ -507,8 +570,8 @@ public class MDPSparse extends MDPExplicit
 	public SuccessorsIterator getSuccessors(final int s)
 	{
 		// Assumes that only non-zero entries are stored
-		int start = choiceStarts[rowStarts[s]];
-		int end = choiceStarts[rowStarts[s + 1]];
+		long start = getChoiceStart(rowStarts[s]);
+		long end = getChoiceStart(rowStarts[s + 1]);
 		// we can guarantee that the successors are distinct if there is at most one successor...
 		boolean distinct = (start == end || start + 1 == end);
 		return colsIterator(start, end, distinct);
@@ -522,7 +585,7 @@ public class MDPSparse extends MDPExplicit
 			if (getNumChoices(i) == 0) {
 				addDeadlockState(i);
 				if (fix) {
-					throw new PrismException("Can't fix deadlocks in an MDPSparse since it cannot be modified after construction");
+					throw new PrismException("Can't fix deadlocks in an " + getClass().getSimpleName() + " since it cannot be modified after construction");
 				}
 			}
 		}
@@ -566,8 +629,8 @@ public class MDPSparse extends MDPExplicit
 	@Override
 	public SuccessorsIterator getSuccessors(final int s, final int i)
 	{
-		int start = choiceStarts[rowStarts[s] + i];
-		int end = choiceStarts[rowStarts[s] + i + 1];
+		long start = getChoiceStart(rowStarts[s] + i);
+		long end = getChoiceStart(rowStarts[s] + i + 1);
 		// we assume here that the successors for a single choice are distinct
 		return colsIterator(start, end, true);
 	}
@@ -577,7 +640,7 @@ public class MDPSparse extends MDPExplicit
 	@Override
 	public int getNumTransitions(int s, int i)
 	{
-		return choiceStarts[rowStarts[s] + i + 1] - choiceStarts[rowStarts[s] + i];
+		return (int) (getChoiceStart(rowStarts[s] + i + 1) - getChoiceStart(rowStarts[s] + i));
 	}
 
 	@Override
@@ -585,9 +648,8 @@ public class MDPSparse extends MDPExplicit
 	{
 		return new Iterator<Entry<Integer, Double>>()
 		{
-			final int start = choiceStarts[rowStarts[s] + i];
-			int col = start;
-			final int end = choiceStarts[rowStarts[s] + i + 1];
+			long col = getChoiceStart(rowStarts[s] + i);
+			final long end = getChoiceStart(rowStarts[s] + i + 1);
 
 			@Override
 			public boolean hasNext()
@@ -599,9 +661,9 @@ public class MDPSparse extends MDPExplicit
 			public Entry<Integer, Double> next()
 			{
 				assert (col < end);
-				final int i = col;
+				final long k = col;
 				col++;
-				return new AbstractMap.SimpleImmutableEntry<>(cols[i], nonZeros[i]);
+				return new AbstractMap.SimpleImmutableEntry<>(getCol(k), getNonZero(k));
 			}
 		};
 	}
@@ -609,23 +671,14 @@ public class MDPSparse extends MDPExplicit
 	@Override
 	public void prob0step(BitSet subset, BitSet u, boolean forall, BitSet result)
 	{
-		int j, k, l1, h1, l2, h2;
+		int j, l1, h1;
 		boolean b1, some;
 		for (int i : new IterableStateSet(subset, numStates)) {
 			b1 = forall; // there exists or for all
 			l1 = rowStarts[i];
 			h1 = rowStarts[i + 1];
 			for (j = l1; j < h1; j++) {
-				some = false;
-				l2 = choiceStarts[j];
-				h2 = choiceStarts[j + 1];
-				for (k = l2; k < h2; k++) {
-					// Assume that only non-zero entries are stored
-					if (u.get(cols[k])) {
-						some = true;
-						break;
-					}
-				}
+				some = prob0stepChoice(j, u);
 				if (forall) {
 					if (!some) {
 						b1 = false;
@@ -645,28 +698,14 @@ public class MDPSparse extends MDPExplicit
 	@Override
 	public void prob1Astep(BitSet subset, BitSet u, BitSet v, BitSet result)
 	{
-		int j, k, l1, h1, l2, h2;
-		boolean b1, some, all;
+		int j, l1, h1;
+		boolean b1;
 		for (int i : new IterableStateSet(subset, numStates)) {
 			b1 = true;
 			l1 = rowStarts[i];
 			h1 = rowStarts[i + 1];
 			for (j = l1; j < h1; j++) {
-				some = false;
-				all = true;
-				l2 = choiceStarts[j];
-				h2 = choiceStarts[j + 1];
-				for (k = l2; k < h2; k++) {
-					// Assume that only non-zero entries are stored
-					if (!u.get(cols[k])) {
-						all = false;
-						break; // Stop early (already know b1 will be set to false)
-					}
-					if (v.get(cols[k])) {
-						some = true;
-					}
-				}
-				if (!(some && all)) {
+				if (!prob1stepChoice(j, u, v)) {
 					b1 = false;
 					break;
 				}
@@ -678,28 +717,14 @@ public class MDPSparse extends MDPExplicit
 	@Override
 	public void prob1Estep(BitSet subset, BitSet u, BitSet v, BitSet result, int strat[])
 	{
-		int j, k, l1, h1, l2, h2, stratCh = -1;
-		boolean b1, some, all;
+		int j, l1, h1, stratCh = -1;
+		boolean b1;
 		for (int i : new IterableStateSet(subset, numStates)) {
 			b1 = false;
 			l1 = rowStarts[i];
 			h1 = rowStarts[i + 1];
 			for (j = l1; j < h1; j++) {
-				some = false;
-				all = true;
-				l2 = choiceStarts[j];
-				h2 = choiceStarts[j + 1];
-				for (k = l2; k < h2; k++) {
-					// Assume that only non-zero entries are stored
-					if (!u.get(cols[k])) {
-						all = false;
-						break; // Stop early (already know b1 will not be set to true)
-					}
-					if (v.get(cols[k])) {
-						some = true;
-					}
-				}
-				if (some && all) {
+				if (prob1stepChoice(j, u, v)) {
 					b1 = true;
 					// If strategy generation is enabled, remember optimal choice
 					if (strat != null)
@@ -720,33 +745,21 @@ public class MDPSparse extends MDPExplicit
 	@Override
 	public void prob1step(BitSet subset, BitSet u, BitSet v, boolean forall, BitSet result)
 	{
-		int j, k, l1, h1, l2, h2;
-		boolean b1, some, all;
+		int j, l1, h1;
+		boolean b1, someAll;
 		for (int i : new IterableStateSet(subset, numStates)) {
 			b1 = forall; // there exists or for all
 			l1 = rowStarts[i];
 			h1 = rowStarts[i + 1];
 			for (j = l1; j < h1; j++) {
-				some = false;
-				all = true;
-				l2 = choiceStarts[j];
-				h2 = choiceStarts[j + 1];
-				for (k = l2; k < h2; k++) {
-					// Assume that only non-zero entries are stored
-					if (v.get(cols[k])) {
-						some = true;
-					}
-					if (!u.get(cols[k])) {
-						all = false;
-					}
-				}
+				someAll = prob1stepChoice(j, u, v);
 				if (forall) {
-					if (!(some && all)) {
+					if (!someAll) {
 						b1 = false;
 						break;
 					}
 				} else {
-					if (some && all) {
+					if (someAll) {
 						b1 = true;
 						break;
 					}
@@ -759,30 +772,13 @@ public class MDPSparse extends MDPExplicit
 	@Override
 	public boolean prob1stepSingle(int s, int i, BitSet u, BitSet v)
 	{
-		int j, k, l2, h2;
-		boolean some, all;
-
-		j = rowStarts[s] + i;
-		some = false;
-		all = true;
-		l2 = choiceStarts[j];
-		h2 = choiceStarts[j + 1];
-		for (k = l2; k < h2; k++) {
-			// Assume that only non-zero entries are stored
-			if (v.get(cols[k])) {
-				some = true;
-			}
-			if (!u.get(cols[k])) {
-				all = false;
-			}
-		}
-		return some && all;
+		return prob1stepChoice(rowStarts[s] + i, u, v);
 	}
 
 	@Override
 	public double mvMultMinMaxSingle(int s, double vect[], boolean min, int strat[])
 	{
-		int j, k, l1, h1, l2, h2, stratCh = -1;
+		int j, l1, h1, stratCh = -1;
 		double d, minmax;
 		boolean first;
 
@@ -792,12 +788,7 @@ public class MDPSparse extends MDPExplicit
 		h1 = rowStarts[s + 1];
 		for (j = l1; j < h1; j++) {
 			// Compute sum for this distribution
-			d = 0.0;
-			l2 = choiceStarts[j];
-			h2 = choiceStarts[j + 1];
-			for (k = l2; k < h2; k++) {
-				d += nonZeros[k] * vect[cols[k]];
-			}
+			d = mvMultChoice(j, 0.0, vect);
 			// Check whether we have exceeded min/max so far
 			if (first || (min && d < minmax) || (!min && d > minmax)) {
 				minmax = d;
@@ -823,7 +814,7 @@ public class MDPSparse extends MDPExplicit
 	@Override
 	public List<Integer> mvMultMinMaxSingleChoices(int s, double vect[], boolean min, double val)
 	{
-		int j, k, l1, h1, l2, h2;
+		int j, l1, h1;
 		double d;
 		List<Integer> res;
 
@@ -834,12 +825,7 @@ public class MDPSparse extends MDPExplicit
 		h1 = rowStarts[s + 1];
 		for (j = l1; j < h1; j++) {
 			// Compute sum for this distribution
-			d = 0.0;
-			l2 = choiceStarts[j];
-			h2 = choiceStarts[j + 1];
-			for (k = l2; k < h2; k++) {
-				d += nonZeros[k] * vect[cols[k]];
-			}
+			d = mvMultChoice(j, 0.0, vect);
 			// Store strategy info if value matches
 			if (PrismUtils.doublesAreClose(val, d, 1e-12, false)) {
 				res.add(j - l1);
@@ -852,26 +838,15 @@ public class MDPSparse extends MDPExplicit
 	@Override
 	public double mvMultSingle(int s, int i, double vect[])
 	{
-		int j, k, l2, h2;
-		double d;
-
-		j = rowStarts[s] + i;
 		// Compute sum for this distribution
-		d = 0.0;
-		l2 = choiceStarts[j];
-		h2 = choiceStarts[j + 1];
-		for (k = l2; k < h2; k++) {
-			d += nonZeros[k] * vect[cols[k]];
-		}
-
-		return d;
+		return mvMultChoice(rowStarts[s] + i, 0.0, vect);
 	}
 
 	@Override
 	public double mvMultJacMinMaxSingle(int s, double vect[], boolean min, int strat[])
 	{
-		int j, k, l1, h1, l2, h2, stratCh = -1;
-		double diag, d, minmax;
+		int j, l1, h1, stratCh = -1;
+		double d, minmax;
 		boolean first;
 
 		minmax = 0;
@@ -879,20 +854,8 @@ public class MDPSparse extends MDPExplicit
 		l1 = rowStarts[s];
 		h1 = rowStarts[s + 1];
 		for (j = l1; j < h1; j++) {
-			diag = 1.0;
 			// Compute sum for this distribution
-			d = 0.0;
-			l2 = choiceStarts[j];
-			h2 = choiceStarts[j + 1];
-			for (k = l2; k < h2; k++) {
-				if (cols[k] != s) {
-					d += nonZeros[k] * vect[cols[k]];
-				} else {
-					diag -= nonZeros[k];
-				}
-			}
-			if (diag > 0)
-				d /= diag;
+			d = mvMultJacChoice(s, j, 0.0, vect);
 			// Check whether we have exceeded min/max so far
 			if (first || (min && d < minmax) || (!min && d > minmax)) {
 				minmax = d;
@@ -918,32 +881,14 @@ public class MDPSparse extends MDPExplicit
 	@Override
 	public double mvMultJacSingle(int s, int i, double vect[])
 	{
-		int j, k, l2, h2;
-		double diag, d;
-
-		j = rowStarts[s] + i;
-		diag = 1.0;
 		// Compute sum for this distribution
-		d = 0.0;
-		l2 = choiceStarts[j];
-		h2 = choiceStarts[j + 1];
-		for (k = l2; k < h2; k++) {
-			if (cols[k] != s) {
-				d += nonZeros[k] * vect[cols[k]];
-			} else {
-				diag -= nonZeros[k];
-			}
-		}
-		if (diag > 0)
-			d /= diag;
-
-		return d;
+		return mvMultJacChoice(s, rowStarts[s] + i, 0.0, vect);
 	}
 
 	@Override
 	public double mvMultRewMinMaxSingle(int s, double vect[], MDPRewards mdpRewards, boolean min, int strat[])
 	{
-		int j, k, l1, h1, l2, h2, stratCh = -1;
+		int j, l1, h1, stratCh = -1;
 		double d, minmax;
 		boolean first;
 
@@ -953,12 +898,7 @@ public class MDPSparse extends MDPExplicit
 		h1 = rowStarts[s + 1];
 		for (j = l1; j < h1; j++) {
 			// Compute sum for this distribution
-			d = mdpRewards.getTransitionReward(s, j - l1);
-			l2 = choiceStarts[j];
-			h2 = choiceStarts[j + 1];
-			for (k = l2; k < h2; k++) {
-				d += nonZeros[k] * vect[cols[k]];
-			}
+			d = mvMultChoice(j, mdpRewards.getTransitionReward(s, j - l1), vect);
 			// Check whether we have exceeded min/max so far
 			if (first || (min && d < minmax) || (!min && d > minmax)) {
 				minmax = d;
@@ -986,19 +926,12 @@ public class MDPSparse extends MDPExplicit
 	@Override
 	public double mvMultRewSingle(int s, int i, double[] vect, MCRewards mcRewards)
 	{
-		int j, k, l2, h2;
 		double d;
 
-		j = rowStarts[s] + i;
 		// Compute sum for this distribution
 		// TODO: use transition rewards when added to DTMCss
 		// d = mcRewards.getTransitionReward(s);
-		d = 0;
-		l2 = choiceStarts[j];
-		h2 = choiceStarts[j + 1];
-		for (k = l2; k < h2; k++) {
-			d += nonZeros[k] * vect[cols[k]];
-		}
+		d = mvMultChoice(rowStarts[s] + i, 0.0, vect);
 		d += mcRewards.getStateReward(s);
 		return d;
 	}
@@ -1006,8 +939,8 @@ public class MDPSparse extends MDPExplicit
 	@Override
 	public double mvMultRewJacMinMaxSingle(int s, double vect[], MDPRewards mdpRewards, boolean min, int strat[])
 	{
-		int j, k, l1, h1, l2, h2, stratCh = -1;
-		double diag, d, minmax;
+		int j, l1, h1, stratCh = -1;
+		double d, minmax;
 		boolean first;
 
 		minmax = 0;
@@ -1015,36 +948,11 @@ public class MDPSparse extends MDPExplicit
 		l1 = rowStarts[s];
 		h1 = rowStarts[s + 1];
 		for (j = l1; j < h1; j++) {
-			diag = 1.0;
-			boolean onlySelfloops = true;
 			// Compute sum for this distribution
 			// (note: have to add state rewards in the loop for Jacobi)
 			d = mdpRewards.getStateReward(s);
 			d += mdpRewards.getTransitionReward(s, j - l1);
-			l2 = choiceStarts[j];
-			h2 = choiceStarts[j + 1];
-			for (k = l2; k < h2; k++) {
-				if (cols[k] != s) {
-					onlySelfloops = false;
-					d += nonZeros[k] * vect[cols[k]];
-				} else {
-					diag -= nonZeros[k];
-				}
-			}
-			// Catch special case of probability 1 self-loop (Jacobi does it wrong)
-			if (onlySelfloops) {
-				if (d != 0) {
-					// always choosing the selfloop-action will produce infinite reward
-					d = (d>0 ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY);
-				} else {
-					// no reward & only self-loops: d remains 0
-					d = 0;
-				}
-			} else if (diag > 0) {
-				// not only self-loops, do Jacobi division
-				d /= diag;
-			}
-
+			d = mvMultJacChoice(s, j, d, vect);
 			// Check whether we have exceeded min/max so far
 			if (first || (min && d < minmax) || (!min && d > minmax)) {
 				minmax = d;
@@ -1070,7 +978,7 @@ public class MDPSparse extends MDPExplicit
 	@Override
 	public List<Integer> mvMultRewMinMaxSingleChoices(int s, double vect[], MDPRewards mdpRewards, boolean min, double val)
 	{
-		int j, k, l1, h1, l2, h2;
+		int j, l1, h1;
 		double d;
 		List<Integer> res;
 
@@ -1081,12 +989,7 @@ public class MDPSparse extends MDPExplicit
 		h1 = rowStarts[s + 1];
 		for (j = l1; j < h1; j++) {
 			// Compute sum for this distribution
-			d = mdpRewards.getTransitionReward(s, j - l1);
-			l2 = choiceStarts[j];
-			h2 = choiceStarts[j + 1];
-			for (k = l2; k < h2; k++) {
-				d += nonZeros[k] * vect[cols[k]];
-			}
+			d = mvMultChoice(j, mdpRewards.getTransitionReward(s, j - l1), vect);
 			d += mdpRewards.getStateReward(s);
 			// Store strategy info if value matches
 			if (PrismUtils.doublesAreClose(val, d, 1e-12, false)) {
@@ -1101,14 +1004,139 @@ public class MDPSparse extends MDPExplicit
 	public void mvMultRight(int[] states, int[] strat, double[] source, double[] dest)
 	{
 		for (int s : states) {
-			int j, l2, h2;
-			int k = strat[s];
-			j = rowStarts[s] + k;
-			l2 = choiceStarts[j];
-			h2 = choiceStarts[j + 1];
-			for (k = l2; k < h2; k++) {
-				dest[cols[k]] += nonZeros[k] * source[s];
+			mvMultRightChoice(rowStarts[s] + strat[s], source[s], dest);
+		}
+	}
+
+	// Access to the transition function storage
+	// (subclasses storing it differently, e.g. MDPSparseOffHeap, override these methods)
+
+	/**
+	 * Get the index of the first transition of choice {@code j},
+	 * where choices are indexed consecutively over all states (i.e. {@code j = rowStarts[s] + i}).
+	 * For {@code j = getNumChoices()}, this is the number of transitions.
+	 */
+	protected long getChoiceStart(int j)
+	{
+		return choiceStarts[j];
+	}
+
+	/**
+	 * Get the column (destination) index of transition {@code k}.
+	 */
+	protected int getCol(long k)
+	{
+		return cols[(int) k];
+	}
+
+	/**
+	 * Get the probability of transition {@code k}.
+	 */
+	protected double getNonZero(long k)
+	{
+		return nonZeros[(int) k];
+	}
+
+	/**
+	 * Does choice {@code j} have a transition to a state in {@code u}?
+	 * (used for the prob0 precomputation step)
+	 */
+	protected boolean prob0stepChoice(int j, BitSet u)
+	{
+		for (int k = choiceStarts[j], h2 = choiceStarts[j + 1]; k < h2; k++) {
+			// Assume that only non-zero entries are stored
+			if (u.get(cols[k])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Do all transitions of choice {@code j} go to states in {@code u},
+	 * and some to a state in {@code v}? (used for the prob1 precomputation steps)
+	 */
+	protected boolean prob1stepChoice(int j, BitSet u, BitSet v)
+	{
+		boolean some = false;
+		for (int k = choiceStarts[j], h2 = choiceStarts[j + 1]; k < h2; k++) {
+			// Assume that only non-zero entries are stored
+			if (!u.get(cols[k])) {
+				return false; // Stop early
+			}
+			if (v.get(cols[k])) {
+				some = true;
+			}
+		}
+		return some;
+	}
+
+	/**
+	 * Add to {@code d} the sum, over transitions of choice {@code j},
+	 * of probability times the value in {@code vect} of the destination, and return it.
+	 */
+	protected double mvMultChoice(int j, double d, double vect[])
+	{
+		for (int k = choiceStarts[j], h2 = choiceStarts[j + 1]; k < h2; k++) {
+			d += nonZeros[k] * vect[cols[k]];
+		}
+		return d;
+	}
+
+	/**
+	 * Do a Jacobi-style update for choice {@code j} of state {@code s}:
+	 * add to {@code d} the sum, over transitions to states other than {@code s},
+	 * of probability times the value in {@code vect} of the destination,
+	 * and divide by one minus the self-loop probability.
+	 * If there are only self-loops, the result is 0 if {@code d} is 0,
+	 * and infinite (with the sign of {@code d}) otherwise
+	 * (i.e. for a non-zero reward collected forever).
+	 */
+	protected double mvMultJacChoice(int s, int j, double d, double vect[])
+	{
+		double diag = 1.0;
+		boolean onlySelfloops = true;
+		for (int k = choiceStarts[j], h2 = choiceStarts[j + 1]; k < h2; k++) {
+			if (cols[k] != s) {
+				onlySelfloops = false;
+				d += nonZeros[k] * vect[cols[k]];
+			} else {
+				diag -= nonZeros[k];
+			}
+		}
+		return jacobiDivide(d, diag, onlySelfloops);
+	}
+
+	/**
+	 * Helper for {@link #mvMultJacChoice}: compute the result of a Jacobi-style update
+	 * from the sum {@code d} and the diagonal {@code diag}.
+	 */
+	protected static double jacobiDivide(double d, double diag, boolean onlySelfloops)
+	{
+		// Catch special case of probability 1 self-loop (Jacobi does it wrong)
+		if (onlySelfloops) {
+			if (d != 0) {
+				// always choosing the selfloop-action will produce infinite reward
+				return (d > 0 ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY);
+			} else {
+				// no reward & only self-loops: d remains 0
+				return 0;
 			}
+		} else if (diag > 0) {
+			// not only self-loops, do Jacobi division
+			return d / diag;
+		}
+		return d;
+	}
+
+	/**
+	 * For each transition of choice {@code j}, add probability times {@code x}
+	 * to the entry in {@code dest} of its destination.
+	 */
+	protected void mvMultRightChoice(int j, double x, double dest[])
+	{
+		for (int k = choiceStarts[j], h2 = choiceStarts[j + 1]; k < h2; k++) {
+			dest[cols[k]] += nonZeros[k] * x;
 		}
 	}
 
@@ -1117,7 +1145,8 @@ public class MDPSparse extends MDPExplicit
 	@Override
 	public String toString()
 	{
-		int i, j, k, l1, h1, l2, h2;
+		int i, j, l1, h1;
+		long k, l2, h2;
 		Object o;
 		String s = "";
 		s = "[ ";
@@ -1134,12 +1163,12 @@ public class MDPSparse extends MDPExplicit
 				if (o != null)
 					s += o + ":";
 				s += "{";
-				l2 = choiceStarts[j];
-				h2 = choiceStarts[j + 1];
+				l2 = getChoiceStart(j);
+				h2 = getChoiceStart(j + 1);
 				for (k = l2; k < h2; k++) {
 					if (k > l2)
 						s += ", ";
-					s += cols[k] + ":" + nonZeros[k];
+					s += getCol(k) + ":" + getNonZero(k);
 				}
 				s += "}";
 			}
@@ -1160,15 +1189,24 @@ public class MDPSparse extends MDPExplicit
 			return false;
 		if (!initialStates.equals(mdp.initialStates))
 			return false;
-		if (!Utils.doubleArraysAreEqual(nonZeros, mdp.nonZeros))
-			return false;
-		if (!Utils.intArraysAreEqual(cols, mdp.cols))
-			return false;
-		if (!Utils.intArraysAreEqual(choiceStarts, mdp.choiceStarts))
-			return false;
 		if (!Utils.intArraysAreEqual(rowStarts, mdp.rowStarts))
 			return false;
-		// TODO: compare actions (complicated: null = null,null,null,...)
+		// Compare transitions (via getChoiceStart etc., since either may be stored differently)
+		for (int j = 0; j <= numDistrs; j++) {
+			if (getChoiceStart(j) != mdp.getChoiceStart(j))
+				return false;
+		}
+		for (long k = 0, n = getChoiceStart(numDistrs); k < n; k++) {
+			if (getCol(k) != mdp.getCol(k) || getNonZero(k) != mdp.getNonZero(k))
+				return false;
+		}
+		// Compare actions (a null array is the same as all actions being null)
+		for (int j = 0; j < numDistrs; j++) {
+			Object a1 = actions == null ? null : actions[j];
+			Object a2 = mdp.actions == null ? null : mdp.actions[j];
+			if (a1 == null ? a2 != null : !a1.equals(a2))
+				return false;
+		}
 		return true;
 	}
 }
@@ -0,0 +1,521 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import common.IterableStateSet;
+import explicit.rewards.MCRewards;
+import explicit.rewards.MDPRewards;
+import prism.PrismException;
+import prism.PrismNotSupportedException;
+import prism.PrismUtils;
+
+/**
+ * Sparse matrix (non-mutable) explicit-state representation of an MDP,
+ * like {@link MDPSparse}, but with the transition function stored in compressed form
+ * (see {@link CompressedSparseMatrix}), to reduce memory traffic during value iteration.
+ * With {@link CompressedSparseMatrix.Encoding#FLOAT}, probabilities are only stored
+ * in single precision, so results are approximate.
+ */
+public class MDPSparseCompressed extends MDPExplicit
+{
+	/** Transition function (one row per choice) */
+	protected CompressedSparseMatrix matrix;
+	/** Indices into the rows of matrix giving the start of the choices for each state;
+	 * array is of size numStates+1 and last entry is always equal to numDistrs */
+	protected int rowStarts[];
+
+	// Action labels
+	/** Array of action labels for choices;
+	 * if null, there are no actions; otherwise, is an array of size numDistrs */
+	protected Object actions[];
+
+	// Other statistics
+	protected int numDistrs;
+	protected int maxNumDistrs;
+
+	// Constructors
+
+	/**
+	 * Constructor: copy an arbitrary MDP, compressing the transition function
+	 * with the given encoding for probabilities.
+	 * Throws an exception if the MDP cannot be stored with this encoding.
+	 */
+	public MDPSparseCompressed(final MDP mdp, CompressedSparseMatrix.Encoding encoding) throws PrismException
+	{
+		initialise(mdp.getNumStates());
+
+		setStatesList(mdp.getStatesList());
+		setConstantValues(mdp.getConstantValues());
+		setVarList(mdp.getVarList());
+		for (String label : mdp.getLabels()) {
+			addLabel(label, mdp.getLabelStates(label));
+		}
+
+		// Copy stats
+		numDistrs = mdp.getNumChoices();
+		maxNumDistrs = mdp.getMaxNumChoices();
+		rowStarts = new int[numStates + 1];
+		boolean hasActions = false;
+		for (int state = 0; state < numStates && !hasActions; state++) {
+			for (int choice = 0, numChoices = mdp.getNumChoices(state); choice < numChoices; choice++) {
+				hasActions |= mdp.getAction(state, choice) != null;
+			}
+		}
+		actions = hasActions ? new Object[numDistrs] : null;
+
+		// Copy transition function
+		CompressedSparseMatrix.Builder builder = new CompressedSparseMatrix.Builder(encoding, numDistrs, mdp.getNumTransitions());
+		int rowIndex = 0;
+		for (int state = 0; state < numStates; state++) {
+			if (mdp.isInitialState(state)) {
+				addInitialState(state);
+			}
+			if (mdp.isDeadlockState(state)) {
+				deadlocks.add(state);
+			}
+			rowStarts[state] = rowIndex;
+			for (int choice = 0, numChoices = mdp.getNumChoices(state); choice < numChoices; choice++) {
+				if (actions != null) {
+					actions[rowIndex] = mdp.getAction(state, choice);
+				}
+				for (Iterator<Entry<Integer, Double>> transitions = mdp.getTransitionsIterator(state, choice); transitions.hasNext();) {
+					final Entry<Integer, Double> trans = transitions.next();
+					builder.addTransition(state, trans.getKey(), trans.getValue());
+				}
+				builder.endRow();
+				rowIndex++;
+			}
+		}
+		rowStarts[numStates] = numDistrs;
+		matrix = builder.build();
+	}
+
+	/**
+	 * Get the compressed transition matrix.
+	 */
+	public CompressedSparseMatrix getMatrix()
+	{
+		return matrix;
+	}
+
+	// Mutators (other)
+
+	@Override
+	public void initialise(int numStates)
+	{
+		super.initialise(numStates);
+		numDistrs = maxNumDistrs = 0;
+		actions = null;
+	}
+
+	@Override
+	public void buildFromPrismExplicit(String filename) throws PrismException
+	{
+		throw new PrismNotSupportedException("Building compressed sparse MDP currently not supported from PrismExplicit");
+	}
+
+	// Accessors (for Model)
+
+	@Override
+	public int getNumTransitions()
+	{
+		return matrix.getNumTransitions();
+	}
+
+	@Override
+	public SuccessorsIterator getSuccessors(final int s)
+	{
+		int l1 = rowStarts[s], h1 = rowStarts[s + 1];
+		if (l1 + 1 == h1) {
+			// we assume here that the successors for a single choice are distinct
+			return matrix.getSuccessors(l1, s, true);
+		}
+		return super.getSuccessors(s);
+	}
+
+	@Override
+	public void findDeadlocks(boolean fix) throws PrismException
+	{
+		for (int i = 0; i < numStates; i++) {
+			// Note that no distributions is a deadlock, not an empty distribution
+			if (getNumChoices(i) == 0) {
+				addDeadlockState(i);
+				if (fix) {
+					throw new PrismException("Can't fix deadlocks in an MDPSparseCompressed since it cannot be modified after construction");
+				}
+			}
+		}
+	}
+
+	@Override
+	public void checkForDeadlocks(BitSet except) throws PrismException
+	{
+		for (int i = 0; i < numStates; i++) {
+			if (getNumChoices(i) == 0 && (except == null || !except.get(i)))
+				throw new PrismException("MDP has a deadlock in state " + i);
+		}
+	}
+
+	// Accessors (for NondetModel)
+
+	@Override
+	public int getNumChoices(int s)
+	{
+		return rowStarts[s + 1] - rowStarts[s];
+	}
+
+	@Override
+	public int getMaxNumChoices()
+	{
+		return maxNumDistrs;
+	}
+
+	@Override
+	public int getNumChoices()
+	{
+		return numDistrs;
+	}
+
+	@Override
+	public Object getAction(int s, int i)
+	{
+		return i < 0 || actions == null ? null : actions[rowStarts[s] + i];
+	}
+
+	@Override
+	public SuccessorsIterator getSuccessors(final int s, final int i)
+	{
+		// we assume here that the successors for a single choice are distinct
+		return matrix.getSuccessors(rowStarts[s] + i, s, true);
+	}
+
+	@Override
+	public boolean allSuccessorsInSet(int s, int i, BitSet set)
+	{
+		return matrix.allSuccessorsInSet(rowStarts[s] + i, s, set);
+	}
+
+	@Override
+	public boolean someSuccessorsInSet(int s, int i, BitSet set)
+	{
+		return matrix.someSuccessorsInSet(rowStarts[s] + i, s, set);
+	}
+
+	// Accessors (for MDP)
+
+	@Override
+	public void forEachTransition(int s, int i, TransitionConsumer c)
+	{
+		matrix.forEachTransition(rowStarts[s] + i, s, c::accept);
+	}
+
+	@Override
+	public int getNumTransitions(int s, int i)
+	{
+		return matrix.getNumTransitions(rowStarts[s] + i);
+	}
+
+	@Override
+	public Iterator<Entry<Integer, Double>> getTransitionsIterator(final int s, final int i)
+	{
+		return matrix.getTransitionsIterator(rowStarts[s] + i, s);
+	}
+
+	@Override
+	public void prob0step(BitSet subset, BitSet u, boolean forall, BitSet result)
+	{
+		for (int i : new IterableStateSet(subset, numStates)) {
+			boolean b1 = forall; // there exists or for all
+			for (int j = rowStarts[i], h1 = rowStarts[i + 1]; j < h1; j++) {
+				boolean some = matrix.someSuccessorsInSet(j, i, u);
+				if (forall ? !some : some) {
+					b1 = !forall;
+					break;
+				}
+			}
+			result.set(i, b1);
+		}
+	}
+
+	@Override
+	public void prob1Astep(BitSet subset, BitSet u, BitSet v, BitSet result)
+	{
+		for (int i : new IterableStateSet(subset, numStates)) {
+			boolean b1 = true;
+			for (int j = rowStarts[i], h1 = rowStarts[i + 1]; j < h1; j++) {
+				if (!matrix.successorsSafeAndCanReach(j, i, u, v)) {
+					b1 = false;
+					break;
+				}
+			}
+			result.set(i, b1);
+		}
+	}
+
+	@Override
+	public void prob1Estep(BitSet subset, BitSet u, BitSet v, BitSet result, int strat[])
+	{
+		int stratCh = -1;
+		for (int i : new IterableStateSet(subset, numStates)) {
+			boolean b1 = false;
+			int l1 = rowStarts[i];
+			for (int j = l1, h1 = rowStarts[i + 1]; j < h1; j++) {
+				if (matrix.successorsSafeAndCanReach(j, i, u, v)) {
+					b1 = true;
+					// If strategy generation is enabled, remember optimal choice
+					if (strat != null)
+						stratCh = j - l1;
+					break;
+				}
+			}
+			// If strategy generation is enabled, store optimal choice
+			// (only if this the first time we add the state to S^yes)
+			if (strat != null & b1 & !result.get(i)) {
+				strat[i] = stratCh;
+			}
+			// Store result
+			result.set(i, b1);
+		}
+	}
+
+	@Override
+	public void prob1step(BitSet subset, BitSet u, BitSet v, boolean forall, BitSet result)
+	{
+		for (int i : new IterableStateSet(subset, numStates)) {
+			boolean b1 = forall; // there exists or for all
+			for (int j = rowStarts[i], h1 = rowStarts[i + 1]; j < h1; j++) {
+				boolean someAll = matrix.successorsSafeAndCanReach(j, i, u, v);
+				if (forall ? !someAll : someAll) {
+					b1 = !forall;
+					break;
+				}
+			}
+			result.set(i, b1);
+		}
+	}
+
+	@Override
+	public boolean prob1stepSingle(int s, int i, BitSet u, BitSet v)
+	{
+		return matrix.successorsSafeAndCanReach(rowStarts[s] + i, s, u, v);
+	}
+
+	/**
+	 * Store the optimal choice {@code stratCh} in {@code strat}
+	 * (for max, only remember strictly better choices).
+	 */
+	private static void storeStrategyChoice(int s, double vect[], boolean min, int strat[], int stratCh, double minmax)
+	{
+		if (min) {
+			strat[s] = stratCh;
+		} else if (strat[s] == -1 || minmax > vect[s]) {
+			strat[s] = stratCh;
+		}
+	}
+
+	@Override
+	public double mvMultMinMaxSingle(int s, double vect[], boolean min, int strat[])
+	{
+		int stratCh = -1;
+		double minmax = 0;
+		boolean first = true;
+		int l1 = rowStarts[s];
+		for (int j = l1, h1 = rowStarts[s + 1]; j < h1; j++) {
+			// Compute sum for this distribution
+			double d = matrix.mvMultRow(j, s, vect);
+			// Check whether we have exceeded min/max so far
+			if (first || (min && d < minmax) || (!min && d > minmax)) {
+				minmax = d;
+				stratCh = j - l1;
+			}
+			first = false;
+		}
+		// If strategy generation is enabled, store optimal choice
+		if (strat != null & !first) {
+			storeStrategyChoice(s, vect, min, strat, stratCh, minmax);
+		}
+		return minmax;
+	}
+
+	@Override
+	public List<Integer> mvMultMinMaxSingleChoices(int s, double vect[], boolean min, double val)
+	{
+		List<Integer> res = new ArrayList<Integer>();
+		int l1 = rowStarts[s];
+		for (int j = l1, h1 = rowStarts[s + 1]; j < h1; j++) {
+			// Store strategy info if value matches
+			if (PrismUtils.doublesAreClose(val, matrix.mvMultRow(j, s, vect), 1e-12, false)) {
+				res.add(j - l1);
+			}
+		}
+		return res;
+	}
+
+	@Override
+	public double mvMultSingle(int s, int i, double vect[])
+	{
+		return matrix.mvMultRow(rowStarts[s] + i, s, vect);
+	}
+
+	@Override
+	public double mvMultJacMinMaxSingle(int s, double vect[], boolean min, int strat[])
+	{
+		int stratCh = -1;
+		double minmax = 0;
+		boolean first = true;
+		int l1 = rowStarts[s];
+		for (int j = l1, h1 = rowStarts[s + 1]; j < h1; j++) {
+			double d = matrix.mvMultJacRow(j, s, 0.0, vect, false);
+			// Check whether we have exceeded min/max so far
+			if (first || (min && d < minmax) || (!min && d > minmax)) {
+				minmax = d;
+				stratCh = j - l1;
+			}
+			first = false;
+		}
+		// If strategy generation is enabled, store optimal choice
+		if (strat != null & !first) {
+			storeStrategyChoice(s, vect, min, strat, stratCh, minmax);
+		}
+		return minmax;
+	}
+
+	@Override
+	public double mvMultJacSingle(int s, int i, double vect[])
+	{
+		return matrix.mvMultJacRow(rowStarts[s] + i, s, 0.0, vect, false);
+	}
+
+	@Override
+	public double mvMultRewMinMaxSingle(int s, double vect[], MDPRewards mdpRewards, boolean min, int strat[])
+	{
+		int stratCh = -1;
+		double minmax = 0;
+		boolean first = true;
+		int l1 = rowStarts[s];
+		for (int j = l1, h1 = rowStarts[s + 1]; j < h1; j++) {
+			// Compute sum for this distribution
+			double d = mdpRewards.getTransitionReward(s, j - l1) + matrix.mvMultRow(j, s, vect);
+			// Check whether we have exceeded min/max so far
+			if (first || (min && d < minmax) || (!min && d > minmax)) {
+				minmax = d;
+				stratCh = j - l1;
+			}
+			first = false;
+		}
+		// Add state reward (doesn't affect min/max)
+		minmax += mdpRewards.getStateReward(s);
+		// If strategy generation is enabled, store optimal choice
+		if (strat != null & !first) {
+			storeStrategyChoice(s, vect, min, strat, stratCh, minmax);
+		}
+		return minmax;
+	}
+
+	@Override
+	public double mvMultRewSingle(int s, int i, double[] vect, MCRewards mcRewards)
+	{
+		return matrix.mvMultRow(rowStarts[s] + i, s, vect) + mcRewards.getStateReward(s);
+	}
+
+	@Override
+	public double mvMultRewJacMinMaxSingle(int s, double vect[], MDPRewards mdpRewards, boolean min, int strat[])
+	{
+		int stratCh = -1;
+		double minmax = 0;
+		boolean first = true;
+		int l1 = rowStarts[s];
+		for (int j = l1, h1 = rowStarts[s + 1]; j < h1; j++) {
+			// (note: have to add state rewards in the loop for Jacobi)
+			double d = mdpRewards.getStateReward(s) + mdpRewards.getTransitionReward(s, j - l1);
+			d = matrix.mvMultJacRow(j, s, d, vect, true);
+			// Check whether we have exceeded min/max so far
+			if (first || (min && d < minmax) || (!min && d > minmax)) {
+				minmax = d;
+				stratCh = j - l1;
+			}
+			first = false;
+		}
+		// If strategy generation is enabled, store optimal choice
+		if (strat != null & !first) {
+			storeStrategyChoice(s, vect, min, strat, stratCh, minmax);
+		}
+		return minmax;
+	}
+
+	@Override
+	public List<Integer> mvMultRewMinMaxSingleChoices(int s, double vect[], MDPRewards mdpRewards, boolean min, double val)
+	{
+		List<Integer> res = new ArrayList<Integer>();
+		int l1 = rowStarts[s];
+		for (int j = l1, h1 = rowStarts[s + 1]; j < h1; j++) {
+			double d = mdpRewards.getTransitionReward(s, j - l1) + matrix.mvMultRow(j, s, vect) + mdpRewards.getStateReward(s);
+			// Store strategy info if value matches
+			if (PrismUtils.doublesAreClose(val, d, 1e-12, false)) {
+				res.add(j - l1);
+			}
+		}
+		return res;
+	}
+
+	@Override
+	public void mvMultRight(int[] states, int[] strat, double[] source, double[] dest)
+	{
+		for (int s : states) {
+			matrix.vmMultRow(rowStarts[s] + strat[s], s, source[s], dest, false);
+		}
+	}
+
+	// Standard methods
+
+	@Override
+	public String toString()
+	{
+		StringBuilder s = new StringBuilder("[ ");
+		for (int i = 0; i < numStates; i++) {
+			if (i > 0)
+				s.append(", ");
+			s.append(i + ": [");
+			for (int j = 0, n = getNumChoices(i); j < n; j++) {
+				if (j > 0)
+					s.append(",");
+				Object o = getAction(i, j);
+				if (o != null)
+					s.append(o + ":");
+				s.append(new Distribution(getTransitionsIterator(i, j)));
+			}
+			s.append("]");
+		}
+		return s.append(" ]").toString();
+	}
+}
@@ -0,0 +1,380 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+
+package explicit;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import common.OffHeapArray;
+import prism.PrismException;
+import prism.PrismUtils;
+
+/**
+ * Sparse matrix (non-mutable) explicit-state representation of an MDP,
+ * like {@link MDPSparse}, but with the transitions of each choice stored outside
+ * the Java heap (see {@link OffHeapArray}) and indexed by {@code long}, so that
+ * the number of transitions is not limited to 2^31-1 and does not count towards the heap size.
+ * The start of the choices for each state ({@code rowStarts}) and the action labels
+ * are stored on the heap, as in {@link MDPSparse}, and all methods that only need
+ * per-choice access to the transitions are inherited from there.
+ * <br><br>
+ * Models can be built without any on-heap copy of the transitions, either by mapping
+ * a binary model file (see {@link BinaryModelFile}) or by reading a .tra file
+ * (see {@link #buildFromPrismExplicit(String)}).
+ * Since {@link #getNumTransitions()} returns an {@code int}, it is capped at
+ * {@code Integer.MAX_VALUE}; the exact count is available from {@link #getNumTransitionsLong()}.
+ */
+public class MDPSparseOffHeap extends MDPSparse
+{
+	// Off-heap sparse matrix storing the transitions of each choice
+	/** Probabilities for each transition (array of size numTransitionsLong) */
+	protected OffHeapArray.OfDouble nonZerosOffHeap;
+	/** Column (destination) indices for each transition (array of size numTransitionsLong) */
+	protected OffHeapArray.OfInt colsOffHeap;
+	/** Indices into nonZerosOffHeap/colsOffHeap giving the start of the transitions for each choice (distribution);
+	 * array is of size numDistrs+1 and last entry is always equal to numTransitionsLong */
+	protected OffHeapArray.OfLong choiceStartsOffHeap;
+
+	/** Exact number of transitions (numTransitions is capped at Integer.MAX_VALUE) */
+	protected long numTransitionsLong;
+
+	// Constructors
+
+	/**
+	 * Constructor: empty MDP (e.g. to be built with {@link #buildFromPrismExplicit(String)}).
+	 */
+	public MDPSparseOffHeap()
+	{
+		initialise(0);
+	}
+
+	/**
+	 * Constructor: copy an arbitrary MDP into off-heap storage.
+	 */
+	public MDPSparseOffHeap(final MDP mdp)
+	{
+		setNumTransitions(copyChoiceStructure(mdp));
+		// Initialise transition function
+		nonZerosOffHeap = OffHeapArray.OfDouble.allocate(numTransitionsLong);
+		colsOffHeap = OffHeapArray.OfInt.allocate(numTransitionsLong);
+		choiceStartsOffHeap = OffHeapArray.OfLong.allocate(numDistrs + 1L);
+
+		// Copy transition function
+		int rowIndex = 0;
+		long choiceIndex = 0;
+		for (int state = 0; state < numStates; state++) {
+			for (int choice = 0, numChoices = mdp.getNumChoices(state); choice < numChoices; choice++) {
+				choiceStartsOffHeap.set(rowIndex, choiceIndex);
+				for (Iterator<Entry<Integer, Double>> transitions = mdp.getTransitionsIterator(state, choice); transitions.hasNext();) {
+					final Entry<Integer, Double> trans = transitions.next();
+					colsOffHeap.set(choiceIndex, trans.getKey());
+					nonZerosOffHeap.set(choiceIndex, trans.getValue());
+					choiceIndex++;
+				}
+				rowIndex++;
+			}
+		}
+		choiceStartsOffHeap.set(numDistrs, numTransitionsLong);
+	}
+
+	/**
+	 * Constructor: Build new MDPSparseOffHeap directly from its sparse matrix arrays
+	 * (e.g. as mapped by {@link BinaryModelFile}); the arrays are stored, not copied.
+	 * Initial states, labels, etc. need to be added separately.
+	 * @param numStates Number of states
+	 * @param rowStarts Start of the choices for each state (size numStates+1)
+	 * @param choiceStarts Start of the transitions for each choice (size numChoices+1)
+	 * @param cols Column (destination) indices for each transition
+	 * @param nonZeros Probabilities for each transition
+	 * @param actions Action labels for each choice (null if none)
+	 */
+	public MDPSparseOffHeap(int numStates, int rowStarts[], OffHeapArray.OfLong choiceStarts, OffHeapArray.OfInt cols, OffHeapArray.OfDouble nonZeros, Object actions[])
+	{
+		initialise(numStates);
+		this.rowStarts = rowStarts;
+		this.choiceStartsOffHeap = choiceStarts;
+		this.colsOffHeap = cols;
+		this.nonZerosOffHeap = nonZeros;
+		this.actions = actions;
+		numDistrs = rowStarts[numStates];
+		setNumTransitions(choiceStarts.get(numDistrs));
+		computeMaxNumDistrs();
+	}
+
+	// Mutators (other)
+
+	@Override
+	public void initialise(int numStates)
+	{
+		super.initialise(numStates);
+		numTransitionsLong = 0;
+	}
+
+	/**
+	 * Build (off-heap) from a .tra file, reading the transitions straight into off-heap storage.
+	 * Since the storage is allocated up front, based on the counts in the first line of the file,
+	 * the transitions must be listed in order of source state, then choice index, then destination,
+	 * as in files exported by PRISM; if not, the model should be imported on-heap instead.
+	 * As for other models built from a .tra file, initial states are not set.
+	 */
+	@Override
+	public void buildFromPrismExplicit(String filename) throws PrismException
+	{
+		int lineNum = 0;
+		// Open file for reading, automatic close
+		try (BufferedReader in = new BufferedReader(new FileReader(new File(filename)))) {
+			// Parse first line to get num states/choices/transitions
+			String s = in.readLine();
+			lineNum = 1;
+			if (s == null) {
+				throw new PrismException("Missing first line of .tra file");
+			}
+			String ss[] = s.split(" ");
+			if (ss.length < 3) {
+				throw new PrismException("First line of .tra file must read #states, #choices, #transitions");
+			}
+			// Initialise
+			initialise(Integer.parseInt(ss[0]));
+			numDistrs = Integer.parseInt(ss[1]);
+			setNumTransitions(Long.parseLong(ss[2]));
+			rowStarts = new int[numStates + 1];
+			choiceStartsOffHeap = OffHeapArray.OfLong.allocate(numDistrs + 1L);
+			colsOffHeap = OffHeapArray.OfInt.allocate(numTransitionsLong);
+			nonZerosOffHeap = OffHeapArray.OfDouble.allocate(numTransitionsLong);
+			// Go though list of transitions in file
+			int iLast = -1, kLast = -1, jLast = -1;
+			int kCount = 0;
+			long jCount = 0;
+			s = in.readLine();
+			lineNum++;
+			while (s != null) {
+				s = s.trim();
+				if (s.length() > 0) {
+					ss = s.split(" ");
+					int i = Integer.parseInt(ss[0]);
+					int k = Integer.parseInt(ss[1]);
+					int j = Integer.parseInt(ss[2]);
+					double prob = Double.parseDouble(ss[3]);
+					if (i < 0 || i >= numStates) {
+						throw new PrismException("Problem in .tra file (line " + lineNum + "): illegal source state index " + i);
+					}
+					if (j < 0 || j >= numStates) {
+						throw new PrismException("Problem in .tra file (line " + lineNum + "): illegal target state index " + j);
+					}
+					// For a new state or distribution
+					if (i != iLast || k != kLast) {
+						if (i < iLast || k != (i == iLast ? kLast + 1 : 0)) {
+							throw new PrismException("Problem in .tra file (line " + lineNum + "): transitions must be ordered by state and choice index for off-heap import");
+						}
+						if (kCount == numDistrs) {
+							throw new PrismException("Problem in .tra file (line " + lineNum + "): more choices than the " + numDistrs + " declared");
+						}
+						// Fill in choice starts for this state (and any preceding ones with no choices)
+						while (iLast < i) {
+							rowStarts[++iLast] = kCount;
+						}
+						choiceStartsOffHeap.set(kCount, jCount);
+						kCount++;
+					} else if (j <= jLast) {
+						throw new PrismException("Problem in .tra file (line " + lineNum + "): transitions must be ordered by target state for off-heap import");
+					}
+					if (jCount == numTransitionsLong) {
+						throw new PrismException("Problem in .tra file (line " + lineNum + "): more transitions than the " + numTransitionsLong + " declared");
+					}
+					// Store transition
+					colsOffHeap.set(jCount, j);
+					nonZerosOffHeap.set(jCount, prob);
+					jCount++;
+					// Store action
+					if (ss.length > 4) {
+						if (actions == null) {
+							actions = new Object[numDistrs];
+						}
+						Object oldAction = actions[kCount - 1];
+						if (oldAction != null && !ss[4].equals(oldAction)) {
+							throw new PrismException("Problem in .tra file (line " + lineNum + "):"
+							                       + "inconsistent action label for " + i + ", " + k + ": "
+							                       + oldAction + " and " + ss[4]);
+						}
+						actions[kCount - 1] = ss[4];
+					}
+					// Prepare for next iter
+					kLast = k;
+					jLast = j;
+				}
+				s = in.readLine();
+				lineNum++;
+			}
+			while (iLast < numStates) {
+				rowStarts[++iLast] = kCount;
+			}
+			// Check integrity
+			if (kCount != numDistrs) {
+				throw new PrismException("Problem in .tra file: unexpected number of choices: " + kCount);
+			}
+			if (jCount != numTransitionsLong) {
+				throw new PrismException("Problem in .tra file: unexpected number of transitions: " + jCount);
+			}
+			choiceStartsOffHeap.set(numDistrs, numTransitionsLong);
+			computeMaxNumDistrs();
+		} catch (IOException e) {
+			throw new PrismException("File I/O error reading from \"" + filename + "\": " + e.getMessage());
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			throw new PrismException("Problem in .tra file (line " + lineNum + ") for " + getModelType());
+		}
+	}
+
+	/**
+	 * Set the (exact) number of transitions.
+	 */
+	private void setNumTransitions(long numTransitionsLong)
+	{
+		this.numTransitionsLong = numTransitionsLong;
+		numTransitions = (int) Math.min(numTransitionsLong, Integer.MAX_VALUE);
+	}
+
+	// Accessors (for Model)
+
+	/**
+	 * Get the exact number of transitions.
+	 */
+	public long getNumTransitionsLong()
+	{
+		return numTransitionsLong;
+	}
+
+	@Override
+	public String infoString()
+	{
+		String s = "";
+		s += numStates + " states (" + getNumInitialStates() + " initial)";
+		s += ", " + numTransitionsLong + " transitions";
+		s += ", " + getNumChoices() + " choices";
+		s += ", dist max/avg = " + getMaxNumChoices() + "/" + PrismUtils.formatDouble2dp(((double) getNumChoices()) / numStates);
+		return s;
+	}
+
+	@Override
+	public String infoStringTable()
+	{
+		String s = "";
+		s += "States:      " + numStates + " (" + getNumInitialStates() + " initial)\n";
+		s += "Transitions: " + numTransitionsLong + "\n";
+		s += "Choices:     " + getNumChoices() + "\n";
+		s += "Max/avg:     " + getMaxNumChoices() + "/" + PrismUtils.formatDouble2dp(((double) getNumChoices()) / numStates) + "\n";
+		return s;
+	}
+
+	// Access to the transition function storage
+
+	@Override
+	protected long getChoiceStart(int j)
+	{
+		return choiceStartsOffHeap.get(j);
+	}
+
+	@Override
+	protected int getCol(long k)
+	{
+		return colsOffHeap.get(k);
+	}
+
+	@Override
+	protected double getNonZero(long k)
+	{
+		return nonZerosOffHeap.get(k);
+	}
+
+	@Override
+	protected boolean prob0stepChoice(int j, BitSet u)
+	{
+		for (long k = choiceStartsOffHeap.get(j), h2 = choiceStartsOffHeap.get(j + 1); k < h2; k++) {
+			// Assume that only non-zero entries are stored
+			if (u.get(colsOffHeap.get(k))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	protected boolean prob1stepChoice(int j, BitSet u, BitSet v)
+	{
+		boolean some = false;
+		for (long k = choiceStartsOffHeap.get(j), h2 = choiceStartsOffHeap.get(j + 1); k < h2; k++) {
+			// Assume that only non-zero entries are stored
+			final int col = colsOffHeap.get(k);
+			if (!u.get(col)) {
+				return false; // Stop early
+			}
+			if (v.get(col)) {
+				some = true;
+			}
+		}
+		return some;
+	}
+
+	@Override
+	protected double mvMultChoice(int j, double d, double vect[])
+	{
+		for (long k = choiceStartsOffHeap.get(j), h2 = choiceStartsOffHeap.get(j + 1); k < h2; k++) {
+			d += nonZerosOffHeap.get(k) * vect[colsOffHeap.get(k)];
+		}
+		return d;
+	}
+
+	@Override
+	protected double mvMultJacChoice(int s, int j, double d, double vect[])
+	{
+		double diag = 1.0;
+		boolean onlySelfloops = true;
+		for (long k = choiceStartsOffHeap.get(j), h2 = choiceStartsOffHeap.get(j + 1); k < h2; k++) {
+			final int col = colsOffHeap.get(k);
+			if (col != s) {
+				onlySelfloops = false;
+				d += nonZerosOffHeap.get(k) * vect[col];
+			} else {
+				diag -= nonZerosOffHeap.get(k);
+			}
+		}
+		return jacobiDivide(d, diag, onlySelfloops);
+	}
+
+	@Override
+	protected void mvMultRightChoice(int j, double x, double dest[])
+	{
+		for (long k = choiceStartsOffHeap.get(j), h2 = choiceStartsOffHeap.get(j + 1); k < h2; k++) {
+			dest[colsOffHeap.get(k)] += nonZerosOffHeap.get(k) * x;
+		}
+	}
+}
@@ -48,6 +48,10 @@ public class ModelCheckerResult
 	public double timeProb0 = 0.0;
 	// Strategy
 	public Strategy strat = null;
+	// Guaranteed accuracy (max. absolute or relative error) of the solution vector, if known (NaN if not)
+	public double accuracy = Double.NaN;
+	// Is the accuracy above a relative (rather than absolute) error?
+	public boolean accuracyRelative = false;
 
 	/**
 	 * Clear all stored data, including setting of array pointers to null
@@ -58,5 +62,6 @@ public class ModelCheckerResult
 		soln = lastSoln = null;
 		numIters = 0;
 		timeTaken = timePre = timeProb0 = 0.0;
+		accuracy = Double.NaN;
 	}
 }
@@ -77,6 +77,12 @@ public class ModelModelGenerator implements ModelGenerator
 		this.modelInfo = modelInfo; 
 	}
 	
+	@Override
+	public ModelGenerator createCopy()
+	{
+		return new ModelModelGenerator(model, modelInfo);
+	}
+	
 	@Override
 	public ModelType getModelType()
 	{
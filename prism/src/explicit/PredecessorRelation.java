@@ -27,29 +27,50 @@
 package explicit;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Stack;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
 
-import prism.PrismComponent;
 import common.IterableBitSet;
+import common.iterable.IterableInt;
+import prism.PrismComponent;
+import prism.PrismSettings;
 
 /**
  * A class for storing and accessing the predecessor relation of an explicit Model.
  * <p>
  * As Model only provide easy access to successors of states,
  * the predecessor relation is computed and stored for subsequent efficient access.
+ * The relation is stored in compressed (CSR) form, i.e., as two arrays of ints:
+ * the predecessors of all states, one state after the other (each in ascending order),
+ * and the start index of each state's predecessors in this array.
+ * It can be computed by several threads in parallel.
  * <p>
  * Note: Naturally, if the model changes, the predecessor relation
  * has to be recomputed to remain accurate.
  */
 public class PredecessorRelation
 {
+	/** Minimum number of states for the relation to be computed in parallel */
+	public static final int MIN_PARALLEL_STATES = 10000;
+
+	/** Number of chunks per thread for parallel computation (more than one, to balance load) */
+	private static final int CHUNKS_PER_THREAD = 4;
+
 	/**
-	 * pre[i] provides the list of predecessors of state with index i.
+	 * The predecessors of the state with index i are
+	 * {@code pre[preStarts[i]]}, ..., {@code pre[preStarts[i+1]-1]}.
 	 */
-	List<ArrayList<Integer>> pre;
+	int[] preStarts;
+
+	/** Predecessors of all states */
+	int[] pre;
 
 	/**
 	 * Constructor. Computes the predecessor relation for the given model
@@ -59,54 +80,193 @@ public class PredecessorRelation
 	 */
 	public PredecessorRelation(Model model)
 	{
-		pre = new ArrayList<ArrayList<Integer>>(model.getNumStates());
-		// construct the (empty) array list for all states
-		for (int s = 0; s < model.getNumStates(); s++) {
-			pre.add(s, new ArrayList<Integer>());
-		}
+		this(model, 1);
+	}
 
-		compute(model);
+	/**
+	 * Constructor. Computes the predecessor relation for the given model
+	 * by considering the successors of each state, using (up to) {@code numThreads} threads.
+	 * The result does not depend on the number of threads.
+	 *
+	 * @param model the Model
+	 * @param numThreads the number of threads
+	 */
+	public PredecessorRelation(Model model, int numThreads)
+	{
+		if (numThreads > 1 && model.getNumStates() >= MIN_PARALLEL_STATES) {
+			computeParallel(model, numThreads);
+		} else {
+			compute(model);
+		}
 	}
 
-	/** Compute the predecessor relation using getSuccessorsIterator. */
+	/** Compute the predecessor relation using getSuccessors (two passes: count, then store). */
 	private void compute(Model model)
 	{
 		int n = model.getNumStates();
 
+		// Count the predecessors of each state
+		// (getSuccessors(...).distinct() guarantees that there are no duplicates
+		// in the successors, so each predecessor is counted/stored exactly once)
+		preStarts = new int[n + 1];
+		for (int s = 0; s < n; s++) {
+			for (SuccessorsIterator it = model.getSuccessors(s).distinct(); it.hasNext();) {
+				preStarts[it.nextInt() + 1]++;
+			}
+		}
+		allocate(n);
+
+		// Store the predecessors (in ascending order, since we go through states in order)
+		int[] next = Arrays.copyOf(preStarts, n);
 		for (int s = 0; s < n; s++) {
-			Iterator<Integer> it = model.getSuccessorsIterator(s);
-			while (it.hasNext()) {
-				Integer successor = it.next();
-
-				// Add the current state s to pre[successor].
-				//
-				// As getSuccessorsIterator guarantees that
-				// there are no duplicates in the successors,
-				// s will be added to successor exactly once.
-				pre.get(successor).add(s);
+			for (SuccessorsIterator it = model.getSuccessors(s).distinct(); it.hasNext();) {
+				pre[next[it.nextInt()]++] = s;
 			}
 		}
 	}
 
+	/**
+	 * Compute the predecessor relation using getSuccessors, in parallel:
+	 * states are split into chunks, for which successors are counted/stored by several threads
+	 * (using atomic counters), and then the predecessors of each state are sorted.
+	 */
+	private void computeParallel(Model model, int numThreads)
+	{
+		int n = model.getNumStates();
+
+		// Count the predecessors of each state
+		AtomicIntegerArray counts = new AtomicIntegerArray(n);
+		parallelFor(numThreads, n, (from, to) -> {
+			for (int s = from; s < to; s++) {
+				for (SuccessorsIterator it = model.getSuccessors(s).distinct(); it.hasNext();) {
+					counts.incrementAndGet(it.nextInt());
+				}
+			}
+		});
+		preStarts = new int[n + 1];
+		for (int s = 0; s < n; s++) {
+			preStarts[s + 1] = counts.get(s);
+		}
+		allocate(n);
+
+		// Store the predecessors (reusing the counts as the next free position for each state)
+		for (int s = 0; s < n; s++) {
+			counts.set(s, preStarts[s]);
+		}
+		parallelFor(numThreads, n, (from, to) -> {
+			for (int s = from; s < to; s++) {
+				for (SuccessorsIterator it = model.getSuccessors(s).distinct(); it.hasNext();) {
+					pre[counts.getAndIncrement(it.nextInt())] = s;
+				}
+			}
+		});
+
+		// Sort the predecessors of each state, so that the result is as for the sequential version
+		parallelFor(numThreads, n, (from, to) -> {
+			for (int s = from; s < to; s++) {
+				Arrays.sort(pre, preStarts[s], preStarts[s + 1]);
+			}
+		});
+	}
+
+	/**
+	 * Convert the counts stored in {@code preStarts[1..n]} to start indices and allocate {@code pre}.
+	 */
+	private void allocate(int n)
+	{
+		for (int s = 0; s < n; s++) {
+			preStarts[s + 1] += preStarts[s];
+		}
+		pre = new int[preStarts[n]];
+	}
+
+	/**
+	 * An action on a range of indices, from {@code from} (inclusive) to {@code to} (exclusive).
+	 */
+	@FunctionalInterface
+	interface RangeAction
+	{
+		void apply(int from, int to);
+	}
+
+	/**
+	 * Apply an action to the indices 0,...,n-1, split into chunks processed by {@code numThreads} threads
+	 * (of the pool shared with parallel value iteration, see {@link IterationMethodParallel}).
+	 * Returns once all chunks are done; any (unchecked) exception from the action is rethrown.
+	 */
+	static void parallelFor(int numThreads, int n, RangeAction action)
+	{
+		int chunkSize = Math.max(1, (n + numThreads * CHUNKS_PER_THREAD - 1) / (numThreads * CHUNKS_PER_THREAD));
+		ForkJoinPool pool = IterationMethodParallel.getPool(numThreads);
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		for (int from = 0; from < n; from += chunkSize) {
+			final int chunkFrom = from;
+			final int chunkTo = (int) Math.min(n, (long) from + chunkSize);
+			tasks.add(pool.submit(() -> action.apply(chunkFrom, chunkTo)));
+		}
+		for (ForkJoinTask<?> task : tasks) {
+			task.join();
+		}
+	}
+
+	/**
+	 * Get the number of predecessor states of {@code s}.
+	 */
+	public int getNumPredecessors(int s)
+	{
+		return preStarts[s + 1] - preStarts[s];
+	}
+
 	/**
 	 * Get an Iterable over the predecessor states of {@code s}.
 	 */
-	public Iterable<Integer> getPre(int s)
+	public IterableInt getPre(int s)
 	{
-		return pre.get(s);
+		return () -> getPredecessorsIterator(s);
 	}
 
 	/**
 	 * Get an Iterator over the predecessor states of {@code s}.
 	 */
-	public Iterator<Integer> getPredecessorsIterator(int s)
+	public PrimitiveIterator.OfInt getPredecessorsIterator(int s)
 	{
-		return getPre(s).iterator();
+		final int start = preStarts[s];
+		final int end = preStarts[s + 1];
+		return new PrimitiveIterator.OfInt()
+		{
+			int i = start;
+
+			@Override
+			public boolean hasNext()
+			{
+				return i < end;
+			}
+
+			@Override
+			public int nextInt()
+			{
+				if (i < end) {
+					return pre[i++];
+				}
+				throw new NoSuchElementException();
+			}
+		};
+	}
+
+	/**
+	 * Perform an action for each predecessor state of {@code s}.
+	 */
+	public void forEachPredecessor(int s, IntConsumer action)
+	{
+		for (int i = preStarts[s], end = preStarts[s + 1]; i < end; i++) {
+			action.accept(pre[i]);
+		}
 	}
 
 	/**
 	 * Static constructor to compute the predecessor relation for the given model.
 	 * Logs diagnostic information to the log of the given PrismComponent.
+	 * The number of threads used is taken from the settings of the PrismComponent.
 	 *
 	 * @param parent a PrismComponent (for obtaining the log and settings)
 	 * @param model the model for which the predecessor relation should be computed
@@ -119,7 +279,7 @@ public class PredecessorRelation
 		parent.getLog().print("Calculating predecessor relation for "+model.getModelType().fullName()+"...  ");
 		parent.getLog().flush();
 
-		PredecessorRelation pre = new PredecessorRelation(model);
+		PredecessorRelation pre = new PredecessorRelation(model, getNumThreads(parent));
 		
 		timer = System.currentTimeMillis() - timer;
 		parent.getLog().println("done (" + timer / 1000.0 + " seconds)");
@@ -127,6 +287,14 @@ public class PredecessorRelation
 		return pre;
 	}
 
+	/**
+	 * Get the number of threads to use, from the settings of a PrismComponent (1 if there are none).
+	 */
+	static int getNumThreads(PrismComponent parent)
+	{
+		PrismSettings settings = parent.getSettings();
+		return settings == null ? 1 : settings.getInteger(PrismSettings.PRISM_NUM_THREADS);
+	}
 
 	/**
 	 * Computes the set Pre*(target) via a DFS, i.e., all states that
@@ -155,36 +323,36 @@ public class PredecessorRelation
 		result = (BitSet)target.clone();
 
 		// the stack of states whose predecessors have to be considered
-		Stack<Integer> todo = new Stack<Integer>();
+		// (each state is pushed at most once, since it is added to result at the same time)
+		int[] todo = new int[Math.max(16, target.cardinality())];
+		int todoSize = 0;
 
 		// initial todo: all the target states
-		for (Integer s : IterableBitSet.getSetBits(target)) {
-			todo.add(s);
-		};
-
-		// the set of states that are finished
-		BitSet done = new BitSet();
-
-		while (!todo.isEmpty()) {
-			int s = todo.pop();
-			// already considered?
-			if (done.get(s)) continue;
+		for (int s : IterableBitSet.getSetBits(target)) {
+			todo[todoSize++] = s;
+		}
 
-			done.set(s);
+		while (todoSize > 0) {
+			int s = todo[--todoSize];
 
 			// for each predecessor in the graph
-			for (int p : getPre(s)) {
+			for (int i = preStarts[s], end = preStarts[s + 1]; i < end; i++) {
+				int p = pre[i];
 				if (absorbing != null && absorbing.get(p)) {
 					// predecessor is absorbing, thus the edge is considered to not exist
 					continue;
 				}
+				if (result.get(p)) {
+					// already in Pre* (and thus on the stack or done)
+					continue;
+				}
 				if (remain == null || remain.get(p)) {
 					// can reach result (and is in remain)
 					result.set(p);
-					if (!done.get(p)) {
-						// add to stack
-						todo.add(p);
+					if (todoSize == todo.length) {
+						todo = Arrays.copyOf(todo, (int) Math.min(Integer.MAX_VALUE - 8, 2L * todo.length));
 					}
+					todo[todoSize++] = p;
 				}
 			}
 		}
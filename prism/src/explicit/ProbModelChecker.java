@@ -27,8 +27,14 @@
 package explicit;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 import explicit.rewards.ConstructRewards;
 import explicit.rewards.MCRewards;
@@ -47,15 +53,18 @@ import parser.type.TypeBool;
 import parser.type.TypeDouble;
 import parser.type.TypePathBool;
 import parser.type.TypePathDouble;
+import parser.visitor.ASTTraverse;
 import prism.IntegerBound;
 import prism.OpRelOpBound;
 import prism.Prism;
 import prism.PrismComponent;
 import prism.PrismException;
+import prism.PrismLangException;
 import prism.PrismLog;
 import prism.PrismNotSupportedException;
 import prism.PrismSettings;
 import prism.PrismUtils;
+import prism.RewardGenerator.RewardLookup;
 
 /**
  * Super class for explicit-state probabilistic model checkers.
@@ -75,6 +84,14 @@ public class ProbModelChecker extends NonProbModelChecker
 	protected double termCritParam = 1e-8;
 	// Max iterations for numerical solution
 	protected int maxIters = 100000;
+	// Number of threads for (parallelisable) numerical solution methods
+	protected int numThreads = 1;
+	// Compression of the transition matrix for value iteration (null if none)
+	protected CompressedSparseMatrix.Encoding matrixCompression = null;
+	// Compressed copies of models, as created by compressForIteration,
+	// cached per model (so that they are shared between properties and model checker instances;
+	// the keys are weak references, so copies are discarded along with the models)
+	private static final Map<Model, Model> compressedModels = Collections.synchronizedMap(new WeakHashMap<>());
 	// Use precomputation algorithms in model checking?
 	protected boolean precomp = true;
 	protected boolean prob0 = true;
@@ -232,6 +249,20 @@ public class ProbModelChecker extends NonProbModelChecker
 				throw new PrismNotSupportedException("The explicit engine does not support model checking MDPs under fairness");
 			}
 
+			// PRISM_NUM_THREADS
+			setNumThreads(settings.getInteger(PrismSettings.PRISM_NUM_THREADS));
+			// PRISM_MATRIX_COMPRESSION
+			s = settings.getString(PrismSettings.PRISM_MATRIX_COMPRESSION);
+			if (s.equals("None")) {
+				setMatrixCompression(null);
+			} else if (s.equals("Dictionary")) {
+				setMatrixCompression(CompressedSparseMatrix.Encoding.DICTIONARY);
+			} else if (s.equals("Float")) {
+				setMatrixCompression(CompressedSparseMatrix.Encoding.FLOAT);
+			} else {
+				throw new PrismNotSupportedException("Unknown matrix compression \"" + s + "\"");
+			}
+
 			// PRISM_EXPORT_ADV
 			s = settings.getString(PrismSettings.PRISM_EXPORT_ADV);
 			if (!(s.equals("None")))
@@ -256,6 +287,8 @@ public class ProbModelChecker extends NonProbModelChecker
 		setTermCrit(other.getTermCrit());
 		setTermCritParam(other.getTermCritParam());
 		setMaxIters(other.getMaxIters());
+		setNumThreads(other.getNumThreads());
+		setMatrixCompression(other.getMatrixCompression());
 		setPrecomp(other.getPrecomp());
 		setProb0(other.getProb0());
 		setProb1(other.getProb1());
@@ -275,6 +308,8 @@ public class ProbModelChecker extends NonProbModelChecker
 		mainLog.print("termCrit = " + termCrit + " ");
 		mainLog.print("termCritParam = " + termCritParam + " ");
 		mainLog.print("maxIters = " + maxIters + " ");
+		mainLog.print("numThreads = " + numThreads + " ");
+		mainLog.print("matrixCompression = " + matrixCompression + " ");
 		mainLog.print("precomp = " + precomp + " ");
 		mainLog.print("prob0 = " + prob0 + " ");
 		mainLog.print("prob1 = " + prob1 + " ");
@@ -345,6 +380,24 @@ public class ProbModelChecker extends NonProbModelChecker
 		this.maxIters = maxIters;
 	}
 
+	/**
+	 * Set number of threads used for (parallelisable) numerical solution methods,
+	 * i.e. the Power/Jacobi methods and value iteration.
+	 */
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = numThreads;
+	}
+
+	/**
+	 * Set the encoding used to compress the transition matrix for value iteration
+	 * (see {@link CompressedSparseMatrix}); null means no compression.
+	 */
+	public void setMatrixCompression(CompressedSparseMatrix.Encoding matrixCompression)
+	{
+		this.matrixCompression = matrixCompression;
+	}
+
 	/**
 	 * Set whether or not to use precomputation (Prob0, Prob1, etc.).
 	 */
@@ -443,6 +496,16 @@ public class ProbModelChecker extends NonProbModelChecker
 		return maxIters;
 	}
 
+	public int getNumThreads()
+	{
+		return numThreads;
+	}
+
+	public CompressedSparseMatrix.Encoding getMatrixCompression()
+	{
+		return matrixCompression;
+	}
+
 	public boolean getPrecomp()
 	{
 		return precomp;
@@ -481,6 +544,124 @@ public class ProbModelChecker extends NonProbModelChecker
 		return errorOnNonConverge;
 	}
 
+	// Matrix compression for value iteration
+
+	/**
+	 * Get a copy of a DTMC with the transition matrix compressed for value iteration,
+	 * if requested (see {@link #setMatrixCompression}), or the DTMC itself otherwise
+	 * (or if it cannot be compressed with the requested encoding).
+	 */
+	protected DTMC compressForIteration(DTMC dtmc)
+	{
+		return compressForIteration(dtmc, false);
+	}
+
+	/**
+	 * Get a copy of a DTMC with the transition matrix compressed for value iteration,
+	 * as for {@link #compressForIteration(DTMC)}, but, if {@code exact} is true,
+	 * only using an encoding that represents the probabilities exactly
+	 * (as required for methods that provide guaranteed error bounds).
+	 */
+	protected DTMC compressForIteration(DTMC dtmc, boolean exact)
+	{
+		if (matrixCompression == null || !checkMatrixCompressionExact(exact)) {
+			return dtmc;
+		}
+		Model cached = getCachedCompressedModel(dtmc);
+		if (cached instanceof DTMCSparseCompressed) {
+			return (DTMCSparseCompressed) cached;
+		}
+		try {
+			long timer = System.currentTimeMillis();
+			DTMCSparseCompressed compressed = new DTMCSparseCompressed(dtmc, matrixCompression);
+			printMatrixCompressionInfo(compressed.getMatrix(), System.currentTimeMillis() - timer);
+			compressedModels.put(dtmc, compressed);
+			return compressed;
+		} catch (PrismException e) {
+			mainLog.printWarning("Not compressing matrix: " + e.getMessage());
+			return dtmc;
+		}
+	}
+
+	/**
+	 * Get a copy of an MDP with the transition matrix compressed for value iteration,
+	 * if requested (see {@link #setMatrixCompression}), or the MDP itself otherwise
+	 * (or if it cannot be compressed with the requested encoding).
+	 */
+	protected MDP compressForIteration(MDP mdp)
+	{
+		return compressForIteration(mdp, false);
+	}
+
+	/**
+	 * Get a copy of an MDP with the transition matrix compressed for value iteration,
+	 * as for {@link #compressForIteration(MDP)}, but, if {@code exact} is true,
+	 * only using an encoding that represents the probabilities exactly
+	 * (as required for methods that provide guaranteed error bounds).
+	 */
+	protected MDP compressForIteration(MDP mdp, boolean exact)
+	{
+		if (matrixCompression == null || !checkMatrixCompressionExact(exact)) {
+			return mdp;
+		}
+		Model cached = getCachedCompressedModel(mdp);
+		if (cached instanceof MDPSparseCompressed) {
+			return (MDPSparseCompressed) cached;
+		}
+		try {
+			long timer = System.currentTimeMillis();
+			MDPSparseCompressed compressed = new MDPSparseCompressed(mdp, matrixCompression);
+			printMatrixCompressionInfo(compressed.getMatrix(), System.currentTimeMillis() - timer);
+			compressedModels.put(mdp, compressed);
+			return compressed;
+		} catch (PrismException e) {
+			mainLog.printWarning("Not compressing matrix: " + e.getMessage());
+			return mdp;
+		}
+	}
+
+	/**
+	 * Get the compressed copy of a model previously created by {@link #compressForIteration},
+	 * if there is one for the currently requested encoding, or null if not.
+	 * As a sanity check (models are assumed not to change once they are being model checked),
+	 * the copy is discarded if the number of states does not match.
+	 */
+	private Model getCachedCompressedModel(Model model)
+	{
+		Model cached = compressedModels.get(model);
+		if (cached == null || cached.getNumStates() != model.getNumStates()) {
+			return null;
+		}
+		CompressedSparseMatrix matrix = null;
+		if (cached instanceof DTMCSparseCompressed) {
+			matrix = ((DTMCSparseCompressed) cached).getMatrix();
+		} else if (cached instanceof MDPSparseCompressed) {
+			matrix = ((MDPSparseCompressed) cached).getMatrix();
+		}
+		return (matrix != null && matrix.getEncoding() == matrixCompression) ? cached : null;
+	}
+
+	/**
+	 * Check whether the requested matrix compression can be used,
+	 * given whether or not an exact encoding is required (printing a note if not).
+	 */
+	private boolean checkMatrixCompressionExact(boolean exact)
+	{
+		if (exact && matrixCompression == CompressedSparseMatrix.Encoding.FLOAT) {
+			mainLog.println("Note: Not compressing matrix, since float encoding is not exact (as required for guaranteed error bounds).");
+			return false;
+		}
+		return true;
+	}
+
+	private void printMatrixCompressionInfo(CompressedSparseMatrix matrix, long timer)
+	{
+		String encoding = matrix.getEncoding() == CompressedSparseMatrix.Encoding.FLOAT ? "float" : "dictionary of " + matrix.getDictionarySize();
+		double bytesPerTransition = matrix.getNumTransitions() == 0 ? 0 : ((double) matrix.getNumBytes()) / matrix.getNumTransitions();
+		mainLog.print("Compressed matrix (" + encoding + " probabilities, ");
+		mainLog.print(PrismUtils.formatDouble2dp(bytesPerTransition) + " bytes/transition) in " + timer / 1000.0 + " seconds.\n");
+	}
+
 	// Model checking functions
 
 	@Override
@@ -920,6 +1101,44 @@ public class ProbModelChecker extends NonProbModelChecker
 		return constructRewards.buildRewardStructure(model, rewardGen, r);
 	}
 
+	/**
+	 * Construct the reward structures referred to by R operators in an expression,
+	 * which need to be preserved by bisimulation minimisation.
+	 */
+	@Override
+	protected List<Rewards> constructRewardsForBisimulation(Model model, Expression expr) throws PrismException
+	{
+		if (rewardGen == null) {
+			return new ArrayList<Rewards>();
+		}
+		// Find (indices of) reward structures
+		Set<Integer> rewardIndices = new LinkedHashSet<Integer>();
+		expr.accept(new ASTTraverse()
+		{
+			public void visitPost(ExpressionReward e) throws PrismLangException
+			{
+				try {
+					rewardIndices.add(e.getRewardStructIndexByIndexObject(rewardGen, constantValues));
+				} catch (PrismException ex) {
+					throw new PrismLangException(ex.getMessage(), e);
+				}
+			}
+		});
+		// Build them
+		List<Rewards> rewardsList = new ArrayList<Rewards>();
+		if (!rewardIndices.isEmpty()) {
+			// The rewards for the minimised model are looked up for the representative of each block
+			if (!rewardGen.isRewardLookupSupported(RewardLookup.BY_STATE)) {
+				throw new PrismNotSupportedException("Bisimulation minimisation with rewards is only supported for rewards defined on states");
+			}
+			mainLog.println("Building reward structure(s) to be preserved by bisimulation...");
+			for (int r : rewardIndices) {
+				rewardsList.add(constructRewards(model, r));
+			}
+		}
+		return rewardsList;
+	}
+
 	/**
 	 * Compute rewards for the contents of an R operator.
 	 */
@@ -34,6 +34,7 @@ import java.util.function.IntPredicate;
 
 import prism.PrismComponent;
 import prism.PrismException;
+import prism.PrismSettings;
 
 /**
  * Abstract class for (explicit) classes that compute (B)SCCs,
@@ -46,12 +47,14 @@ public abstract class SCCComputer extends PrismComponent
 
 	// Method used for finding (B)SCCs
 	public enum SCCMethod {
-		TARJAN;
+		TARJAN, TARJAN_RECURSIVE;
 		public String fullName()
 		{
 			switch (this) {
 			case TARJAN:
 				return "Tarjan";
+			case TARJAN_RECURSIVE:
+				return "Tarjan-recursive";
 			default:
 				return this.toString();
 			}
@@ -63,8 +66,28 @@ public abstract class SCCComputer extends PrismComponent
 	 */
 	public static SCCComputer createSCCComputer(PrismComponent parent, Model model, SCCConsumer consumer) throws PrismException
 	{
-		// Only one algorithm implemented currently
-		return new SCCComputerTarjan(parent, model, consumer);
+		SCCMethod sccMethod = SCCMethod.TARJAN;
+		if (parent != null && parent.getSettings() != null) {
+			String s = parent.getSettings().getString(PrismSettings.PRISM_EXPLICIT_SCC_METHOD);
+			if (s.equals(SCCMethod.TARJAN_RECURSIVE.fullName())) {
+				sccMethod = SCCMethod.TARJAN_RECURSIVE;
+			}
+		}
+		return createSCCComputer(parent, sccMethod, model, consumer);
+	}
+
+	/**
+	 * Static method to create a new SCCComputer object, using the given method.
+	 */
+	public static SCCComputer createSCCComputer(PrismComponent parent, SCCMethod sccMethod, Model model, SCCConsumer consumer) throws PrismException
+	{
+		switch (sccMethod) {
+		case TARJAN_RECURSIVE:
+			return new SCCComputerTarjan(parent, model, consumer);
+		case TARJAN:
+		default:
+			return new SCCComputerTarjanIterative(parent, model, consumer);
+		}
 	}
 
 	/**
@@ -37,7 +37,7 @@ import prism.PrismComponent;
 import prism.PrismException;
 
 /**
- * Tarjan's SCC algorithm operating on a Model object.
+ * Tarjan's SCC algorithm operating on a Model object (recursive implementation).
  */
 public class SCCComputerTarjan extends SCCComputer
 {
@@ -0,0 +1,240 @@
+//==============================================================================
+//	
+//	Copyright (c) 2002-
+//	Authors:
+//	* Christian von Essen <christian.vonessen@imag.fr> (Verimag, Grenoble)
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+package explicit;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+
+import prism.PrismComponent;
+import prism.PrismException;
+
+/**
+ * Tarjan's SCC algorithm operating on a Model object,
+ * implemented iteratively (with an explicit call stack) over primitive arrays.
+ * <br>
+ * This reports exactly the same SCCs, in the same order, as the recursive
+ * implementation in {@link SCCComputerTarjan}, but does not overflow the Java stack
+ * for models with long paths, and does not create per-state objects
+ * (other than the successor iterators provided by the model).
+ */
+public class SCCComputerTarjanIterative extends SCCComputer
+{
+	/** Initial capacity of the stacks (grown as needed) */
+	private static final int INITIAL_STACK_SIZE = 1024;
+
+	/* The model to compute (B)SCCs for */
+	private Model model;
+	/* Number of nodes (model states) */
+	private int numNodes;
+
+	/* Next index to give to a node */
+	private int nextIndex;
+	/* Index of each node (order of discovery), -1 if not yet visited */
+	private int[] index;
+	/* Lowlink of each node */
+	private int[] lowlink;
+	/* Nodes currently on the (SCC) stack. */
+	private BitSet onStack;
+	/* Nodes with a self-loop */
+	private BitSet hadSelfloop;
+	/* Stack of nodes (for SCCs) */
+	private int[] stack;
+	private int stackSize;
+	/* Call stack: nodes currently being explored, and their successor iterators */
+	private int[] callStack;
+	private SuccessorsIterator[] callStackSuccs;
+	private int callStackSize;
+
+	/** Should we filter trivial SCCs? */
+	private boolean filterTrivialSCCs;
+	private IntPredicate restrict;
+
+	/**
+	 * Build (B)SCC computer for a given model.
+	 */
+	public SCCComputerTarjanIterative(PrismComponent parent, Model model, SCCConsumer consumer) throws PrismException
+	{
+		super(parent, consumer);
+		this.model = model;
+		this.numNodes = model.getNumStates();
+	}
+
+	// Methods for SCCComputer interface
+
+	@Override
+	public void computeSCCs(boolean filterTrivialSCCs, IntPredicate restrict) throws PrismException
+	{
+		this.filterTrivialSCCs = filterTrivialSCCs;
+		consumer.notifyStart(model);
+		this.restrict = restrict;
+		tarjan();
+		consumer.notifyDone();
+	}
+
+	// SCC Computation
+
+	/**
+	 * Execute Tarjan's algorithm. Determine maximal strongly connected components
+	 * (SCCS) for the graph of the model and notify the consumer.
+	 */
+	public void tarjan() throws PrismException
+	{
+		// (Re-)initialise storage
+		nextIndex = 0;
+		index = new int[numNodes];
+		Arrays.fill(index, -1);
+		lowlink = new int[numNodes];
+		onStack = new BitSet();
+		hadSelfloop = new BitSet();
+		int initialStackSize = Math.min(numNodes, INITIAL_STACK_SIZE);
+		stack = new int[initialStackSize];
+		stackSize = 0;
+		callStack = new int[initialStackSize];
+		callStackSuccs = new SuccessorsIterator[initialStackSize];
+		callStackSize = 0;
+
+		for (int i = 0; i < numNodes; i++) {
+			if (restrict != null && !restrict.test(i))
+				continue; // skip state if not one of the relevant states
+			if (index[i] == -1)
+				tarjan(i);
+		}
+
+		// Free storage
+		index = lowlink = stack = callStack = null;
+		callStackSuccs = null;
+		onStack = hadSelfloop = null;
+	}
+
+	/**
+	 * Explore all nodes reachable from node {@code i} (which has not yet been visited),
+	 * equivalently to the recursive version of Tarjan's algorithm.
+	 */
+	private void tarjan(int i) throws PrismException
+	{
+		visit(i);
+		while (callStackSize > 0) {
+			final int v = callStack[callStackSize - 1];
+			final SuccessorsIterator it = callStackSuccs[callStackSize - 1];
+
+			// Explore successors of v, until we find one that has not been visited yet
+			boolean descend = false;
+			while (it.hasNext()) {
+				int e = it.nextInt();
+
+				if (e == v) {
+					hadSelfloop.set(v);
+					continue;
+				}
+
+				if (restrict != null && !restrict.test(e)) {
+					continue; // ignore edge to state that is not relevant
+				}
+
+				if (index[e] == -1) {
+					// "recursive call": explore e, then resume v
+					visit(e);
+					descend = true;
+					break;
+				} else if (onStack.get(e)) {
+					lowlink[v] = Math.min(lowlink[v], index[e]);
+				}
+			}
+			if (descend) {
+				continue;
+			}
+
+			// All successors of v done: "return" to its caller
+			callStackSuccs[--callStackSize] = null;
+			if (lowlink[v] == index[v]) {
+				foundSCC(v);
+			}
+			if (callStackSize > 0) {
+				final int u = callStack[callStackSize - 1];
+				lowlink[u] = Math.min(lowlink[u], lowlink[v]);
+			}
+		}
+	}
+
+	/**
+	 * Start exploring (unvisited) node {@code i}: assign its index, push it on the stacks.
+	 */
+	private void visit(int i)
+	{
+		index[i] = nextIndex;
+		lowlink[i] = nextIndex;
+		nextIndex++;
+		if (stackSize == stack.length) {
+			stack = Arrays.copyOf(stack, grow(stack.length));
+		}
+		stack[stackSize++] = i;
+		onStack.set(i);
+		if (callStackSize == callStack.length) {
+			callStack = Arrays.copyOf(callStack, grow(callStack.length));
+			callStackSuccs = Arrays.copyOf(callStackSuccs, callStack.length);
+		}
+		callStack[callStackSize] = i;
+		callStackSuccs[callStackSize] = model.getSuccessors(i);
+		callStackSize++;
+	}
+
+	/**
+	 * Pop the SCC with root {@code i} from the stack and notify the consumer
+	 * (unless it is trivial and these are being filtered).
+	 */
+	private void foundSCC(int i) throws PrismException
+	{
+		// this is a singleton SCC if the top of the stack equals i
+		boolean singletonSCC = (stack[stackSize - 1] == i);
+		if (singletonSCC && filterTrivialSCCs) {
+			if (!hadSelfloop.get(i)) { // singleton SCC & no selfloop -> trivial
+				stackSize--;
+				onStack.clear(i);
+				return;
+			}
+		}
+
+		int n;
+		consumer.notifyStartSCC();
+		do {
+			n = stack[--stackSize];
+			onStack.clear(n);
+			consumer.notifyStateInSCC(n);
+		} while (n != i);
+		consumer.notifyEndSCC();
+	}
+
+	/**
+	 * New capacity for a stack of the given size (which is full).
+	 * The stacks never contain more than {@code numNodes} elements.
+	 */
+	private int grow(int size)
+	{
+		return (int) Math.min(numNodes, Math.max(1L, 2L * size));
+	}
+}
@@ -519,7 +519,7 @@ public class STPGAbstrSimple extends ModelExplicit implements STPG, NondetModelS
 			public SuccessorsIterator next()
 			{
 				Distribution dist = iterator.next();
-				return SuccessorsIterator.from(dist.getSupport().iterator(), true);
+				return SuccessorsIterator.from(dist.getSupportIterator(), true);
 			}
 		});
 	}
@@ -677,8 +677,7 @@ public class STPGAbstrSimple extends ModelExplicit implements STPG, NondetModelS
 	@Override
 	public double mvMultMinMaxSingle(int s, double vect[], boolean min1, boolean min2)
 	{
-		int k;
-		double d, prob, minmax1, minmax2;
+		double d, minmax1, minmax2;
 		boolean first1, first2;
 		ArrayList<DistributionSet> step;
 
@@ -690,12 +689,7 @@ public class STPGAbstrSimple extends ModelExplicit implements STPG, NondetModelS
 			first2 = true;
 			for (Distribution distr : distrs) {
 				// Compute sum for this distribution
-				d = 0.0;
-				for (Map.Entry<Integer, Double> e : distr) {
-					k = (Integer) e.getKey();
-					prob = (Double) e.getValue();
-					d += prob * vect[k];
-				}
+				d = distr.sumOver((t, p) -> p * vect[t]);
 				// Check whether we have exceeded min/max so far
 				if (first2 || (min2 && d < minmax2) || (!min2 && d > minmax2))
 					minmax2 = d;
@@ -713,8 +707,8 @@ public class STPGAbstrSimple extends ModelExplicit implements STPG, NondetModelS
 	@Override
 	public List<Integer> mvMultMinMaxSingleChoices(int s, double vect[], boolean min1, boolean min2, double val)
 	{
-		int j, k;
-		double d, prob, minmax2;
+		int j;
+		double d, minmax2;
 		boolean first2;
 		List<Integer> res;
 		ArrayList<DistributionSet> step;
@@ -730,12 +724,7 @@ public class STPGAbstrSimple extends ModelExplicit implements STPG, NondetModelS
 			first2 = true;
 			for (Distribution distr : distrs) {
 				// Compute sum for this distribution
-				d = 0.0;
-				for (Map.Entry<Integer, Double> e : distr) {
-					k = (Integer) e.getKey();
-					prob = (Double) e.getValue();
-					d += prob * vect[k];
-				}
+				d = distr.sumOver((t, p) -> p * vect[t]);
 				// Check whether we have exceeded min/max so far
 				if (first2 || (min2 && d < minmax2) || (!min2 && d > minmax2))
 					minmax2 = d;
@@ -819,8 +808,8 @@ public class STPGAbstrSimple extends ModelExplicit implements STPG, NondetModelS
 	@Override
 	public double mvMultRewMinMaxSingle(int s, double vect[], STPGRewards rewards, boolean min1, boolean min2, int adv[])
 	{
-		int dsIter, dIter, k;
-		double d, prob, minmax1, minmax2;
+		int dsIter, dIter;
+		double d, minmax1, minmax2;
 		boolean first1, first2;
 		ArrayList<DistributionSet> step;
 
@@ -837,11 +826,7 @@ public class STPGAbstrSimple extends ModelExplicit implements STPG, NondetModelS
 				dIter++;
 				// Compute sum for this distribution
 				d = rewards.getNestedTransitionReward(s, dsIter, dIter);
-				for (Map.Entry<Integer, Double> e : distr) {
-					k = (Integer) e.getKey();
-					prob = (Double) e.getValue();
-					d += prob * vect[k];
-				}
+				d += distr.sumOver((t, p) -> p * vect[t]);
 				// Check whether we have exceeded min/max so far
 				if (first2 || (min2 && d < minmax2) || (!min2 && d > minmax2))
 					minmax2 = d;
@@ -860,8 +845,8 @@ public class STPGAbstrSimple extends ModelExplicit implements STPG, NondetModelS
 	@Override
 	public List<Integer> mvMultRewMinMaxSingleChoices(int s, double vect[], STPGRewards rewards, boolean min1, boolean min2, double val)
 	{
-		int dsIter, dIter, k;
-		double d, prob, minmax2;
+		int dsIter, dIter;
+		double d, minmax2;
 		boolean first2;
 		List<Integer> res;
 		ArrayList<DistributionSet> step;
@@ -880,11 +865,7 @@ public class STPGAbstrSimple extends ModelExplicit implements STPG, NondetModelS
 				dIter++;
 				// Compute sum for this distribution
 				d = rewards.getNestedTransitionReward(s, dsIter, dIter);
-				for (Map.Entry<Integer, Double> e : distr) {
-					k = (Integer) e.getKey();
-					prob = (Double) e.getValue();
-					d += prob * vect[k];
-				}
+				d += distr.sumOver((t, p) -> p * vect[t]);
 				// Check whether we have exceeded min/max so far
 				if (first2 || (min2 && d < minmax2) || (!min2 && d > minmax2))
 					minmax2 = d;
@@ -40,6 +40,7 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.Vector;
 
+import explicit.rewards.Rewards;
 import parser.State;
 import parser.Values;
 import parser.ast.Expression;
@@ -127,6 +128,12 @@ public class StateModelChecker extends PrismComponent
 	// Do interval iteration?
 	protected boolean doIntervalIteration = false;
 
+	// Do optimistic value iteration?
+	protected boolean doOptimisticIteration = false;
+
+	// Solution of last bounded until computation, to continue from in an incremental sweep over bounds (null if unused)
+	protected BoundSweepCache boundSweepCache = null;
+
 	// Model info (for reward structures, etc.)
 	protected ModulesFile modulesFile = null;
 	protected ModelInfo modelInfo = null;
@@ -161,6 +168,7 @@ public class StateModelChecker extends PrismComponent
 		if (settings != null) {
 			verbosity = settings.getBoolean(PrismSettings.PRISM_VERBOSE) ? 10 : 1;
 			setDoIntervalIteration(settings.getBoolean(PrismSettings.PRISM_INTERVAL_ITER));
+			setDoOptimisticIteration(settings.getBoolean(PrismSettings.PRISM_OPTIMISTIC_ITER));
 			setDoTopologicalValueIteration(settings.getBoolean(PrismSettings.PRISM_TOPOLOGICAL_VI));
 			setDoPmaxQuotient(settings.getBoolean(PrismSettings.PRISM_PMAX_QUOTIENT));
 		}
@@ -227,7 +235,9 @@ public class StateModelChecker extends PrismComponent
 		setRestrictStratToReach(other.getRestrictStratToReach());
 		setDoBisim(other.getDoBisim());
 		setDoIntervalIteration(other.getDoIntervalIteration());
+		setDoOptimisticIteration(other.getDoOptimisticIteration());
 		setDoPmaxQuotient(other.getDoPmaxQuotient());
+		setBoundSweepCache(other.getBoundSweepCache());
 	}
 
 	/**
@@ -320,6 +330,15 @@ public class StateModelChecker extends PrismComponent
 		this.doBisim = doBisim;
 	}
 
+	/**
+	 * Specify where to store/retrieve solutions of bounded until computations,
+	 * for an incremental sweep over increasing bounds (null means none).
+	 */
+	public void setBoundSweepCache(BoundSweepCache boundSweepCache)
+	{
+		this.boundSweepCache = boundSweepCache;
+	}
+
 	/**
 	 * Specify whether or not to do topological value iteration.
 	 */
@@ -344,6 +363,14 @@ public class StateModelChecker extends PrismComponent
 		this.doIntervalIteration = doIntervalIteration;
 	}
 
+	/**
+	 * Specify whether or not to use optimistic value iteration.
+	 */
+	public void setDoOptimisticIteration(boolean doOptimisticIteration)
+	{
+		this.doOptimisticIteration = doOptimisticIteration;
+	}
+
 	// Get methods for flags/settings
 
 	public int getVerbosity()
@@ -423,6 +450,14 @@ public class StateModelChecker extends PrismComponent
 		return doBisim;
 	}
 
+	/**
+	 * Where to store/retrieve solutions of bounded until computations (null means none).
+	 */
+	public BoundSweepCache getBoundSweepCache()
+	{
+		return boundSweepCache;
+	}
+
 	/**
 	 * Whether or not to do topological value iteration.
 	 */
@@ -447,6 +482,14 @@ public class StateModelChecker extends PrismComponent
 		return doIntervalIteration;
 	}
 
+	/**
+	 * Whether or not to use optimistic value iteration.
+	 */
+	public boolean getDoOptimisticIteration()
+	{
+		return doOptimisticIteration;
+	}
+
 	/** Get the constant values (both from the modules file and the properties file) */
 	public Values getConstantValues()
 	{
@@ -551,8 +594,9 @@ public class StateModelChecker extends PrismComponent
 			ArrayList<String> propNames = new ArrayList<String>();
 			ArrayList<BitSet> propBSs = new ArrayList<BitSet>();
 			Expression exprNew = checkMaximalPropositionalFormulas(model, expr.deepCopy(), propNames, propBSs);
+			List<Rewards> rewardsList = constructRewardsForBisimulation(model, expr);
 			Bisimulation bisim = new Bisimulation(this);
-			model = bisim.minimise(model, propNames, propBSs);
+			model = bisim.minimise(model, propNames, propBSs, rewardsList);
 			mainLog.println("Modified property: " + exprNew);
 			expr = exprNew;
 		}
@@ -578,6 +622,16 @@ public class StateModelChecker extends PrismComponent
 		return result;
 	}
 
+	/**
+	 * Construct the reward structures referred to in an expression,
+	 * which need to be preserved by bisimulation minimisation.
+	 * There are none for (non-probabilistic) model checking: see {@link ProbModelChecker}.
+	 */
+	protected List<Rewards> constructRewardsForBisimulation(Model model, Expression expr) throws PrismException
+	{
+		return new ArrayList<Rewards>();
+	}
+
 	/**
 	 * Model check an expression and return a vector result values over all states.
 	 * Information about states and model constants should be attached to the model.
@@ -0,0 +1,245 @@
+//==============================================================================
+//	
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+package explicit.modelviews;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import automata.DATransitionTable;
+import common.IterableStateSet;
+import explicit.Model;
+import explicit.SuccessorsIterator;
+import parser.State;
+import prism.PrismException;
+
+/**
+ * The reachable state space of the product of a model and a deterministic automaton (DA),
+ * for use by views of the product that compute its transitions on-the-fly
+ * (see {@link DTMCDAProduct} and {@link MDPDAProduct}).
+ * <br>
+ * Only the reachable product states are explored and stored (as indices, with the
+ * encoding {@code s * daSize + q} for model state s and DA state q); no transitions are stored.
+ * Product states are numbered in the order in which they are found by breadth-first search.
+ * <br>
+ * Exploration stops at product states whose DA state is a sink (all its edges are self-loops):
+ * whether a path is accepted is decided once it reaches such a state, since only that DA state
+ * is visited from then on, so these states are made absorbing (see {@link #isSinkState(int)})
+ * rather than exploring the part of the model that is reachable from them.
+ */
+public class DAProductStates
+{
+	/** The model */
+	private Model model;
+	/** Compiled transition table of the DA */
+	private DATransitionTable daTable;
+	/** Encoding of the DA's APs (labels) satisfied by each model state */
+	private long[] apCodes;
+	/** Number of states of the DA */
+	private int daSize;
+	/** Sink states of the DA (where exploration stops) */
+	private BitSet daSinks;
+	/** Number of (reachable) product states */
+	private int numStates;
+	/** Number of initial product states (these are numbered first) */
+	private int numInitialStates;
+	/** Map from encoded product states to product state indices (or -1) */
+	private int[] map;
+	/** Map from product state indices to encoded product states */
+	private int[] invMap;
+
+	/**
+	 * Explore the product of a model and a DA, starting from the states
+	 * (s, delta(q_0, L(s))) for each model state s of {@code statesOfInterest}.
+	 * @param model The model
+	 * @param daTable Compiled transition table of the DA
+	 * @param daStart The start state of the DA
+	 * @param apCodes Encoding (see {@link DATransitionTable#getCode(BitSet)}) of the DA's APs satisfied by each model state
+	 * @param daSinks the sink states of the DA, where exploration stops (null = none)
+	 * @param statesOfInterest the states of the model for which the product is needed (null = all states)
+	 */
+	public DAProductStates(Model model, DATransitionTable daTable, int daStart, long[] apCodes, BitSet daSinks, BitSet statesOfInterest) throws PrismException
+	{
+		this.model = model;
+		this.daTable = daTable;
+		this.apCodes = apCodes;
+		this.daSinks = daSinks == null ? new BitSet() : daSinks;
+		daSize = daTable.size();
+		int modelNumStates = model.getNumStates();
+		try {
+			map = new int[Math.multiplyExact(modelNumStates, daSize)];
+		} catch (ArithmeticException e) {
+			throw new PrismException("Size of product state space of model and automaton is too large for explicit engine");
+		}
+		Arrays.fill(map, -1);
+		invMap = new int[Math.max(16, Math.min(map.length, 1024))];
+
+		// Initial states
+		for (int s_0 : new IterableStateSet(statesOfInterest, modelNumStates)) {
+			int q_0 = daTable.getEdgeDest(daStart, apCodes[s_0]);
+			if (q_0 < 0) {
+				throw new PrismException("The deterministic automaton is not complete (state " + daStart + ")");
+			}
+			addState(s_0 * daSize + q_0);
+		}
+		numInitialStates = numStates;
+
+		// Breadth-first search (invMap doubles as the queue)
+		for (int i = 0; i < numStates; i++) {
+			int s_1 = invMap[i] / daSize;
+			int q_1 = invMap[i] % daSize;
+			if (this.daSinks.get(q_1)) {
+				continue;
+			}
+			SuccessorsIterator it = model.getSuccessors(s_1);
+			while (it.hasNext()) {
+				int s_2 = it.nextInt();
+				int q_2 = daTable.getEdgeDest(q_1, apCodes[s_2]);
+				if (q_2 < 0) {
+					throw new PrismException("The deterministic automaton is not complete (state " + q_1 + ")");
+				}
+				if (map[s_2 * daSize + q_2] == -1) {
+					addState(s_2 * daSize + q_2);
+				}
+			}
+		}
+		invMap = Arrays.copyOf(invMap, numStates);
+	}
+
+	/**
+	 * Add a (new) product state, given in encoded form.
+	 */
+	private void addState(int prodState)
+	{
+		if (numStates == invMap.length) {
+			invMap = Arrays.copyOf(invMap, 2 * invMap.length);
+		}
+		invMap[numStates] = prodState;
+		map[prodState] = numStates++;
+	}
+
+	/**
+	 * Get the model.
+	 */
+	public Model getModel()
+	{
+		return model;
+	}
+
+	/**
+	 * Get the number of states of the DA.
+	 */
+	public int getDASize()
+	{
+		return daSize;
+	}
+
+	/**
+	 * Get the number of (reachable) product states.
+	 */
+	public int getNumStates()
+	{
+		return numStates;
+	}
+
+	/**
+	 * Get the number of initial product states (these are states 0, ..., n-1).
+	 */
+	public int getNumInitialStates()
+	{
+		return numInitialStates;
+	}
+
+	/**
+	 * Get the map from product state indices to states (s,q), encoded as (s * daSize + q).
+	 */
+	public int[] getInvMap()
+	{
+		return invMap;
+	}
+
+	/**
+	 * Get the model state for product state {@code i}.
+	 */
+	public int getModelState(int i)
+	{
+		return invMap[i] / daSize;
+	}
+
+	/**
+	 * Get the DA state for product state {@code i}.
+	 */
+	public int getDAState(int i)
+	{
+		return invMap[i] % daSize;
+	}
+
+	/**
+	 * Is product state {@code i} absorbing, because its DA state is a sink?
+	 * The successors of such states are not explored; views of the product give them a self-loop instead.
+	 */
+	public boolean isSinkState(int i)
+	{
+		return daSinks.get(invMap[i] % daSize);
+	}
+
+	/**
+	 * Get the index of the successor of product state {@code i}
+	 * that corresponds to the model successor {@code t} (of the model state for {@code i}).
+	 */
+	public int getSuccessor(int i, int t)
+	{
+		return map[t * daSize + daTable.getEdgeDest(invMap[i] % daSize, apCodes[t])];
+	}
+
+	/**
+	 * Get a list of states for the product, computed on demand from those of the model
+	 * (with the DA state as an extra first variable); null if the model has no states list.
+	 */
+	public List<State> getStatesList()
+	{
+		final List<State> modelStatesList = model.getStatesList();
+		if (modelStatesList == null) {
+			return null;
+		}
+		return new AbstractList<State>()
+		{
+			@Override
+			public State get(int i)
+			{
+				return new State(new State(1).setValue(0, getDAState(i)), modelStatesList.get(getModelState(i)));
+			}
+
+			@Override
+			public int size()
+			{
+				return numStates;
+			}
+		};
+	}
+}
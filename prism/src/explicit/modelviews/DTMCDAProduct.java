@@ -0,0 +1,226 @@
+//==============================================================================
+//	
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+package explicit.modelviews;
+
+import java.util.AbstractMap;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+
+import common.IterableStateSet;
+import common.iterable.MappingIterator;
+import common.iterable.SingletonIterator;
+import explicit.DTMC;
+import explicit.SuccessorsIterator;
+import parser.State;
+import parser.Values;
+import parser.VarList;
+
+/**
+ * A view of the product of a DTMC and a deterministic automaton (DA),
+ * whose transitions are computed on-the-fly from those of the DTMC,
+ * rather than being stored (see {@link DAProductStates}).
+ * Product states whose DA state is a sink are absorbing.
+ */
+public class DTMCDAProduct extends DTMCView
+{
+	private DTMC model;
+	private DAProductStates productStates;
+	private VarList varList;
+	private Map<String, BitSet> labels = new TreeMap<String, BitSet>();
+
+
+
+	/**
+	 * @param model the DTMC
+	 * @param productStates the (explored) product state space
+	 * @param varList variable list for the product (or null)
+	 */
+	public DTMCDAProduct(final DTMC model, final DAProductStates productStates, final VarList varList)
+	{
+		this.model = model;
+		this.productStates = productStates;
+		this.varList = varList;
+	}
+
+	public DTMCDAProduct(final DTMCDAProduct product)
+	{
+		super(product);
+		model = product.model;
+		productStates = product.productStates;
+		varList = product.varList;
+		labels = new TreeMap<String, BitSet>(product.labels);
+	}
+
+
+
+	//--- Cloneable ---
+
+	@Override
+	public DTMCDAProduct clone()
+	{
+		return new DTMCDAProduct(this);
+	}
+
+
+
+	//--- Model ---
+
+	@Override
+	public int getNumStates()
+	{
+		return productStates.getNumStates();
+	}
+
+	@Override
+	public int getNumInitialStates()
+	{
+		return productStates.getNumInitialStates();
+	}
+
+	@Override
+	public Iterable<Integer> getInitialStates()
+	{
+		return new IterableStateSet(productStates.getNumInitialStates());
+	}
+
+	@Override
+	public int getFirstInitialState()
+	{
+		return productStates.getNumInitialStates() > 0 ? 0 : -1;
+	}
+
+	@Override
+	public boolean isInitialState(final int state)
+	{
+		return state < productStates.getNumInitialStates();
+	}
+
+	@Override
+	public List<State> getStatesList()
+	{
+		return productStates.getStatesList();
+	}
+
+	@Override
+	public VarList getVarList()
+	{
+		return varList;
+	}
+
+	@Override
+	public Values getConstantValues()
+	{
+		return model.getConstantValues();
+	}
+
+	@Override
+	public BitSet getLabelStates(final String name)
+	{
+		return labels.get(name);
+	}
+
+	@Override
+	public Set<String> getLabels()
+	{
+		return labels.keySet();
+	}
+
+	@Override
+	public boolean hasLabel(String name)
+	{
+		return labels.containsKey(name);
+	}
+
+	@Override
+	public SuccessorsIterator getSuccessors(final int state)
+	{
+		if (isSelfLoop(state)) {
+			return SuccessorsIterator.fromSingleton(state);
+		}
+		final SuccessorsIterator successors = model.getSuccessors(productStates.getModelState(state));
+		return SuccessorsIterator.from(new MappingIterator.FromIntToInt(successors, t -> productStates.getSuccessor(state, t)), successors.successorsAreDistinct());
+	}
+
+	/**
+	 * Add a label, given as the set of (product) states satisfying it.
+	 */
+	public void addLabel(final String name, final BitSet states)
+	{
+		labels.put(name, states);
+	}
+
+
+
+	//--- DTMC ---
+
+	@Override
+	public Iterator<Entry<Integer, Double>> getTransitionsIterator(final int state)
+	{
+		if (isSelfLoop(state)) {
+			return new SingletonIterator.Of<Entry<Integer, Double>>(new AbstractMap.SimpleImmutableEntry<>(state, 1.0));
+		}
+		return new MappingIterator.From<>(model.getTransitionsIterator(productStates.getModelState(state)),
+				e -> new AbstractMap.SimpleImmutableEntry<>(productStates.getSuccessor(state, e.getKey()), e.getValue()));
+	}
+
+	@Override
+	public void forEachTransition(final int state, final TransitionConsumer consumer)
+	{
+		if (isSelfLoop(state)) {
+			consumer.accept(state, state, 1.0);
+			return;
+		}
+		model.forEachTransition(productStates.getModelState(state), (s, t, prob) -> consumer.accept(state, productStates.getSuccessor(state, t), prob));
+	}
+
+
+
+	/**
+	 * Does product state {@code state} just have a self-loop
+	 * (because its DA state is a sink, or it is a deadlock state that has been fixed)?
+	 */
+	private boolean isSelfLoop(final int state)
+	{
+		return productStates.isSinkState(state) || (fixedDeadlocks && deadlockStates.get(state));
+	}
+
+
+
+	//--- DTMCView ---
+
+	@Override
+	protected void fixDeadlocks()
+	{
+		assert !fixedDeadlocks : "deadlocks already fixed";
+		// Deadlock states (stored in deadlockStates) get self-loops from now on
+	}
+}
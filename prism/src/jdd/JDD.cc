@@ -129,6 +129,48 @@ JNIEXPORT void JNICALL Java_jdd_JDD_DD_1PrintCacheInfo(JNIEnv *env, jclass cls)
 	DD_PrintCacheInfo(ddman);
 }
 
+//------------------------------------------------------------------------------
+
+JNIEXPORT jboolean JNICALL Java_jdd_JDD_DD_1MakeVarGroup(JNIEnv *env, jclass cls, jint low, jint size, jboolean fixed)
+{
+	return DD_MakeVarGroup(ddman, low, size, fixed);
+}
+
+//------------------------------------------------------------------------------
+
+JNIEXPORT void JNICALL Java_jdd_JDD_DD_1FreeVarGroups(JNIEnv *env, jclass cls)
+{
+	DD_FreeVarGroups(ddman);
+}
+
+//------------------------------------------------------------------------------
+
+JNIEXPORT jboolean JNICALL Java_jdd_JDD_DD_1ReorderSift(JNIEnv *env, jclass cls, jboolean converge)
+{
+	return DD_ReorderSift(ddman, converge);
+}
+
+//------------------------------------------------------------------------------
+
+JNIEXPORT jint JNICALL Java_jdd_JDD_DD_1GetVarLevel(JNIEnv *env, jclass cls, jint i)
+{
+	return DD_GetVarLevel(ddman, i);
+}
+
+//------------------------------------------------------------------------------
+
+JNIEXPORT jboolean JNICALL Java_jdd_JDD_DD_1RestoreIndexOrder(JNIEnv *env, jclass cls)
+{
+	return DD_RestoreIndexOrder(ddman);
+}
+
+//------------------------------------------------------------------------------
+
+JNIEXPORT jlong JNICALL Java_jdd_JDD_DD_1GetNumLiveNodes(JNIEnv *env, jclass cls)
+{
+	return DD_GetNumLiveNodes(ddman);
+}
+
 //==============================================================================
 //
 //	Wrapper functions for dd_basics
@@ -48,6 +48,12 @@ public class JDD
 	static native void DD_Ref(long dd);
 	static native void DD_Deref(long dd);
 	private static native void DD_PrintCacheInfo();
+	private static native boolean DD_MakeVarGroup(int low, int size, boolean fixed);
+	private static native void DD_FreeVarGroups();
+	private static native boolean DD_ReorderSift(boolean converge);
+	private static native int DD_GetVarLevel(int i);
+	private static native boolean DD_RestoreIndexOrder();
+	private static native long DD_GetNumLiveNodes();
 	private static native boolean DD_GetErrorFlag();
 	// dd_basics
 	private static native long DD_Create();
@@ -346,6 +352,74 @@ public class JDD
 	{
 		DD_PrintCacheInfo();
 	}
+
+	/**
+	 * Create a group of dd variables (indices low, ..., low+size-1) which are
+	 * kept adjacent when the variables are reordered (see {@link #ReorderSift(boolean)}).
+	 * If {@code fixed} is true, the order of the variables within the group is also kept.
+	 * Groups can be nested, but must not overlap otherwise.
+	 * <br>[ REFS: <i>none</i>, DEREFS: <i>none</i> ]
+	 */
+	public static void MakeVarGroup(int low, int size, boolean fixed)
+	{
+		DD_MakeVarGroup(low, size, fixed);
+		checkForCuddError();
+	}
+
+	/**
+	 * remove all groups of dd variables created with {@link #MakeVarGroup(int, int, boolean)}
+	 * <br>[ REFS: <i>none</i>, DEREFS: <i>none</i> ]
+	 */
+	public static void FreeVarGroups()
+	{
+		DD_FreeVarGroups();
+	}
+
+	/**
+	 * Reorder the dd variables, to reduce the total size of all (referenced) dds,
+	 * using sifting (repeated until there is no further improvement if {@code converge} is true).
+	 * Any groups of variables (see {@link #MakeVarGroup(int, int, boolean)}) are respected.
+	 * <br>
+	 * Note: the rest of the dd code assumes that the order of the variables coincides
+	 * with the order of their indices, so {@link #RestoreIndexOrder()} must be called
+	 * before any further dd operations. The new order can be obtained beforehand using
+	 * {@link #GetVarLevel(int)}.
+	 * <br>[ REFS: <i>none</i>, DEREFS: <i>none</i> ]
+	 */
+	public static void ReorderSift(boolean converge)
+	{
+		DD_ReorderSift(converge);
+		checkForCuddError();
+	}
+
+	/**
+	 * returns the level (position in the current order) of the dd variable with index i
+	 * <br>[ REFS: <i>none</i>, DEREFS: <i>none</i> ]
+	 */
+	public static int GetVarLevel(int i)
+	{
+		return DD_GetVarLevel(i);
+	}
+
+	/**
+	 * restore the original order of the dd variables (i.e. ordered by their indices)
+	 * after reordering with {@link #ReorderSift(boolean)}
+	 * <br>[ REFS: <i>none</i>, DEREFS: <i>none</i> ]
+	 */
+	public static void RestoreIndexOrder()
+	{
+		DD_RestoreIndexOrder();
+		checkForCuddError();
+	}
+
+	/**
+	 * returns the number of live (referenced) nodes, over all dds
+	 * <br>[ REFS: <i>none</i>, DEREFS: <i>none</i> ]
+	 */
+	public static long GetNumLiveNodes()
+	{
+		return DD_GetNumLiveNodes();
+	}
 	
 	// wrapper methods for dd_basics
 
@@ -35,6 +35,12 @@
 
 //------------------------------------------------------------------------------
 
+// local function prototypes
+static DdNode *reach_step(DdNode *reach, DdNode *trans01, DdNode **rvars, DdNode **cvars, int num_vars);
+static void update_peaks(DdNode *reach, int *peak_nodes, long *peak_live_nodes);
+
+//------------------------------------------------------------------------------
+
 // Calculates states reachable from the given subset (s)
 
 JNIEXPORT jlong __jlongpointer JNICALL Java_mtbdd_PrismMTBDD_PM_1Reachability
@@ -56,7 +62,8 @@ jlong __jlongpointer s	// start state
 	
 	DdNode *reach, *frontier, *tmp;
 	bool done;
-	int iters;
+	int iters, peak_nodes = 0;
+	long peak_live_nodes = 0;
 	
 	// get PRISM options
 	int reach_method = env->CallIntMethod(prism_obj, env->GetMethodID(prism_cls, "getReachMethod", "()I"));
@@ -69,7 +76,8 @@ jlong __jlongpointer s	// start state
 	// start clocks
 	start1 = util_cpu_time();
 	
-	if (reach_method == REACH_BFS) {
+	// (chaining/saturation are the same as BFS without a partitioned relation)
+	if (reach_method != REACH_FRONTIER) {
 	
 		// initialise
 		done = false;
@@ -107,6 +115,7 @@ jlong __jlongpointer s	// start state
 			reach = tmp;
 			// output info on progress
 			if (info > 0) {
+				update_peaks(reach, &peak_nodes, &peak_live_nodes);
 				stop = util_cpu_time();
 				PM_PrintToMainLog(env, " (%.2f seconds)\n", (double)(stop - start2)/1000);
 			}
@@ -148,7 +157,7 @@ jlong __jlongpointer s	// start state
 			Cudd_Ref(tmp);
 			Cudd_Ref(reach);
 			frontier = DD_And(ddman, tmp, DD_Not(ddman, reach));
-			if (frontier) return ptr_to_jlong(NULL);
+			if (frontier == NULL) return ptr_to_jlong(NULL);
 			// check convergence
 			if (frontier == Cudd_ReadZero(ddman)) {
 				done = true;
@@ -157,6 +166,7 @@ jlong __jlongpointer s	// start state
 			reach = tmp;
 			// output info on progress
 			if (info > 0) {
+				update_peaks(reach, &peak_nodes, &peak_live_nodes);
 				stop = util_cpu_time();
 				PM_PrintToMainLog(env, " (%.2f seconds)\n", (double)(stop - start2)/1000);
 			}
@@ -173,9 +183,209 @@ jlong __jlongpointer s	// start state
 	time_for_iters = time_taken;
 
 	// print iterations/timing info
-	PM_PrintToMainLog(env, "\nReachability (%s): %d iterations in %.2f seconds (average %.6f, setup %.2f)\n", reach_method==REACH_BFS?"BFS":"frontier", iters, time_taken, time_for_iters/iters, time_for_setup);
+	PM_PrintToMainLog(env, "\nReachability (%s): %d iterations in %.2f seconds (average %.6f, setup %.2f)\n", reach_method!=REACH_FRONTIER?"BFS":"frontier", iters, time_taken, time_for_iters/iters, time_for_setup);
+	// (peak node counts are only tracked when extra info is requested, since counting nodes is costly)
+	if (info > 0) {
+		PM_PrintToMainLog(env, "Peak node counts: %d (reachable states), %ld (all live nodes)\n", peak_nodes, peak_live_nodes);
+	}
 
 	return ptr_to_jlong(reach);
 }
 
 //------------------------------------------------------------------------------
+
+// Calculates states reachable from the given subset (s), for a transition relation
+// given as a list of parts (e.g. one for each action/module), whose union is the
+// whole relation. Rather than applying the whole relation in each iteration, it uses:
+//
+// - chaining: applies each part in turn to the current set of reachable states,
+//   repeating this until there are no new states;
+// - saturation (a BDD-based variant): sorts the parts by their top (highest) DD variable,
+//   lowest first, and saturates the reachable states with each part (i.e. applies it until
+//   a fixpoint is reached), going back to the first (lowest) part whenever new states were found.
+//
+// Both avoid large intermediate BDDs for asynchronous models, where the parts affect few variables.
+
+JNIEXPORT jlong __jlongpointer JNICALL Java_mtbdd_PrismMTBDD_PM_1ReachabilityPartitioned
+(
+JNIEnv *env,
+jclass cls,
+jlongArray __jlongpointer tp,	// parts of 0-1 trans matrix
+jlong __jlongpointer rv,	// row vars
+jint num_rvars,
+jlong __jlongpointer cv,	// col vars
+jint num_cvars,
+jlong __jlongpointer s	// start state
+)
+{
+	DdNode *init = jlong_to_DdNode(s);		// start state
+	DdNode **rvars = jlong_to_DdNode_array(rv);	// row vars
+	DdNode **cvars = jlong_to_DdNode_array(cv);	// col vars
+	
+	jlong *ptrs;
+	DdNode **parts, *reach, *tmp;
+	bool changed;
+	int i, j, k, num_parts, *order, iters, steps, peak_nodes = 0;
+	long peak_live_nodes = 0;
+	
+	// get PRISM options
+	int reach_method = env->CallIntMethod(prism_obj, env->GetMethodID(prism_cls, "getReachMethod", "()I"));
+	int info = env->CallIntMethod(prism_obj, env->GetMethodID(prism_cls, "getExtraReachInfo", "()Z"));
+
+	// timing stuff
+	long start1, start2, stop;
+	double time_taken;
+
+	// start clocks
+	start1 = util_cpu_time();
+	
+	// unpack parts of the relation (skipping any empty ones)
+	num_parts = env->GetArrayLength(tp);
+	ptrs = env->GetLongArrayElements(tp, 0);
+	parts = new DdNode*[num_parts];
+	order = new int[num_parts];
+	k = 0;
+	for (i = 0; i < num_parts; i++) {
+		if (jlong_to_DdNode(ptrs[i]) != Cudd_ReadZero(ddman)) {
+			parts[k++] = jlong_to_DdNode(ptrs[i]);
+		}
+	}
+	num_parts = k;
+	env->ReleaseLongArrayElements(tp, ptrs, 0);
+	
+	// order in which to apply the parts
+	for (i = 0; i < num_parts; i++) {
+		order[i] = i;
+	}
+	// (for saturation, lowest top variable, i.e. highest index, first)
+	if (reach_method == REACH_SATURATION) {
+		for (i = 1; i < num_parts; i++) {
+			k = order[i];
+			for (j = i; j > 0 && Cudd_Regular(parts[order[j-1]])->index < Cudd_Regular(parts[k])->index; j--) {
+				order[j] = order[j-1];
+			}
+			order[j] = k;
+		}
+	}
+	
+	// initialise (reachable states are stored over column variables)
+	Cudd_Ref(init);
+	reach = DD_PermuteVariables(ddman, init, rvars, cvars, num_rvars);
+	if (reach == NULL) { delete[] parts; delete[] order; return ptr_to_jlong(NULL); }
+	iters = steps = 0;
+	
+	if (reach_method == REACH_SATURATION) {
+		i = 0;
+		while (i < num_parts) {
+			// saturate with part i, i.e. apply it until a fixpoint is reached
+			changed = false;
+			while (true) {
+				steps++;
+				tmp = reach_step(reach, parts[order[i]], rvars, cvars, num_rvars);
+				if (tmp == NULL) { delete[] parts; delete[] order; return ptr_to_jlong(NULL); }
+				if (tmp == reach) {
+					Cudd_RecursiveDeref(ddman, tmp);
+					break;
+				}
+				changed = true;
+				Cudd_RecursiveDeref(ddman, reach);
+				reach = tmp;
+				update_peaks(reach, &peak_nodes, &peak_live_nodes);
+			}
+			// if new states were found, go back to the lowest part
+			if (changed) {
+				iters++;
+				// output info on progress
+				if (info > 0) {
+					PM_PrintToMainLog(env, "Iteration %d (part %d):", iters, order[i]);
+					PM_PrintToMainLog(env, " %0.f states", DD_GetNumMinterms(ddman, reach, num_rvars));
+					PM_PrintToMainLog(env, " (%d nodes)\n", DD_GetNumNodes(ddman, reach));
+				}
+			}
+			i = (changed && i > 0) ? 0 : i + 1;
+		}
+	}
+	else {
+		changed = true;
+		while (changed) {
+			iters++;
+			// output info on progress
+			if (info > 0) {
+				PM_PrintToMainLog(env, "Iteration %d:", iters);
+				PM_PrintToMainLog(env, " %0.f states", DD_GetNumMinterms(ddman, reach, num_rvars));
+				PM_PrintToMainLog(env, " (%d nodes)", DD_GetNumNodes(ddman, reach));
+				start2 = util_cpu_time();
+			}
+			// apply each part in turn
+			changed = false;
+			for (i = 0; i < num_parts; i++) {
+				steps++;
+				tmp = reach_step(reach, parts[order[i]], rvars, cvars, num_rvars);
+				if (tmp == NULL) { delete[] parts; delete[] order; return ptr_to_jlong(NULL); }
+				if (tmp != reach) {
+					changed = true;
+				}
+				Cudd_RecursiveDeref(ddman, reach);
+				reach = tmp;
+				update_peaks(reach, &peak_nodes, &peak_live_nodes);
+			}
+			// output info on progress
+			if (info > 0) {
+				stop = util_cpu_time();
+				PM_PrintToMainLog(env, " (%.2f seconds)\n", (double)(stop - start2)/1000);
+			}
+		}
+	}
+	delete[] parts;
+	delete[] order;
+	
+	reach = DD_PermuteVariables(ddman, reach, cvars, rvars, num_cvars);
+	if (reach == NULL) return ptr_to_jlong(NULL);
+	
+	// stop clock
+	stop = util_cpu_time();
+	time_taken = (double)(stop - start1)/1000;
+	
+	// print iterations/timing info
+	PM_PrintToMainLog(env, "\nReachability (%s, %d parts): %d iterations (%d image computations) in %.2f seconds\n", reach_method==REACH_SATURATION?"saturation":"chaining", num_parts, iters, steps, time_taken);
+	PM_PrintToMainLog(env, "Peak node counts: %d (reachable states), %ld (all live nodes)\n", peak_nodes, peak_live_nodes);
+	
+	return ptr_to_jlong(reach);
+}
+
+//------------------------------------------------------------------------------
+
+// Add the successors of the states in reach (over column variables) to it,
+// i.e. return reach (over column variables) or the image of reach under trans01.
+// Returns NULL if there was an error.
+// [ REFS: <result>, DEREFS: <none> ]
+
+static DdNode *reach_step(DdNode *reach, DdNode *trans01, DdNode **rvars, DdNode **cvars, int num_vars)
+{
+	DdNode *tmp;
+	
+	Cudd_Ref(reach);
+	tmp = DD_PermuteVariables(ddman, reach, cvars, rvars, num_vars);
+	if (tmp == NULL) return NULL;
+	Cudd_Ref(trans01);
+	tmp = DD_And(ddman, tmp, trans01);
+	if (tmp == NULL) return NULL;
+	tmp = DD_ThereExists(ddman, tmp, rvars, num_vars);
+	if (tmp == NULL) return NULL;
+	Cudd_Ref(reach);
+	return DD_Or(ddman, reach, tmp);
+}
+
+//------------------------------------------------------------------------------
+
+// Update the peak node counts (of the reachable states and overall)
+
+static void update_peaks(DdNode *reach, int *peak_nodes, long *peak_live_nodes)
+{
+	int nodes = DD_GetNumNodes(ddman, reach);
+	long live_nodes = DD_GetNumLiveNodes(ddman);
+	if (nodes > *peak_nodes) *peak_nodes = nodes;
+	if (live_nodes > *peak_live_nodes) *peak_live_nodes = live_nodes;
+}
+
+//------------------------------------------------------------------------------
@@ -182,6 +182,37 @@ public class PrismMTBDD
 		return JDD.ptrToNode(ptr);
 	}
 
+	private static native long PM_ReachabilityPartitioned(long trans01Parts[], long rv, int nrv, long cv, int ncv, long start);
+	/**
+	 * Reachability computation, computes the set Post*(start), for a 0/1-transition matrix
+	 * given as a list of parts (e.g. for each action/module) whose union is the whole matrix,
+	 * using chaining or saturation (see {@link prism.Prism#getReachMethod()}).
+	 *
+	 * <br>[ REFS: <i>result</i>, DEREFS: <i>none</i> ]
+	 * @param trans01Parts the parts of the 0/1-transition matrix of the model (over rows, cols)
+	 * @param rows the row variables of the model
+	 * @param cols the col variables of the model
+	 * @param start the starting states for the reachability computation
+	 * @return the set of states that can be reached from start
+	 */
+	public static JDDNode ReachabilityPartitioned(JDDNode trans01Parts[], JDDVars rows, JDDVars cols, JDDNode start)
+	{
+		if (jdd.SanityJDD.enabled) {
+			for (JDDNode part : trans01Parts) {
+				jdd.SanityJDD.checkIsZeroOneMTBDD(part);
+				jdd.SanityJDD.checkIsDDOverVars(part, rows, cols);
+			}
+
+			jdd.SanityJDD.checkIsStateSet(start, rows);
+		}
+
+		long ptrs[] = new long[trans01Parts.length];
+		for (int i = 0; i < trans01Parts.length; i++)
+			ptrs[i] = trans01Parts[i].ptr();
+		long ptr = PM_ReachabilityPartitioned(ptrs, rows.array(), rows.n(), cols.array(), cols.n(), start.ptr());
+		return JDD.ptrToNode(ptr);
+	}
+
 	private static native long PM_Prob1(long trans01, long reach, long rv, int nrv, long cv, int ncv, long b1, long b2, long no);
 	/**
 	 * PCTL until probability 1 precomputation (probabilistic/dtmc)
@@ -26,8 +26,11 @@
 
 package param;
 
-import java.util.ArrayList;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Function factory implementing a cache for functions from other factories.
@@ -36,6 +39,15 @@ import java.util.HashMap;
  * cache for operations on functions, so that if an operation on the same
  * two functions has already been performed before, the result will be
  * looked up instead of being performed again.
+ * <p>
+ * To keep memory usage bounded, the function cache only keeps weak
+ * references to the cached functions, so that functions no longer used
+ * elsewhere (e.g. by a {@code MutablePMC} after state elimination) can be
+ * garbage collected. The operation caches can be bounded in size, in which
+ * case the least recently used entries are evicted.
+ * <p>
+ * The caches may be used by several threads concurrently. Operations on
+ * the underlying functions are performed outside of any lock.
  * 
  * @author Ernst Moritz Hahn <emhahn@cs.ox.ac.uk> (University of Oxford)
  * @see FunctionFactory
@@ -85,16 +97,121 @@ final class CachedFunctionFactory extends FunctionFactory {
 		}
 	}
 	
+	/**
+	 * Operation cache, bounded in size (if requested), evicting least
+	 * recently used entries, and keeping statistics on hits and misses.
+	 *
+	 * @param <K> type of operation cache keys
+	 */
+	private static class OpCache<K> extends LinkedHashMap<K, CachedFunction>
+	{
+		private static final long serialVersionUID = 1L;
+
+		/** maximal number of entries (0 for no limit) */
+		private int maxSize;
+		/** number of successful lookups */
+		private long hits;
+		/** number of unsuccessful lookups */
+		private long misses;
+		/** number of evicted entries */
+		private long evictions;
+
+		/**
+		 * Construct a new operation cache.
+		 *
+		 * @param maxSize maximal number of entries (0 for no limit)
+		 */
+		OpCache(int maxSize)
+		{
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		/**
+		 * Look up the result for the given key, and update statistics.
+		 *
+		 * @param key operation cache key
+		 * @return cached result, or null if not present
+		 */
+		synchronized CachedFunction lookup(K key)
+		{
+			CachedFunction result = get(key);
+			if (result != null) {
+				hits++;
+			} else {
+				misses++;
+			}
+			return result;
+		}
+
+		/**
+		 * Store the result for the given key.
+		 *
+		 * @param key operation cache key
+		 * @param result result of operation
+		 */
+		synchronized void store(K key, CachedFunction result)
+		{
+			put(key, result);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, CachedFunction> eldest)
+		{
+			if (maxSize > 0 && size() > maxSize) {
+				evictions++;
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public synchronized String toString()
+		{
+			long lookups = hits + misses;
+			String s = size() + " entries, " + hits + "/" + lookups + " hits";
+			if (lookups > 0) {
+				s += " (" + Math.round(100.0 * hits / lookups) + "%)";
+			}
+			s += ", " + evictions + " evictions";
+			return s;
+		}
+	}
+
+	/**
+	 * Weak reference to a cached function, also storing the function it
+	 * stands for, so that it can be removed from the function cache once
+	 * the cached function has been garbage collected.
+	 */
+	private static class CachedFunctionRef extends WeakReference<CachedFunction>
+	{
+		/** function from {@code context} represented */
+		Function function;
+
+		CachedFunctionRef(CachedFunction cachedFunction, ReferenceQueue<CachedFunction> queue)
+		{
+			super(cachedFunction, queue);
+			this.function = cachedFunction.getFunction();
+		}
+	}
+
+	/** default maximal number of entries of each operation cache */
+	static final int DEFAULT_OP_CACHE_SIZE = 100000;
+
 	/** function factory of which we cache functions */
 	private FunctionFactory context;
-	/** maps each function from {@code context} to a unique integer */
-	private HashMap<Function, Integer> functionToNumber;
-	/** maps each integer to function from {@code context}, cf. also {@code functionToNumber} */
-	private ArrayList<Function> functions;
-	/** list of all function of this function factory */ 
-	private ArrayList<CachedFunction> cachedFunctions;
+	/** maps each function from {@code context} to (a weak reference to) its unique cached function */
+	private HashMap<Function, CachedFunctionRef> functionToCached;
+	/** queue of references to cached functions which have been garbage collected */
+	private ReferenceQueue<CachedFunction> collected;
 	/** next new function will be assigned this number */
 	private int nextFunctionNumber;
+	/** number of lookups in the function cache */
+	private long functionLookups;
+	/** number of successful lookups in the function cache */
+	private long functionHits;
+	/** number of functions removed from the function cache after garbage collection */
+	private long functionsCollected;
 	/** function representing one (1) */
 	private CachedFunction one;
 	/** function representing zero (0) */
@@ -102,30 +219,41 @@ final class CachedFunctionFactory extends FunctionFactory {
 	/** true iff operation cache is to be used */
 	private boolean useOpCache;
 	/** cache for additions (and indirectly subtractions) */		
-	private HashMap<OpCacheKey, CachedFunction> addCache;
+	private OpCache<OpCacheKey> addCache;
 	/** cache for multiplications (and indirectly divisions) */	
-	private HashMap<OpCacheKey, CachedFunction> multCache;
+	private OpCache<OpCacheKey> multCache;
 	/** cache for star operation */
-	private HashMap<CachedFunction, CachedFunction> starCache;
+	private OpCache<CachedFunction> starCache;
 	
 	/**
 	 * Constructs a new cached function factory.
 	 * Will cache functions of the given {@code context}.
+	 * Operation caches are bounded by the default size.
 	 * 
 	 * @param context function factory to cache functions of
 	 */
 	CachedFunctionFactory(FunctionFactory context) {
+		this(context, DEFAULT_OP_CACHE_SIZE);
+	}
+	
+	/**
+	 * Constructs a new cached function factory.
+	 * Will cache functions of the given {@code context}.
+	 * 
+	 * @param context function factory to cache functions of
+	 * @param opCacheSize maximal number of entries of each operation cache (0 for no limit)
+	 */
+	CachedFunctionFactory(FunctionFactory context, int opCacheSize) {
 		super(context.parameterNames, context.lowerBounds, context.upperBounds);
 		this.context = context;
-		functionToNumber = new HashMap<Function, Integer>();
-		cachedFunctions = new ArrayList<CachedFunction>();
-		functions = new ArrayList<Function>();
+		functionToCached = new HashMap<Function, CachedFunctionRef>();
+		collected = new ReferenceQueue<CachedFunction>();
 		nextFunctionNumber = 0;
 		one = makeUnique(context.getOne());
 		zero = makeUnique(context.getZero());
-		addCache = new HashMap<OpCacheKey, CachedFunction>();
-		multCache = new HashMap<OpCacheKey, CachedFunction>();
-		starCache = new HashMap<CachedFunction, CachedFunction>();
+		addCache = new OpCache<OpCacheKey>(opCacheSize);
+		multCache = new OpCache<OpCacheKey>(opCacheSize);
+		starCache = new OpCache<CachedFunction>(opCacheSize);
 		useOpCache = true;
 	}
 	
@@ -140,38 +268,60 @@ final class CachedFunctionFactory extends FunctionFactory {
 	}
 	
 	/**
-	 * Returns the unique integer representing the given function.
+	 * Returns the unique cached function representing the given function.
 	 * In case the function already exists in the function cache, returns
-	 * the assigned integer. Otherwise, inserts function in the cache and
-	 * returns the newly assigned integer.
+	 * the existing cached function. Otherwise, inserts function in the cache
+	 * and returns a new cached function with a newly assigned integer.
 	 * 
-	 * @param function function to return unique integer of
-	 * @return unique integer representing function
+	 * @param function function to return unique cached function of
+	 * @return unique cached function representing function
 	 */
-	private CachedFunction makeUnique(Function function)
+	private synchronized CachedFunction makeUnique(Function function)
 	{
-		Integer number = functionToNumber.get(function);
-		if (number != null) {
-			return cachedFunctions.get(number);
+		removeCollected();
+		functionLookups++;
+		CachedFunctionRef ref = functionToCached.get(function);
+		CachedFunction cachedFunction = ref != null ? ref.get() : null;
+		if (cachedFunction != null) {
+			functionHits++;
+			return cachedFunction;
 		} else {
-			CachedFunction cachedFunction = new CachedFunction(this, nextFunctionNumber);
-			functionToNumber.put(function, nextFunctionNumber);
-			cachedFunctions.add(cachedFunction);
-			functions.add(function);
+			cachedFunction = new CachedFunction(this, nextFunctionNumber, function);
+			functionToCached.put(function, new CachedFunctionRef(cachedFunction, collected));
 			nextFunctionNumber++;
 			return cachedFunction;
 		}
 	}
 	
 	/**
-	 * Returns integer with the given unique number.
+	 * Removes functions from the function cache whose cached functions
+	 * have been garbage collected. Functions that have since been
+	 * cached again (with a new cached function) are kept.
+	 */
+	private void removeCollected()
+	{
+		CachedFunctionRef ref;
+		while ((ref = (CachedFunctionRef) collected.poll()) != null) {
+			if (functionToCached.get(ref.function) == ref) {
+				functionToCached.remove(ref.function);
+				functionsCollected++;
+			}
+		}
+	}
+	
+	/**
+	 * Returns a summary of the usage of the function and operation caches.
 	 * 
-	 * @param number number of function to return
-	 * @return function with the given number
+	 * @return cache statistics
 	 */
-	Function getFunction(int number)
+	synchronized String getCacheStatistics()
 	{
-		return functions.get(number);
+		String s = "functions: " + functionToCached.size() + " cached, " + functionHits + "/" + functionLookups + " hits, ";
+		s += functionsCollected + " collected";
+		if (useOpCache) {
+			s += "; add: " + addCache + "; multiply: " + multCache + "; star: " + starCache;
+		}
+		return s;
 	}
 	
 	@Override
@@ -188,7 +338,7 @@ final class CachedFunctionFactory extends FunctionFactory {
 
 	private Function getFunctionFromCache(Function cached)
 	{
-		return functions.get(((CachedFunction) cached).getNumber());
+		return ((CachedFunction) cached).getFunction();
 	}
 	
 	Function add(Function cached1, Function cached2)
@@ -197,7 +347,7 @@ final class CachedFunctionFactory extends FunctionFactory {
 		OpCacheKey opCacheKey = null;
 		if (useOpCache) {
 			opCacheKey = new OpCacheKey((CachedFunction) cached1, (CachedFunction) cached2);
-			result = addCache.get(opCacheKey);
+			result = addCache.lookup(opCacheKey);
 			if (result != null) {
 				return result;
 			}
@@ -206,7 +356,7 @@ final class CachedFunctionFactory extends FunctionFactory {
 		Function function2 = getFunctionFromCache(cached2);
 		result = makeUnique(function1.add(function2));
 		if (useOpCache) {
-			addCache.put(opCacheKey, (CachedFunction) result);
+			addCache.store(opCacheKey, (CachedFunction) result);
 		}
 		return result;
 	}
@@ -223,7 +373,7 @@ final class CachedFunctionFactory extends FunctionFactory {
 		OpCacheKey opCacheKey = null;
 		if (useOpCache) {
 			opCacheKey = new OpCacheKey((CachedFunction) cached1, (CachedFunction) cached2);
-			result = multCache.get(opCacheKey);
+			result = multCache.lookup(opCacheKey);
 			if (result != null) {
 				return result;
 			}
@@ -232,7 +382,7 @@ final class CachedFunctionFactory extends FunctionFactory {
 		Function function2 = getFunctionFromCache(cached2);
 		result = makeUnique(function1.multiply(function2));
 		if (useOpCache) {
-			multCache.put(opCacheKey, (CachedFunction) result);
+			multCache.store(opCacheKey, (CachedFunction) result);
 		}
 		return result;
 	}
@@ -247,7 +397,7 @@ final class CachedFunctionFactory extends FunctionFactory {
 	Function star(Function cached) {
 		Function result;
 		if (useOpCache) {
-			result = starCache.get(cached);
+			result = starCache.lookup((CachedFunction) cached);
 			if (result != null) {
 				return result;
 			}
@@ -255,7 +405,7 @@ final class CachedFunctionFactory extends FunctionFactory {
 		Function function = getFunctionFromCache(cached);
 		result = makeUnique(function.star());
 		if (useOpCache) {
-			starCache.put((CachedFunction) cached, (CachedFunction) result);
+			starCache.store((CachedFunction) cached, (CachedFunction) result);
 		}
 		return result;
 	}
@@ -181,6 +181,12 @@ class DagFunctionFactory extends FunctionFactory {
 		return zero;
 	}
 	
+	@Override
+	boolean isThreadSafe() {
+		// functions are stored in (unsynchronised) maps shared by all functions
+		return false;
+	}
+	
 	@Override
 	Function getOne() {
 		return one;
@@ -180,6 +180,18 @@ public abstract class Function extends StateValue
 	 */
 	abstract public boolean isConstant();
 
+	/**
+	 * Returns the size of this function, that is the number of terms of its
+	 * numerator and denominator. This is only used for statistics, so
+	 * representations where this cannot be determined cheaply return 1.
+	 * 
+	 * @return size of this function
+	 */
+	int getSize()
+	{
+		return 1;
+	}
+
 	/**
 	 * Multiplies {@code byNumber} with this function.
 	 * 
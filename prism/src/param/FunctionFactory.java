@@ -115,6 +115,16 @@ public abstract class FunctionFactory {
 	 */
 	abstract Function getVar(int var);
 
+	/**
+	 * Returns whether functions of this factory may be created and operated
+	 * on by several threads concurrently.
+	 * 
+	 * @return true iff this function factory is thread safe
+	 */
+	boolean isThreadSafe()
+	{
+		return true;
+	}
 
 	/**
 	 * Returns a function representing a single variable. 
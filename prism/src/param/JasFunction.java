@@ -360,5 +360,14 @@ final class JasFunction extends Function {
 		return jas.isConstant();
 	}
 
+	@Override
+	int getSize()
+	{
+		if (type != NORMAL) {
+			return 1;
+		}
+		return jas.num.length() + jas.den.length();
+	}
+
 
 }
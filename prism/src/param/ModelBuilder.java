@@ -71,6 +71,8 @@ public final class ModelBuilder extends PrismComponent
 	private String functionType;
 	/** maximal error probability of DAG function representation */
 	private double dagMaxError;
+	/** maximal number of entries of each operation cache of cached function representation */
+	private int opCacheSize = CachedFunctionFactory.DEFAULT_OP_CACHE_SIZE;
 
 	/** local storage made static for use in anonymous class */
 	private static Map<String,Expression> constExprs;
@@ -86,6 +88,7 @@ public final class ModelBuilder extends PrismComponent
 		if (settings != null) {
 			functionType = settings.getString(PrismSettings.PRISM_PARAM_FUNCTION);
 			dagMaxError = settings.getDouble(PrismSettings.PRISM_PARAM_DAG_MAX_ERROR);
+			opCacheSize = settings.getInteger(PrismSettings.PRISM_PARAM_OP_CACHE_SIZE);
 		}
 	}
 	
@@ -227,7 +230,7 @@ public final class ModelBuilder extends PrismComponent
 		if (functionType.equals("JAS")) {
 			functionFactory = new JasFunctionFactory(paramNames, lower, upper);
 		} else if (functionType.equals("JAS-cached")) {
-			functionFactory = new CachedFunctionFactory(new JasFunctionFactory(paramNames, lower, upper));
+			functionFactory = new CachedFunctionFactory(new JasFunctionFactory(paramNames, lower, upper), opCacheSize);
 		} else if (functionType.equals("DAG")) {
 			functionFactory = new DagFunctionFactory(paramNames, lower, upper, dagMaxError, false);
 		}
@@ -117,8 +117,9 @@ final class MutablePMC {
 	 * @param from state transition starts from
 	 * @param to state transition leads to
 	 * @param prob probability of transition
+	 * @return true iff there was no transition from {@code from} to {@code to} before
 	 */
-	void addTransition(int from, int to, Function prob)
+	boolean addTransition(int from, int to, Function prob)
 	{
 		ListIterator<Integer> toIter = transitionTargets.get(from).listIterator();
 		ListIterator<Function> valIter = transitionProbs.get(from).listIterator();
@@ -136,6 +137,7 @@ final class MutablePMC {
 			transitionProbs.get(from).add(prob);
 			incoming.get(to).add(from);
 		}
+		return !alreadyThere;
 	}
 	
 	/**
@@ -0,0 +1,118 @@
+//==============================================================================
+//
+//	Copyright (c) 2013-
+//	Authors:
+//	* Ernst Moritz Hahn <emhahn@cs.ox.ac.uk> (University of Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package param;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+
+/**
+ * Executes independent tasks of parametric model checking (e.g. state
+ * elimination or computations for different regions) in parallel,
+ * using a thread pool shared by all parametric computations.
+ * Tasks submitted from within a task are executed sequentially.
+ */
+final class ParallelTasks {
+	/** thread pool shared by all parametric computations */
+	private static ForkJoinPool pool = null;
+
+	private ParallelTasks()
+	{
+	}
+
+	/**
+	 * Returns the shared thread pool, (re)creating it if needed to get the
+	 * required parallelism.
+	 *
+	 * @param numThreads number of threads to use
+	 * @return thread pool
+	 */
+	private static synchronized ForkJoinPool getPool(int numThreads)
+	{
+		if (pool == null || pool.getParallelism() != numThreads) {
+			if (pool != null) {
+				pool.shutdown();
+			}
+			pool = new ForkJoinPool(numThreads);
+		}
+		return pool;
+	}
+
+	/**
+	 * Executes the given tasks and returns their results, in the order of
+	 * the tasks. The tasks are executed in parallel if more than one thread
+	 * is to be used, unless this is called from within a task itself.
+	 *
+	 * @param tasks tasks to execute
+	 * @param numThreads number of threads to use
+	 * @return results of the tasks
+	 */
+	static <T> List<T> invokeAll(List<Callable<T>> tasks, int numThreads)
+	{
+		List<T> results = new ArrayList<T>(tasks.size());
+		try {
+			if (numThreads == 1 || tasks.size() < 2 || ForkJoinTask.inForkJoinPool()) {
+				for (Callable<T> task : tasks) {
+					results.add(task.call());
+				}
+			} else {
+				for (Future<T> future : getPool(numThreads).invokeAll(tasks)) {
+					results.add(future.get());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("parallel parametric computation was interrupted");
+		} catch (ExecutionException e) {
+			throw unchecked(e.getCause());
+		} catch (Exception e) {
+			throw unchecked(e);
+		}
+		return results;
+	}
+
+	/**
+	 * Rethrows errors and runtime exceptions, wrapping any other exception.
+	 *
+	 * @param cause exception thrown by a task
+	 * @return exception to throw
+	 */
+	private static RuntimeException unchecked(Throwable cause)
+	{
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		if (cause instanceof RuntimeException) {
+			return (RuntimeException) cause;
+		}
+		return new RuntimeException(cause);
+	}
+}
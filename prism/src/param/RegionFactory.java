@@ -47,6 +47,8 @@ abstract class RegionFactory {
 	 * that is if they can be represented by a single larger region
 	 * and are assigned the same values */
 	protected boolean subsumeRegions;
+	/** number of threads to use for computations for different regions */
+	protected int numThreads = 1;
 
 	/**
 	 * Covers the whole parameter space with the values specified.
@@ -181,4 +183,25 @@ abstract class RegionFactory {
 	{
 		return subsumeRegions;
 	}
+	
+	/**
+	 * Sets the number of threads to use for computations for different
+	 * regions. The function factory used must then be thread safe.
+	 * 
+	 * @param numThreads number of threads
+	 */
+	void setNumThreads(int numThreads)
+	{
+		this.numThreads = numThreads;
+	}
+	
+	/**
+	 * Returns the number of threads to use for computations for different regions.
+	 * 
+	 * @return number of threads
+	 */
+	int getNumThreads()
+	{
+		return numThreads;
+	}
 }
@@ -33,6 +33,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
 
 import parser.State;
 import prism.PrismLog;
@@ -287,40 +288,39 @@ public final class RegionValues implements Iterable<Entry<Region, StateValues>>
 
 	public RegionValues binaryOp(int op, RegionValues other)
 	{
-		RegionValues result = new RegionValues(factory);
 		RegionValuesIntersections co = new RegionValuesIntersections(this, other);
+		List<Callable<RegionValues>> tasks = new ArrayList<Callable<RegionValues>>();
 		for (RegionIntersection inter : co) {
 			Region region = inter.getRegion();
 			StateValues value1 = inter.getStateValues1();
 			StateValues value2 = inter.getStateValues2();
-			RegionValues values = region.binaryOp(op, value1, value2);
-			result.addAll(values);
+			tasks.add(() -> region.binaryOp(op, value1, value2));
 		}
-		return result;
+		return collect(tasks);
 	}
 
 	public RegionValues binaryOp(int op, BigRational p)
 	{
-		RegionValues result = new RegionValues(factory);
 		Function pFn = factory.getFunctionFactory().fromBigRational(p);
 		StateValues pValue = new StateValues(values.get(regions.get(0)).getNumStates(), factory.getInitialState(), pFn);
+		List<Callable<RegionValues>> tasks = new ArrayList<Callable<RegionValues>>();
 		for (Region region : regions) {
-			RegionValues vals = region.binaryOp(op, values.get(region), pValue);
-			result.addAll(vals);
+			StateValues value = values.get(region);
+			tasks.add(() -> region.binaryOp(op, value, pValue));
 		}
-		return result;
+		return collect(tasks);
 	}
 
 	public RegionValues binaryOp(BigRational p, int op)
 	{
-		RegionValues result = new RegionValues(factory);
 		Function pFn = factory.getFunctionFactory().fromBigRational(p);
 		StateValues pValue = new StateValues(values.get(regions.get(0)).getNumStates(), factory.getInitialState(), pFn);
+		List<Callable<RegionValues>> tasks = new ArrayList<Callable<RegionValues>>();
 		for (Region region : regions) {
-			RegionValues vals = region.binaryOp(op, pValue, values.get(region));
-			result.addAll(vals);
+			StateValues value = values.get(region);
+			tasks.add(() -> region.binaryOp(op, pValue, value));
 		}
-		return result;
+		return collect(tasks);
 	}
 
 	public RegionValues op(int op, BitSet whichStates)
@@ -515,14 +515,30 @@ public final class RegionValues implements Iterable<Entry<Region, StateValues>>
 
 	public RegionValues ITE(RegionValues resT, RegionValues resE)
 	{
-		RegionValues result = new RegionValues(factory);
 		RegionValuesIntersections co = new RegionValuesIntersections(this, resT, resE);
+		List<Callable<RegionValues>> tasks = new ArrayList<Callable<RegionValues>>();
 		for (RegionIntersection inter : co) {
 			Region region = inter.getRegion();
 			StateValues valueI = inter.getStateValues1();
 			StateValues valueT = inter.getStateValues2();
 			StateValues valueE = inter.getStateValues3();
-			RegionValues values = region.ITE(valueI, valueT, valueE);
+			tasks.add(() -> region.ITE(valueI, valueT, valueE));
+		}
+		return collect(tasks);
+	}
+
+	/**
+	 * Performs computations for different regions, in parallel if the
+	 * region factory is set to use several threads, and collects the
+	 * resulting values (in the order of the computations).
+	 * 
+	 * @param tasks computations for the different regions
+	 * @return values of all regions computed
+	 */
+	private RegionValues collect(List<Callable<RegionValues>> tasks)
+	{
+		RegionValues result = new RegionValues(factory);
+		for (RegionValues values : ParallelTasks.invokeAll(tasks, factory.getNumThreads())) {
 			result.addAll(values);
 		}
 		return result;
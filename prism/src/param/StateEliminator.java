@@ -26,12 +26,17 @@
 
 package param;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
 
 /**
  * Performs computation of reachability probabilities and rewards.
@@ -43,6 +48,16 @@ import java.util.ListIterator;
  * is maintained, but the state no longer has any incoming transitions,
  * except in some cases self loops. This way, after all states have been
  * treated, the value of concern can be obtained by a simple computation.
+ * <p>
+ * If several threads are to be used, states whose neighbourhoods (the
+ * state itself, its predecessors and successors) are disjoint are
+ * eliminated concurrently. As eliminating a state only modifies the
+ * transitions and values of states in its neighbourhood, this yields the
+ * same result as eliminating these states one after another.
+ * <p>
+ * For each run, the number of transitions added during elimination
+ * (fill-in) and the sizes of the resulting functions are recorded,
+ * to allow comparing the cost of different elimination orders.
  * 
  * @author Ernst Moritz Hahn <emhahn@cs.ox.ac.uk> (University of Oxford)
  */
@@ -62,13 +77,61 @@ final class StateEliminator {
 		/** states close to target states last */
 		BACKWARD_REVERSED,
 		/** random */
-		RANDOM;	
+		RANDOM,
+		/** states with fewest predecessors times successors first,
+		 * updated as states are eliminated */
+		MIN_DEGREE,
+		/** states whose elimination adds fewest new transitions first,
+		 * updated as states are eliminated */
+		MIN_FILL,
+		/** strongly connected components one by one, bottom components first */
+		SCC;
+	}
+	
+	/**
+	 * Entry of the priority queue used for the cost-based elimination orders.
+	 * When the cost of a state changes, a new entry is added, and entries
+	 * with outdated costs are skipped when taken from the queue.
+	 */
+	private static final class CostEntry implements Comparable<CostEntry> {
+		/** cost of eliminating the state */
+		final long cost;
+		/** state to eliminate */
+		final int state;
+
+		CostEntry(long cost, int state)
+		{
+			this.cost = cost;
+			this.state = state;
+		}
+
+		@Override
+		public int compareTo(CostEntry other)
+		{
+			if (cost != other.cost) {
+				return cost < other.cost ? -1 : 1;
+			}
+			return Integer.compare(state, other.state);
+		}
 	}
 	
 	/** the mutable parametric Markov chain to compute values of */
 	private MutablePMC pmc;
 	/** order in which states are eliminated */
 	private EliminationOrder eliminationOrder;
+	/** number of threads to use for eliminating states */
+	private int numThreads;
+	/** number of transitions added during elimination */
+	private long numNewTransitions;
+	/** number of functions remaining after elimination */
+	private long numFunctions;
+	/** total size of functions remaining after elimination */
+	private long totalFunctionSize;
+	/** maximal size of functions remaining after elimination */
+	private int maxFunctionSize;
+	
+	/** number of states (per thread) considered for each set of states eliminated concurrently */
+	private static final int STATES_CONSIDERED_PER_THREAD = 16;
 	
 	/**
 	 * Create a new state eliminator object.
@@ -77,9 +140,24 @@ final class StateEliminator {
 	 * @param eliminationOrder order in which states shall be eliminated
 	 */
 	StateEliminator(MutablePMC pmc, EliminationOrder eliminationOrder)
+	{
+		this(pmc, eliminationOrder, 1);
+	}
+	
+	/**
+	 * Create a new state eliminator object.
+	 * The function factory of {@code pmc} must be thread safe if more
+	 * than one thread is to be used.
+	 * 
+	 * @param pmc parametric Markov chain to compute values of
+	 * @param eliminationOrder order in which states shall be eliminated
+	 * @param numThreads number of threads to use for eliminating states
+	 */
+	StateEliminator(MutablePMC pmc, EliminationOrder eliminationOrder, int numThreads)
 	{
 		this.pmc = pmc;
 		this.eliminationOrder = eliminationOrder;
+		this.numThreads = numThreads;
 	}
 	
 	/**
@@ -190,6 +268,73 @@ final class StateEliminator {
 		return states;
 	}
 	
+	/**
+	 * Orders states by strongly connected components (SCCs), such that the
+	 * states of an SCC are eliminated before those of SCCs which can reach it.
+	 * Uses an iterative version of Tarjan's algorithm.
+	 * 
+	 * @return list of states in requested order
+	 */
+	private int[] collectStatesSCC()
+	{
+		int numStates = pmc.getNumStates();
+		int[] states = new int[numStates];
+		int nextStateNr = 0;
+		/* index[state] is 0 if state has not been visited yet */
+		int[] index = new int[numStates];
+		int[] lowlink = new int[numStates];
+		int nextIndex = 1;
+		int[] stack = new int[numStates];
+		int stackSize = 0;
+		BitSet onStack = new BitSet(numStates);
+		ArrayDeque<Integer> callStack = new ArrayDeque<Integer>();
+		ArrayDeque<Iterator<Integer>> succIters = new ArrayDeque<Iterator<Integer>>();
+		for (int root = 0; root < numStates; root++) {
+			if (index[root] != 0) {
+				continue;
+			}
+			index[root] = lowlink[root] = nextIndex++;
+			stack[stackSize++] = root;
+			onStack.set(root);
+			callStack.push(root);
+			succIters.push(pmc.transitionTargets.get(root).iterator());
+			while (!callStack.isEmpty()) {
+				int state = callStack.peek();
+				Iterator<Integer> succIter = succIters.peek();
+				if (succIter.hasNext()) {
+					int succState = succIter.next();
+					if (index[succState] == 0) {
+						index[succState] = lowlink[succState] = nextIndex++;
+						stack[stackSize++] = succState;
+						onStack.set(succState);
+						callStack.push(succState);
+						succIters.push(pmc.transitionTargets.get(succState).iterator());
+					} else if (onStack.get(succState)) {
+						lowlink[state] = Math.min(lowlink[state], index[succState]);
+					}
+				} else {
+					callStack.pop();
+					succIters.pop();
+					/* state is root of an SCC: all SCCs it reaches have been output already */
+					if (lowlink[state] == index[state]) {
+						int sccState;
+						do {
+							sccState = stack[--stackSize];
+							onStack.clear(sccState);
+							states[nextStateNr] = sccState;
+							nextStateNr++;
+						} while (sccState != state);
+					}
+					if (!callStack.isEmpty()) {
+						int parent = callStack.peek();
+						lowlink[parent] = Math.min(lowlink[parent], lowlink[state]);
+					}
+				}
+			}
+		}
+		return states;
+	}
+	
 	/**
 	 * Performs precomputation before actual state elimination.
 	 * This handles cases in which all or some states can or have to
@@ -284,13 +429,309 @@ final class StateEliminator {
 				states[state] = statesList.get(state);
 			}
 			break;
+		case SCC:
+			states = collectStatesSCC();
+			break;
+		case MIN_DEGREE:
+		case MIN_FILL:
+			eliminateByCost();
+			computeFunctionStatistics();
+			return;
 		default:
 			throw new RuntimeException("unknown state elimination order");
 		}
 		
-		for (int stateNr = 0; stateNr < pmc.getNumStates(); stateNr++) {
-			eliminate(states[stateNr]);
+		if (numThreads > 1) {
+			eliminateConcurrently(states);
+		} else {
+			for (int stateNr = 0; stateNr < pmc.getNumStates(); stateNr++) {
+				numNewTransitions += eliminate(states[stateNr]);
+			}
+		}
+		computeFunctionStatistics();
+	}
+
+	/**
+	 * Eliminate all states of the model, repeatedly choosing the state of
+	 * least cost, according to {@code eliminationOrder}. After eliminating
+	 * a state, the costs of its predecessors and successors are updated.
+	 * (For {@code MIN_FILL}, costs of states further away may also change;
+	 * these are not updated, so the order is approximate in this case.)
+	 * If several threads are used, states of least cost with disjoint
+	 * neighbourhoods are eliminated concurrently.
+	 */
+	private void eliminateByCost()
+	{
+		int numStates = pmc.getNumStates();
+		boolean fill = eliminationOrder == EliminationOrder.MIN_FILL;
+		long[] cost = new long[numStates];
+		BitSet eliminated = new BitSet(numStates);
+		PriorityQueue<CostEntry> queue = new PriorityQueue<CostEntry>();
+		for (int state = 0; state < numStates; state++) {
+			cost[state] = computeCost(state, fill);
+			queue.add(new CostEntry(cost[state], state));
+		}
+		int maxSelected = numThreads > 1 ? STATES_CONSIDERED_PER_THREAD * numThreads : 1;
+		BitSet used = new BitSet(numStates);
+		BitSet postponedStates = new BitSet(numStates);
+		while (!queue.isEmpty()) {
+			/* select states of least cost */
+			ArrayList<Integer> selected = new ArrayList<Integer>();
+			ArrayList<CostEntry> postponed = new ArrayList<CostEntry>();
+			int numConsidered = 0;
+			while (numConsidered < maxSelected && !queue.isEmpty()) {
+				CostEntry entry = queue.poll();
+				if (eliminated.get(entry.state) || entry.cost != cost[entry.state] || postponedStates.get(entry.state)) {
+					continue;
+				}
+				numConsidered++;
+				if (maxSelected == 1 || useNeighbourhood(entry.state, used)) {
+					selected.add(entry.state);
+				} else {
+					postponed.add(entry);
+					postponedStates.set(entry.state);
+				}
+			}
+			queue.addAll(postponed);
+			postponedStates.clear();
+			used.clear();
+
+			/* eliminate them, remembering states whose cost may change */
+			BitSet affected = new BitSet(numStates);
+			for (int state : selected) {
+				eliminated.set(state);
+				for (int from : pmc.incoming.get(state)) {
+					affected.set(from);
+				}
+				for (int to : pmc.transitionTargets.get(state)) {
+					affected.set(to);
+				}
+			}
+			eliminateAll(selected);
+			affected.andNot(eliminated);
+			for (int state = affected.nextSetBit(0); state >= 0; state = affected.nextSetBit(state + 1)) {
+				long newCost = computeCost(state, fill);
+				if (newCost != cost[state]) {
+					cost[state] = newCost;
+					queue.add(new CostEntry(newCost, state));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes the cost of eliminating a state, either as the number of
+	 * predecessors times the number of successors (an upper bound on the
+	 * number of transitions added), or as the exact number of transitions
+	 * added (fill-in).
+	 * 
+	 * @param state state to compute cost of
+	 * @param fill true to compute fill-in rather than the degree product
+	 * @return cost of eliminating {@code state}
+	 */
+	private long computeCost(int state, boolean fill)
+	{
+		LinkedList<Integer> predStates = pmc.incoming.get(state);
+		LinkedList<Integer> succStates = pmc.transitionTargets.get(state);
+		if (!fill) {
+			long numPreds = 0;
+			for (int from : predStates) {
+				if (from != state) {
+					numPreds++;
+				}
+			}
+			long numSuccs = 0;
+			for (int to : succStates) {
+				if (to != state) {
+					numSuccs++;
+				}
+			}
+			return numPreds * numSuccs;
 		}
+		long numNew = 0;
+		for (int from : predStates) {
+			if (from != state) {
+				HashSet<Integer> fromSuccs = new HashSet<Integer>(pmc.transitionTargets.get(from));
+				for (int to : succStates) {
+					if (to != state && !fromSuccs.contains(to)) {
+						numNew++;
+					}
+				}
+			}
+		}
+		return numNew;
+	}
+
+	/**
+	 * Eliminates the given states, which must have disjoint neighbourhoods,
+	 * concurrently if several threads are to be used.
+	 * 
+	 * @param states states to eliminate
+	 */
+	private void eliminateAll(List<Integer> states)
+	{
+		if (states.size() == 1) {
+			numNewTransitions += eliminate(states.get(0));
+			return;
+		}
+		List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>(states.size());
+		for (int state : states) {
+			tasks.add(() -> eliminate(state));
+		}
+		for (int numNew : ParallelTasks.invokeAll(tasks, numThreads)) {
+			numNewTransitions += numNew;
+		}
+	}
+
+	/**
+	 * Records the number and sizes of the functions (transition
+	 * probabilities, rewards and times) remaining after elimination.
+	 */
+	private void computeFunctionStatistics()
+	{
+		for (int state = 0; state < pmc.getNumStates(); state++) {
+			for (Function prob : pmc.transitionProbs.get(state)) {
+				recordFunction(prob);
+			}
+			if (pmc.isUseRewards()) {
+				recordFunction(pmc.getReward(state));
+			}
+			if (pmc.isUseTime()) {
+				recordFunction(pmc.getTime(state));
+			}
+		}
+	}
+
+	/**
+	 * Adds a function to the function statistics.
+	 * 
+	 * @param function function to add
+	 */
+	private void recordFunction(Function function)
+	{
+		int size = function.getSize();
+		numFunctions++;
+		totalFunctionSize += size;
+		maxFunctionSize = Math.max(maxFunctionSize, size);
+	}
+
+	/**
+	 * Returns the number of transitions added during elimination (fill-in).
+	 * 
+	 * @return number of transitions added
+	 */
+	long getNumNewTransitions()
+	{
+		return numNewTransitions;
+	}
+
+	/**
+	 * Returns the number of functions remaining after elimination.
+	 * 
+	 * @return number of functions
+	 */
+	long getNumFunctions()
+	{
+		return numFunctions;
+	}
+
+	/**
+	 * Returns the total size of functions remaining after elimination.
+	 * 
+	 * @return total size of functions
+	 * @see Function#getSize()
+	 */
+	long getTotalFunctionSize()
+	{
+		return totalFunctionSize;
+	}
+
+	/**
+	 * Returns the maximal size of functions remaining after elimination.
+	 * 
+	 * @return maximal size of functions
+	 * @see Function#getSize()
+	 */
+	int getMaxFunctionSize()
+	{
+		return maxFunctionSize;
+	}
+
+	/**
+	 * Eliminate all states of the model, several at a time.
+	 * States are taken in the order given, but a state is postponed if
+	 * its neighbourhood overlaps with that of a state to be eliminated
+	 * at the same time. Postponed states are considered again first.
+	 * 
+	 * @param states states in the order in which they shall be eliminated
+	 */
+	private void eliminateConcurrently(int[] states)
+	{
+		int maxConsidered = STATES_CONSIDERED_PER_THREAD * numThreads;
+		BitSet used = new BitSet(pmc.getNumStates());
+		ArrayList<Integer> postponed = new ArrayList<Integer>();
+		int nextStateNr = 0;
+		while (nextStateNr < states.length || !postponed.isEmpty()) {
+			/* select states with disjoint neighbourhoods */
+			ArrayList<Integer> selected = new ArrayList<Integer>();
+			ArrayList<Integer> stillPostponed = new ArrayList<Integer>();
+			for (int state : postponed) {
+				if (useNeighbourhood(state, used)) {
+					selected.add(state);
+				} else {
+					stillPostponed.add(state);
+				}
+			}
+			int numConsidered = postponed.size();
+			while (numConsidered < maxConsidered && nextStateNr < states.length) {
+				int state = states[nextStateNr];
+				if (useNeighbourhood(state, used)) {
+					selected.add(state);
+				} else {
+					stillPostponed.add(state);
+				}
+				nextStateNr++;
+				numConsidered++;
+			}
+			postponed = stillPostponed;
+			used.clear();
+
+			/* and eliminate them */
+			eliminateAll(selected);
+		}
+	}
+
+	/**
+	 * Marks the neighbourhood of a state (the state, its predecessors and
+	 * its successors) as used, unless part of it is already used.
+	 * 
+	 * @param state state to mark neighbourhood of
+	 * @param used states already used
+	 * @return true iff the neighbourhood was not used before and has been marked
+	 */
+	private boolean useNeighbourhood(int state, BitSet used)
+	{
+		if (used.get(state)) {
+			return false;
+		}
+		for (int from : pmc.incoming.get(state)) {
+			if (used.get(from)) {
+				return false;
+			}
+		}
+		for (int to : pmc.transitionTargets.get(state)) {
+			if (used.get(to)) {
+				return false;
+			}
+		}
+		used.set(state);
+		for (int from : pmc.incoming.get(state)) {
+			used.set(from);
+		}
+		for (int to : pmc.transitionTargets.get(state)) {
+			used.set(to);
+		}
+		return true;
 	}
 
 	/**
@@ -324,13 +765,14 @@ final class StateEliminator {
 	 * Eliminates a given state
 	 * 
 	 * @param midState state to eliminate
+	 * @return number of transitions added
 	 */
-	private void eliminate(int midState)
+	private int eliminate(int midState)
 	{
 		Function loopProb = pmc.getSelfLoopProb(midState);
 		/* states with only a self-loop require no further treatment */
 		if (loopProb.equals(pmc.getFunctionFactory().getOne())) {
-			return;
+			return 0;
 		}
 		/* slStar = 1/(1-x), where x is the self-loop probability */
 		Function slStar = loopProb.star(); 
@@ -392,8 +834,11 @@ final class StateEliminator {
 				}
 			}
 		}
+		int numNew = 0;
 		for (NewTransition newTransition : newTransitions) {
-			pmc.addTransition(newTransition.fromState, newTransition.toState, newTransition.prob);
+			if (pmc.addTransition(newTransition.fromState, newTransition.toState, newTransition.prob)) {
+				numNew++;
+			}
 		}
 
 		/* remove self loop from state and set outgoing probabilities to
@@ -421,6 +866,7 @@ final class StateEliminator {
 			}
 		}
 		pmc.incoming.get(midState).clear();
+		return numNew;
 	}
 	
 	/**
@@ -236,6 +236,12 @@ final class ValueComputer extends PrismComponent
 	private HashMap<ResultCacheKey,ResultCacheEntry> resultCache;
 	private StateEliminator.EliminationOrder eliminationOrder;
 	private Lumper.BisimType bisimType;
+	/** statistics over all state eliminations performed */
+	private int numEliminations;
+	private long numNewTransitions;
+	private long numFunctions;
+	private long totalFunctionSize;
+	private int maxFunctionSize;
 
 	ValueComputer(PrismComponent parent, ParamMode mode, ParamModel model, RegionFactory regionFactory, BigRational precision, StateEliminator.EliminationOrder eliminationOrder, Lumper.BisimType bisimType) {
 		super(parent);
@@ -727,8 +733,13 @@ final class ValueComputer extends PrismComponent
 		}
 		
 		MutablePMC quot = lumper.getQuotient();
-		StateEliminator eliminator = new StateEliminator(quot, eliminationOrder);
+		StateEliminator eliminator = new StateEliminator(quot, eliminationOrder, regionFactory.getNumThreads());
 		eliminator.eliminate();
+		numEliminations++;
+		numNewTransitions += eliminator.getNumNewTransitions();
+		numFunctions += eliminator.getNumFunctions();
+		totalFunctionSize += eliminator.getTotalFunctionSize();
+		maxFunctionSize = Math.max(maxFunctionSize, eliminator.getMaxFunctionSize());
 		int[] origToCopy = lumper.getOriginalToOptimised();
 		StateValues result = new StateValues(pmc.getNumStates(), initState);
 		for (int state = 0; state < origToCopy.length; state++) {
@@ -767,4 +778,27 @@ final class ValueComputer extends PrismComponent
 		}
 		return result;
 	}
+
+	/**
+	 * Returns the number of state eliminations performed so far.
+	 */
+	int getNumEliminations()
+	{
+		return numEliminations;
+	}
+
+	/**
+	 * Returns a summary of the cost of the state eliminations performed so far:
+	 * the number of transitions added (fill-in) and the sizes of the resulting functions.
+	 */
+	String getEliminationStatistics()
+	{
+		String s = numEliminations + (numEliminations == 1 ? " run, " : " runs, ");
+		s += numNewTransitions + " new transitions (fill-in), ";
+		s += "function size: max " + maxFunctionSize;
+		if (numFunctions > 0) {
+			s += ", avg " + Math.round(10.0 * totalFunctionSize / numFunctions) / 10.0;
+		}
+		return s;
+	}
 }
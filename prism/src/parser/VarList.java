@@ -500,6 +500,24 @@ public class VarList
 		return state;
 	}
 
+	/**
+	 * Reorder the variables in this list, such that the variable at position i
+	 * is the one that was previously at position {@code order[i]}.
+	 * @param order A permutation of 0, ..., getNumVars()-1
+	 */
+	public void reorder(int[] order)
+	{
+		int i, n;
+		n = getNumVars();
+		List<Var> oldVars = vars;
+		vars = new ArrayList<Var>(n);
+		nameMap = new HashMap<String, Integer>(n);
+		for (i = 0; i < n; i++) {
+			vars.add(oldVars.get(order[i]));
+			nameMap.put(getName(i), i);
+		}
+	}
+
 	/**
 	 * Clone this list.
 	 */
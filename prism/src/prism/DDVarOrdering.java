@@ -0,0 +1,218 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package prism;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import parser.VarList;
+import parser.ast.Command;
+import parser.ast.ModulesFile;
+import parser.ast.Update;
+import parser.ast.Updates;
+
+/**
+ * Static heuristic for the order of the (row/column) DD variables of a model,
+ * based on the dependencies between model variables in its description:
+ * variables that are read or updated by the same command, or by commands
+ * synchronising on the same action, are placed close together.
+ * <br>
+ * This uses the FORCE heuristic (Aloul/Markov/Sakallah, GLSVLSI'03) on the hypergraph
+ * with a hyperedge for each such set of variables, minimising the total span of the hyperedges.
+ */
+public class DDVarOrdering
+{
+	/** Maximum number of iterations of the FORCE heuristic */
+	private static final int MAX_ITERS = 100;
+
+	/**
+	 * Compute an order for the variables in {@code varList}, based on the dependencies
+	 * between them in {@code modulesFile}, as a permutation in the format
+	 * of {@link VarList#reorder(int[])}. Variables are weighted by their number of DD variables.
+	 * The current order of {@code varList} is used as the starting point,
+	 * and is returned (i.e., the identity) if no order with smaller span is found.
+	 */
+	public static int[] computeDependencyOrder(ModulesFile modulesFile, VarList varList) throws PrismException
+	{
+		List<int[]> edges = buildDependencyHypergraph(modulesFile, varList);
+		int numVars = varList.getNumVars();
+		int bits[] = new int[numVars];
+		for (int i = 0; i < numVars; i++) {
+			bits[i] = varList.getRangeLogTwo(i);
+		}
+
+		Integer order[] = new Integer[numVars];
+		for (int i = 0; i < numVars; i++) {
+			order[i] = i;
+		}
+		double pos[] = computePositions(order, bits);
+		double span = computeSpan(edges, pos);
+		double bestSpan = span;
+		Integer bestOrder[] = order.clone();
+
+		double cog[] = new double[edges.size()];
+		double newPos[] = new double[numVars];
+		int count[] = new int[numVars];
+		for (int iters = 0; iters < MAX_ITERS; iters++) {
+			// Compute centre of gravity of each hyperedge
+			for (int e = 0; e < cog.length; e++) {
+				double sum = 0;
+				for (int v : edges.get(e)) {
+					sum += pos[v];
+				}
+				cog[e] = sum / edges.get(e).length;
+			}
+			// Move each variable to the average centre of gravity of its hyperedges
+			Arrays.fill(newPos, 0);
+			Arrays.fill(count, 0);
+			for (int e = 0; e < cog.length; e++) {
+				for (int v : edges.get(e)) {
+					newPos[v] += cog[e];
+					count[v]++;
+				}
+			}
+			for (int v = 0; v < numVars; v++) {
+				newPos[v] = (count[v] == 0) ? pos[v] : newPos[v] / count[v];
+			}
+			// Sort by new position (ties broken by current position) and re-space
+			final double oldPos[] = pos.clone();
+			final double sortPos[] = newPos.clone();
+			Arrays.sort(order, Comparator.<Integer> comparingDouble(v -> sortPos[v]).thenComparingDouble(v -> oldPos[v]));
+			pos = computePositions(order, bits);
+			double newSpan = computeSpan(edges, pos);
+			if (newSpan < bestSpan) {
+				bestSpan = newSpan;
+				bestOrder = order.clone();
+			}
+			// Stop once there is no further improvement
+			if (newSpan >= span) {
+				break;
+			}
+			span = newSpan;
+		}
+
+		int result[] = new int[numVars];
+		for (int i = 0; i < numVars; i++) {
+			result[i] = bestOrder[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Build the dependency hypergraph for the variables in {@code varList}
+	 * (as a list of hyperedges, i.e. arrays of variable indices), containing:
+	 * for each unlabelled command, or for each action, a hyperedge with all variables
+	 * appearing in the guards and updates of the command(s); and, for each variable update,
+	 * a hyperedge with the updated variable and the variables in the expression assigned to it.
+	 * Hyperedges with less than two variables are omitted.
+	 */
+	private static List<int[]> buildDependencyHypergraph(ModulesFile modulesFile, VarList varList) throws PrismException
+	{
+		List<BitSet> edges = new ArrayList<BitSet>();
+		Map<String, BitSet> synchEdges = new LinkedHashMap<String, BitSet>();
+		int numModules = modulesFile.getNumModules();
+		for (int m = 0; m < numModules; m++) {
+			parser.ast.Module module = modulesFile.getModule(m);
+			int numCommands = module.getNumCommands();
+			for (int c = 0; c < numCommands; c++) {
+				Command command = module.getCommand(c);
+				BitSet edge;
+				if ("".equals(command.getSynch())) {
+					edge = new BitSet();
+					edges.add(edge);
+				} else {
+					edge = synchEdges.computeIfAbsent(command.getSynch(), s -> new BitSet());
+				}
+				// Variables read in guard/probabilities/updates
+				for (String var : command.getAllVars()) {
+					edge.set(varList.getIndex(var));
+				}
+				// Variables written in updates (and those they depend on)
+				Updates updates = command.getUpdates();
+				for (int i = 0; i < updates.getNumUpdates(); i++) {
+					Update update = updates.getUpdate(i);
+					for (int j = 0; j < update.getNumElements(); j++) {
+						BitSet updateEdge = new BitSet();
+						updateEdge.set(varList.getIndex(update.getVar(j)));
+						for (String var : update.getExpression(j).getAllVars()) {
+							updateEdge.set(varList.getIndex(var));
+						}
+						edge.or(updateEdge);
+						edges.add(updateEdge);
+					}
+				}
+			}
+		}
+		edges.addAll(synchEdges.values());
+
+		List<int[]> result = new ArrayList<int[]>();
+		for (BitSet edge : edges) {
+			if (edge.cardinality() > 1) {
+				result.add(edge.stream().toArray());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Compute the position of each variable, for a given order,
+	 * as the centre of its DD variables in the overall order.
+	 */
+	private static double[] computePositions(Integer order[], int bits[])
+	{
+		double pos[] = new double[order.length];
+		int offset = 0;
+		for (int i = 0; i < order.length; i++) {
+			pos[order[i]] = offset + bits[order[i]] / 2.0;
+			offset += bits[order[i]];
+		}
+		return pos;
+	}
+
+	/**
+	 * Compute the total span (distance between the first and last variable)
+	 * of all hyperedges, for the given variable positions.
+	 */
+	private static double computeSpan(List<int[]> edges, double pos[])
+	{
+		double span = 0;
+		for (int[] edge : edges) {
+			double min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+			for (int v : edge) {
+				min = Math.min(min, pos[v]);
+				max = Math.max(max, pos[v]);
+			}
+			span += max - min;
+		}
+		return span;
+	}
+}
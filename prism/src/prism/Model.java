@@ -188,6 +188,7 @@ public interface Model
 	void setReach(JDDNode reach) throws PrismException;
 	void setTransActions(JDDNode transActions); // MDPs only
 	void setTransPerAction(JDDNode[] transPerAction); // D/CTMCs only
+	void setTransReachParts(JDDNode[] transReachParts); // for chaining/saturation reachability
 	void filterReachableStates();
 	
 	/**
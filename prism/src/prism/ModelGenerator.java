@@ -65,6 +65,17 @@ public interface ModelGenerator extends ModelInfo
 	 */
 	public State getInitialState() throws PrismException;
 	
+	/**
+	 * Create a new, independent copy of this model generator, e.g. for use in a separate thread.
+	 * The copy should generate the same model but not share any mutable exploration state.
+	 * Returns null if copying is not supported (the default), in which case callers
+	 * should fall back to using this model generator sequentially.
+	 */
+	public default ModelGenerator createCopy() throws PrismException
+	{
+		return null;
+	}
+	
 	/**
 	 * Explore a given state of the model. After a call to this method,
 	 * the class should be able to respond to the various methods that are
@@ -26,6 +26,7 @@
 
 package prism;
 
+import java.util.Arrays;
 import java.util.Vector;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -80,6 +81,7 @@ public class Modules2MTBDD
 	private JDDNode transPerAction[];	// dds for transitions for each action (D/CTMCs)
 	private JDDNode transInd;	// dds for independent bits of trans
 	private JDDNode transSynch[];	// dds for synch action parts of trans
+	private JDDNode transReachParts[];	// parts of 0-1 trans for partitioned reachability
 	private JDDVars allDDRowVars;		// all dd vars (rows)
 	private JDDVars allDDColVars;		// all dd vars (cols)
 	private JDDVars allDDSynchVars;		// all dd vars (synchronising actions)
@@ -118,10 +120,15 @@ public class Modules2MTBDD
 	private int numModulesAfterSymm;	// number of modules in the PRISM file after the symmetric ones
 	private int numSymmModules;			// number of symmetric components
 	
+	// variable reordering info
+	private int numNodesBeforeReorder = -1;	// size of trans for the original variable order (-1 if unknown)
+	
 	// hidden option - do we also store each part of the transition matrix separately? (now defunct)
 	private boolean storeTransParts = false; 
 	// hidden option - do we also store action info for the transition matrix? (supersedes the above)
 	private boolean storeTransActions = true; 
+	// do we also store the parts of the transition relation for partitioned (chaining/saturation) reachability?
+	private boolean storeTransReachParts = false;
 	
 	// data structure used to store mtbdds and related info
 	// for some component of the whole model
@@ -191,6 +198,19 @@ public class Modules2MTBDD
 		synchs = modulesFile.getSynchs();
 		numSynchs = synchs.size();
 		
+		// choose a different variable ordering, if required
+		String reorder = prism.getSettings().getString(PrismSettings.PRISM_DD_REORDER);
+		if (!"None".equals(reorder) && numVars > 1) {
+			// (ordering 2 for MDPs and symmetry reduction need the variables of each module to be contiguous)
+			if (doSymmetry) {
+				mainLog.printWarning("Variable reordering is not supported with symmetry reduction, so it is disabled");
+			} else if (prism.getOrdering() != 1 && modelType == ModelType.MDP) {
+				mainLog.printWarning("Variable reordering for MDPs is only supported for MTBDD ordering 1 (-o1), so it is disabled");
+			} else {
+				reorderVars(reorder);
+			}
+		}
+		
 		// allocate dd variables
 		allocateDDVars();
 		sortDDVars();
@@ -201,6 +221,7 @@ public class Modules2MTBDD
 		expr2mtbdd = new StateModelChecker(prism, varList, allDDRowVars, varDDRowVars, constantValues);
 		
 		// translate modules file into dd
+		storeTransReachParts = prism.getDoReach() && (prism.getReachMethod() == Prism.REACH_CHAINING || prism.getReachMethod() == Prism.REACH_SATURATION);
 		translateModules();
 		
 		// get rid of any nondet dd variables not needed
@@ -239,6 +260,10 @@ public class Modules2MTBDD
 			mainLog.print(JDD.GetNumNodes(trans) + " nodes (");
 			mainLog.print(JDD.GetNumTerminals(trans) + " terminal)\n");
 		}
+		if (numNodesBeforeReorder != -1) {
+			mainLog.print("Transition matrix (pre-reachability): " + numNodesBeforeReorder + " nodes with original variable order, ");
+			mainLog.print(JDD.GetNumNodes(trans) + " nodes after reordering\n");
+		}
 		
 		// build bdd for initial state(s)
 		buildInitialStates();
@@ -285,6 +310,11 @@ public class Modules2MTBDD
 			model.setTransPerAction(transPerAction);
 		}
 		
+		// For chaining/saturation reachability, pass on the parts of the transition relation
+		if (storeTransReachParts) {
+			model.setTransReachParts(transReachParts);
+		}
+		
 		// do reachability (or not)
 		if (prism.getDoReach()) {
 			mainLog.print("\nComputing reachable states...\n");
@@ -309,6 +339,15 @@ public class Modules2MTBDD
 		model.findDeadlocks(prism.getFixDeadlocks());
 		
 		// deref spare dds
+		derefSpareDDs();
+		
+		return model;
+	}
+	
+	// deref dds used during translation but not stored in the model
+	
+	private void derefSpareDDs()
+	{
 		globalDDRowVars.derefAll();
 		globalDDColVars.derefAll();
 		JDD.DerefArray(moduleIdentities, numModules);
@@ -328,8 +367,140 @@ public class Modules2MTBDD
 		}
 		
 		expr2mtbdd.clearDummyModel();
+	}
+	
+	// reorder the variables in varList (and hence the dd variables allocated for them)
+	// using the specified method (see PrismSettings.PRISM_DD_REORDER)
+	
+	private void reorderVars(String method) throws PrismException
+	{
+		int order[];
+		int i, numNodesSifted = -1;
+		String s;
 		
-		return model;
+		mainLog.print("\nReordering variables (" + method + ")...\n");
+		// for sifting (or for statistics), build the transition matrix with the original order first
+		numNodesBeforeReorder = -1;
+		if ("Sifting".equals(method) || prism.getExtraDDInfo()) {
+			translateTrial();
+			numNodesBeforeReorder = JDD.GetNumNodes(trans);
+		}
+		if ("Sifting".equals(method)) {
+			order = computeSiftingOrder();
+			numNodesSifted = JDD.GetNumNodes(trans);
+		} else {
+			order = DDVarOrdering.computeDependencyOrder(modulesFile, varList);
+		}
+		if (numNodesBeforeReorder != -1) {
+			derefTrial();
+		}
+		if (numNodesSifted != -1) {
+			mainLog.print("Sifting reduced transition matrix from " + numNodesBeforeReorder + " to " + numNodesSifted + " nodes\n");
+		}
+		varList.reorder(order);
+		s = "";
+		for (i = 0; i < numVars; i++) {
+			s += (i > 0 ? " " : "") + varList.getName(i);
+		}
+		mainLog.print("Variable order: " + s + "\n");
+	}
+	
+	// build the transition matrix (only) for the current variable order,
+	// to be discarded afterwards with derefTrial()
+	
+	private void translateTrial() throws PrismException
+	{
+		boolean storeTransActionsOld = storeTransActions;
+		boolean storeTransPartsOld = storeTransParts;
+		boolean storeTransReachPartsOld = storeTransReachParts;
+		
+		storeTransActions = false;
+		storeTransParts = false;
+		storeTransReachParts = false;
+		try {
+			allocateDDVars();
+			sortDDVars();
+			sortIdentities();
+			sortRanges();
+			expr2mtbdd = new StateModelChecker(prism, varList, allDDRowVars, varDDRowVars, constantValues);
+			translateModules();
+		} finally {
+			storeTransActions = storeTransActionsOld;
+			storeTransParts = storeTransPartsOld;
+			storeTransReachParts = storeTransReachPartsOld;
+		}
+	}
+	
+	// deref all dds built by translateTrial()
+	// and restore the original order of the dd variables (if they were reordered)
+	
+	private void derefTrial()
+	{
+		int i;
+		
+		JDD.Deref(trans);
+		JDD.DerefArray(stateRewards, numRewardStructs);
+		JDD.DerefArray(transRewards, numRewardStructs);
+		allDDRowVars.derefAll();
+		allDDColVars.derefAll();
+		if (modelType == ModelType.MDP) {
+			allDDSynchVars.derefAll();
+			allDDSchedVars.derefAll();
+			allDDChoiceVars.derefAll();
+			allDDNondetVars.derefAll();
+		}
+		for (i = 0; i < numModules; i++) {
+			moduleDDRowVars[i].derefAll();
+			moduleDDColVars[i].derefAll();
+		}
+		for (i = 0; i < numVars; i++) {
+			varDDRowVars[i].derefAll();
+			varDDColVars[i].derefAll();
+		}
+		derefSpareDDs();
+		modelVariables.clear();
+		JDD.RestoreIndexOrder();
+	}
+	
+	// compute an order for the variables in varList by sifting (dynamic reordering)
+	// of the dd variables of the transition matrix built by translateTrial():
+	// the row/col dd variables of each variable are kept together (in their interleaved order)
+	// and the nondeterministic/extra dd variables stay at the top.
+	// the dd variables are left reordered; derefTrial() restores the original order.
+	
+	private int[] computeSiftingOrder()
+	{
+		Integer order[];
+		int result[];
+		int i, first, end;
+		
+		// set up groups of dd variables
+		first = varDDRowVars[0].getVarIndex(0);
+		end = varDDColVars[numVars - 1].getMaxVarIndex() + 1;
+		JDD.MakeVarGroup(0, end, true);
+		if (first > 0) {
+			JDD.MakeVarGroup(0, first, true);
+		}
+		JDD.MakeVarGroup(first, end - first, false);
+		for (i = 0; i < numVars; i++) {
+			JDD.MakeVarGroup(varDDRowVars[i].getVarIndex(0), varDDRowVars[i].getNumVars() + varDDColVars[i].getNumVars(), true);
+		}
+		// reorder
+		JDD.ReorderSift(true);
+		JDD.FreeVarGroups();
+		// read off the new order of the variables
+		final int level[] = new int[numVars];
+		order = new Integer[numVars];
+		for (i = 0; i < numVars; i++) {
+			level[i] = JDD.GetVarLevel(varDDRowVars[i].getVarIndex(0));
+			order[i] = i;
+		}
+		Arrays.sort(order, (v1, v2) -> Integer.compare(level[v1], level[v2]));
+		result = new int[numVars];
+		for (i = 0; i < numVars; i++) {
+			result[i] = order[i];
+		}
+		return result;
 	}
 	
 	// allocate DD vars for system
@@ -804,6 +975,11 @@ public class Modules2MTBDD
 			}
 		}
 		
+		// For chaining/saturation reachability, we also build the parts of the 0-1 transition relation
+		if (storeTransReachParts) {
+			transReachParts = buildTransReachParts(sysDDs);
+		}
+		
 		// If required, we also build MTBDD(s) to store the action labels for each transition.
 		// The indexing of actions is as follows:
 		// independent ("tau", non-action-labelled) transitions have index 0;
@@ -854,6 +1030,43 @@ public class Modules2MTBDD
 		JDD.Deref(sysDDs.id);
 	}
 
+	// build the parts of the 0-1 transition relation used for partitioned (chaining/saturation) reachability:
+	// one for each action and, for independent ("tau") transitions, one for each module
+	// (those which leave the variables of all other modules unchanged) plus one for any others (e.g. hidden actions)
+	
+	private JDDNode[] buildTransReachParts(SystemDDs sysDDs)
+	{
+		JDDNode parts[], ind, covered, tmp;
+		int i, j;
+		
+		parts = new JDDNode[numModules + 1 + numSynchs];
+		ind = JDD.GreaterThan(sysDDs.ind.trans.copy(), 0);
+		if (modelType == ModelType.MDP) {
+			ind = JDD.ThereExists(ind, allDDNondetVars);
+		}
+		covered = JDD.Constant(0);
+		for (i = 0; i < numModules; i++) {
+			tmp = ind.copy();
+			for (j = 0; j < numModules; j++) {
+				if (j != i) {
+					tmp = JDD.And(tmp, moduleIdentities[j].copy());
+				}
+			}
+			covered = JDD.Or(covered, tmp.copy());
+			parts[i] = tmp;
+		}
+		parts[numModules] = JDD.And(ind, JDD.Not(covered));
+		for (i = 0; i < numSynchs; i++) {
+			tmp = JDD.GreaterThan(sysDDs.synchs[i].trans.copy(), 0);
+			if (modelType == ModelType.MDP) {
+				tmp = JDD.ThereExists(tmp, allDDNondetVars);
+			}
+			parts[numModules + 1 + i] = tmp;
+		}
+		
+		return parts;
+	}
+
 	// recursive part of system composition (descend parse tree)
 	
 	private SystemDDs translateSystemDefnRec(SystemDefn sys, int[] synchMin) throws PrismException
@@ -211,7 +211,7 @@ public class NondetModel extends ProbModel
 		tmp = JDD.MaxAbstract(trans01, allDDNondetVars);
 
 		// compute reachable states
-		JDDNode reachable = PrismMTBDD.Reachability(tmp, allDDRowVars, allDDColVars, start);
+		JDDNode reachable = computeReachable(tmp, start);
 		JDD.Deref(tmp);
 
 		// set the reachable states, compute numStates, create the ODD, etc
@@ -243,7 +243,7 @@ public class NondetModel extends ProbModel
 		JDDNode S = JDD.Or(start.copy(), seed);
 
 		// compute reachable states
-		JDDNode reachable = PrismMTBDD.Reachability(tmp, allDDRowVars, allDDColVars, S);
+		JDDNode reachable = computeReachable(tmp, S);
 		JDD.Deref(tmp);
 		JDD.Deref(S);
 
@@ -57,12 +57,14 @@ import param.ParamResult;
 import parser.PrismParser;
 import parser.State;
 import parser.Values;
+import parser.VarList;
 import parser.ast.Expression;
 import parser.ast.ForLoop;
 import parser.ast.LabelList;
 import parser.ast.ModulesFile;
 import parser.ast.PropertiesFile;
 import parser.ast.Property;
+import parser.type.Type;
 import pta.DigitalClocks;
 import pta.PTAModelChecker;
 import simulator.GenerateSimulationPath;
@@ -222,9 +224,6 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	//  2 - (s l ... l r c ... r c) (s l ... l r c ... r c) ...
 	private int ordering = 1;
 
-	// Method to use for (symbolic) state-space reachability
-	private int reachMethod = REACH_BFS;
-
 	//------------------------------------------------------------------------------
 	// Parsers/translators/model checkers/simulators/etc.
 	//------------------------------------------------------------------------------
@@ -246,7 +245,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	//------------------------------------------------------------------------------
 
 	private enum ModelSource {
-		PRISM_MODEL, MODEL_GENERATOR, EXPLICIT_FILES, BUILT_MODEL
+		PRISM_MODEL, MODEL_GENERATOR, EXPLICIT_FILES, BINARY_FILE, BUILT_MODEL
 	}
 
 	// Info about currently loaded model, if any
@@ -278,6 +277,11 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	private File explicitFilesLabelsFile = null;
 	private File explicitFilesStateRewardsFile = null;
 	private int explicitFilesNumStates = -1;
+	private boolean explicitFilesOffHeap = false;
+	// Model loaded from a binary file (if any)
+	private explicit.ModelExplicit binaryFileModel = null;
+	// Solution of last bounded until computation, during an incremental sweep over bounds (null if none)
+	private explicit.BoundSweepCache boundSweepCache = null;
 
 	// Has the CUDD library been initialised yet?
 	private boolean cuddStarted = false;
@@ -651,10 +655,12 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 
 	public static int REACH_BFS = 1;
 	public static int REACH_FRONTIER = 2;
+	public static int REACH_CHAINING = 3;
+	public static int REACH_SATURATION = 4;
 
-	public void setReachMethod(int reachMethod)
+	public void setReachMethod(int reachMethod) throws PrismException
 	{
-		this.reachMethod = reachMethod;
+		settings.setChoice(PrismSettings.PRISM_REACH_METHOD, reachMethod);
 	}
 
 	// Get methods
@@ -991,9 +997,13 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		return ordering;
 	}
 
+	/**
+	 * Get the method to use for (symbolic) state-space reachability
+	 * (one of REACH_BFS, REACH_FRONTIER, REACH_CHAINING, REACH_SATURATION).
+	 */
 	public int getReachMethod()
 	{
-		return reachMethod;
+		return settings.getChoice(PrismSettings.PRISM_REACH_METHOD);
 	}
 
 	/**
@@ -1126,6 +1136,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 
 	/**
 	 * Get an SCCComputer object for the explicit engine.
+	 * Type (i.e. algorithm) depends on explicit SCC method PRISM option.
 	 * @param consumer the SCCConsumer
 	 */
 	public explicit.SCCComputer getExplicitSCCComputer(explicit.Model model, explicit.SCCConsumer consumer) throws PrismException
@@ -1927,6 +1938,23 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	 * @param typeOverride Model type (auto-detected if {@code null})
 	 */
 	public void loadModelFromExplicitFiles(File statesFile, File transFile, File labelsFile, File stateRewardsFile, ModelType typeOverride) throws PrismException
+	{
+		loadModelFromExplicitFiles(statesFile, transFile, labelsFile, stateRewardsFile, typeOverride, false);
+	}
+
+	/**
+	 * Load files containing an explicit list of transitions/etc. for subsequent model building.
+	 * If {@code offHeap} is true, the transition function is read straight into off-heap storage
+	 * when the model is built (explicit engine, DTMCs and MDPs only),
+	 * which requires transitions to be ordered as in files exported by PRISM.
+	 * @param statesFile File containing a list of states (optional, can be null)
+	 * @param transFile File containing the list of transitions (required)
+	 * @param labelsFile File containing label definitions (optional, can be null)
+	 * @param stateRewardsFile File containing state reward definitions (optional, can be null)
+	 * @param typeOverride Model type (auto-detected if {@code null})
+	 * @param offHeap Whether to store the transition function off-heap
+	 */
+	public void loadModelFromExplicitFiles(File statesFile, File transFile, File labelsFile, File stateRewardsFile, ModelType typeOverride, boolean offHeap) throws PrismException
 	{
 		currentModelSource = ModelSource.EXPLICIT_FILES;
 		// Clear any existing built model(s)
@@ -1943,11 +1971,91 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		explicitFilesLabelsFile = labelsFile;
 		explicitFilesStateRewardsFile = stateRewardsFile;
 		explicitFilesNumStates = ef2mi.getNumStates();
+		explicitFilesOffHeap = offHeap;
 		// Reset dependent info
 		currentModelType = currentModelInfo == null ? null : currentModelInfo.getModelType();
 		currentDefinedMFConstants = null;
 	}
 
+	/**
+	 * Load a model from a file in PRISM's binary format (see {@link explicit.BinaryModelFile}),
+	 * as produced by {@link #exportToBinaryFile(File)}, for subsequent model checking.
+	 * The model is read straight away; it can only be used with the explicit engine.
+	 * @param file The binary model file
+	 */
+	public void loadModelFromBinaryFile(File file) throws PrismException
+	{
+		loadModelFromBinaryFile(file, false);
+	}
+
+	/**
+	 * Load a model from a file in PRISM's binary format (see {@link explicit.BinaryModelFile}),
+	 * as produced by {@link #exportToBinaryFile(File)}, for subsequent model checking.
+	 * The model is read straight away; it can only be used with the explicit engine.
+	 * If {@code offHeap} is true, the transition function is mapped from the file,
+	 * rather than copied onto the Java heap (this is always done for very large models).
+	 * @param file The binary model file
+	 * @param offHeap Whether to store the transition function off-heap
+	 */
+	public void loadModelFromBinaryFile(File file, boolean offHeap) throws PrismException
+	{
+		currentModelSource = ModelSource.BINARY_FILE;
+		// Clear any existing built model(s)
+		clearBuiltModel();
+		// Load model
+		long l = System.currentTimeMillis();
+		binaryFileModel = explicit.BinaryModelFile.load(file, offHeap);
+		l = System.currentTimeMillis() - l;
+		mainLog.println("\nTime for loading binary model: " + l / 1000.0 + " seconds.");
+		// Construct ModelInfo from the loaded model
+		ModelType modelType = binaryFileModel.getModelType();
+		VarList varList = binaryFileModel.getVarList() == null ? new VarList() : binaryFileModel.getVarList();
+		List<String> varNames = new ArrayList<String>();
+		List<Type> varTypes = new ArrayList<Type>();
+		for (int i = 0; i < varList.getNumVars(); i++) {
+			varNames.add(varList.getName(i));
+			varTypes.add(varList.getType(i));
+		}
+		List<String> labelNames = new ArrayList<String>(binaryFileModel.getLabels());
+		currentModelInfo = new ModelInfo()
+		{
+			@Override
+			public ModelType getModelType()
+			{
+				return modelType;
+			}
+
+			@Override
+			public List<String> getVarNames()
+			{
+				return varNames;
+			}
+
+			@Override
+			public List<Type> getVarTypes()
+			{
+				return varTypes;
+			}
+
+			@Override
+			public VarList createVarList() throws PrismException
+			{
+				return varList;
+			}
+
+			@Override
+			public List<String> getLabelNames()
+			{
+				return labelNames;
+			}
+		};
+		currentModulesFile = null;
+		currentRewardGenerator = explicit.BinaryModelFile.loadRewards(file, binaryFileModel);
+		// Reset dependent info
+		currentModelType = modelType;
+		currentDefinedMFConstants = null;
+	}
+
 	/**
 	 * Get the type of the currently stored model.
 	 * @return
@@ -1990,6 +2098,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 				throw new PrismException("There is no currently loaded model generator");
 			case BUILT_MODEL:
 			case EXPLICIT_FILES:
+			case BINARY_FILE:
 				buildModelIfRequired();
 				if (currentModelGenerator != null) {
 					return currentModelGenerator;
@@ -2119,17 +2228,29 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 				break;
 			case EXPLICIT_FILES:
 				if (!getExplicit()) {
+					if (explicitFilesOffHeap) {
+						throw new PrismNotSupportedException("Off-heap import of models is only supported by the explicit engine");
+					}
 					expf2mtbdd = new ExplicitFiles2MTBDD(this);
 					currentModel = expf2mtbdd.build(explicitFilesStatesFile, explicitFilesTransFile, explicitFilesLabelsFile, explicitFilesStateRewardsFile,
 							currentModelInfo, explicitFilesNumStates);
 				} else {
-					currentModelExpl = new ExplicitFiles2Model(this).build(explicitFilesStatesFile, explicitFilesTransFile, explicitFilesLabelsFile, currentModelInfo, explicitFilesNumStates);
+					ExplicitFiles2Model expf2model = new ExplicitFiles2Model(this);
+					expf2model.setOffHeap(explicitFilesOffHeap);
+					currentModelExpl = expf2model.build(explicitFilesStatesFile, explicitFilesTransFile, explicitFilesLabelsFile, currentModelInfo, explicitFilesNumStates);
 					currentModelGenerator = new ModelModelGenerator(currentModelExpl, currentModelInfo);
 					ExplicitFilesRewardGenerator efrg = new ExplicitFilesRewardGenerator(this, explicitFilesStateRewardsFile, explicitFilesNumStates);
 					efrg.setStatesList(currentModelExpl.getStatesList());
 					currentRewardGenerator = efrg;
 				}
 				break;
+			case BINARY_FILE:
+				if (!getExplicit()) {
+					throw new PrismNotSupportedException("Models loaded from binary files can only be used with the explicit engine");
+				}
+				currentModelExpl = binaryFileModel;
+				currentModelGenerator = new ModelModelGenerator(currentModelExpl, currentModelInfo);
+				break;
 			default:
 				throw new PrismException("Don't know how to build model from source " + currentModelSource);
 			}
@@ -2901,6 +3022,29 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		}
 	}
 
+	/**
+	 * Export the currently loaded model to a file in PRISM's binary format (see {@link explicit.BinaryModelFile}),
+	 * from which it can be reloaded quickly with {@link #loadModelFromBinaryFile(File)}.
+	 * This is only supported for DTMCs and MDPs, built with the explicit engine.
+	 * Reward structures are included (transition rewards only for MDPs).
+	 * @param file File to export to
+	 */
+	public void exportToBinaryFile(File file) throws PrismException
+	{
+		if (!getExplicit()) {
+			throw new PrismNotSupportedException("Binary model export is only supported for the explicit engine");
+		}
+
+		// Build model, if necessary
+		buildModelIfRequired();
+
+		// Print message
+		mainLog.println("\nExporting model in binary format to file \"" + file + "\"...");
+
+		// Export
+		explicit.BinaryModelFile.export(currentModelExpl, currentModelInfo, currentRewardGenerator, file);
+	}
+
 	/**
 	 * Export the currently loaded model's states to a file
 	 * @param exportType Type of export; one of: <ul>
@@ -2943,6 +3087,34 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 			tmpLog.close();
 	}
 
+	/**
+	 * Notify PRISM that a sequence of calls to model checking for the same property,
+	 * with increasing values of a (step/time) bound, i.e. an experiment, is about to start.
+	 * If enabled (see {@link PrismSettings#PRISM_INCREMENTAL_BOUNDS}), the explicit engine
+	 * continues each bounded until computation from the result for the previous bound,
+	 * where possible, until {@link #endBoundSweep()} is called.
+	 */
+	public void startBoundSweep()
+	{
+		if (settings.getBoolean(PrismSettings.PRISM_INCREMENTAL_BOUNDS)) {
+			boundSweepCache = new explicit.BoundSweepCache();
+		}
+	}
+
+	/**
+	 * Notify PRISM that a sequence of model checking calls started with {@link #startBoundSweep()} is over.
+	 */
+	public void endBoundSweep()
+	{
+		if (boundSweepCache != null) {
+			if (boundSweepCache.getNumReused() > 0) {
+				mainLog.println("\nIncremental bounds: " + boundSweepCache.getNumReused() + " of "
+						+ (boundSweepCache.getNumReused() + boundSweepCache.getNumRestarted()) + " bounded computations continued from a previous bound");
+			}
+			boundSweepCache = null;
+		}
+	}
+
 	/**
 	 * Perform model checking of a property on the currently loaded model and return result.
 	 * Here, the property is passed as a string and parsed first. Usually, you would use the other
@@ -3685,6 +3857,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	public void doTransient(UndefinedConstants times, int exportType, File fileOut, File fileIn) throws PrismException
 	{
 		int i, timeInt = 0, initTimeInt = 0;
+		boolean restart;
 		double timeDouble = 0, initTimeDouble = 0;
 		Object time;
 		long l = 0; // timer
@@ -3714,10 +3887,14 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 				timeInt = ((Integer) time).intValue();
 			if (currentModelType.continuousTime() ? (((Double) time).doubleValue() < 0) : (((Integer) time).intValue() < 0))
 				throw new PrismException("Cannot compute transient probabilities for negative time value");
+			// Each distribution is computed from the previous one, unless the times are not increasing
+			restart = (i == 0) || (currentModelType.continuousTime() ? timeDouble < initTimeDouble : timeInt < initTimeInt);
 
 			// Print message
 			mainLog.printSeparator();
 			mainLog.println("\nComputing transient probabilities (time = " + time + ")...");
+			if (restart && i > 0)
+				mainLog.println("Time is smaller than the previous one, so restarting from the initial distribution");
 
 			l = System.currentTimeMillis();
 
@@ -3726,7 +3903,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 				ModulesFileModelGenerator prismModelGen = new ModulesFileModelGenerator(currentModulesFile, this);
 				FastAdaptiveUniformisation fau = new FastAdaptiveUniformisation(this, prismModelGen);
 				fau.setConstantValues(currentModulesFile.getConstantValues());
-				if (i == 0) {
+				if (restart) {
 					probsExpl = fau.doTransient(timeDouble, fileIn, currentModel);
 					initTimeDouble = 0.0;
 				} else {
@@ -3738,14 +3915,18 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 				buildModelIfRequired();
 				if (currentModelType.continuousTime()) {
 					StochModelChecker mc = new StochModelChecker(this, currentModel, null);
-					if (i == 0) {
+					if (restart) {
+						if (initDist != null)
+							initDist.clear();
 						initDist = mc.readDistributionFromFile(fileIn);
 						initTimeDouble = 0;
 					}
 					probs = ((StochModelChecker) mc).doTransient(timeDouble - initTimeDouble, initDist);
 				} else {
 					ProbModelChecker mc = new ProbModelChecker(this, currentModel, null);
-					if (i == 0) {
+					if (restart) {
+						if (initDist != null)
+							initDist.clear();
 						initDist = mc.readDistributionFromFile(fileIn);
 						initTimeInt = 0;
 					}
@@ -3757,14 +3938,14 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 				buildModelIfRequired();
 				if (currentModelType.continuousTime()) {
 					CTMCModelChecker mc = new CTMCModelChecker(this);
-					if (i == 0) {
+					if (restart) {
 						initDistExpl = mc.readDistributionFromFile(fileIn, currentModelExpl);
 						initTimeDouble = 0;
 					}
 					probsExpl = mc.doTransient((CTMC) currentModelExpl, timeDouble - initTimeDouble, initDistExpl);
 				} else {
 					DTMCModelChecker mc = new DTMCModelChecker(this);
-					if (i == 0) {
+					if (restart) {
 						initDistExpl = mc.readDistributionFromFile(fileIn, currentModelExpl);
 						initTimeInt = 0;
 					}
@@ -3939,6 +4120,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		mc.setGenStrat(genStrat);
 		mc.setRestrictStratToReach(restrictStratToReach);
 		mc.setDoBisim(doBisim);
+		mc.setBoundSweepCache(boundSweepCache);
 
 		return mc;
 	}
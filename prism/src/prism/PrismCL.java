@@ -64,6 +64,8 @@ public class PrismCL implements PrismModelListener
 	private boolean importpepa = false;
 	private boolean importprismpp = false;
 	private boolean importtrans = false;
+	private boolean importbinary = false;
+	private boolean importoffheap = false;
 	private boolean importstates = false;
 	private boolean importlabels = false;
 	private boolean importstaterewards = false;
@@ -75,6 +77,7 @@ public class PrismCL implements PrismModelListener
 	private boolean exporttransrewards = false;
 	private boolean exportstates = false;
 	private boolean exportlabels = false;
+	private boolean exportbinary = false;
 	private boolean exportspy = false;
 	private boolean exportdot = false;
 	private boolean exporttransdot = false;
@@ -134,6 +137,7 @@ public class PrismCL implements PrismModelListener
 	private String exportTransRewardsFilename = null;
 	private String exportStatesFilename = null;
 	private String exportLabelsFilename = null;
+	private String exportBinaryFilename = null;
 	private String exportSpyFilename = null;
 	private String exportDotFilename = null;
 	private String exportTransDotFilename = null;
@@ -375,7 +379,12 @@ public class PrismCL implements PrismModelListener
 					}
 				}
 				// otherwise, treat each case individually
+				// (for a sweep over property constants, results for successive
+				// bounds can be computed incrementally, if enabled)
 				else {
+					if (!simulate && !param && undefinedConstants[j].getNumPropertyIterations() > 1) {
+						prism.startBoundSweep();
+					}
 					for (k = 0; k < undefinedConstants[j].getNumPropertyIterations(); k++) {
 
 						try {
@@ -469,12 +478,15 @@ public class PrismCL implements PrismModelListener
 						
 						// if required, check result against expected value
 						if (test) {
-							doResultTest(propertiesToCheck.get(j), res, modulesFile.getConstantValues(), propertiesFile.getConstantValues());
+							// (no modules file for imported models)
+							Values mfConstants = modulesFile == null ? null : modulesFile.getConstantValues();
+							doResultTest(propertiesToCheck.get(j), res, mfConstants, propertiesFile.getConstantValues());
 						}
 
 						// iterate to next property
 						undefinedConstants[j].iterateProperty();
 					}
+					prism.endBoundSweep();
 				}
 
 				// in case of build failure during model checking, store as result for any further properties and continue
@@ -601,6 +613,9 @@ public class PrismCL implements PrismModelListener
 				String prismppParamsList[] = ("? " + prismppParams).split(" ");
 				modulesFile = prism.importPrismPreprocFile(new File(modelFilename), prismppParamsList);
 				prism.loadPRISMModel(modulesFile);
+			} else if (importbinary) {
+				mainLog.println("\nImporting binary model file \"" + modelFilename + "\"...");
+				prism.loadModelFromBinaryFile(new File(modelFilename), importoffheap);
 			} else if (importtrans) {
 				mainLog.print("\nImporting model from \"" + modelFilename + "\"");
 				if (importstates) {
@@ -616,7 +631,7 @@ public class PrismCL implements PrismModelListener
 					srf = new File(importStateRewardsFilename);
 				}
 				mainLog.println("...");
-				prism.loadModelFromExplicitFiles(sf, new File(modelFilename), lf, srf, typeOverride);
+				prism.loadModelFromExplicitFiles(sf, new File(modelFilename), lf, srf, typeOverride, importoffheap);
 			} else {
 				mainLog.print("\nParsing model file \"" + modelFilename + "\"...\n");
 				modulesFile = prism.parseModelFile(new File(modelFilename), typeOverride);
@@ -716,6 +731,7 @@ public class PrismCL implements PrismModelListener
 			    exporttransdotstates ||
 			    exportmodeldotview ||
 			    exportlabels ||
+			    exportbinary ||
 			    exportsccs ||
 			    exportbsccs ||
 			    exportmecs) {
@@ -872,6 +888,17 @@ public class PrismCL implements PrismModelListener
 			}
 		}
 
+		// export model in binary format
+		if (exportbinary) {
+			try {
+				prism.exportToBinaryFile(new File(exportBinaryFilename));
+			}
+			// in case of error, report it and proceed
+			catch (PrismException e) {
+				error(e.getMessage());
+			}
+		}
+
 		// export SCCs to a file
 		if (exportsccs) {
 			try {
@@ -1917,28 +1944,35 @@ public class PrismCL implements PrismModelListener
 			} else if (ext.equals("srew")) {
 				importstaterewards = true;
 				importStateRewardsFilename = basename + ".srew";
+			} else if (ext.equals("bin")) {
+				importbinary = true;
+				modelFilename = basename + ".bin";
 			}
 			// Unknown extension
 			else {
 				throw new PrismException("Unknown extension \"" + ext + "\" for -importmodel switch");
 			}
 		}
-		// Check at least the transition matrix was imported
-		if (!importtrans) {
+		// Check at least the transition matrix (or a binary model) was imported
+		if (importbinary) {
+			if (exts.length > 1) {
+				throw new PrismException("Extension .bin cannot be combined with others for -importmodel");
+			}
+		} else if (!importtrans) {
 			throw new PrismException("You must import the transition matrix when using -importmodel (use option \"tra\" or \"all\")");
 		}
-		// No options supported currently
-		/*// Process options
-		String options[] = optionsString.split(",");
-		for (String opt : options) {
+		// Process options
+		for (String opt : optionsString.split(",")) {
 			// Ignore ""
 			if (opt.equals("")) {
+			} else if (opt.equals("offheap")) {
+				importoffheap = true;
 			}
 			// Unknown option
 			else {
 				throw new PrismException("Unknown option \"" + opt + "\" for -importmodel switch");
 			}
-		}*/
+		}
 	}
 
 	/**
@@ -2005,6 +2039,12 @@ public class PrismCL implements PrismModelListener
 			} else if (ext.equals("dot")) {
 				exporttransdotstates = true;
 				exportTransDotStatesFilename = basename.equals("stdout") ? "stdout" : basename + ".dot";
+			} else if (ext.equals("bin")) {
+				if (basename.equals("stdout")) {
+					throw new PrismException("Cannot export a binary model to stdout");
+				}
+				exportbinary = true;
+				exportBinaryFilename = basename + ".bin";
 			}
 			// Unknown extension
 			else {
@@ -2256,6 +2296,8 @@ public class PrismCL implements PrismModelListener
 				exportLabelsFilename = exportLabelsFilename.replaceFirst("modelFileBasename", modelFileBasename);
 			if (exporttransdotstates)
 				exportTransDotStatesFilename = exportTransDotStatesFilename.replaceFirst("modelFileBasename", modelFileBasename);
+			if (exportbinary)
+				exportBinaryFilename = exportBinaryFilename.replaceFirst("modelFileBasename", modelFileBasename);
 		}
 	}
 
@@ -2461,6 +2503,7 @@ public class PrismCL implements PrismModelListener
 		mainLog.println("-simvar <n> .................... Set the minimum number of samples to know the variance is null or not");
 		mainLog.println("-simmaxrwd <x> ................. Set the maximum reward -- useful to display the CI/ACI methods progress");
 		mainLog.println("-simpathlen <n> ................ Set the maximum path length for the simulator");
+		mainLog.println("-simseed <n> ................... Set the random seed for the simulator (0 = time-based) [default: 0]");
 
 		mainLog.println();
 		mainLog.println("You can also use \"prism -help xxx\" for help on some switches -xxx with non-obvious syntax.");
@@ -2504,6 +2547,17 @@ public class PrismCL implements PrismModelListener
 			mainLog.println("Possible extensions are: .tra, .sta, .lab, .srew");
 			mainLog.println("Use extension .all to import all, e.g.:");
 			mainLog.println("\n -importmodel in.all\n");
+			mainLog.println("Use extension .bin (on its own) to import a model in binary format, as");
+			mainLog.println("generated with -exportmodel (explicit engine only), e.g.:");
+			mainLog.println("\n -importmodel in.bin\n");
+			mainLog.println("Add option \"offheap\" to map the transition function of a binary model from the file,");
+			mainLog.println("rather than copying it onto the Java heap (done automatically for very large models), e.g.:");
+			mainLog.println("\n -importmodel in.bin:offheap\n");
+			mainLog.println("For a DTMC or MDP imported from a .tra file (explicit engine only), option \"offheap\"");
+			mainLog.println("reads the transition function straight into storage outside the Java heap, allowing");
+			mainLog.println("more than 2^31-1 transitions; transitions must then be ordered by state (and choice)");
+			mainLog.println("and destination, as in files exported by PRISM, e.g.:");
+			mainLog.println("\n -importmodel in.all:offheap\n");
 		}
 		// -exportresults
 		else if (sw.equals("exportresults")) {
@@ -2526,6 +2580,9 @@ public class PrismCL implements PrismModelListener
 			mainLog.println("\n -exportmodel out.all\n");
 			mainLog.println("Omit the file basename to use the basename of the model file, e.g.:");
 			mainLog.println("\n -exportmodel .all\n");
+			mainLog.println("Use extension .bin to export (DTMCs/MDPs, with the explicit engine) in a binary format");
+			mainLog.println("that can be re-imported quickly with -importmodel (not included in .all), e.g.:");
+			mainLog.println("\n -exportmodel out.bin\n");
 			mainLog.println("If provided, <options> is a comma-separated list of options taken from:");
 			mainLog.println(" * mrmc - export data in MRMC format");
 			mainLog.println(" * matlab - export data in Matlab format");
@@ -88,6 +88,7 @@ public class PrismSettings implements Observer
 	public static final	String PRISM_PMAX_QUOTIENT					= "prism.pmaxQuotient";
 	public static final	String PRISM_INTERVAL_ITER					= "prism.intervalIter";
 	public static final	String PRISM_INTERVAL_ITER_OPTIONS			= "prism.intervalIterOptions";
+	public static final	String PRISM_OPTIMISTIC_ITER				= "prism.optimisticIter";
 	public static final	String PRISM_MDP_SOLN_METHOD				= "prism.mdpSolnMethod";
 	public static final	String PRISM_MDP_MULTI_SOLN_METHOD			= "prism.mdpMultiSolnMethod";
 	public static final	String PRISM_TERM_CRIT						= "prism.termCrit";//"prism.termination";
@@ -99,6 +100,16 @@ public class PrismSettings implements Observer
 	public static final	String PRISM_CUDD_EPSILON					= "prism.cuddEpsilon";
 	public static final	String PRISM_DD_EXTRA_STATE_VARS				= "prism.ddExtraStateVars";
 	public static final	String PRISM_DD_EXTRA_ACTION_VARS				= "prism.ddExtraActionVars";
+	public static final	String PRISM_DD_REORDER						= "prism.ddReorder";
+	public static final	String PRISM_REACH_METHOD					= "prism.reachMethod";
+
+	public static final	String PRISM_COMPACT_STATES					= "prism.compactStates";
+	public static final	String PRISM_NUM_THREADS					= "prism.numThreads";
+	public static final	String PRISM_COMPILE_EXPRESSIONS			= "prism.compileExpressions";
+	public static final	String PRISM_MATRIX_COMPRESSION				= "prism.matrixCompression";
+	public static final	String PRISM_EXPLICIT_SCC_METHOD			= "prism.explicitSccMethod";
+	public static final	String PRISM_LTL_PRODUCT_ON_THE_FLY			= "prism.ltlProductOnTheFly";
+	public static final	String PRISM_INCREMENTAL_BOUNDS				= "prism.incrementalBounds";
 	public static final	String PRISM_NUM_SB_LEVELS					= "prism.numSBLevels";//"prism.hybridNumLevels";
 	public static final	String PRISM_SB_MAX_MEM						= "prism.SBMaxMem";//"prism.hybridMaxMemory";
 	public static final	String PRISM_NUM_SOR_LEVELS					= "prism.numSORLevels";//"prism.hybridSORLevels";
@@ -110,6 +121,7 @@ public class PrismSettings implements Observer
 	public static final String PRISM_SYMM_RED_PARAMS					= "prism.symmRedParams";
 	public static final	String PRISM_EXACT_ENABLED					= "prism.exact.enabled";
 	public static final String PRISM_PTA_METHOD					= "prism.ptaMethod";
+	public static final String PRISM_PTA_SUBSUMPTION				= "prism.ptaSubsumption";
 	public static final String PRISM_TRANSIENT_METHOD				= "prism.transientMethod";
 	public static final String PRISM_AR_OPTIONS					= "prism.arOptions";
 	public static final String PRISM_PATH_VIA_AUTOMATA				= "prism.pathViaAutomata";
@@ -135,6 +147,7 @@ public class PrismSettings implements Observer
 	public static final	String PRISM_PARAM_RANDOM_POINTS			= "prism.param.randomPoints";
 	public static final	String PRISM_PARAM_SUBSUME_REGIONS			= "prism.param.subsumeRegions";
 	public static final String PRISM_PARAM_DAG_MAX_ERROR			= "prism.param.functionDagMaxError";
+	public static final String PRISM_PARAM_OP_CACHE_SIZE			= "prism.param.opCacheSize";
 
 	public static final String PRISM_FAU_EPSILON					= "prism.fau.epsilon";
 	public static final String PRISM_FAU_DELTA						= "prism.fau.delta";
@@ -156,6 +169,7 @@ public class PrismSettings implements Observer
 	public static final	String SIMULATOR_NEW_PATH_ASK_VIEW			= "simulator.newPathAskView";
 	public static final	String SIMULATOR_RENDER_ALL_VALUES			= "simulator.renderAllValues";
 	public static final String SIMULATOR_NETWORK_FILE				= "simulator.networkFile";
+	public static final String SIMULATOR_SEED						= "simulator.seed";
 	
 	//GUI Model
 	public static final	String MODEL_AUTO_PARSE						= "model.autoParse";
@@ -238,6 +252,8 @@ public class PrismSettings implements Observer
 																			
 			{ CHOICE_TYPE,		PRISM_PTA_METHOD,						"PTA model checking method",			"3.3",			"Stochastic games",																	"Digital clocks,Stochastic games,Backwards reachability",																
 																			"Which method to use for model checking of PTAs." },
+			{ BOOLEAN_TYPE,		PRISM_PTA_SUBSUMPTION,					"Use zone subsumption for PTAs",		"4.5",			new Boolean(true),															"",
+																			"Use zone inclusion (subsumption), rather than just equality, to detect already explored symbolic states during forwards reachability for PTA model checking (stochastic games method)." },
 			{ CHOICE_TYPE,		PRISM_TRANSIENT_METHOD,					"Transient probability computation method",	"3.3",		"Uniformisation",															"Uniformisation,Fast adaptive uniformisation",																
 																			"Which method to use for computing transient probabilities in CTMCs." },
 			// NUMERICAL SOLUTION OPTIONS:
@@ -253,6 +269,8 @@ public class PrismSettings implements Observer
 																				"Use interval iteration (from above and below) in iterative numerical methods."},
 			{ STRING_TYPE,		PRISM_INTERVAL_ITER_OPTIONS,				"Interval iteration options",				"4.3.1",		"",																		"",
 																	"Interval iteration options, a comma-separated list of the following:\n" + OptionsIntervalIteration.getOptionsDescription() },
+			{ BOOLEAN_TYPE,		PRISM_OPTIMISTIC_ITER,				"Use optimistic value iteration",				"4.5",		false,																		"",
+																				"Use optimistic value iteration (value iteration from below, plus verification of a guessed upper bound) in iterative numerical methods of the explicit engine."},
 			{ CHOICE_TYPE,		PRISM_MDP_SOLN_METHOD,					"MDP solution method",				"4.0",			"Value iteration",																"Value iteration,Gauss-Seidel,Policy iteration,Modified policy iteration,Linear programming",
 																			"Which method to use when solving Markov decision processes." },
 			{ CHOICE_TYPE,		PRISM_MDP_MULTI_SOLN_METHOD,			"MDP multi-objective solution method",				"4.0.3",			"Value iteration",											"Value iteration,Gauss-Seidel,Linear programming",
@@ -328,6 +346,25 @@ public class PrismSettings implements Observer
 																			"Number of extra DD state variables preallocated for use in model transformation." },
 			{ INTEGER_TYPE,		PRISM_DD_EXTRA_ACTION_VARS,				"Extra DD action var allocation",		"4.3.1",			new Integer(20),														"",
 																			"Number of extra DD action variables preallocated for use in model transformation." },
+			{ CHOICE_TYPE,		PRISM_DD_REORDER,						"DD variable reordering",				"4.5",			"None",																		"None,Dependency,Sifting",
+																			"Reorder the DD variables for model variables before symbolic model construction: using a static heuristic over the dependencies between variables in the model description, or using sifting (dynamic reordering) on the transition matrix built with the original order. Note that this also changes the order of the model variables, e.g. in printed/exported states." },
+			{ CHOICE_TYPE,		PRISM_REACH_METHOD,						"Symbolic reachability method",			"4.5",			"BFS",																		"BFS,Frontier,Chaining,Saturation",
+																			"Method for computing the reachable states during symbolic model construction: breadth-first search over the whole transition relation (optionally from the frontier only), or chaining/saturation over its parts for each action and module." },
+			// EXPLICIT ENGINE OPTIONS:
+			{ BOOLEAN_TYPE,		PRISM_COMPACT_STATES,					"Use compact state storage",			"4.5",			new Boolean(true),															"",
+																			"Store states in bit-packed form during explicit model construction (if all variables are bounded)." },
+			{ INTEGER_TYPE,		PRISM_NUM_THREADS,						"Number of threads",					"4.5",			new Integer(1),																"1,",
+																			"Number of threads to use for parallelised computations in the explicit engine (model construction and the Power/Jacobi/value iteration methods), for statistical model checking and for parametric model checking (state elimination and computations for different regions)." },
+			{ BOOLEAN_TYPE,		PRISM_COMPILE_EXPRESSIONS,				"Compile model expressions",			"4.5",			new Boolean(true),															"",
+																			"Compile guards, updates and rewards of PRISM models before explicit model construction/simulation, rather than interpreting them." },
+			{ CHOICE_TYPE,		PRISM_MATRIX_COMPRESSION,				"Matrix compression",					"4.5",			"None",																		"None,Dictionary,Float",
+																			"Compress the transition matrix used for value iteration in the explicit engine, storing probabilities in a dictionary of distinct values (exact) or as floats (approximate)." },
+			{ CHOICE_TYPE,		PRISM_EXPLICIT_SCC_METHOD,				"Explicit SCC decomposition method",	"4.5",			"Tarjan",																	"Tarjan,Tarjan-recursive",
+																			"Which algorithm to use for decomposition of a graph into strongly connected components (SCCs) in the explicit engine: Tarjan's algorithm, implemented iteratively or recursively." },
+			{ BOOLEAN_TYPE,		PRISM_LTL_PRODUCT_ON_THE_FLY,			"On-the-fly LTL product",				"4.5",			new Boolean(false),															"",
+																			"For LTL model checking of DTMCs/MDPs in the explicit engine, explore only the state space of the product with the automaton and compute its transitions on-the-fly, rather than building and storing it. Exploration stops at states where the automaton is in a sink state." },
+			{ BOOLEAN_TYPE,		PRISM_INCREMENTAL_BOUNDS,				"Incremental bounds in experiments",	"4.5",			new Boolean(false),															"",
+																			"In experiments over increasing values of the step/time bound of a DTMC/CTMC bounded until property in the explicit engine, continue the computation for each bound from the result for the previous one, rather than starting from scratch." },
 
 
 			// ADVERSARIES/COUNTEREXAMPLES:
@@ -358,14 +395,16 @@ public class PrismSettings implements Observer
 																			"Type of bisimulation used to reduce model size during paramteric model checking. For reward-based properties, weak bisimulation cannot be used." },
 			{ CHOICE_TYPE,		PRISM_PARAM_FUNCTION,					"Parametric model checking function representation",				"4.1",			"JAS-cached",																"JAS-cached,JAS,DAG",
 																			"Type of representation for functions used during parametric model checking." },
-			{ CHOICE_TYPE,		PRISM_PARAM_ELIM_ORDER,					"Parametric model checking state elimination order",			"4.1",			"Backward",																		"Arbitrary,Forward,Forward-reversed,Backward,Backward-reversed,Random",
-																			"Order in which states are eliminated during unbounded parametric model checking analysis." },
+			{ CHOICE_TYPE,		PRISM_PARAM_ELIM_ORDER,					"Parametric model checking state elimination order",			"4.1",			"Backward",																		"Arbitrary,Forward,Forward-reversed,Backward,Backward-reversed,Random,Min-degree,Min-fill,SCC",
+																			"Order in which states are eliminated during unbounded parametric model checking analysis. Min-degree and Min-fill repeatedly eliminate the state whose elimination creates the fewest new transitions (estimated or exactly); SCC eliminates strongly connected components one by one, bottom components first." },
 			{ INTEGER_TYPE,		PRISM_PARAM_RANDOM_POINTS,				"Parametric model checking random evaluations",		"4.1",			new Integer(5),																"",
 																			"Number of random points to evaluate per region to increase chance of correctness during parametric model checking." },
 			{ BOOLEAN_TYPE,		PRISM_PARAM_SUBSUME_REGIONS,			"Parametric model checking region subsumption",				"4.1",			new Boolean(true),															"",
 																			"Subsume adjacent regions during parametric model checking." },
 			{ DOUBLE_TYPE,		PRISM_PARAM_DAG_MAX_ERROR,				"Parametric model checking max. DAG error",	"4.1",			new Double(1E-100),															"",
 																			"Maximal error probability (i.e. maximum probability of of a wrong result) in DAG function representation used for parametric model checking." },
+			{ INTEGER_TYPE,		PRISM_PARAM_OP_CACHE_SIZE,				"Parametric model checking operation cache size",	"4.5",			new Integer(100000),														"0,",
+																			"Maximal number of entries in each of the caches for operations on functions (JAS-cached function representation), least recently used entries being evicted first. 0 means no limit." },
 			
 			// FAST ADAPTIVE UNIFORMISATION																
 			{ DOUBLE_TYPE,      PRISM_FAU_EPSILON,						"FAU epsilon",		 					"4.1",   	 	new Double(1E-6),     													"",
@@ -405,7 +444,9 @@ public class PrismSettings implements Observer
 			{ CHOICE_TYPE,		SIMULATOR_RENDER_ALL_VALUES,			"Path render style",					"3.2",		"Render all values",		"Render changes,Render all values",
 																			"Display style for paths in the simulator user interface: only show variable values when they change, or show all values regardless." },
 			{ FILE_TYPE,		SIMULATOR_NETWORK_FILE,					"Network profile",						"2.1",		new File(""),				"",
-																			"File specifying the network profile used by the distributed PRISM simulator." }
+																			"File specifying the network profile used by the distributed PRISM simulator." },
+			{ INTEGER_TYPE,		SIMULATOR_SEED,							"Random seed",							"4.5",		new Integer(0),				"0,",
+																			"Seed for the simulator's random number generator, including the per-thread generators used for parallel sampling (0 means seed from the current time, i.e. results are not reproducible)." }
 		},
 		{
 			{ BOOLEAN_TYPE,		MODEL_AUTO_PARSE,						"Auto parse",							"2.1",			new Boolean(true),															"",																							"Parse PRISM models automatically as they are loaded/edited in the text editor." },
@@ -1017,6 +1058,13 @@ public class PrismSettings implements Observer
 				throw new PrismException("No parameter specified for -" + sw + " switch");
 			}
 		}
+		// Zone subsumption for PTA forwards reachability
+		else if (sw.equals("ptasubsumption")) {
+			set(PRISM_PTA_SUBSUMPTION, true);
+		}
+		else if (sw.equals("noptasubsumption")) {
+			set(PRISM_PTA_SUBSUMPTION, false);
+		}
 		// Transient methods
 		else if (sw.equals("transientmethod")) {
 			if (i < args.length - 1) {
@@ -1094,6 +1142,12 @@ public class PrismSettings implements Observer
 			}
 		}
 
+		// Optimistic value iteration
+		else if (sw.equals("optimisticiter") ||
+		         sw.equals("ovi")) {
+			set(PRISM_OPTIMISTIC_ITER, true);
+		}
+
 		// Pmax quotient
 		else if (sw.equals("pmaxquotient")) {
 			set(PRISM_PMAX_QUOTIENT, true);
@@ -1426,6 +1480,121 @@ public class PrismSettings implements Observer
 			} else {
 				throw new PrismException("No value specified for -" + sw + " switch");
 			}
+		} else if (sw.equals("reachmethod")) {
+			if (i < args.length - 1) {
+				s = args[++i];
+				if (s.equals("bfs"))
+					set(PRISM_REACH_METHOD, "BFS");
+				else if (s.equals("frontier"))
+					set(PRISM_REACH_METHOD, "Frontier");
+				else if (s.equals("chain"))
+					set(PRISM_REACH_METHOD, "Chaining");
+				else if (s.equals("sat"))
+					set(PRISM_REACH_METHOD, "Saturation");
+				else
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: bfs, frontier, chain, sat)");
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		} else if (sw.equals("ddreorder")) {
+			if (i < args.length - 1) {
+				s = args[++i];
+				if (s.equals("none"))
+					set(PRISM_DD_REORDER, "None");
+				else if (s.equals("dep"))
+					set(PRISM_DD_REORDER, "Dependency");
+				else if (s.equals("sift"))
+					set(PRISM_DD_REORDER, "Sifting");
+				else
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: none, dep, sift)");
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
+		
+		// EXPLICIT ENGINE OPTIONS:
+		
+		// Compact state storage
+		else if (sw.equals("compactstates")) {
+			set(PRISM_COMPACT_STATES, true);
+		}
+		else if (sw.equals("nocompactstates")) {
+			set(PRISM_COMPACT_STATES, false);
+		}
+		// Compilation of model expressions
+		else if (sw.equals("compileexprs")) {
+			set(PRISM_COMPILE_EXPRESSIONS, true);
+		}
+		else if (sw.equals("nocompileexprs")) {
+			set(PRISM_COMPILE_EXPRESSIONS, false);
+		}
+		// Compression of transition matrix for value iteration
+		else if (sw.equals("matrixcompression")) {
+			if (i < args.length - 1) {
+				s = args[++i];
+				if (s.equals("none"))
+					set(PRISM_MATRIX_COMPRESSION, "None");
+				else if (s.equals("dict"))
+					set(PRISM_MATRIX_COMPRESSION, "Dictionary");
+				else if (s.equals("float"))
+					set(PRISM_MATRIX_COMPRESSION, "Float");
+				else
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: none, dict, float)");
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
+		// SCC computation algorithm (explicit engine)
+		else if (sw.equals("explicitsccmethod")) {
+			if (i < args.length - 1) {
+				s = args[++i];
+				if (s.equals("tarjan"))
+					set(PRISM_EXPLICIT_SCC_METHOD, "Tarjan");
+				else if (s.equals("recursive"))
+					set(PRISM_EXPLICIT_SCC_METHOD, "Tarjan-recursive");
+				else
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: tarjan, recursive)");
+			} else {
+				throw new PrismException("No parameter specified for -" + sw + " switch");
+			}
+		}
+		// On-the-fly LTL product (explicit engine)
+		else if (sw.equals("ltlonthefly")) {
+			set(PRISM_LTL_PRODUCT_ON_THE_FLY, true);
+		}
+		// Incremental bounds in experiments (explicit engine)
+		else if (sw.equals("incrementalbounds")) {
+			set(PRISM_INCREMENTAL_BOUNDS, true);
+		}
+		// Number of threads
+		else if (sw.equals("threads")) {
+			if (i < args.length - 1) {
+				try {
+					j = Integer.parseInt(args[++i]);
+					if (j < 1)
+						throw new NumberFormatException();
+					set(PRISM_NUM_THREADS, j);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
+		// Simulator random seed
+		else if (sw.equals("simseed")) {
+			if (i < args.length - 1) {
+				try {
+					j = Integer.parseInt(args[++i]);
+					if (j < 0)
+						throw new NumberFormatException();
+					set(SIMULATOR_SEED, j);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
 		}
 		
 		// ADVERSARIES/COUNTEREXAMPLES:
@@ -1558,8 +1727,14 @@ public class PrismSettings implements Observer
 					set(PRISM_PARAM_ELIM_ORDER, "Backward-reversed");
 				else if (s.equals("rand"))
 					set(PRISM_PARAM_ELIM_ORDER, "Random");
+				else if (s.equals("mindeg"))
+					set(PRISM_PARAM_ELIM_ORDER, "Min-degree");
+				else if (s.equals("minfill"))
+					set(PRISM_PARAM_ELIM_ORDER, "Min-fill");
+				else if (s.equals("scc"))
+					set(PRISM_PARAM_ELIM_ORDER, "SCC");
 				else
-					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: arb,fw,fwrev,bw,bwrev,rand)");
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: arb,fw,fwrev,bw,bwrev,rand,mindeg,minfill,scc)");
 			} else {
 				throw new PrismException("No value specified for -" + sw + " switch");
 			}
@@ -1588,6 +1763,16 @@ public class PrismSettings implements Observer
 				throw new PrismException("Invalid value for -" + sw + " switch");
 			}
 		}
+		else if (sw.equals("paramopcachesize")) {
+			try {
+				j = Integer.parseInt(args[++i]);
+				if (j < 0)
+					throw new NumberFormatException();
+				set(PRISM_PARAM_OP_CACHE_SIZE, j);
+			} catch (NumberFormatException e) {
+				throw new PrismException("Invalid value for -" + sw + " switch");
+			}
+		}
 		
 		// FAST ADAPTIVE UNIFORMISATION
 		
@@ -1765,6 +1950,7 @@ public class PrismSettings implements Observer
 		mainLog.println("-explicit (or -ex) ............. Use the explicit engine");
 		mainLog.println("-exact ......................... Perform exact (arbitrary precision) model checking");
 		mainLog.println("-ptamethod <name> .............. Specify PTA engine (games, digital, backwards) [default: games]");
+		mainLog.println("-noptasubsumption .............. Do not use zone subsumption in PTA forwards reachability (games)");
 		mainLog.println("-transientmethod <name> ........ CTMC transient analysis methof (unif, fau) [default: unif]");
 		mainLog.println();
 		mainLog.println("SOLUTION METHODS (LINEAR EQUATIONS):");
@@ -1787,6 +1973,7 @@ public class PrismSettings implements Observer
 		mainLog.println("-politer ....................... Use policy iteration for solving MDPs");
 		mainLog.println("-modpoliter .................... Use modified policy iteration for solving MDPs");
 		mainLog.println("-intervaliter (or -ii) ......... Use interval iteration to solve MDPs/MCs (see -help -ii)");
+		mainLog.println("-optimisticiter (or -ovi) ...... Use optimistic value iteration to solve MDPs/MCs (explicit engine)");
 		mainLog.println("-topological ................... Use topological value iteration");
 		mainLog.println();
 		mainLog.println("SOLUTION METHOD SETTINGS");
@@ -1823,7 +2010,7 @@ public class PrismSettings implements Observer
 		
 		mainLog.println();
 		mainLog.println("MULTI-OBJECTIVE MODEL CHECKING:");
-		mainLog.println("-linprog (or -lp) .............. Use linear programming for multi-objective model checking");
+		mainLog.println("-linprog (or -lp) .............. Use linear programming for multi-objective model checking (and for MDPs in the explicit engine)");
 		mainLog.println("-multimaxpoints <n> ............ Maximal number of corner points for (valiter-based) multi-objective");
 		mainLog.println("-paretoepsilon <x> ............. Threshold for Pareto curve approximation");
 		mainLog.println("-exportpareto <file> ........... When computing Pareto curves, export points to a file");
@@ -1844,6 +2031,17 @@ public class PrismSettings implements Observer
 		mainLog.println("-ddsanity ...................... Enable internal sanity checks (causes slow-down)");
 		mainLog.println("-ddextrastatevars <n> .......... Set the number of preallocated state vars [default: 20]");
 		mainLog.println("-ddextraactionvars <n> ......... Set the number of preallocated action vars [default: 20]");
+		mainLog.println("-ddreorder <name> .............. Reorder DD/model variables before model construction (none, dep, sift) [default: none]");
+		mainLog.println("-reachmethod <name> ............ Symbolic reachability method (bfs, frontier, chain, sat) [default: bfs]");
+		mainLog.println();
+		mainLog.println("EXPLICIT ENGINE OPTIONS:");
+		mainLog.println("-nocompactstates ............... Do not use bit-packed state storage during model construction");
+		mainLog.println("-threads <n> ................... Set number of threads for parallelised computations [default: 1]");
+		mainLog.println("-nocompileexprs ................ Interpret (rather than compile) model expressions during model construction");
+		mainLog.println("-matrixcompression <x> ......... Compress matrix for value iteration (none,dict,float) [default: none]");
+		mainLog.println("-explicitsccmethod <name> ...... Specify SCC computation method (tarjan, recursive) [default: tarjan]");
+		mainLog.println("-ltlonthefly ................... Compute transitions of LTL product on-the-fly rather than storing them");
+		mainLog.println("-incrementalbounds ............. In experiments, compute bounded until for each bound from the previous one");
 		mainLog.println();
 		mainLog.println("PARAMETRIC MODEL CHECKING OPTIONS:");
 		mainLog.println("-param <vals> .................. Do parametric model checking with parameters (and ranges) <vals>");
@@ -1851,10 +2049,11 @@ public class PrismSettings implements Observer
 		mainLog.println("-paramsplit <name> ............. Set method to split parameter regions (longest,all) [default: longest]");
 		mainLog.println("-parambisim <name> ............. Set bisimulation minimisation for parameter synthesis (weak,strong,none) [default: weak]");
 		mainLog.println("-paramfunction <name> .......... Set function representation for parameter synthesis (jascached,jas) [default: jascached]");
-		mainLog.println("-paramelimorder <name> ......... Set elimination order for parameter synthesis (arb,fw,fwrev,bw,bwrev,rand) [default: bw]");
+		mainLog.println("-paramelimorder <name> ......... Set elimination order for parameter synthesis (arb,fw,fwrev,bw,bwrev,rand,mindeg,minfill,scc) [default: bw]");
 		mainLog.println("-paramrandompoints <n> ......... Set number of random points to evaluate per region [default: 5]");
 		mainLog.println("-paramsubsumeregions <b> ....... Subsume adjacent regions during analysis [default: true]");
 		mainLog.println("-paramdagmaxerror <b> .......... Maximal error probability allowed for DAG function representation [default: 1E-100]");
+		mainLog.println("-paramopcachesize <n> .......... Maximal size of each function operation cache, 0 for no limit [default: 100000]");
 		mainLog.println();
 		mainLog.println("FAST ADAPTIVE UNIFORMISATION (FAU) OPTIONS:");
 		mainLog.println("-fauepsilon <x> ................ Set probability threshold of birth process in FAU [default: 1e-6]");
@@ -1884,6 +2083,17 @@ public class PrismSettings implements Observer
 			mainLog.println(OptionsIntervalIteration.getOptionsDescription());
 			return true;
 		}
+		else if (sw.equals("ddreorder")) {
+			mainLog.println("Switch: -ddreorder <name>\n");
+			mainLog.println("Reorder the DD variables for model variables before symbolic model construction, where <name> is one of:\n");
+			mainLog.println(" * none - keep the order in which variables appear in the model description (the default)");
+			mainLog.println(" * dep - use a static heuristic over the dependencies between variables in the model description");
+			mainLog.println(" * sift - use sifting (dynamic reordering) on the transition matrix built with the original order");
+			mainLog.println();
+			mainLog.println("Since the variables of the model are reordered accordingly, this also changes the order of");
+			mainLog.println("variable values in states, e.g. when printed or exported with -exportstates.");
+			return true;
+		}
 
 		return false;
 	}
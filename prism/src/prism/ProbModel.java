@@ -78,6 +78,7 @@ public class ProbModel implements Model
 	protected JDDNode transRewards[]; // transition rewards dds
 	protected JDDNode transActions; // dd for transition action labels (MDPs)
 	protected JDDNode transPerAction[]; // dds for transition action labels (D/CTMCs)
+	protected JDDNode transReachParts[]; // parts of 0-1 trans relation for partitioned reachability (optional)
 
 	// dd vars
 	protected JDDVars[] varDDRowVars; // dd vars for each module variable (rows)
@@ -554,7 +555,7 @@ public class ProbModel implements Model
 	public void doReachability() throws PrismException
 	{
 		// compute reachable states
-		setReach(PrismMTBDD.Reachability(trans01, allDDRowVars, allDDColVars, start));
+		setReach(computeReachable(trans01, start));
 	}
 
 	/**
@@ -574,10 +575,27 @@ public class ProbModel implements Model
 		// S = union of initial states and seed. seed is dereferenced here.
 		JDDNode S = JDD.Or(start.copy(), seed);
 		// compute and store reachable states
-		setReach(PrismMTBDD.Reachability(trans01, allDDRowVars, allDDColVars, S));
+		setReach(computeReachable(trans01, S));
 		JDD.Deref(S);
 	}
 
+	/**
+	 * Compute the states reachable from {@code S} using the 0/1-transition relation {@code trans01Reln}
+	 * or, if they have been set (see {@link #setTransReachParts(JDDNode[])}), its parts,
+	 * which are then discarded.
+	 * <br>[ REFS: <i>result</i>, DEREFS: <i>none</i> ]
+	 */
+	protected JDDNode computeReachable(JDDNode trans01Reln, JDDNode S) throws PrismException
+	{
+		if (transReachParts != null) {
+			JDDNode reachable = PrismMTBDD.ReachabilityPartitioned(transReachParts, allDDRowVars, allDDColVars, S);
+			JDD.DerefArray(transReachParts, transReachParts.length);
+			transReachParts = null;
+			return reachable;
+		}
+		return PrismMTBDD.Reachability(trans01Reln, allDDRowVars, allDDColVars, S);
+	}
+
 	// this method allows you to skip the reachability phase
 	// it is only here for experimental purposes - not general use.
 
@@ -648,6 +666,18 @@ public class ProbModel implements Model
 		this.transPerAction = transPerAction;
 	}
 
+	/**
+	 * Set the parts (e.g. one for each action) of the 0/1-transition relation
+	 * (over allDDRowVars/allDDColVars, with no nondeterminism), whose union is
+	 * the whole relation, to be used for chaining/saturation reachability
+	 * (see {@link Prism#REACH_CHAINING}, {@link Prism#REACH_SATURATION}).
+	 * They are dereferenced once reachability has been done.
+	 */
+	public void setTransReachParts(JDDNode[] transReachParts)
+	{
+		this.transReachParts = transReachParts;
+	}
+
 	// remove non-reachable states from various dds
 	// (and calculate num transitions)
 
@@ -1217,6 +1247,8 @@ public class ProbModel implements Model
 				JDD.Deref(transPerAction[i]);
 			}
 		}
+		if (transReachParts != null)
+			JDD.DerefArray(transReachParts, transReachParts.length);
 
 		if (odd != null) {
 			// clear ODD
@@ -954,11 +954,11 @@ public class StateModelChecker extends PrismComponent implements ModelChecker
 				switch (op) {
 				case ExpressionFunc.MIN:
 					for (i2 = 0; i2 < n2; i2++)
-						dv1.setElement(i2, Math.min(dv1.getElement(i), dv2.getElement(i)));
+						dv1.setElement(i2, Math.min(dv1.getElement(i2), dv2.getElement(i2)));
 					break;
 				case ExpressionFunc.MAX:
 					for (i2 = 0; i2 < n2; i2++)
-						dv1.setElement(i2, Math.max(dv1.getElement(i), dv2.getElement(i)));
+						dv1.setElement(i2, Math.max(dv1.getElement(i2), dv2.getElement(i2)));
 					break;
 				}
 				dv2.clear();
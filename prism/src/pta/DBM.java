@@ -26,6 +26,8 @@
 
 package pta;
 
+import java.util.Arrays;
+
 /**
  * Implementation of the difference-bound matrix (DBM) data structure.
  * 
@@ -41,9 +43,12 @@ public class DBM extends Zone
 	 * Canonical zone representation: DBM
 	 * (numClocks+1)^2 matrix d, indexed 1...numClocks for clocks in PTA and 0 for special zero clock.
 	 * Each entry d[i][j] gives the bound for clock difference xi-xj.
+	 * The matrix is stored in a single (row-major) array, i.e. d[i][j] is at index i * dim + j.
 	 * Difference bounds are encoded as a single integer; see help class DB for details.
 	 */
-	protected int d[][];
+	protected int d[];
+	/* Dimension of the matrix, i.e. numClocks+1 */
+	protected int dim;
 
 	/**
 	 * Construct an empty DBM (don't use this).
@@ -51,7 +56,24 @@ public class DBM extends Zone
 	public DBM(PTA pta)
 	{
 		this.pta = pta;
-		this.d = new int[pta.numClocks + 1][pta.numClocks + 1];
+		this.dim = pta.numClocks + 1;
+		this.d = new int[dim * dim];
+	}
+
+	/**
+	 * Get entry d[i][j] of the matrix.
+	 */
+	protected final int get(int i, int j)
+	{
+		return d[i * dim + j];
+	}
+
+	/**
+	 * Set entry d[i][j] of the matrix.
+	 */
+	protected final void set(int i, int j, int db)
+	{
+		d[i * dim + j] = db;
 	}
 
 	// Methods required for Zone interface
@@ -73,31 +95,17 @@ public class DBM extends Zone
 	{
 		// Check if this causes inconsistency (i.e. zone emptiness)
 		// and, if so, flag this by setting d[0][0] to -1;
-		if (DB.add(d[y][x], db) < DB.LEQ_ZERO)
-			d[0][0] = DB.LEQ_MINUS_ONE;
+		if (DB.add(get(y, x), db) < DB.LEQ_ZERO)
+			d[0] = DB.LEQ_MINUS_ONE;
 		// Now add the constraint (if it is tighter than existing one)
-		else if (db < d[x][y]) {
-			int i, j, n, dTmp;
+		else if (db < get(x, y)) {
 			// Store new constraint
-			d[x][y] = db;
+			set(x, y, db);
 			// Partial re-canonicalisation
 			// Note we do 2 (separate) outer iterations of Floyd-Warshall,
 			// unlike the incorrect formulation in the DBM algorithm notes.
-			n = pta.numClocks;
-			for (i = 0; i < n + 1; i++) {
-				for (j = 0; j < n + 1; j++) {
-					dTmp = DB.add(d[i][x], d[x][j]);
-					if (dTmp < d[i][j])
-						d[i][j] = dTmp;
-				}
-			}
-			for (i = 0; i < n + 1; i++) {
-				for (j = 0; j < n + 1; j++) {
-					dTmp = DB.add(d[i][y], d[y][j]);
-					if (dTmp < d[i][j])
-						d[i][j] = dTmp;
-				}
-			}
+			closeVia(x);
+			closeVia(y);
 		}
 	}
 
@@ -123,13 +131,12 @@ public class DBM extends Zone
 	 */
 	public void intersect(Zone z)
 	{
-		int i, j, n;
+		int i, j;
 		DBM dbm = (DBM) z;
-		n = pta.numClocks;
-		for (i = 0; i < n + 1; i++) {
-			for (j = 0; j < n + 1; j++) {
-				if (i != j && !DB.isInfty(dbm.d[i][j]))
-					addConstraint(i, j, dbm.d[i][j]);
+		for (i = 0; i < dim; i++) {
+			for (j = 0; j < dim; j++) {
+				if (i != j && !DB.isInfty(dbm.get(i, j)))
+					addConstraint(i, j, dbm.get(i, j));
 			}
 		}
 	}
@@ -139,10 +146,9 @@ public class DBM extends Zone
 	 */
 	public void up(Iterable<Constraint> constraints)
 	{
-		int i, n;
-		n = pta.numClocks;
-		for (i = 1; i < n + 1; i++) {
-			d[i][0] = DB.INFTY;
+		int i;
+		for (i = 1; i < dim; i++) {
+			d[i * dim] = DB.INFTY;
 		}
 		if (constraints != null) {
 			for (Constraint c : constraints) {
@@ -156,13 +162,12 @@ public class DBM extends Zone
 	 */
 	public void down(Iterable<Constraint> constraints)
 	{
-		int i, j, n;
-		n = pta.numClocks;
-		for (i = 1; i < n + 1; i++) {
-			d[0][i] = DB.LEQ_ZERO;
-			for (j = 1; j < n + 1; j++) {
-				if (d[j][i] < d[0][i])
-					d[0][i] = d[j][i];
+		int i, j;
+		for (i = 1; i < dim; i++) {
+			d[i] = DB.LEQ_ZERO;
+			for (j = 1; j < dim; j++) {
+				if (get(j, i) < d[i])
+					d[i] = get(j, i);
 			}
 		}
 		if (constraints != null) {
@@ -177,12 +182,11 @@ public class DBM extends Zone
 	 */
 	public void free(int x)
 	{
-		int i, n;
-		n = pta.numClocks;
-		for (i = 0; i < n + 1; i++) {
+		int i;
+		for (i = 0; i < dim; i++) {
 			if (i != x) {
-				d[x][i] = DB.INFTY;
-				d[i][x] = d[i][0];
+				set(x, i, DB.INFTY);
+				set(i, x, get(i, 0));
 			}
 		}
 	}
@@ -192,11 +196,10 @@ public class DBM extends Zone
 	 */
 	public void reset(int x, int v)
 	{
-		int i, n;
-		n = pta.numClocks;
-		for (i = 0; i < n + 1; i++) {
-			d[x][i] = DB.add(DB.createLeq(v), d[0][i]);
-			d[i][x] = DB.add(d[i][0], DB.createLeq(-v));
+		int i;
+		for (i = 0; i < dim; i++) {
+			set(x, i, DB.add(DB.createLeq(v), get(0, i)));
+			set(i, x, DB.add(get(i, 0), DB.createLeq(-v)));
 		}
 	}
 
@@ -218,17 +221,16 @@ public class DBM extends Zone
 	 */
 	public void cClosure(int c)
 	{
-		int i, j, n;
+		int k, leqC, ltMinusC;
 		if (isEmpty())
 			return;
-		n = pta.numClocks;
-		for (i = 0; i < n + 1; i++) {
-			for (j = 0; j < n + 1; j++) {
-				if (!DB.isInfty(d[i][j]) && DB.createLeq(c) < d[i][j]) {
-					d[i][j] = DB.INFTY;
-				} else if (!DB.isInfty(d[i][j]) && d[i][j] < DB.createLt(-c)) {
-					d[i][j] = DB.createLt(-c);
-				}
+		leqC = DB.createLeq(c);
+		ltMinusC = DB.createLt(-c);
+		for (k = 0; k < d.length; k++) {
+			if (!DB.isInfty(d[k]) && leqC < d[k]) {
+				d[k] = DB.INFTY;
+			} else if (!DB.isInfty(d[k]) && d[k] < ltMinusC) {
+				d[k] = ltMinusC;
 			}
 		}
 		canonicalise();
@@ -249,15 +251,15 @@ public class DBM extends Zone
 			list.addDBM(createTrue(pta));
 			return list;
 		}
-		n = d.length - 1;
+		n = dim - 1;
 		for (i = 0; i < n + 1; i++) {
 			for (j = 0; j < n + 1; j++) {
 				if (i == j)
 					continue;
-				if (DB.isInfty(d[i][j]))
+				if (DB.isInfty(get(i, j)))
 					continue;
 				dbmNew = (DBM) new DBMFactory().createTrue(pta);
-				dbmNew.addConstraint(j, i, DB.dual(d[i][j]));
+				dbmNew.addConstraint(j, i, DB.dual(get(i, j)));
 				if (!dbmNew.isEmpty()) {
 					list.addDBM(dbmNew);
 				}
@@ -275,7 +277,7 @@ public class DBM extends Zone
 	{
 		// Internally, inconsistency is flagged by setting d[0][0] to -1.
 		// (Note: strictly speaking "<0" checks that the difference bound is less than "<0".)
-		return d[0][0] < 0;
+		return d[0] < 0;
 	}
 
 	/**
@@ -283,7 +285,7 @@ public class DBM extends Zone
 	 */
 	public boolean isSatisfied(Constraint c)
 	{
-		return DB.add(c.db, d[c.y][c.x]) > 0;
+		return DB.add(c.db, get(c.y, c.x)) > 0;
 	}
 
 	/**
@@ -291,14 +293,11 @@ public class DBM extends Zone
 	 */
 	public boolean includes(DBM dbm)
 	{
-		int i, j, n;
-		int[][] d2 = dbm.d;
-		n = pta.numClocks;
-		for (i = 0; i < n + 1; i++) {
-			for (j = 0; j < n + 1; j++) {
-				if (d[i][j] < d2[i][j])
-					return false;
-			}
+		int k;
+		int[] d2 = dbm.d;
+		for (k = 0; k < d.length; k++) {
+			if (d[k] < d2[k])
+				return false;
 		}
 		return true;
 	}
@@ -308,7 +307,7 @@ public class DBM extends Zone
 	 */
 	public int getClockMin(int x)
 	{
-		return -DB.getSignedDiff(d[0][x]);
+		return -DB.getSignedDiff(d[x]);
 	}
 	
 	/**
@@ -316,7 +315,7 @@ public class DBM extends Zone
 	 */
 	public int getClockMax(int x)
 	{
-		return DB.getSignedDiff(d[x][0]);
+		return DB.getSignedDiff(d[x * dim]);
 	}
 	
 	/**
@@ -324,7 +323,7 @@ public class DBM extends Zone
 	 */
 	public boolean clockIsUnbounded(int x)
 	{
-		return DB.isInfty(d[x][0]);
+		return DB.isInfty(d[x * dim]);
 	}
 	
 	/**
@@ -332,10 +331,9 @@ public class DBM extends Zone
 	 */
 	public boolean allClocksAreUnbounded()
 	{
-		int i, n;
-		n = pta.numClocks;
-		for (i = 1; i < n + 1; i++) {
-			if (!DB.isInfty(d[i][0])) {
+		int i;
+		for (i = 1; i < dim; i++) {
+			if (!DB.isInfty(d[i * dim])) {
 				return false;
 			}
 		}
@@ -349,15 +347,8 @@ public class DBM extends Zone
 	 */
 	public DBM deepCopy()
 	{
-		int i, j, n;
 		DBM copy = new DBM(pta);
-		n = pta.numClocks;
-		copy.d = new int[n + 1][n + 1];
-		for (i = 0; i < n + 1; i++) {
-			for (j = 0; j < n + 1; j++) {
-				copy.d[i][j] = d[i][j];
-			}
-		}
+		System.arraycopy(d, 0, copy.d, 0, d.length);
 		return copy;
 	}
 
@@ -373,12 +364,9 @@ public class DBM extends Zone
 
 	public int hashCode()
 	{
-		int n = pta.numClocks + 1;
 		int hash = 0;
-		for (int i = 0; i < n; i++) {
-			for (int j = 0; j < n; j++) {
-				hash = (hash * 7) + d[i][j];
-			}
+		for (int k = 0; k < d.length; k++) {
+			hash = (hash * 7) + d[k];
 		}
 		return hash;
 	}
@@ -386,7 +374,6 @@ public class DBM extends Zone
 	public boolean equals(Object o)
 	{
 		DBM dbm;
-		int i, j, n;
 		if (o == null)
 			return false;
 		try {
@@ -394,14 +381,7 @@ public class DBM extends Zone
 		} catch (ClassCastException e) {
 			return false;
 		}
-		n = pta.numClocks;
-		for (i = 0; i < n + 1; i++) {
-			for (j = 0; j < n + 1; j++) {
-				if (d[i][j] != dbm.d[i][j])
-					return false;
-			}
-		}
-		return true;
+		return Arrays.equals(d, dbm.d);
 	}
 
 	// To string methods
@@ -427,14 +407,14 @@ public class DBM extends Zone
 		for (i = 0; i < n + 1; i++) {
 			for (j = i + 1; j < n + 1; j++) {
 				s2 = null;
-				if (!DB.isInfty(d[i][j])) {
-					if (!DB.isInfty(d[j][i])) {
-						s2 = DB.constraintPairToString(i, j, d[i][j], d[j][i], pta);
+				if (!DB.isInfty(get(i, j))) {
+					if (!DB.isInfty(get(j, i))) {
+						s2 = DB.constraintPairToString(i, j, get(i, j), get(j, i), pta);
 					} else {
-						s2 = DB.constraintToString(i, j, d[i][j], pta);
+						s2 = DB.constraintToString(i, j, get(i, j), pta);
 					}
-				} else if (!DB.isInfty(d[j][i])) {
-					s2 = DB.constraintToString(j, i, d[j][i], pta);
+				} else if (!DB.isInfty(get(j, i))) {
+					s2 = DB.constraintToString(j, i, get(j, i), pta);
 				}
 				if (s2 != null) {
 					if (!first)
@@ -463,7 +443,7 @@ public class DBM extends Zone
 			for (j = 0; j < n + 1; j++) {
 				if (j > 0)
 					s += " ";
-				s += DB.toString(d[i][j]);
+				s += DB.toString(get(i, j));
 			}
 			if (i < n)
 				s += ", ";
@@ -475,19 +455,33 @@ public class DBM extends Zone
 	/* Private utility methods */
 
 	/**
-	 * Canonicalise, by applying Floyd-Warshall SPP algorithm 
+	 * Canonicalise (in place), by applying Floyd-Warshall SPP algorithm 
 	 */
 	private void canonicalise()
 	{
-		int k, i, j, db, n;
-		n = pta.numClocks;
-		for (k = 0; k < n + 1; k++) {
-			for (i = 0; i < n + 1; i++) {
-				for (j = 0; j < n + 1; j++) {
-					db = DB.add(d[i][k], d[k][j]);
-					if (db < d[i][j])
-						d[i][j] = db;
-				}
+		for (int k = 0; k < dim; k++) {
+			closeVia(k);
+		}
+	}
+
+	/**
+	 * One (outer) iteration of Floyd-Warshall, in place:
+	 * tighten each bound d[i][j] using the path via clock k.
+	 */
+	private void closeVia(int k)
+	{
+		int i, j, dIK, rowI, rowK, db;
+		rowK = k * dim;
+		for (i = 0; i < dim; i++) {
+			rowI = i * dim;
+			dIK = d[rowI + k];
+			// Nothing to tighten if there is no bound for xi-xk
+			if (DB.isInfty(dIK))
+				continue;
+			for (j = 0; j < dim; j++) {
+				db = DB.add(dIK, d[rowK + j]);
+				if (db < d[rowI + j])
+					d[rowI + j] = db;
 			}
 		}
 	}
@@ -499,14 +493,8 @@ public class DBM extends Zone
 	 */
 	public static DBM createZero(PTA pta)
 	{
-		int i, j, n;
 		DBM dbm = new DBM(pta);
-		n = pta.numClocks;
-		for (i = 0; i < n + 1; i++) {
-			for (j = 0; j < n + 1; j++) {
-				dbm.d[i][j] = DB.LEQ_ZERO;
-			}
-		}
+		Arrays.fill(dbm.d, DB.LEQ_ZERO);
 		return dbm;
 	}
 
@@ -521,11 +509,11 @@ public class DBM extends Zone
 		for (i = 0; i < n + 1; i++) {
 			for (j = 0; j < n + 1; j++) {
 				if (i == j)
-					dbm.d[i][j] = DB.LEQ_ZERO;
+					dbm.set(i, j, DB.LEQ_ZERO);
 				else if (i == 0)
-					dbm.d[i][j] = DB.LEQ_ZERO;
+					dbm.set(i, j, DB.LEQ_ZERO);
 				else
-					dbm.d[i][j] = DB.INFTY;
+					dbm.set(i, j, DB.INFTY);
 			}
 		}
 		return dbm;
@@ -40,10 +40,17 @@ public class ForwardsReach
 	protected BitSet targetLocs;
 	protected Constraint targetConstraint;
 
+	// Use zone inclusion (subsumption), rather than equality, to detect already found symbolic states?
+	protected boolean subsumption = true;
+
 	// Extra information associated with reachability graph
 	protected BitSet target; // Bit set specifying target states
 	protected List<Integer> initialStates; // Initial states
 
+	// Statistics
+	protected int numZonesSubsumed; // Number of (new) zones found to be included in an existing one
+	protected int numZonesEnlarged; // Number of waiting zones replaced by a (new) zone including them
+
 	// Constructors
 
 	public ForwardsReach()
@@ -56,6 +63,25 @@ public class ForwardsReach
 		this.mainLog = log;
 	}
 
+	// Settings
+
+	/**
+	 * Set whether to use zone inclusion (subsumption), rather than just equality,
+	 * to detect already found symbolic states (default: true).
+	 * If enabled, a new zone that is included in that of a found symbolic state (with the same location)
+	 * is not added, and a new zone that includes the zone of a found, but not yet explored,
+	 * symbolic state replaces it. This only applies to the FORMATS'10 construction.
+	 */
+	public void setSubsumption(boolean subsumption)
+	{
+		this.subsumption = subsumption;
+	}
+
+	public boolean getSubsumption()
+	{
+		return subsumption;
+	}
+
 	// Accessors for other info generated during construction of reachability graph
 
 	public BitSet getTarget()
@@ -68,6 +94,24 @@ public class ForwardsReach
 		return initialStates;
 	}
 
+	/**
+	 * Get the number of zones that were not added to the graph because they were
+	 * included in that of an existing symbolic state (if subsumption is enabled).
+	 */
+	public int getNumZonesSubsumed()
+	{
+		return numZonesSubsumed;
+	}
+
+	/**
+	 * Get the number of zones of (not yet explored) symbolic states that were replaced
+	 * by a new zone that includes them (if subsumption is enabled).
+	 */
+	public int getNumZonesEnlarged()
+	{
+		return numZonesEnlarged;
+	}
+
 	/**
 	 * Build a reachability graph based on a forwards PTA traversal.
 	 * All zones in the symbolic states in the graph are guaranteed to be convex (i.e. DBMs).
@@ -88,9 +132,7 @@ public class ForwardsReach
 	throws PrismException
 	{
 		LocZone init, lz, lz2;
-		LinkedList<LocZone> X;
-		StateStorage<LocZone> Yset;
-		//LocZoneSetOld Zset;
+		SymbolicStates Yset;
 		ReachabilityGraph graph;
 		int src, dest, count, dests[];
 		boolean canDiverge;
@@ -113,24 +155,21 @@ public class ForwardsReach
 		
 		// Initialise data structures
 		graph = new ReachabilityGraph(pta);
-		Yset = new IndexedSet<LocZone>();
-		X = new LinkedList<LocZone>();
+		Yset = new SymbolicStates(pta);
 		target = new BitSet();
+		numZonesSubsumed = numZonesEnlarged = 0;
 
 		// Build initial symbolic state (NB: assume initial location = 0)
 		init = new LocZone(0, DBM.createZero(pta));
 
 		// Reachability loop
-		Yset.add(init);
-		X.add(init);
-		src = -1;
-		// While there are unexplored symbolic states (in X)...
-		while (!X.isEmpty()) {
+		Yset.add(init, 0);
+		// While there are unexplored symbolic states...
+		// (states are explored in the order found, so the waiting list is
+		// just the states with indices greater than src)
+		for (src = 0; src < Yset.size(); src++) {
 			// Pick next state to explore
-			// X is a list containing states in order found
-			// (so we know index of lz is src+1)
-			lz = X.removeFirst();
-			src++;
+			lz = Yset.get(src);
 			// Compute timed post for this zone (NB: do this before checking if target)
 			lz = lz.deepCopy();
 			lz.tPost(pta);
@@ -194,12 +233,9 @@ public class ForwardsReach
 					lz2 = lz.deepCopy();
 					lz2.dPost(edge);
 					lz2.cClosure(pta);
-					// If non-empty, create edge, also adding state to X if new 
+					// If non-empty, create edge, also adding state if new 
 					if (!lz2.zone.isEmpty()) {
-						if (Yset.add(lz2)) {
-							X.add(lz2);
-						}
-						dest = Yset.getIndexOfLastAdd();
+						dest = Yset.add(lz2, src + 1);
 						enabled = true;
 						dests[count] = dest;
 					} else {
@@ -240,8 +276,8 @@ public class ForwardsReach
 		progress.update(Yset.size());
 		progress.end(" states");
 
-		// Convert state set to ArrayList and store
-		graph.states = Yset.toArrayList();
+		// Store state list
+		graph.states = Yset.states;
 
 		// Always have a single initial state 0 after this construction
 		initialStates = new ArrayList<Integer>();
@@ -252,6 +288,9 @@ public class ForwardsReach
 		mainLog.println("Graph constructed in " + (timer / 1000.0) + " secs.");
 		mainLog.print("Graph: " + graph.states.size() + " symbolic states");
 		mainLog.println(" (" + initialStates.size() + " initial, " + target.cardinality() + " target)");
+		if (subsumption) {
+			mainLog.println("Subsumption: " + numZonesSubsumed + " zones included in existing ones, " + numZonesEnlarged + " waiting zones enlarged");
+		}
 
 		// Print a warning if there are no target states
 		if (target.cardinality() == 0)
@@ -401,4 +440,82 @@ public class ForwardsReach
 
 		return graph;
 	}
+
+	/**
+	 * Storage for the symbolic states found during forwards reachability, indexed in the order found.
+	 * States are looked up by equality (using a hash map) and, if subsumption is enabled,
+	 * by zone inclusion (checked against all states for the same location).
+	 */
+	private class SymbolicStates
+	{
+		// Symbolic states, in order found
+		protected ArrayList<LocZone> states = new ArrayList<LocZone>();
+		// Indices of symbolic states
+		protected HashMap<LocZone, Integer> indices = new HashMap<LocZone, Integer>();
+		// Indices of symbolic states for each location (only needed for subsumption)
+		protected ArrayList<ArrayList<Integer>> locStates;
+
+		public SymbolicStates(PTA pta)
+		{
+			if (subsumption) {
+				int numLocations = pta.getNumLocations();
+				locStates = new ArrayList<ArrayList<Integer>>(numLocations);
+				for (int i = 0; i < numLocations; i++) {
+					locStates.add(new ArrayList<Integer>());
+				}
+			}
+		}
+
+		public int size()
+		{
+			return states.size();
+		}
+
+		public LocZone get(int i)
+		{
+			return states.get(i);
+		}
+
+		/**
+		 * Add a symbolic state, if it is new, and return its index.
+		 * With subsumption, the state may instead be mapped to an existing state
+		 * whose zone includes it, or replace the zone of an existing waiting state.
+		 * @param lz The symbolic state (with a DBM as zone)
+		 * @param firstWaiting Index of the first unexplored state
+		 */
+		public int add(LocZone lz, int firstWaiting)
+		{
+			Integer index = indices.get(lz);
+			if (index != null) {
+				return index;
+			}
+			// Zones for target locations are not merged if there is a target constraint,
+			// since this could change whether or not a state is considered a target
+			if (subsumption && !(targetConstraint != null && targetLocs.get(lz.loc))) {
+				DBM dbm = (DBM) lz.zone;
+				ArrayList<Integer> list = locStates.get(lz.loc);
+				for (int i = 0, n = list.size(); i < n; i++) {
+					int j = list.get(i);
+					LocZone lzOld = states.get(j);
+					// New zone included in existing one: use that
+					if (((DBM) lzOld.zone).includes(dbm)) {
+						numZonesSubsumed++;
+						return j;
+					}
+					// New zone includes that of a waiting state: replace it
+					if (j >= firstWaiting && dbm.includes((DBM) lzOld.zone)) {
+						indices.remove(lzOld);
+						states.set(j, lz);
+						indices.put(lz, j);
+						numZonesEnlarged++;
+						return j;
+					}
+				}
+				list.add(states.size());
+			}
+			indices.put(lz, states.size());
+			states.add(lz);
+			return states.size() - 1;
+		}
+	}
 }
@@ -52,6 +52,8 @@ public class PTAAbstractRefine extends QuantAbstractRefine
 	// for reuse when splitting that zone later on? (definitely saves a little
 	// bit of time, but at the expense of some space). 
 	boolean storeValidZones = true;
+	// Use zone inclusion (subsumption) during forwards reachability?
+	protected boolean subsumption = true;
 
 	/**
 	 * Default constructor.
@@ -64,6 +66,15 @@ public class PTAAbstractRefine extends QuantAbstractRefine
 		setPropertyType(QuantAbstractRefine.PropertyType.PROB_REACH);
 	}
 	
+	/**
+	 * Set whether to use zone inclusion (subsumption) during forwards reachability
+	 * (see {@link ForwardsReach#setSubsumption(boolean)}).
+	 */
+	public void setSubsumption(boolean subsumption)
+	{
+		this.subsumption = subsumption;
+	}
+
 	/**
 	 * Compute min/max PTA reachability probabilities using STPG abstraction refinement. 
 	 */
@@ -90,6 +101,7 @@ public class PTAAbstractRefine extends QuantAbstractRefine
 
 		// Build forwards reachability graph
 		forwardsReach = new ForwardsReach(mainLog);
+		forwardsReach.setSubsumption(subsumption);
 		graph = forwardsReach.buildForwardsGraph(pta, targetLocs, targetConstraint);
 		// Store the set of target/initial states from forwards reachability
 		target = forwardsReach.getTarget();
@@ -324,6 +324,7 @@ public class PTAModelChecker extends PrismComponent
 			ptaAR = new PTAAbstractRefine(this);
 			String arOptions = settings.getString(PrismSettings.PRISM_AR_OPTIONS);
 			ptaAR.parseOptions(arOptions.split(","));
+			ptaAR.setSubsumption(settings.getBoolean(PrismSettings.PRISM_PTA_SUBSUMPTION));
 			return ptaAR.forwardsReachAbstractRefine(pta, targetLocs, null, min);
 		}
 
@@ -48,6 +48,9 @@ public class ChoiceListFlexi implements Choice
 	// but are just stored as lists of updates (for efficiency)
 	protected List<List<Update>> updates;
 	protected List<Double> probability;
+	// Optionally, compiled versions of the updates (matching the lists in 'updates').
+	// This is null if any of the transitions were added without compiled updates.
+	protected List<List<CompiledUpdate>> compiledUpdates;
 
 	/**
 	 * Create empty choice.
@@ -56,6 +59,7 @@ public class ChoiceListFlexi implements Choice
 	{
 		updates = new ArrayList<List<Update>>();
 		probability = new ArrayList<Double>();
+		compiledUpdates = new ArrayList<List<CompiledUpdate>>();
 	}
 
 	/**
@@ -77,6 +81,14 @@ public class ChoiceListFlexi implements Choice
 		for (double p : ch.probability) {
 			probability.add(p);
 		}
+		if (ch.compiledUpdates == null) {
+			compiledUpdates = null;
+		} else {
+			compiledUpdates = new ArrayList<List<CompiledUpdate>>(ch.compiledUpdates.size());
+			for (List<CompiledUpdate> list : ch.compiledUpdates) {
+				compiledUpdates.add(new ArrayList<CompiledUpdate>(list));
+			}
+		}
 	}
 
 	// Set methods
@@ -100,6 +112,21 @@ public class ChoiceListFlexi implements Choice
 	{
 		this.updates.add(ups);
 		this.probability.add(probability);
+		compiledUpdates = null;
+	}
+
+	/**
+	 * Add a transition to this choice, also providing compiled versions of the updates.
+	 * @param probability Probability (or rate) of the transition
+	 * @param ups List of Update objects defining transition
+	 * @param compiledUps Compiled versions of the Update objects in {@code ups}
+	 */
+	public void add(double probability, List<Update> ups, List<CompiledUpdate> compiledUps)
+	{
+		this.updates.add(ups);
+		this.probability.add(probability);
+		if (compiledUpdates != null)
+			compiledUpdates.add(compiledUps);
 	}
 
 	@Override
@@ -118,9 +145,13 @@ public class ChoiceListFlexi implements Choice
 	public void productWith(ChoiceListFlexi ch)
 	{
 		List<Update> list;
+		List<CompiledUpdate> listCompiled;
 		int i, j, n, n2;
 		double pi;
 
+		// Compiled updates are only kept if available for both choices
+		if (ch.compiledUpdates == null)
+			compiledUpdates = null;
 		n = ch.size();
 		n2 = size();
 		// Loop through each (ith) element of new choice (skipping first)
@@ -136,7 +167,14 @@ public class ChoiceListFlexi implements Choice
 				for (Update u : ch.updates.get(i)) {
 					list.add(u);
 				}
-				add(pi * getProbability(j), list);
+				if (compiledUpdates != null) {
+					listCompiled = new ArrayList<CompiledUpdate>(list.size());
+					listCompiled.addAll(compiledUpdates.get(j));
+					listCompiled.addAll(ch.compiledUpdates.get(i));
+					add(pi * getProbability(j), list, listCompiled);
+				} else {
+					add(pi * getProbability(j), list);
+				}
 			}
 		}
 		// Modify elements of current choice to get (0,j) elements of product
@@ -145,6 +183,9 @@ public class ChoiceListFlexi implements Choice
 			for (Update u : ch.updates.get(0)) {
 				updates.get(j).add(u);
 			}
+			if (compiledUpdates != null) {
+				compiledUpdates.get(j).addAll(ch.compiledUpdates.get(0));
+			}
 			probability.set(j, pi * probability.get(j));
 		}
 	}
@@ -215,16 +256,20 @@ public class ChoiceListFlexi implements Choice
 	public State computeTarget(int i, State currentState) throws PrismLangException
 	{
 		State newState = new State(currentState);
-		for (Update up : updates.get(i))
-			up.update(currentState, newState);
+		computeTarget(i, currentState, newState);
 		return newState;
 	}
 
 	@Override
 	public void computeTarget(int i, State currentState, State newState) throws PrismLangException
 	{
-		for (Update up : updates.get(i))
-			up.update(currentState, newState);
+		if (compiledUpdates != null) {
+			for (CompiledUpdate up : compiledUpdates.get(i))
+				up.update(currentState, newState);
+		} else {
+			for (Update up : updates.get(i))
+				up.update(currentState, newState);
+		}
 	}
 
 	@Override
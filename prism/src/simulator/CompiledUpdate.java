@@ -0,0 +1,74 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package simulator;
+
+import parser.State;
+import parser.ast.Update;
+import prism.PrismLangException;
+import simulator.ExpressionCompiler.ValueEvaluator;
+
+/**
+ * Compiled version of an {@link Update}, i.e. a list of variable assignments,
+ * whose expressions have been compiled with {@link ExpressionCompiler}.
+ */
+public class CompiledUpdate
+{
+	// Indices of variables being updated
+	private int varIndices[];
+	// Compiled expressions for new values of variables
+	private ValueEvaluator exprs[];
+
+	/**
+	 * Compile an Update.
+	 */
+	public CompiledUpdate(Update up)
+	{
+		int n = up.getNumElements();
+		varIndices = new int[n];
+		exprs = new ValueEvaluator[n];
+		for (int i = 0; i < n; i++) {
+			varIndices[i] = up.getVarIndex(i);
+			exprs[i] = ExpressionCompiler.compileValue(up.getExpression(i));
+		}
+	}
+
+	/**
+	 * Execute this update, based on variable values specified as a State object.
+	 * Apply changes in variables to a provided copy of the State object.
+	 * (i.e. oldState and newState should be equal when passed in)
+	 * Equivalent to {@link Update#update(State, State)}.
+	 * @param oldState Variable values in current state
+	 * @param newState State object to apply changes to
+	 */
+	public void update(State oldState, State newState) throws PrismLangException
+	{
+		int n = varIndices.length;
+		for (int i = 0; i < n; i++) {
+			newState.setValue(varIndices[i], exprs[i].evaluate(oldState));
+		}
+	}
+}
@@ -0,0 +1,532 @@
+//==============================================================================
+//
+//	Copyright (c) 2002-
+//	Authors:
+//	* Dave Parker <d.a.parker@cs.bham.ac.uk> (University of Birmingham/Oxford)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package simulator;
+
+import parser.State;
+import parser.ast.Expression;
+import parser.ast.ExpressionBinaryOp;
+import parser.ast.ExpressionFunc;
+import parser.ast.ExpressionITE;
+import parser.ast.ExpressionLiteral;
+import parser.ast.ExpressionUnaryOp;
+import parser.ast.ExpressionVar;
+import parser.type.Type;
+import parser.type.TypeBool;
+import parser.type.TypeDouble;
+import parser.type.TypeInt;
+import prism.PrismLangException;
+
+/**
+ * Compiler for (state-based) PRISM expressions.
+ * <br>
+ * An expression is translated, once, into a tree of type-specialised evaluators
+ * (for int, double and boolean values), which can then be evaluated repeatedly
+ * on {@link State} objects without walking the AST, dispatching on operators/types
+ * or boxing intermediate results. The semantics (including errors such as integer
+ * overflow) are identical to {@link Expression#evaluate(parser.EvaluateContext)}.
+ * <br>
+ * Parts of an expression that are not supported by the compiler
+ * (or whose types are unknown) are simply evaluated using the interpreter.
+ * It is assumed that constants have already been replaced with their values.
+ */
+public class ExpressionCompiler
+{
+	/**
+	 * A compiled expression returning an int.
+	 */
+	@FunctionalInterface
+	public interface IntEvaluator
+	{
+		public int evaluate(State state) throws PrismLangException;
+	}
+
+	/**
+	 * A compiled expression returning a double.
+	 */
+	@FunctionalInterface
+	public interface DoubleEvaluator
+	{
+		public double evaluate(State state) throws PrismLangException;
+	}
+
+	/**
+	 * A compiled expression returning a boolean.
+	 */
+	@FunctionalInterface
+	public interface BooleanEvaluator
+	{
+		public boolean evaluate(State state) throws PrismLangException;
+	}
+
+	/**
+	 * A compiled expression returning an Object (of the appropriate type).
+	 */
+	@FunctionalInterface
+	public interface ValueEvaluator
+	{
+		public Object evaluate(State state) throws PrismLangException;
+	}
+
+	/**
+	 * Compile an expression, to be evaluated as a boolean
+	 * (equivalent to {@link Expression#evaluateBoolean(State)}).
+	 */
+	public static BooleanEvaluator compileBoolean(Expression expr)
+	{
+		if (expr.getType() instanceof TypeBool) {
+			BooleanEvaluator eval = compileBooleanNode(expr);
+			if (eval != null)
+				return eval;
+		}
+		return state -> expr.evaluateBoolean(state);
+	}
+
+	/**
+	 * Compile an expression, to be evaluated as an int
+	 * (equivalent to {@link Expression#evaluateInt(State)}).
+	 */
+	public static IntEvaluator compileInt(Expression expr)
+	{
+		Type type = expr.getType();
+		if (type instanceof TypeInt) {
+			IntEvaluator eval = compileIntNode(expr);
+			if (eval != null)
+				return eval;
+		} else if (type instanceof TypeBool) {
+			BooleanEvaluator eval = compileBooleanNode(expr);
+			if (eval != null)
+				return state -> eval.evaluate(state) ? 1 : 0;
+		}
+		return state -> expr.evaluateInt(state);
+	}
+
+	/**
+	 * Compile an expression, to be evaluated as a double
+	 * (equivalent to {@link Expression#evaluateDouble(State)}).
+	 */
+	public static DoubleEvaluator compileDouble(Expression expr)
+	{
+		Type type = expr.getType();
+		if (type instanceof TypeDouble) {
+			DoubleEvaluator eval = compileDoubleNode(expr);
+			if (eval != null)
+				return eval;
+		} else if (type instanceof TypeInt) {
+			IntEvaluator eval = compileIntNode(expr);
+			if (eval != null)
+				return state -> eval.evaluate(state);
+		} else if (type instanceof TypeBool) {
+			BooleanEvaluator eval = compileBooleanNode(expr);
+			if (eval != null)
+				return state -> eval.evaluate(state) ? 1.0 : 0.0;
+		}
+		return state -> expr.evaluateDouble(state);
+	}
+
+	/**
+	 * Compile an expression, to be evaluated as an Object
+	 * (equivalent to {@link Expression#evaluate(State)}).
+	 */
+	public static ValueEvaluator compileValue(Expression expr)
+	{
+		Type type = expr.getType();
+		if (expr instanceof ExpressionVar && ((ExpressionVar) expr).getIndex() >= 0) {
+			int index = ((ExpressionVar) expr).getIndex();
+			return state -> checkVarValue(state.varValues[index], expr);
+		} else if (type instanceof TypeInt) {
+			IntEvaluator eval = compileIntNode(expr);
+			if (eval != null)
+				return state -> Integer.valueOf(eval.evaluate(state));
+		} else if (type instanceof TypeBool) {
+			BooleanEvaluator eval = compileBooleanNode(expr);
+			if (eval != null)
+				return state -> Boolean.valueOf(eval.evaluate(state));
+		}
+		// NB: doubles are left to the interpreter, which may (e.g. for ITEs) return Integers
+		return state -> expr.evaluate(state);
+	}
+
+	// Compilation of individual (typed) nodes;
+	// these return null if the node is not supported
+
+	/**
+	 * Compile a node of type bool.
+	 */
+	private static BooleanEvaluator compileBooleanNode(Expression expr)
+	{
+		if (expr instanceof ExpressionLiteral) {
+			Object value = ((ExpressionLiteral) expr).getValue();
+			if (!(value instanceof Boolean))
+				return null;
+			boolean b = (Boolean) value;
+			return state -> b;
+		}
+		if (expr instanceof ExpressionVar) {
+			int index = ((ExpressionVar) expr).getIndex();
+			if (index < 0)
+				return null;
+			return state -> {
+				Object o = checkVarValue(state.varValues[index], expr);
+				if (!(o instanceof Boolean))
+					throw new PrismLangException("Cannot evaluate to a boolean", expr);
+				return (Boolean) o;
+			};
+		}
+		if (expr instanceof ExpressionUnaryOp) {
+			ExpressionUnaryOp e = (ExpressionUnaryOp) expr;
+			if (!(e.getOperand().getType() instanceof TypeBool))
+				return null;
+			BooleanEvaluator op = compileBoolean(e.getOperand());
+			switch (e.getOperator()) {
+			case ExpressionUnaryOp.NOT:
+				return state -> !op.evaluate(state);
+			case ExpressionUnaryOp.PARENTH:
+				return op;
+			}
+			return null;
+		}
+		if (expr instanceof ExpressionBinaryOp) {
+			ExpressionBinaryOp e = (ExpressionBinaryOp) expr;
+			Expression e1 = e.getOperand1();
+			Expression e2 = e.getOperand2();
+			int op = e.getOperator();
+			switch (op) {
+			case ExpressionBinaryOp.IMPLIES:
+			case ExpressionBinaryOp.IFF:
+			case ExpressionBinaryOp.OR:
+			case ExpressionBinaryOp.AND: {
+				BooleanEvaluator b1 = compileBoolean(e1);
+				BooleanEvaluator b2 = compileBoolean(e2);
+				switch (op) {
+				case ExpressionBinaryOp.IMPLIES:
+					return state -> !b1.evaluate(state) || b2.evaluate(state);
+				case ExpressionBinaryOp.IFF:
+					return state -> b1.evaluate(state) == b2.evaluate(state);
+				case ExpressionBinaryOp.OR:
+					return state -> b1.evaluate(state) || b2.evaluate(state);
+				default:
+					return state -> b1.evaluate(state) && b2.evaluate(state);
+				}
+			}
+			case ExpressionBinaryOp.EQ:
+			case ExpressionBinaryOp.NE:
+			case ExpressionBinaryOp.GT:
+			case ExpressionBinaryOp.GE:
+			case ExpressionBinaryOp.LT:
+			case ExpressionBinaryOp.LE:
+				if (e1.getType() == TypeInt.getInstance() && e2.getType() == TypeInt.getInstance()) {
+					IntEvaluator i1 = compileInt(e1);
+					IntEvaluator i2 = compileInt(e2);
+					switch (op) {
+					case ExpressionBinaryOp.EQ:
+						return state -> i1.evaluate(state) == i2.evaluate(state);
+					case ExpressionBinaryOp.NE:
+						return state -> i1.evaluate(state) != i2.evaluate(state);
+					case ExpressionBinaryOp.GT:
+						return state -> i1.evaluate(state) > i2.evaluate(state);
+					case ExpressionBinaryOp.GE:
+						return state -> i1.evaluate(state) >= i2.evaluate(state);
+					case ExpressionBinaryOp.LT:
+						return state -> i1.evaluate(state) < i2.evaluate(state);
+					default:
+						return state -> i1.evaluate(state) <= i2.evaluate(state);
+					}
+				} else {
+					DoubleEvaluator d1 = compileDouble(e1);
+					DoubleEvaluator d2 = compileDouble(e2);
+					switch (op) {
+					case ExpressionBinaryOp.EQ:
+						return state -> d1.evaluate(state) == d2.evaluate(state);
+					case ExpressionBinaryOp.NE:
+						return state -> d1.evaluate(state) != d2.evaluate(state);
+					case ExpressionBinaryOp.GT:
+						return state -> d1.evaluate(state) > d2.evaluate(state);
+					case ExpressionBinaryOp.GE:
+						return state -> d1.evaluate(state) >= d2.evaluate(state);
+					case ExpressionBinaryOp.LT:
+						return state -> d1.evaluate(state) < d2.evaluate(state);
+					default:
+						return state -> d1.evaluate(state) <= d2.evaluate(state);
+					}
+				}
+			}
+			return null;
+		}
+		if (expr instanceof ExpressionITE) {
+			ExpressionITE e = (ExpressionITE) expr;
+			if (!(e.getOperand2().getType() instanceof TypeBool && e.getOperand3().getType() instanceof TypeBool))
+				return null;
+			BooleanEvaluator b1 = compileBoolean(e.getOperand1());
+			BooleanEvaluator b2 = compileBoolean(e.getOperand2());
+			BooleanEvaluator b3 = compileBoolean(e.getOperand3());
+			return state -> b1.evaluate(state) ? b2.evaluate(state) : b3.evaluate(state);
+		}
+		return null;
+	}
+
+	/**
+	 * Compile a node of type int.
+	 */
+	private static IntEvaluator compileIntNode(Expression expr)
+	{
+		if (expr instanceof ExpressionLiteral) {
+			Object value = ((ExpressionLiteral) expr).getValue();
+			if (!(value instanceof Integer))
+				return null;
+			int i = (Integer) value;
+			return state -> i;
+		}
+		if (expr instanceof ExpressionVar) {
+			int index = ((ExpressionVar) expr).getIndex();
+			if (index < 0)
+				return null;
+			return state -> {
+				Object o = checkVarValue(state.varValues[index], expr);
+				if (o instanceof Integer)
+					return (Integer) o;
+				if (o instanceof Boolean)
+					return ((Boolean) o) ? 1 : 0;
+				throw new PrismLangException("Cannot evaluate to an integer", expr);
+			};
+		}
+		if (expr instanceof ExpressionUnaryOp) {
+			ExpressionUnaryOp e = (ExpressionUnaryOp) expr;
+			IntEvaluator op = compileInt(e.getOperand());
+			switch (e.getOperator()) {
+			case ExpressionUnaryOp.MINUS:
+				return state -> {
+					try {
+						return Math.negateExact(op.evaluate(state));
+					} catch (ArithmeticException ex) {
+						throw new PrismLangException(ex.getMessage(), expr);
+					}
+				};
+			case ExpressionUnaryOp.PARENTH:
+				return e.getOperand().getType() instanceof TypeInt ? op : null;
+			}
+			return null;
+		}
+		if (expr instanceof ExpressionBinaryOp) {
+			ExpressionBinaryOp e = (ExpressionBinaryOp) expr;
+			// Int-typed arithmetic only arises when both operands are ints
+			if (!(e.getOperand1().getType() == TypeInt.getInstance() && e.getOperand2().getType() == TypeInt.getInstance()))
+				return null;
+			IntEvaluator i1 = compileInt(e.getOperand1());
+			IntEvaluator i2 = compileInt(e.getOperand2());
+			switch (e.getOperator()) {
+			case ExpressionBinaryOp.PLUS:
+				return state -> {
+					try {
+						return Math.addExact(i1.evaluate(state), i2.evaluate(state));
+					} catch (ArithmeticException ex) {
+						throw new PrismLangException(ex.getMessage(), expr);
+					}
+				};
+			case ExpressionBinaryOp.MINUS:
+				return state -> {
+					try {
+						return Math.subtractExact(i1.evaluate(state), i2.evaluate(state));
+					} catch (ArithmeticException ex) {
+						throw new PrismLangException(ex.getMessage(), expr);
+					}
+				};
+			case ExpressionBinaryOp.TIMES:
+				return state -> {
+					try {
+						return Math.multiplyExact(i1.evaluate(state), i2.evaluate(state));
+					} catch (ArithmeticException ex) {
+						throw new PrismLangException(ex.getMessage(), expr);
+					}
+				};
+			}
+			return null;
+		}
+		if (expr instanceof ExpressionITE) {
+			ExpressionITE e = (ExpressionITE) expr;
+			BooleanEvaluator b1 = compileBoolean(e.getOperand1());
+			IntEvaluator i2 = compileInt(e.getOperand2());
+			IntEvaluator i3 = compileInt(e.getOperand3());
+			return state -> b1.evaluate(state) ? i2.evaluate(state) : i3.evaluate(state);
+		}
+		if (expr instanceof ExpressionFunc) {
+			ExpressionFunc e = (ExpressionFunc) expr;
+			int n = e.getNumOperands();
+			switch (e.getNameCode()) {
+			case ExpressionFunc.MIN:
+			case ExpressionFunc.MAX: {
+				IntEvaluator ops[] = new IntEvaluator[n];
+				for (int i = 0; i < n; i++) {
+					ops[i] = compileInt(e.getOperand(i));
+				}
+				boolean min = e.getNameCode() == ExpressionFunc.MIN;
+				return state -> {
+					int res = ops[0].evaluate(state);
+					for (int i = 1; i < ops.length; i++) {
+						int j = ops[i].evaluate(state);
+						res = min ? (j < res ? j : res) : (j > res ? j : res);
+					}
+					return res;
+				};
+			}
+			case ExpressionFunc.FLOOR:
+			case ExpressionFunc.CEIL:
+			case ExpressionFunc.ROUND: {
+				DoubleEvaluator op = compileDouble(e.getOperand(0));
+				int code = e.getNameCode();
+				return state -> {
+					try {
+						double d = op.evaluate(state);
+						return code == ExpressionFunc.FLOOR ? ExpressionFunc.evaluateFloor(d)
+								: code == ExpressionFunc.CEIL ? ExpressionFunc.evaluateCeil(d) : ExpressionFunc.evaluateRound(d);
+					} catch (PrismLangException ex) {
+						ex.setASTElement(expr);
+						throw ex;
+					}
+				};
+			}
+			case ExpressionFunc.POW: {
+				IntEvaluator i1 = compileInt(e.getOperand(0));
+				IntEvaluator i2 = compileInt(e.getOperand(1));
+				return state -> {
+					try {
+						return ExpressionFunc.evaluatePowInt(i1.evaluate(state), i2.evaluate(state));
+					} catch (PrismLangException ex) {
+						ex.setASTElement(expr);
+						throw ex;
+					}
+				};
+			}
+			case ExpressionFunc.MOD: {
+				IntEvaluator i1 = compileInt(e.getOperand(0));
+				IntEvaluator i2 = compileInt(e.getOperand(1));
+				return state -> {
+					try {
+						return ExpressionFunc.evaluateMod(i1.evaluate(state), i2.evaluate(state));
+					} catch (PrismLangException ex) {
+						ex.setASTElement(expr);
+						throw ex;
+					}
+				};
+			}
+			}
+			return null;
+		}
+		return null;
+	}
+
+	/**
+	 * Compile a node of type double.
+	 */
+	private static DoubleEvaluator compileDoubleNode(Expression expr)
+	{
+		if (expr instanceof ExpressionLiteral) {
+			Object value = ((ExpressionLiteral) expr).getValue();
+			if (!(value instanceof Double))
+				return null;
+			double d = (Double) value;
+			return state -> d;
+		}
+		if (expr instanceof ExpressionUnaryOp) {
+			ExpressionUnaryOp e = (ExpressionUnaryOp) expr;
+			DoubleEvaluator op = compileDouble(e.getOperand());
+			switch (e.getOperator()) {
+			case ExpressionUnaryOp.MINUS:
+				return state -> -op.evaluate(state);
+			case ExpressionUnaryOp.PARENTH:
+				return e.getOperand().getType() instanceof TypeDouble ? op : null;
+			}
+			return null;
+		}
+		if (expr instanceof ExpressionBinaryOp) {
+			ExpressionBinaryOp e = (ExpressionBinaryOp) expr;
+			DoubleEvaluator d1 = compileDouble(e.getOperand1());
+			DoubleEvaluator d2 = compileDouble(e.getOperand2());
+			switch (e.getOperator()) {
+			case ExpressionBinaryOp.PLUS:
+				return state -> d1.evaluate(state) + d2.evaluate(state);
+			case ExpressionBinaryOp.MINUS:
+				return state -> d1.evaluate(state) - d2.evaluate(state);
+			case ExpressionBinaryOp.TIMES:
+				return state -> d1.evaluate(state) * d2.evaluate(state);
+			case ExpressionBinaryOp.DIVIDE:
+				return state -> d1.evaluate(state) / d2.evaluate(state);
+			}
+			return null;
+		}
+		if (expr instanceof ExpressionITE) {
+			ExpressionITE e = (ExpressionITE) expr;
+			BooleanEvaluator b1 = compileBoolean(e.getOperand1());
+			DoubleEvaluator d2 = compileDouble(e.getOperand2());
+			DoubleEvaluator d3 = compileDouble(e.getOperand3());
+			return state -> b1.evaluate(state) ? d2.evaluate(state) : d3.evaluate(state);
+		}
+		if (expr instanceof ExpressionFunc) {
+			ExpressionFunc e = (ExpressionFunc) expr;
+			int n = e.getNumOperands();
+			switch (e.getNameCode()) {
+			case ExpressionFunc.MIN:
+			case ExpressionFunc.MAX: {
+				DoubleEvaluator ops[] = new DoubleEvaluator[n];
+				for (int i = 0; i < n; i++) {
+					ops[i] = compileDouble(e.getOperand(i));
+				}
+				boolean min = e.getNameCode() == ExpressionFunc.MIN;
+				return state -> {
+					double res = ops[0].evaluate(state);
+					for (int i = 1; i < ops.length; i++) {
+						double d = ops[i].evaluate(state);
+						res = min ? (d < res ? d : res) : (d > res ? d : res);
+					}
+					return res;
+				};
+			}
+			case ExpressionFunc.POW: {
+				DoubleEvaluator d1 = compileDouble(e.getOperand(0));
+				DoubleEvaluator d2 = compileDouble(e.getOperand(1));
+				return state -> ExpressionFunc.evaluatePowDouble(d1.evaluate(state), d2.evaluate(state));
+			}
+			case ExpressionFunc.LOG: {
+				DoubleEvaluator d1 = compileDouble(e.getOperand(0));
+				DoubleEvaluator d2 = compileDouble(e.getOperand(1));
+				return state -> ExpressionFunc.evaluateLog(d1.evaluate(state), d2.evaluate(state));
+			}
+			}
+			return null;
+		}
+		return null;
+	}
+
+	/**
+	 * Check that a variable value is defined (as done by the interpreter).
+	 */
+	private static Object checkVarValue(Object value, Expression expr) throws PrismLangException
+	{
+		if (value == null)
+			throw new PrismLangException("Could not evaluate variable", expr);
+		return value;
+	}
+}
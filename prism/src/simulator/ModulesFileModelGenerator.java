@@ -86,6 +86,26 @@ public class ModulesFileModelGenerator implements ModelGenerator, RewardGenerato
 		}
 	}
 	
+	/**
+	 * Build a copy of an existing ModulesFileModelGenerator, which has already been initialised.
+	 * The (constant-resolved) PRISM model is deep-copied, and the copy has its own
+	 * data structures for exploring the model, so it can be used independently (e.g. in another thread).
+	 */
+	private ModulesFileModelGenerator(ModulesFileModelGenerator modelGen) throws PrismException
+	{
+		parent = modelGen.parent;
+		originalModulesFile = modelGen.originalModulesFile;
+		modulesFile = (ModulesFile) modelGen.modulesFile.deepCopy();
+		modelType = modelGen.modelType;
+		mfConstants = modelGen.mfConstants;
+		varList = modulesFile.createVarList();
+		labelList = modulesFile.getLabelList();
+		labelNames = labelList.getLabelNames();
+		updater = new Updater(modulesFile, varList, parent);
+		transitionList = new TransitionList();
+		transitionListBuilt = false;
+	}
+	
 	/**
 	 * (Re-)Initialise the class ready for model exploration
 	 * (can only be done once any constants needed have been provided)
@@ -203,6 +223,15 @@ public class ModulesFileModelGenerator implements ModelGenerator, RewardGenerato
 	
 	// Methods for ModelGenerator interface
 	
+	@Override
+	public ModelGenerator createCopy() throws PrismException
+	{
+		if (mfConstants == null) {
+			throw new PrismException("Model generator cannot be copied before all constants are defined");
+		}
+		return new ModulesFileModelGenerator(this);
+	}
+
 	@Override
 	public boolean hasSingleInitialState() throws PrismException
 	{
@@ -412,9 +441,8 @@ public class ModulesFileModelGenerator implements ModelGenerator, RewardGenerato
 		double d = 0;
 		for (int i = 0; i < n; i++) {
 			if (!rewStr.getRewardStructItem(i).isTransitionReward()) {
-				Expression guard = rewStr.getStates(i);
-				if (guard.evaluateBoolean(modulesFile.getConstantValues(), state)) {
-					double rew = rewStr.getReward(i).evaluateDouble(modulesFile.getConstantValues(), state);
+				if (updater.evaluateRewardGuard(r, i, state)) {
+					double rew = updater.evaluateReward(r, i, state);
 					if (Double.isNaN(rew))
 						throw new PrismLangException("Reward structure evaluates to NaN at state " + state, rewStr.getReward(i));
 					d += rew;
@@ -432,11 +460,10 @@ public class ModulesFileModelGenerator implements ModelGenerator, RewardGenerato
 		double d = 0;
 		for (int i = 0; i < n; i++) {
 			if (rewStr.getRewardStructItem(i).isTransitionReward()) {
-				Expression guard = rewStr.getStates(i);
 				String cmdAction = rewStr.getSynch(i);
 				if (action == null ? (cmdAction.isEmpty()) : action.equals(cmdAction)) {
-					if (guard.evaluateBoolean(modulesFile.getConstantValues(), state)) {
-						double rew = rewStr.getReward(i).evaluateDouble(modulesFile.getConstantValues(), state);
+					if (updater.evaluateRewardGuard(r, i, state)) {
+						double rew = updater.evaluateReward(r, i, state);
 						if (Double.isNaN(rew))
 							throw new PrismLangException("Reward structure evaluates to NaN at state " + state, rewStr.getReward(i));
 						d += rew;
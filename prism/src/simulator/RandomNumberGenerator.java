@@ -54,6 +54,17 @@ public class RandomNumberGenerator
 		exponential = new Exponential(1.0, random);
 	}
 
+	/**
+	 * Create a new random number generator, with the specified seed.
+	 */
+	public RandomNumberGenerator(int seed)
+	{
+		random = new MersenneTwister(seed);
+		uniform = new Uniform(random);
+		// Create exponential generator (rate 1.0 but this is ignored from now on)
+		exponential = new Exponential(1.0, random);
+	}
+
 	/**
 	 * Pick a (uniformly distributed) random integer in the range [0,...,n-1].
 	 */
@@ -29,6 +29,10 @@ package simulator;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import parser.State;
 import parser.Values;
@@ -49,6 +53,7 @@ import prism.PrismFileLog;
 import prism.PrismLangException;
 import prism.PrismLog;
 import prism.PrismNotSupportedException;
+import prism.PrismSettings;
 import prism.PrismUtils;
 import prism.ResultsCollection;
 import prism.RewardGenerator;
@@ -145,6 +150,9 @@ public class SimulatorEngine extends PrismComponent
 	// Random number generator
 	private RandomNumberGenerator rng;
 
+	/** Maximum number of paths sampled by each thread per batch (for parallel sampling) */
+	private static final int MAX_SAMPLES_PER_THREAD = 64;
+
 	/**
 	 * Utility class to store a reference to a transition,
 	 * broken up into the index of its (nondetermnistic) choice {@code i}
@@ -206,6 +214,11 @@ public class SimulatorEngine extends PrismComponent
 		varList = modelGen.createVarList();
 		numVars = varList.getNumVars();
 		
+		// (Re)seed the random number generator, if a seed was specified
+		// (this also fixes the seeds of the workers used for parallel sampling)
+		int seed = (settings == null) ? 0 : settings.getInteger(PrismSettings.SIMULATOR_SEED);
+		rng = (seed == 0) ? new RandomNumberGenerator() : new RandomNumberGenerator(seed);
+		
 		// Initialise storage (should be re-done for each new path etc. but doesn't hurt)
 		initialise();
 	}
@@ -1777,23 +1790,27 @@ public class SimulatorEngine extends PrismComponent
 	 * Sample paths are from the specified initial state and maximum length.
 	 * Termination of the sampling process occurs when the SimulationMethod object
 	 * for all properties indicate that it is finished.
+	 * <br>
+	 * If multiple threads are requested (via {@link PrismSettings#PRISM_NUM_THREADS}),
+	 * paths are generated in batches by independent worker engines (see {@link #createSamplingWorkers()}).
+	 * The paths of each batch are then added to the samplers of this engine one at a time, in a fixed order,
+	 * checking the stopping criteria after each one, exactly as in the sequential case;
+	 * paths beyond the point where sampling stops are discarded.
+	 * So the number of paths used is as required by the simulation method, and, for a fixed seed
+	 * (see {@link PrismSettings#SIMULATOR_SEED}) and number of threads, the results are reproducible.
 	 * @param initialState Initial state (if null, is selected randomly)
 	 * @param maxPathLength The maximum path length for sampling
 	 */
 	private void doSampling(State initialState, long maxPathLength) throws PrismException
 	{
-		int iters;
-		long i;
+		int iters, batch;
 		// Flags
 		boolean stoppedEarly = false;
 		boolean deadlocksFound = false;
 		boolean allDone = false;
-		boolean allKnown = false;
-		boolean someUnknownButBounded = false;
 		boolean shouldStopSampling = false;
 		// Path stats
-		double avgPathLength = 0;
-		long minPathFound = 0, maxPathFound = 0;
+		PathLengthStats pathStats = new PathLengthStats();
 		// Progress info
 		int lastPercentageDone = 0;
 		int percentageDone = 0;
@@ -1801,80 +1818,61 @@ public class SimulatorEngine extends PrismComponent
 		long start, stop;
 		double time_taken;
 
+		// Create worker engines for parallel sampling, if required
+		SimulatorEngine workers[] = createSamplingWorkers();
+		ExecutorService executor = (workers == null) ? null : Executors.newFixedThreadPool(workers.length);
+		batch = (workers == null) ? 1 : workers.length;
+
 		// Start
 		start = System.currentTimeMillis();
-		mainLog.print("\nSampling progress: [");
+		mainLog.print("\nSampling progress" + (workers == null ? "" : " (using " + workers.length + " threads)") + ": [");
 		mainLog.flush();
 
 		// Main sampling loop
 		iters = 0;
-		while (!shouldStopSampling) {
-
-			// See if all properties are done; if so, stop sampling
-			allDone = true;
-			for (Sampler sampler : propertySamplers) {
-				if (!sampler.getSimulationMethod().shouldStopNow(iters, sampler))
-					allDone = false;
-			}
-			if (allDone)
-				break;
-
-			// Display progress (of slowest property)
-			percentageDone = 100;
-			for (Sampler sampler : propertySamplers) {
-				percentageDone = Math.min(percentageDone, sampler.getSimulationMethod().getProgress(iters, sampler));
-			}
-			if (percentageDone > lastPercentageDone) {
-				lastPercentageDone = percentageDone;
-				mainLog.print(" " + lastPercentageDone + "%");
-				mainLog.flush();
-			}
-
-			iters++;
+		try {
+			while (!shouldStopSampling) {
 
-			// Start the new path for this iteration (sample)
-			initialisePath(initialState);
+				// See if all properties are done; if so, stop sampling
+				allDone = allSamplersDone(iters);
+				if (allDone)
+					break;
 
-			// Generate a path
-			allKnown = false;
-			someUnknownButBounded = false;
-			i = 0;
-			while ((!allKnown && i < maxPathLength) || someUnknownButBounded) {
-				// Check status of samplers
-				allKnown = true;
-				someUnknownButBounded = false;
+				// Display progress (of slowest property)
+				percentageDone = 100;
 				for (Sampler sampler : propertySamplers) {
-					if (!sampler.isCurrentValueKnown()) {
-						allKnown = false;
-						if (sampler.needsBoundedNumSteps())
-							someUnknownButBounded = true;
-					}
+					percentageDone = Math.min(percentageDone, sampler.getSimulationMethod().getProgress(iters, sampler));
+				}
+				if (percentageDone > lastPercentageDone) {
+					lastPercentageDone = percentageDone;
+					mainLog.print(" " + lastPercentageDone + "%");
+					mainLog.flush();
 				}
-				// Stop when all answers are known or we have reached max path length
-				// (but don't stop yet if there are "bounded" samplers with unkown values)
-				if ((allKnown || i >= maxPathLength) && !someUnknownButBounded)
-					break;
-				// Make a random transition
-				automaticTransition();
-				i++;
-			}
-
-			// TODO: Detect deadlocks so we can report a warning
-
-			// Update path length statistics
-			avgPathLength = (avgPathLength * (iters - 1) + (i)) / iters;
-			minPathFound = (iters == 1) ? i : Math.min(minPathFound, i);
-			maxPathFound = (iters == 1) ? i : Math.max(maxPathFound, i);
 
-			// If not all samplers could produce values, this an error
-			if (!allKnown) {
-				stoppedEarly = true;
-				break;
+				// Sequential case: generate a single path (sample)
+				if (workers == null) {
+					iters++;
+					if (!samplePaths(initialState, maxPathLength, 1, pathStats)) {
+						stoppedEarly = true;
+						break;
+					}
+				}
+				// Parallel case: generate a batch of paths and use them until sampling is done
+				// (the batch size starts at one path per thread and then doubles,
+				// so that not many paths are discarded if sampling finishes early)
+				else {
+					int used = samplePathsInParallel(workers, executor, initialState, maxPathLength, iters, batch, pathStats);
+					if (used < 0) {
+						stoppedEarly = true;
+						break;
+					}
+					iters += used;
+					batch = Math.min(2 * batch, workers.length * MAX_SAMPLES_PER_THREAD);
+				}
 			}
-
-			// Update state of samplers based on last path
-			for (Sampler sampler : propertySamplers) {
-				sampler.updateStats();
+		} finally {
+			if (executor != null) {
+				executor.shutdown();
 			}
 		}
 
@@ -1887,8 +1885,8 @@ public class SimulatorEngine extends PrismComponent
 			time_taken = (stop - start) / 1000.0;
 			mainLog.print("\nSampling complete: ");
 			mainLog.print(iters + " iterations in " + time_taken + " seconds (average " + PrismUtils.formatDouble(2, time_taken / iters) + ")\n");
-			mainLog.print("Path length statistics: average " + PrismUtils.formatDouble(2, avgPathLength) + ", min " + minPathFound + ", max " + maxPathFound
-					+ "\n");
+			mainLog.print("Path length statistics: average " + PrismUtils.formatDouble(2, pathStats.getAverage()) + ", min " + pathStats.min + ", max "
+					+ pathStats.max + "\n");
 		} else {
 			mainLog.print(" ...\n\nSampling terminated early after " + iters + " iterations.\n");
 		}
@@ -1910,6 +1908,247 @@ public class SimulatorEngine extends PrismComponent
 		}
 	}
 
+	/**
+	 * Check whether the SimulationMethod objects for all properties indicate
+	 * that sampling is finished, after {@code iters} iterations.
+	 */
+	private boolean allSamplersDone(int iters)
+	{
+		boolean allDone = true;
+		for (Sampler sampler : propertySamplers) {
+			if (!sampler.getSimulationMethod().shouldStopNow(iters, sampler))
+				allDone = false;
+		}
+		return allDone;
+	}
+
+	/**
+	 * Generate {@code n} sample paths from the specified initial state and maximum length,
+	 * updating the statistics of the samplers for the currently loaded properties
+	 * and the path length statistics {@code pathStats}.
+	 * Returns false (and stops) if the values of some samplers were not known for a path.
+	 * @param initialState Initial state (if null, is selected randomly)
+	 * @param maxPathLength The maximum path length for sampling
+	 * @param n The number of paths to generate
+	 * @param pathStats Where to store path length statistics
+	 */
+	private boolean samplePaths(State initialState, long maxPathLength, int n, PathLengthStats pathStats) throws PrismException
+	{
+		for (int k = 0; k < n; k++) {
+			long length = samplePath(initialState, maxPathLength);
+			// If not all samplers could produce values, this an error
+			if (length < 0) {
+				return false;
+			}
+			// Update path length statistics
+			pathStats.add(length);
+			// Update state of samplers based on last path
+			for (Sampler sampler : propertySamplers) {
+				sampler.updateStats();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Generate {@code n} sample paths from the specified initial state and maximum length,
+	 * storing (rather than adding to the statistics of the samplers) the length of the k-th path
+	 * in {@code lengths[k]} and the values of the samplers for it in {@code values[k]}
+	 * (used by worker engines for parallel sampling).
+	 * Returns the number of paths generated, which is less than {@code n}
+	 * (and generation stops) if the values of some samplers were not known for a path.
+	 * @param initialState Initial state (if null, is selected randomly)
+	 * @param maxPathLength The maximum path length for sampling
+	 * @param n The number of paths to generate
+	 * @param lengths Where to store the path lengths
+	 * @param values Where to store the sampler values
+	 */
+	private int samplePaths(State initialState, long maxPathLength, int n, long lengths[], Object values[][]) throws PrismException
+	{
+		int numProps = propertySamplers.size();
+		for (int k = 0; k < n; k++) {
+			long length = samplePath(initialState, maxPathLength);
+			if (length < 0) {
+				return k;
+			}
+			lengths[k] = length;
+			values[k] = new Object[numProps];
+			for (int j = 0; j < numProps; j++) {
+				values[k][j] = propertySamplers.get(j).getCurrentValue();
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Generate a single sample path from the specified initial state and maximum length,
+	 * after which the samplers for the currently loaded properties hold their values for the path.
+	 * Returns the length of the path, or -1 if the values of some samplers were not known for it.
+	 * @param initialState Initial state (if null, is selected randomly)
+	 * @param maxPathLength The maximum path length for sampling
+	 */
+	private long samplePath(State initialState, long maxPathLength) throws PrismException
+	{
+		long i;
+		boolean allKnown = false;
+		boolean someUnknownButBounded = false;
+
+		// Start the new path for this iteration (sample)
+		initialisePath(initialState);
+
+		// Generate a path
+		i = 0;
+		while ((!allKnown && i < maxPathLength) || someUnknownButBounded) {
+			// Check status of samplers
+			allKnown = true;
+			someUnknownButBounded = false;
+			for (Sampler sampler : propertySamplers) {
+				if (!sampler.isCurrentValueKnown()) {
+					allKnown = false;
+					if (sampler.needsBoundedNumSteps())
+						someUnknownButBounded = true;
+				}
+			}
+			// Stop when all answers are known or we have reached max path length
+			// (but don't stop yet if there are "bounded" samplers with unkown values)
+			if ((allKnown || i >= maxPathLength) && !someUnknownButBounded)
+				break;
+			// Make a random transition
+			automaticTransition();
+			i++;
+		}
+
+		// TODO: Detect deadlocks so we can report a warning
+
+		return allKnown ? i : -1;
+	}
+
+	/**
+	 * Generate a batch of {@code n} sample paths in parallel, using the worker engines {@code workers}
+	 * and the thread pool {@code executor}, and then add them, one at a time, to the statistics of
+	 * the samplers for the currently loaded properties and the path length statistics {@code pathStats},
+	 * stopping as soon as all samplers are done (see {@link #allSamplersDone(int)}).
+	 * Paths are divided between workers in a fixed way, and are added in a fixed order
+	 * (cycling through the workers), so that the results do not depend on thread scheduling.
+	 * Returns the number of paths used (any others are discarded),
+	 * or -1 if the values of some samplers were not known for a path that would have been used.
+	 * @param iters The number of paths used so far
+	 */
+	private int samplePathsInParallel(SimulatorEngine workers[], ExecutorService executor, State initialState, long maxPathLength, int iters, int n,
+			PathLengthStats pathStats) throws PrismException
+	{
+		int numWorkers = workers.length;
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>(numWorkers);
+		long lengths[][] = new long[numWorkers][];
+		Object values[][][] = new Object[numWorkers][][];
+		for (int t = 0; t < numWorkers; t++) {
+			final SimulatorEngine worker = workers[t];
+			final int numPaths = n / numWorkers + (t < n % numWorkers ? 1 : 0);
+			final long workerLengths[] = lengths[t] = new long[numPaths];
+			final Object workerValues[][] = values[t] = new Object[numPaths][];
+			futures.add(executor.submit(() -> worker.samplePaths(initialState, maxPathLength, numPaths, workerLengths, workerValues)));
+		}
+		int numDone[] = new int[numWorkers];
+		try {
+			for (int t = 0; t < numWorkers; t++) {
+				numDone[t] = futures.get(t).get();
+			}
+		} catch (InterruptedException e) {
+			throw new PrismException("Parallel sampling was interrupted");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof PrismException) {
+				throw (PrismException) e.getCause();
+			}
+			throw new PrismException("Error during parallel sampling: " + e.getCause());
+		}
+		// Add paths one at a time (path p is path p / numWorkers of worker p % numWorkers)
+		int numProps = propertySamplers.size();
+		for (int p = 0; p < n; p++) {
+			int t = p % numWorkers;
+			int k = p / numWorkers;
+			if (k >= numDone[t]) {
+				return -1;
+			}
+			pathStats.add(lengths[t][k]);
+			for (int j = 0; j < numProps; j++) {
+				propertySamplers.get(j).updateStats(values[t][k][j]);
+			}
+			if (allSamplersDone(iters + p + 1)) {
+				return p + 1;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Create worker engines for parallel sampling of the currently loaded properties,
+	 * if more than one thread has been requested (via {@link PrismSettings#PRISM_NUM_THREADS}).
+	 * Each worker has its own copy of the model generator (see {@link ModelGenerator#createCopy()}),
+	 * its own path and samplers, and a random number generator seeded from the one of this engine.
+	 * Returns null if sampling should be done sequentially.
+	 */
+	private SimulatorEngine[] createSamplingWorkers() throws PrismException
+	{
+		int numThreads = (settings == null) ? 1 : settings.getInteger(PrismSettings.PRISM_NUM_THREADS);
+		if (numThreads <= 1) {
+			return null;
+		}
+		if (strategy != null) {
+			mainLog.printWarning("Parallel sampling is not supported for a loaded strategy; using a single thread");
+			return null;
+		}
+		SimulatorEngine workers[] = new SimulatorEngine[numThreads];
+		for (int t = 0; t < numThreads; t++) {
+			ModelGenerator workerGen = modelGen.createCopy();
+			if (workerGen == null) {
+				mainLog.printWarning("Model generator does not support parallel sampling; using a single thread");
+				return null;
+			}
+			// If the model generator also provides the rewards, use the copy for these too
+			RewardGenerator workerRewardGen = rewardGen;
+			if (rewardGen == modelGen && workerGen instanceof RewardGenerator) {
+				workerRewardGen = (RewardGenerator) workerGen;
+			}
+			SimulatorEngine worker = new SimulatorEngine(this);
+			worker.loadModel(workerGen, workerRewardGen);
+			worker.createNewOnTheFlyPath();
+			worker.rng = new RandomNumberGenerator(rng.randomUnifInt(Integer.MAX_VALUE));
+			// Properties have already been processed, so just create new samplers
+			for (Expression prop : properties) {
+				worker.properties.add(prop);
+				worker.propertySamplers.add(Sampler.createSampler(prop, workerGen, workerRewardGen));
+			}
+			workers[t] = worker;
+		}
+		return workers;
+	}
+
+	/**
+	 * Statistics about the lengths of sampled paths.
+	 */
+	private static class PathLengthStats
+	{
+		private long numPaths = 0;
+		private double sum = 0;
+		private long min = 0;
+		private long max = 0;
+
+		/** Add the length of a single path */
+		public void add(long length)
+		{
+			min = (numPaths == 0) ? length : Math.min(min, length);
+			max = (numPaths == 0) ? length : Math.max(max, length);
+			sum += length;
+			numPaths++;
+		}
+
+		/** Get the average path length */
+		public double getAverage()
+		{
+			return (numPaths == 0) ? 0 : sum / numPaths;
+		}
+	}
+
 	/**
 	 * Halt the sampling algorithm in its tracks (not implemented).
 	 */
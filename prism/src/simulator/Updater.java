@@ -29,7 +29,9 @@ package simulator;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 import parser.State;
@@ -45,6 +47,8 @@ import prism.PrismComponent;
 import prism.PrismException;
 import prism.PrismLangException;
 import prism.PrismSettings;
+import simulator.ExpressionCompiler.BooleanEvaluator;
+import simulator.ExpressionCompiler.DoubleEvaluator;
 
 public class Updater extends PrismComponent
 {
@@ -53,6 +57,8 @@ public class Updater extends PrismComponent
 	protected boolean doProbChecks = true;
 	// The precision to which we check probabilities sum to 1
 	protected double sumRoundOff = 1e-5;
+	// Do we compile guards/updates/rewards (rather than interpreting the AST)?
+	protected boolean compileExpressions = true;
 	
 	// Info on model being explored
 	protected ModulesFile modulesFile;
@@ -66,6 +72,38 @@ public class Updater extends PrismComponent
 	// Model info/stats
 	protected int numRewardStructs;
 
+	// Compiled model info (if compileExpressions is true):
+
+	// Element i,j of compiledGuards is the guard of the jth command of module i
+	protected BooleanEvaluator compiledGuards[][];
+	// Compiled probabilities/updates for each Updates object in the model
+	protected Map<Updates, CompiledUpdates> compiledUpdates;
+	// Element i,j of compiledRewardGuards/compiledRewards is the guard/reward of item j of reward struct i
+	protected BooleanEvaluator compiledRewardGuards[][];
+	protected DoubleEvaluator compiledRewards[][];
+
+	/**
+	 * Compiled version of an Updates object: probabilities and updates.
+	 */
+	protected static class CompiledUpdates
+	{
+		// Probabilities/rates (null denotes 1.0)
+		protected DoubleEvaluator probs[];
+		// Updates
+		protected CompiledUpdate updates[];
+
+		public CompiledUpdates(Updates ups)
+		{
+			int n = ups.getNumUpdates();
+			probs = new DoubleEvaluator[n];
+			updates = new CompiledUpdate[n];
+			for (int i = 0; i < n; i++) {
+				probs[i] = ups.getProbability(i) == null ? null : ExpressionCompiler.compileDouble(ups.getProbability(i));
+				updates[i] = new CompiledUpdate(ups.getUpdate(i));
+			}
+		}
+	}
+
 	// Temporary storage:
 
 	// Element i,j of updateLists is a list of the updates from module i labelled with action j
@@ -88,6 +126,7 @@ public class Updater extends PrismComponent
 		// Store some settings
 		doProbChecks = parent.getSettings().getBoolean(PrismSettings.PRISM_DO_PROB_CHECKS);
 		sumRoundOff = parent.getSettings().getDouble(PrismSettings.PRISM_SUM_ROUND_OFF);
+		compileExpressions = parent.getSettings().getBoolean(PrismSettings.PRISM_COMPILE_EXPRESSIONS);
 		
 		// Get info from model
 		this.modulesFile = modulesFile;
@@ -128,6 +167,43 @@ public class Updater extends PrismComponent
 		for (int j = 0; j < numSynchs + 1; j++) {
 			enabledModules[j] = new BitSet(numModules);
 		}
+
+		// Compile guards/updates/rewards, if required
+		if (compileExpressions) {
+			compileModel();
+		}
+	}
+
+	/**
+	 * Compile the guards, probabilities, updates and rewards of the model
+	 * (which is assumed to have had all constants replaced with their values).
+	 */
+	private void compileModel()
+	{
+		compiledGuards = new BooleanEvaluator[numModules][];
+		compiledUpdates = new IdentityHashMap<Updates, CompiledUpdates>();
+		for (int i = 0; i < numModules; i++) {
+			Module module = modulesFile.getModule(i);
+			int n = module.getNumCommands();
+			compiledGuards[i] = new BooleanEvaluator[n];
+			for (int j = 0; j < n; j++) {
+				Command command = module.getCommand(j);
+				compiledGuards[i][j] = ExpressionCompiler.compileBoolean(command.getGuard());
+				compiledUpdates.put(command.getUpdates(), new CompiledUpdates(command.getUpdates()));
+			}
+		}
+		compiledRewardGuards = new BooleanEvaluator[numRewardStructs][];
+		compiledRewards = new DoubleEvaluator[numRewardStructs][];
+		for (int i = 0; i < numRewardStructs; i++) {
+			RewardStruct rw = modulesFile.getRewardStruct(i);
+			int n = rw.getNumItems();
+			compiledRewardGuards[i] = new BooleanEvaluator[n];
+			compiledRewards[i] = new DoubleEvaluator[n];
+			for (int j = 0; j < n; j++) {
+				compiledRewardGuards[i][j] = ExpressionCompiler.compileBoolean(rw.getStates(j));
+				compiledRewards[i][j] = ExpressionCompiler.compileDouble(rw.getReward(j));
+			}
+		}
 	}
 
 	/**
@@ -277,8 +353,8 @@ public class Updater extends PrismComponent
 			d = 0.0;
 			for (j = 0; j < n; j++) {
 				if (!rw.getRewardStructItem(j).isTransitionReward())
-					if (rw.getStates(j).evaluateBoolean(state))
-						d += rw.getReward(j).evaluateDouble(state);
+					if (evaluateRewardGuard(i, j, state))
+						d += evaluateReward(i, j, state);
 			}
 			store[i] = d;
 		}
@@ -302,13 +378,35 @@ public class Updater extends PrismComponent
 			for (j = 0; j < n; j++) {
 				if (rw.getRewardStructItem(j).isTransitionReward())
 					if (rw.getRewardStructItem(j).getSynchIndex() == Math.max(0, ch.getModuleOrActionIndex()))
-						if (rw.getStates(j).evaluateBoolean(state))
-							d += rw.getReward(j).evaluateDouble(state);
+						if (evaluateRewardGuard(i, j, state))
+							d += evaluateReward(i, j, state);
 			}
 			store[i] = d;
 		}
 	}
 	
+	/**
+	 * Evaluate the guard (states predicate) of the {@code j}th item of the {@code r}th reward struct in a state.
+	 */
+	public boolean evaluateRewardGuard(int r, int j, State state) throws PrismLangException
+	{
+		if (compileExpressions)
+			return compiledRewardGuards[r][j].evaluate(state);
+		else
+			return modulesFile.getRewardStruct(r).getStates(j).evaluateBoolean(state);
+	}
+
+	/**
+	 * Evaluate the reward of the {@code j}th item of the {@code r}th reward struct in a state.
+	 */
+	public double evaluateReward(int r, int j, State state) throws PrismLangException
+	{
+		if (compileExpressions)
+			return compiledRewards[r][j].evaluate(state);
+		else
+			return modulesFile.getRewardStruct(r).getReward(j).evaluateDouble(state);
+	}
+
 	// Private helpers
 	
 	/**
@@ -327,7 +425,7 @@ public class Updater extends PrismComponent
 		n = module.getNumCommands();
 		for (i = 0; i < n; i++) {
 			command = module.getCommand(i);
-			if (command.getGuard().evaluateBoolean(state)) {
+			if (compileExpressions ? compiledGuards[m][i].evaluate(state) : command.getGuard().evaluateBoolean(state)) {
 				j = command.getSynchIndex();
 				updateLists.get(m).get(j).add(command.getUpdates());
 				enabledSynchs.set(j);
@@ -347,6 +445,7 @@ public class Updater extends PrismComponent
 	private ChoiceListFlexi processUpdatesAndCreateNewChoice(int moduleOrActionIndex, Updates ups, State state) throws PrismLangException
 	{
 		ChoiceListFlexi ch;
+		CompiledUpdates cups;
 		List<Update> list;
 		int i, n;
 		double p, sum;
@@ -354,11 +453,15 @@ public class Updater extends PrismComponent
 		// Create choice and add all info
 		ch = new ChoiceListFlexi();
 		ch.setModuleOrActionIndex(moduleOrActionIndex);
+		cups = compileExpressions ? compiledUpdates.get(ups) : null;
 		n = ups.getNumUpdates();
 		sum = 0;
 		for (i = 0; i < n; i++) {
 			// Compute probability/rate
-			p = ups.getProbabilityInState(i, state);
+			if (cups != null)
+				p = cups.probs[i] == null ? 1.0 : cups.probs[i].evaluate(state);
+			else
+				p = ups.getProbabilityInState(i, state);
 			// Check for negative/NaN probabilities/rates
 			if (Double.isNaN(p) || p < 0) {
 				String s = modelType.choicesSumToOne() ? "Probability" : "Rate";
@@ -373,7 +476,13 @@ public class Updater extends PrismComponent
 			sum += p;
 			list = new ArrayList<Update>();
 			list.add(ups.getUpdate(i));
-			ch.add(p, list);
+			if (cups != null) {
+				List<CompiledUpdate> listCompiled = new ArrayList<CompiledUpdate>();
+				listCompiled.add(cups.updates[i]);
+				ch.add(p, list, listCompiled);
+			} else {
+				ch.add(p, list);
+			}
 		}
 		// For now, PRISM treats empty (all zero probs/rates) distributions as an error.
 		// Later, when errors in symbolic model construction are improved, this might be relaxed.
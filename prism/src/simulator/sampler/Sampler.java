@@ -93,6 +93,13 @@ public abstract class Sampler
 	 */
 	public abstract void updateStats();
 
+	/**
+	 * Update the statistics for the sampler with the value of a finished path,
+	 * as returned by {@link #getCurrentValue()} of a sampler for the same property
+	 * (e.g. for a path that was sampled by another thread).
+	 */
+	public abstract void updateStats(Object value);
+
 	/**
 	 * Get the current value of the sampler.
 	 */
@@ -69,6 +69,15 @@ public abstract class SamplerBoolean extends Sampler
 			numTrue++;
 	}
 
+	@Override
+	public void updateStats(Object value)
+	{
+		numSamples++;
+		// (value is the actual one, i.e. already negated if required)
+		if ((Boolean) value)
+			numTrue++;
+	}
+
 	@Override
 	public Object getCurrentValue()
 	{
@@ -81,12 +81,26 @@ public abstract class SamplerDouble extends Sampler
 
 	@Override
 	public void updateStats()
+	{
+		addValue(value);
+	}
+
+	@Override
+	public void updateStats(Object value)
+	{
+		addValue((Double) value);
+	}
+
+	/**
+	 * Update the statistics with the value {@code x} of a finished path.
+	 */
+	private void addValue(double x)
 	{
 		if (numSamples == 0)
-			correctionTerm = value;
-		valueSum += value;
-		valueSumShifted += value - correctionTerm;
-		valueSumShiftedSq += Math.pow(value - correctionTerm, 2);
+			correctionTerm = x;
+		valueSum += x;
+		valueSumShifted += x - correctionTerm;
+		valueSumShiftedSq += Math.pow(x - correctionTerm, 2);
 		numSamples++;
 	}
 